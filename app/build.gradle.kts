@@ -34,6 +34,18 @@ android {
     buildFeatures {
         viewBinding = true
     }
+
+    // Unit test JVM menjalankan kode produksi yang menulis ke android.util.Log (RoboflowAPI,
+    // PipelineStage, ResultStore, InferenceHttpClient); stub Log cukup mengembalikan 0.
+    // Pengujian tidak boleh menegaskan nilai dari kelas android.* lain (RectF, Bitmap, ...)
+    // karena stub tersebut juga hanya mengembalikan nilai bawaan.
+    testOptions {
+        unitTests.isReturnDefaultValues = true
+        // Benchmark host (lihat Benchmark di source set test) hanya berjalan dengan -Pbenchmark
+        unitTests.all {
+            it.systemProperty("cohia.benchmark", project.hasProperty("benchmark").toString())
+        }
+    }
 }
 
 dependencies {
@@ -55,6 +67,9 @@ dependencies {
     // TAMBAHAN BARU: Gson untuk JSON parsing
     implementation("com.google.code.gson:gson:2.10.1")
 
+    // ExifInterface untuk membaca orientasi foto kamera/galeri dari InputStream
+    implementation("androidx.exifinterface:exifinterface:1.3.7")
+
     // TAMBAHAN BARU: CardView untuk UI yang lebih baik
     implementation("androidx.cardview:cardview:1.0.0")
 
@@ -66,6 +81,8 @@ dependencies {
 
     // Dependensi untuk testing
     testImplementation("junit:junit:4.13.2")
+    testImplementation("com.squareup.okhttp3:mockwebserver:4.12.0")
+    testImplementation("com.squareup.okhttp3:okhttp-tls:4.12.0")
     androidTestImplementation("androidx.test.ext:junit:1.1.5")
     androidTestImplementation("androidx.test.espresso:espresso-core:3.5.1")
 }
\ No newline at end of file
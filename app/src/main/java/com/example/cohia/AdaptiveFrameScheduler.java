@@ -0,0 +1,135 @@
+package com.example.cohia;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Penjadwal analisis live yang menyesuaikan laju berdasarkan round-trip time dan error (AIMD).
+ *
+ * <ul>
+ *     <li>Setiap hasil sukses yang tidak menandakan antrean (RTT x laju <= batas konkurensi)
+ *     menaikkan laju secara aditif.</li>
+ *     <li>Error, atau RTT yang membuat request mulai menumpuk, menurunkan laju secara
+ *     multiplikatif.</li>
+ * </ul>
+ * Laju selalu dijaga di antara {@code 1 / maxInterval} dan {@code 1 / minInterval}, sehingga
+ * Wi-Fi cepat dimanfaatkan penuh, sedangkan koneksi lambat tidak dibanjiri request.
+ */
+public class AdaptiveFrameScheduler implements FrameScheduler {
+
+    /**
+     * Batas dan parameter AIMD.
+     */
+    public static class Config {
+        /** Jeda tercepat antar analisis. */
+        public long minIntervalMillis = 300;
+        /** Jeda terlambat antar analisis. */
+        public long maxIntervalMillis = 5000;
+        /** Jeda awal, sama dengan throttle tetap sebelumnya. */
+        public long initialIntervalMillis = 1500;
+        /** Kenaikan laju (Hz) setiap hasil sukses. */
+        public double additiveIncreaseHz = 0.1;
+        /** Faktor pengali laju saat error atau antrean terdeteksi. */
+        public double multiplicativeDecrease = 0.5;
+        /** Rata-rata request berjalan (RTT x laju) yang masih dianggap sehat. */
+        public double maxConcurrency = 1.0;
+        /** Bobot EWMA untuk RTT dan tingkat error. */
+        public double smoothing = 0.2;
+    }
+
+    private final MonotonicClock clock;
+    private final double minRateHz;
+    private final double maxRateHz;
+    private final double additiveIncreaseHz;
+    private final double multiplicativeDecrease;
+    private final double maxConcurrency;
+    private final double smoothing;
+
+    private double rateHz;
+    private long lastStartNanos;
+    private boolean started = false;
+    private double smoothedRttMillis = -1;
+    private double errorRate = 0;
+
+    public AdaptiveFrameScheduler(MonotonicClock clock) {
+        this(new Config(), clock);
+    }
+
+    public AdaptiveFrameScheduler(Config config, MonotonicClock clock) {
+        if (config.minIntervalMillis <= 0 || config.maxIntervalMillis < config.minIntervalMillis) {
+            throw new IllegalArgumentException("Batas interval tidak valid");
+        }
+        this.clock = clock;
+        this.minRateHz = 1000.0 / config.maxIntervalMillis;
+        this.maxRateHz = 1000.0 / config.minIntervalMillis;
+        this.additiveIncreaseHz = config.additiveIncreaseHz;
+        this.multiplicativeDecrease = config.multiplicativeDecrease;
+        this.maxConcurrency = config.maxConcurrency;
+        this.smoothing = config.smoothing;
+        this.rateHz = clampRate(1000.0 / config.initialIntervalMillis);
+    }
+
+    @Override
+    public synchronized long tryAcquire() {
+        long now = clock.nanoTime();
+        if (started && now - lastStartNanos < intervalNanos()) {
+            return NOT_NOW;
+        }
+        started = true;
+        lastStartNanos = now;
+        return now;
+    }
+
+    @Override
+    public synchronized void onSuccess(long startNanos) {
+        double rttMillis = (clock.nanoTime() - startNanos) / 1e6;
+        smoothedRttMillis = smoothedRttMillis < 0
+                ? rttMillis
+                : smoothedRttMillis + smoothing * (rttMillis - smoothedRttMillis);
+        errorRate -= smoothing * errorRate;
+
+        // Jumlah request yang rata-rata berjalan bersamaan pada laju sekarang
+        double concurrency = rttMillis / 1000.0 * rateHz;
+        if (concurrency > maxConcurrency) {
+            rateHz = clampRate(rateHz * multiplicativeDecrease);
+        } else {
+            rateHz = clampRate(rateHz + additiveIncreaseHz);
+        }
+    }
+
+    @Override
+    public synchronized void onFailure(long startNanos) {
+        errorRate += smoothing * (1 - errorRate);
+        rateHz = clampRate(rateHz * multiplicativeDecrease);
+    }
+
+    @Override
+    public synchronized double getRateHz() {
+        return rateHz;
+    }
+
+    public synchronized long getIntervalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(intervalNanos());
+    }
+
+    /**
+     * @return RTT rata-rata (EWMA) dalam milidetik, atau -1 jika belum ada hasil.
+     */
+    public synchronized double getSmoothedRttMillis() {
+        return smoothedRttMillis;
+    }
+
+    /**
+     * @return Tingkat error rata-rata (EWMA) antara 0 dan 1.
+     */
+    public synchronized double getErrorRate() {
+        return errorRate;
+    }
+
+    private long intervalNanos() {
+        return (long) (1e9 / rateHz);
+    }
+
+    private double clampRate(double rate) {
+        return Math.max(minRateHz, Math.min(maxRateHz, rate));
+    }
+}
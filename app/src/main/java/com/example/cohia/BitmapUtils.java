@@ -4,9 +4,11 @@ import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.PorterDuff;
 import android.graphics.RectF;
 import android.util.Base64;
 
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
 import com.example.cohia.api.RoboflowAPI;
 
 import java.io.ByteArrayOutputStream;
@@ -18,6 +20,13 @@ import java.util.Locale;
  */
 public class BitmapUtils {
 
+    // Ukuran perantara untuk hash perseptual; kelipatan grid 9x8 agar rata-rata area merata.
+    private static final int HASH_SAMPLE_WIDTH = 72;
+    private static final int HASH_SAMPLE_HEIGHT = 64;
+    private static final int JPEG_QUALITY = 90;
+    // Perkiraan awal ukuran JPEG kualitas 90 terhadap ukuran ARGB; buffer diperbesar bila kurang
+    private static final int JPEG_SIZE_DIVISOR = 12;
+
     // Membuat constructor private untuk mencegah instansiasi kelas utilitas.
     private BitmapUtils() {}
 
@@ -27,24 +36,86 @@ public class BitmapUtils {
      * @return String Base64 yang merepresentasikan gambar.
      */
     public static String toBase64(Bitmap bitmap) {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        // Mengompres bitmap ke format JPEG dengan kualitas 90.
-        bitmap.compress(Bitmap.CompressFormat.JPEG, 90, byteArrayOutputStream);
-        byte[] byteArray = byteArrayOutputStream.toByteArray();
+        byte[] byteArray = toJpeg(bitmap);
         // Meng-encode byte array menjadi string Base64.
         return Base64.encodeToString(byteArray, Base64.DEFAULT);
     }
 
+    /**
+     * Mengompres Bitmap menjadi byte JPEG dengan kualitas 90.
+     * @param bitmap Bitmap yang akan dikompres.
+     * @return Byte JPEG hasil kompresi.
+     */
+    public static byte[] toJpeg(Bitmap bitmap) {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, byteArrayOutputStream);
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    /**
+     * Mengompres Bitmap menjadi JPEG kualitas 90 ke buffer dari pool, tanpa salinan
+     * {@code toByteArray()}. Pemanggil (atau penerima buffer) wajib memanggil
+     * {@link PooledByteArrayOutputStream#release()}.
+     * @param bitmap Bitmap yang akan dikompres.
+     * @param pool Pool buffer yang dipakai ulang antar frame.
+     * @return Buffer berisi byte JPEG sepanjang {@link PooledByteArrayOutputStream#size()}.
+     */
+    public static PooledByteArrayOutputStream toJpeg(Bitmap bitmap, ByteArrayPool pool) {
+        PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(pool,
+                bitmap.getByteCount() / JPEG_SIZE_DIVISOR);
+        bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+        return out;
+    }
+
+    /**
+     * Menghitung hash perseptual (dHash) dari Bitmap untuk kunci {@link PerceptualHashCache}.
+     * @param bitmap Bitmap sumber; tidak diubah.
+     * @return Hash 64-bit.
+     */
+    public static long perceptualHash(Bitmap bitmap) {
+        Bitmap small = Bitmap.createScaledBitmap(bitmap, HASH_SAMPLE_WIDTH, HASH_SAMPLE_HEIGHT, true);
+        int[] pixels = new int[HASH_SAMPLE_WIDTH * HASH_SAMPLE_HEIGHT];
+        small.getPixels(pixels, 0, HASH_SAMPLE_WIDTH, 0, 0, HASH_SAMPLE_WIDTH, HASH_SAMPLE_HEIGHT);
+        if (small != bitmap) {
+            small.recycle();
+        }
+        return PerceptualHash.fromArgb(pixels, HASH_SAMPLE_WIDTH, HASH_SAMPLE_HEIGHT,
+                new int[PerceptualHash.GRID_WIDTH * PerceptualHash.GRID_HEIGHT]);
+    }
+
     /**
      * Menggambar bounding box dan label kelas pada Bitmap berdasarkan daftar prediksi.
      * @param bitmap Bitmap asli tempat menggambar.
-     * @param predictions Daftar objek Prediksi yang berisi data bounding box dan kelas.
+     * @param predictions Daftar objek Prediksi dengan bounding box dalam koordinat piksel bitmap.
      * @return Bitmap baru dengan bounding box dan label yang sudah digambar.
      */
     public static Bitmap drawBoundingBoxes(Bitmap bitmap, List<RoboflowAPI.Prediction> predictions) {
         // Membuat salinan bitmap yang bisa diubah (mutable).
         Bitmap mutableBitmap = bitmap.copy(Bitmap.Config.ARGB_8888, true);
-        Canvas canvas = new Canvas(mutableBitmap);
+        drawBoundingBoxes(new Canvas(mutableBitmap), predictions);
+        return mutableBitmap;
+    }
+
+    /**
+     * Sama dengan {@link #drawBoundingBoxes(Bitmap, List)}, tetapi salinannya memakai Bitmap
+     * dari pool sehingga tidak ada alokasi baru jika ukuran yang sama pernah dikembalikan.
+     * @param pool Pool tempat Bitmap hasil diambil; kembalikan ke pool setelah tidak dipakai.
+     * @return Bitmap dari pool dengan bounding box dan label yang sudah digambar.
+     */
+    public static Bitmap drawBoundingBoxes(Bitmap bitmap, List<RoboflowAPI.Prediction> predictions,
+                                           BitmapPool pool) {
+        // getDirty aman: seluruh piksel ditimpa sumber (sumber transparan dibersihkan dulu)
+        Bitmap target = pool.getDirty(bitmap.getWidth(), bitmap.getHeight(), Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(target);
+        if (bitmap.hasAlpha()) {
+            canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+        }
+        canvas.drawBitmap(bitmap, 0f, 0f, null);
+        drawBoundingBoxes(canvas, predictions);
+        return target;
+    }
+
+    private static void drawBoundingBoxes(Canvas canvas, List<RoboflowAPI.Prediction> predictions) {
 
         // Pengaturan untuk kuas (Paint) kotak.
         Paint boxPaint = new Paint();
@@ -65,17 +136,12 @@ public class BitmapUtils {
 
         // Looping melalui setiap prediksi.
         for (RoboflowAPI.Prediction prediction : predictions) {
-            // Koordinat dari Roboflow adalah dalam bentuk normal (0-1).
-            // Kita perlu mengubahnya menjadi skala piksel dari bitmap.
-            float left = prediction.boundingBox.left * bitmap.getWidth();
-            float top = prediction.boundingBox.top * bitmap.getHeight();
-            float right = prediction.boundingBox.right * bitmap.getWidth();
-            float bottom = prediction.boundingBox.bottom * bitmap.getHeight();
-
-            RectF scaledBox = new RectF(left, top, right, bottom);
+            // Koordinat sudah dalam piksel bitmap asli (lihat ModelInputTransform.toSource).
+            float left = prediction.boundingBox.left;
+            float top = prediction.boundingBox.top;
 
             // Menggambar kotak pada canvas.
-            canvas.drawRect(scaledBox, boxPaint);
+            canvas.drawRect(prediction.boundingBox, boxPaint);
 
             // Membuat teks label (Kelas + Confidence).
             String label = String.format(Locale.US, "%s %.1f%%",
@@ -96,7 +162,5 @@ public class BitmapUtils {
             // Menggambar teks label di atas kotak.
             canvas.drawText(label, left + 5f, top - 10f, textPaint); // Menambahkan sedikit padding ke teks
         }
-
-        return mutableBitmap;
     }
 }
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.example.cohia;
+
+import android.content.ComponentCallbacks2;
+
+import java.util.ArrayDeque;
+
+/**
+ * Pool array byte berkelas ukuran (pangkat dua) dengan batas memori total, untuk buffer JPEG
+ * yang dibuat setiap frame analisis. Pasangannya untuk Bitmap adalah {@code BitmapPool} Glide.
+ *
+ * Array yang dikembalikan {@link #get(int)} bisa lebih panjang dari yang diminta dan isinya
+ * tidak dibersihkan. Saat total array yang tersimpan melebihi batas, array yang paling lama
+ * dikembalikan dibuang lebih dulu. Semua method thread-safe, karena buffer biasanya dilepas
+ * dari thread OkHttp.
+ */
+public class ByteArrayPool {
+
+    // Kelas terkecil; permintaan yang lebih kecil tetap mendapat array 4 KB
+    static final int MIN_ARRAY_BYTES = 4096;
+
+    private final long maxBytes;
+    // Indeks = log2 panjang array
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<byte[]>[] free = new ArrayDeque[31];
+    // Urutan pengembalian lintas kelas: elemen pertama dibuang lebih dulu
+    private final ArrayDeque<byte[]> returnOrder = new ArrayDeque<>();
+    private long pooledBytes = 0;
+
+    private long allocationCount = 0;
+    private long reuseCount = 0;
+    private long evictionCount = 0;
+
+    /**
+     * @param maxBytes Batas ukuran total array yang disimpan di pool.
+     */
+    public ByteArrayPool(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes harus positif: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return Array dengan panjang minimal {@code minLength} (pangkat dua), dari pool jika ada.
+     */
+    public synchronized byte[] get(int minLength) {
+        int size = classSize(minLength);
+        ArrayDeque<byte[]> bucket = free[Integer.numberOfTrailingZeros(size)];
+        byte[] array = bucket != null ? bucket.pollLast() : null;
+        if (array == null) {
+            allocationCount++;
+            return new byte[size];
+        }
+        returnOrder.removeFirstOccurrence(array);
+        pooledBytes -= array.length;
+        reuseCount++;
+        return array;
+    }
+
+    /**
+     * Mengembalikan array ke pool. Array yang panjangnya bukan kelas pool atau lebih besar
+     * dari batas pool diabaikan. Pemanggil tidak boleh memakai array ini lagi.
+     */
+    public synchronized void put(byte[] array) {
+        int length = array.length;
+        if (length < MIN_ARRAY_BYTES || Integer.bitCount(length) != 1 || length > maxBytes) {
+            return;
+        }
+        int index = Integer.numberOfTrailingZeros(length);
+        if (free[index] == null) {
+            free[index] = new ArrayDeque<>();
+        }
+        free[index].addLast(array);
+        returnOrder.addLast(array);
+        pooledBytes += length;
+        trimToSize(maxBytes);
+    }
+
+    /**
+     * Membuang array yang paling lama dikembalikan sampai total di bawah {@code targetBytes}.
+     */
+    public synchronized void trimToSize(long targetBytes) {
+        while (pooledBytes > targetBytes) {
+            byte[] eldest = returnOrder.pollFirst();
+            free[Integer.numberOfTrailingZeros(eldest.length)].removeFirstOccurrence(eldest);
+            pooledBytes -= eldest.length;
+            evictionCount++;
+        }
+    }
+
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    /**
+     * Mengikuti kebijakan {@code LruBitmapPool} Glide untuk callback {@code onTrimMemory}.
+     */
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            trimToSize(maxBytes / 2);
+        }
+    }
+
+    /**
+     * @return Ukuran total array yang sedang tersimpan di pool dalam byte.
+     */
+    public synchronized long getPooledBytes() {
+        return pooledBytes;
+    }
+
+    /**
+     * @return Jumlah array baru yang dialokasikan karena pool kosong untuk kelas tersebut.
+     */
+    public synchronized long getAllocationCount() {
+        return allocationCount;
+    }
+
+    public synchronized long getReuseCount() {
+        return reuseCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return Kelas ukuran (pangkat dua, minimal {@link #MIN_ARRAY_BYTES}) untuk panjang ini.
+     */
+    static int classSize(int minLength) {
+        if (minLength < 0 || minLength > (1 << 30)) {
+            throw new IllegalArgumentException("Panjang array tidak valid: " + minLength);
+        }
+        if (minLength <= MIN_ARRAY_BYTES) {
+            return MIN_ARRAY_BYTES;
+        }
+        return Integer.highestOneBit(minLength - 1) << 1;
+    }
+}
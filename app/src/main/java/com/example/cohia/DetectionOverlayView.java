@@ -0,0 +1,287 @@
+package com.example.cohia;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.cohia.api.ClassRegistry;
+import com.example.cohia.api.RoboflowAPI;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lapisan transparan di atas {@code PreviewView} yang menggambar bounding box dan label deteksi
+ * live langsung di {@link #onDraw(Canvas)}, tanpa menyalin bitmap.
+ *
+ * Prediksi terakhir disalin ke array yang sudah dialokasikan, Paint dan RectF dipakai ulang,
+ * dan string label di-cache per kelas dan persepuluhan persen. Pada kondisi stabil
+ * {@link #setDetections(List)} dan {@code onDraw} tidak mengalokasikan apa pun.
+ *
+ * Jika {@link #setTracker} dipasang, posisi kotak diambil dari {@link ObjectTracker} pada setiap
+ * frame tampilan sehingga kotak bergerak mulus di antara hasil server.
+ *
+ * Semua method harus dipanggil dari UI thread.
+ */
+public class DetectionOverlayView extends View {
+
+    public static final int MAX_DETECTIONS = 32;
+
+    private static final float BOX_STROKE_DP = 3f;
+    private static final float LABEL_TEXT_SP = 14f;
+    private static final float LABEL_PADDING_DP = 4f;
+
+    // Koordinat dalam ruang gambar analisis: left, top, right, bottom per deteksi
+    private final float[] boxes = new float[MAX_DETECTIONS * 4];
+    private final String[] labels = new String[MAX_DETECTIONS];
+    private int count = 0;
+
+    // Mode pelacak: snapshot diambil setiap onDraw
+    @Nullable
+    private ObjectTracker tracker;
+    private ClassRegistry classRegistry;
+    private MonotonicClock clock = MonotonicClock.SYSTEM;
+    private final LatencyTracer tracer = LatencyTracer.getInstance();
+    private final float[] trackConfidences = new float[MAX_DETECTIONS];
+    private final int[] trackClassIds = new int[MAX_DETECTIONS];
+    private final int[] trackIds = new int[MAX_DETECTIONS];
+
+    // Label per kelas, diindeks confidence dalam persepuluhan persen (0..1000)
+    private final Map<String, String[]> labelCache = new HashMap<>();
+
+    private final OverlayTransform transform = new OverlayTransform();
+    // Kotak hasil pemetaan; boxes tidak ditimpa karena dipakai lagi pada draw berikutnya
+    private final float[] mappedBox = new float[4];
+    private final RectF box = new RectF();
+    private final RectF labelBackground = new RectF();
+    private final Paint boxPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint labelBackgroundPaint = new Paint();
+    private final float labelPadding;
+
+    // Geometri gambar sumber
+    private int cropLeft, cropTop, cropRight, cropBottom;
+    private int rotationDegrees;
+    private boolean mirrored;
+    private boolean fill = true;
+    private boolean transformDirty = true;
+
+    public DetectionOverlayView(Context context) {
+        this(context, null);
+    }
+
+    public DetectionOverlayView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        boxPaint.setStyle(Paint.Style.STROKE);
+        boxPaint.setStrokeWidth(dp(BOX_STROKE_DP));
+        boxPaint.setColor(Color.RED);
+
+        textPaint.setColor(Color.WHITE);
+        textPaint.setStyle(Paint.Style.FILL);
+        textPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, LABEL_TEXT_SP,
+                getResources().getDisplayMetrics()));
+
+        labelBackgroundPaint.setColor(Color.RED);
+        labelBackgroundPaint.setStyle(Paint.Style.FILL);
+        labelPadding = dp(LABEL_PADDING_DP);
+    }
+
+    /**
+     * Mengatur geometri gambar yang koordinat prediksinya dipakai. Tidak melakukan apa-apa jika
+     * tidak berubah, jadi aman dipanggil setiap hasil.
+     *
+     * @param width           Lebar buffer analisis (sebelum rotasi).
+     * @param height          Tinggi buffer analisis.
+     * @param rotationDegrees Dari {@code ImageInfo.getRotationDegrees()}.
+     * @param mirrored        true untuk kamera depan.
+     */
+    public void setSourceGeometry(int width, int height, int rotationDegrees, boolean mirrored) {
+        setSourceGeometry(0, 0, width, height, rotationDegrees, mirrored);
+    }
+
+    /**
+     * Seperti {@link #setSourceGeometry(int, int, int, boolean)}, dengan crop rect
+     * ({@code ImageProxy.getCropRect()}) jika ViewPort memotong gambar analisis.
+     */
+    public void setSourceGeometry(int cropLeft, int cropTop, int cropRight, int cropBottom,
+                                  int rotationDegrees, boolean mirrored) {
+        if (cropLeft == this.cropLeft && cropTop == this.cropTop && cropRight == this.cropRight
+                && cropBottom == this.cropBottom && rotationDegrees == this.rotationDegrees
+                && mirrored == this.mirrored) {
+            return;
+        }
+        this.cropLeft = cropLeft;
+        this.cropTop = cropTop;
+        this.cropRight = cropRight;
+        this.cropBottom = cropBottom;
+        this.rotationDegrees = rotationDegrees;
+        this.mirrored = mirrored;
+        transformDirty = true;
+        invalidate();
+    }
+
+    /**
+     * @param fill true jika View di bawahnya memakai FILL_CENTER (bawaan PreviewView),
+     *             false untuk FIT_CENTER.
+     */
+    public void setFillCenter(boolean fill) {
+        if (this.fill != fill) {
+            this.fill = fill;
+            transformDirty = true;
+            invalidate();
+        }
+    }
+
+    /**
+     * Menampilkan track dari {@code tracker} alih-alih deteksi statis. Kapasitas tracker tidak
+     * boleh melebihi {@link #MAX_DETECTIONS}. Panggil {@link #invalidate()} setelah tracker
+     * menerima hasil baru; selama ada track yang bergerak, View menggambar ulang setiap frame
+     * tampilan, dan berhenti setelah semua track kedaluwarsa.
+     *
+     * @param tracker  Pelacak, atau null untuk kembali ke {@link #setDetections(List)}.
+     * @param registry Registry untuk nama kelas pada label.
+     * @param clock    Jam yang sama dengan timestamp yang diberikan ke tracker.
+     */
+    public void setTracker(@Nullable ObjectTracker tracker, @NonNull ClassRegistry registry,
+                           @NonNull MonotonicClock clock) {
+        if (tracker != null && tracker.getCapacity() > MAX_DETECTIONS) {
+            throw new IllegalArgumentException("Kapasitas tracker melebihi " + MAX_DETECTIONS);
+        }
+        this.tracker = tracker;
+        this.classRegistry = registry;
+        this.clock = clock;
+        invalidate();
+    }
+
+    /**
+     * Mengganti deteksi yang ditampilkan. Hanya {@link #MAX_DETECTIONS} pertama yang digambar.
+     *
+     * @param predictions Bounding box dalam koordinat piksel gambar analisis.
+     */
+    public void setDetections(@NonNull List<RoboflowAPI.Prediction> predictions) {
+        int n = Math.min(predictions.size(), MAX_DETECTIONS);
+        for (int i = 0; i < n; i++) {
+            RoboflowAPI.Prediction prediction = predictions.get(i);
+            int o = i * 4;
+            boxes[o] = prediction.boundingBox.left;
+            boxes[o + 1] = prediction.boundingBox.top;
+            boxes[o + 2] = prediction.boundingBox.right;
+            boxes[o + 3] = prediction.boundingBox.bottom;
+            labels[i] = label(prediction.className, prediction.confidence);
+        }
+        for (int i = n; i < count; i++) {
+            labels[i] = null;
+        }
+        if (n == 0 && count == 0) {
+            return;
+        }
+        count = n;
+        invalidate();
+    }
+
+    public void clear() {
+        if (tracker != null) {
+            tracker.clear();
+            invalidate();
+        }
+        if (count > 0) {
+            for (int i = 0; i < count; i++) {
+                labels[i] = null;
+            }
+            count = 0;
+            invalidate();
+        }
+    }
+
+    public int getDetectionCount() {
+        return count;
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        transformDirty = true;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (tracker != null) {
+            long now = clock.nanoTime();
+            count = tracker.snapshot(now, boxes, trackConfidences, trackClassIds, trackIds);
+            for (int i = 0; i < count; i++) {
+                labels[i] = label(classRegistry.nameOf(trackClassIds[i]), trackConfidences[i]);
+            }
+            if (tracker.isExtrapolating(now)) {
+                // Ekstrapolasi berlanjut pada frame tampilan berikutnya
+                postInvalidateOnAnimation();
+            } else if (count > 0) {
+                // Kotak diam: cukup digambar ulang saat track tertua kedaluwarsa
+                postInvalidateDelayed(TimeUnit.NANOSECONDS.toMillis(tracker.nanosUntilNextExpiry(now)) + 1);
+            }
+        }
+        if (count == 0 || cropRight <= cropLeft || cropBottom <= cropTop
+                || getWidth() == 0 || getHeight() == 0) {
+            return;
+        }
+        long drawStart = tracer.start();
+        if (transformDirty) {
+            transform.set(cropLeft, cropTop, cropRight, cropBottom, rotationDegrees, mirrored,
+                    getWidth(), getHeight(), fill);
+            transformDirty = false;
+        }
+
+        float textHeight = textPaint.descent() - textPaint.ascent();
+        for (int i = 0; i < count; i++) {
+            int o = i * 4;
+            transform.mapBox(boxes, o, mappedBox, 0);
+            box.set(mappedBox[0], mappedBox[1], mappedBox[2], mappedBox[3]);
+            canvas.drawRect(box, boxPaint);
+
+            // Label di atas kotak; digeser ke dalam kotak jika terpotong tepi atas View
+            String label = labels[i];
+            float labelWidth = textPaint.measureText(label) + 2 * labelPadding;
+            float labelTop = box.top - textHeight - labelPadding;
+            if (labelTop < 0) {
+                labelTop = box.top;
+            }
+            labelBackground.set(box.left, labelTop, box.left + labelWidth, labelTop + textHeight + labelPadding);
+            canvas.drawRect(labelBackground, labelBackgroundPaint);
+            canvas.drawText(label, box.left + labelPadding, labelTop + labelPadding / 2 - textPaint.ascent(), textPaint);
+        }
+        tracer.record(LatencyTracer.Stage.OVERLAY_DRAW, drawStart);
+    }
+
+    /**
+     * @return Label "kelas xx.x%" dari cache; string baru hanya dibuat sekali per kombinasi.
+     */
+    private String label(String className, float confidence) {
+        int tenths = Math.round(Math.max(0f, Math.min(1f, confidence)) * 1000);
+        String[] byConfidence = labelCache.get(className);
+        if (byConfidence == null) {
+            byConfidence = new String[1001];
+            labelCache.put(className, byConfidence);
+        }
+        String label = byConfidence[tenths];
+        if (label == null) {
+            label = String.format(Locale.US, "%s %.1f%%", className, tenths / 10f);
+            byConfidence[tenths] = label;
+        }
+        return label;
+    }
+
+    private float dp(float value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, value, getResources().getDisplayMetrics());
+    }
+}
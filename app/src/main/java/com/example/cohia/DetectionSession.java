@@ -0,0 +1,177 @@
+package com.example.cohia;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.cohia.api.PredictionBatch;
+import com.example.cohia.api.RoboflowAPI;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Satu permintaan deteksi, dari frame/gambar sumber sampai hasilnya ditampilkan. Session membawa
+ * sendiri mode, bitmap sumber, geometri, dan transformasi input model, sehingga hasil live dan
+ * capture yang berjalan bersamaan tidak pernah berbagi state yang bisa berubah.
+ *
+ * Hasil diserahkan tepat sekali ke {@link Handler} lewat {@link #callback}; respons yang tiba
+ * setelah session selesai atau dibatalkan diabaikan. Bitmap sumber capture dimiliki session
+ * sampai diambil dengan {@link #takeSource()}.
+ */
+public final class DetectionSession {
+
+    public enum Mode {
+        /** Frame analisis kamera; hasil digambar di overlay pratinjau. */
+        LIVE,
+        /** Foto dari tombol capture; hasil dibuka di layar hasil. */
+        CAPTURE,
+        /** Gambar dari galeri; diperlakukan seperti capture. */
+        GALLERY
+    }
+
+    /**
+     * Menerima hasil akhir session, dipanggil di executor yang diberikan ke {@link #callback}.
+     */
+    public interface Handler {
+        void onResult(@NonNull DetectionSession session, @NonNull PredictionBatch predictions);
+
+        void onError(@NonNull DetectionSession session, @NonNull String error);
+    }
+
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    public final long id;
+    public final Mode mode;
+    /** Waktu mulai (nanodetik monoton), juga timestamp frame untuk pelacak. */
+    public final long startNanos;
+    /** Ukuran gambar yang koordinat hasilnya dipakai. */
+    public final int sourceWidth;
+    public final int sourceHeight;
+    /** Crop rect frame analisis; null untuk capture. */
+    @Nullable
+    public final Rect cropRect;
+    public final int rotationDegrees;
+
+    private final AtomicReference<Bitmap> source;
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+    @Nullable
+    private volatile ModelInputTransform transform;
+
+    private DetectionSession(Mode mode, long startNanos, int sourceWidth, int sourceHeight,
+                             @Nullable Rect cropRect, int rotationDegrees, @Nullable Bitmap source) {
+        this.id = NEXT_ID.getAndIncrement();
+        this.mode = mode;
+        this.startNanos = startNanos;
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+        this.cropRect = cropRect;
+        this.rotationDegrees = rotationDegrees;
+        this.source = new AtomicReference<>(source);
+    }
+
+    /**
+     * Session untuk satu frame analisis. Tidak membawa bitmap; frame dilepas oleh pipeline.
+     *
+     * @param cropRect Salinan crop rect frame (dari {@code ImageProxy.getCropRect()}).
+     */
+    public static DetectionSession live(long startNanos, int frameWidth, int frameHeight,
+                                        @Nullable Rect cropRect, int rotationDegrees) {
+        return new DetectionSession(Mode.LIVE, startNanos, frameWidth, frameHeight, cropRect,
+                rotationDegrees, null);
+    }
+
+    /**
+     * Session untuk capture atau gambar galeri. Session mengambil alih {@code source}.
+     */
+    public static DetectionSession capture(@NonNull Mode mode, long startNanos, @NonNull Bitmap source) {
+        if (mode == Mode.LIVE) {
+            throw new IllegalArgumentException("Gunakan live() untuk frame analisis");
+        }
+        return new DetectionSession(mode, startNanos, source.getWidth(), source.getHeight(), null, 0, source);
+    }
+
+    public boolean isLive() {
+        return mode == Mode.LIVE;
+    }
+
+    /**
+     * Dicatat saat input model disiapkan, sebelum request dikirim; dipakai {@link #toSource}
+     * untuk memetakan hasil.
+     */
+    public void setTransform(@NonNull ModelInputTransform transform) {
+        this.transform = transform;
+    }
+
+    @Nullable
+    public ModelInputTransform getTransform() {
+        return transform;
+    }
+
+    /**
+     * Memetakan bounding box dari koordinat input model ke koordinat sumber session, langsung
+     * di dalam batch. Tanpa transformasi batch tidak diubah.
+     */
+    public void toSource(@NonNull PredictionBatch predictions) {
+        ModelInputTransform transform = this.transform;
+        if (transform != null) {
+            transform.toSource(predictions);
+        }
+    }
+
+    /**
+     * Mengambil alih bitmap sumber. Hanya pemanggil pertama yang mendapatkannya.
+     *
+     * @return Bitmap sumber, atau null jika session live atau bitmap sudah diambil.
+     */
+    @Nullable
+    public Bitmap takeSource() {
+        return source.getAndSet(null);
+    }
+
+    public boolean isFinished() {
+        return finished.get();
+    }
+
+    /**
+     * Menandai session selesai tanpa hasil, misalnya saat layar ditutup. Hasil yang tiba
+     * sesudahnya diabaikan; pemanggil tetap bertanggung jawab atas {@link #takeSource()}.
+     *
+     * @return true jika session belum selesai sebelumnya.
+     */
+    public boolean cancel() {
+        return finished.compareAndSet(false, true);
+    }
+
+    /**
+     * @return Callback akhir untuk request session ini. Sukses atau error pertama diteruskan
+     * ke {@code handler} di {@code executor}; selebihnya diabaikan.
+     */
+    public RoboflowAPI.ApiCallback callback(@NonNull Executor executor, @NonNull Handler handler) {
+        return new RoboflowAPI.BatchCallback() {
+            @Override
+            public void onSuccess(PredictionBatch predictions) {
+                if (finished.compareAndSet(false, true)) {
+                    executor.execute(() -> handler.onResult(DetectionSession.this, predictions));
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                if (finished.compareAndSet(false, true)) {
+                    executor.execute(() -> handler.onError(DetectionSession.this, error));
+                }
+            }
+        };
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "DetectionSession#" + id + "(" + mode + ", " + sourceWidth + "x" + sourceHeight + ")";
+    }
+}
@@ -0,0 +1,329 @@
+package com.example.cohia;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Cache hasil deteksi di penyimpanan privat aplikasi, dikunci dengan SHA-256 dari byte gambar
+ * terenkode sehingga tetap berlaku setelah aplikasi ditutup.
+ *
+ * <ul>
+ *     <li>Setiap entri satu file {@code <kunci>.bin} berisi header, panjang, payload, dan CRC32.
+ *     File yang rusak atau terpotong dihapus saat dibaca dan dianggap miss.</li>
+ *     <li>Penulisan lewat file sementara lalu rename, jadi entri tidak pernah setengah jadi.</li>
+ *     <li>Ukuran total dibatasi; entri yang paling lama tidak dipakai dibuang lebih dulu.
+ *     Urutan pemakaian disimpan lewat waktu modifikasi file agar bertahan setelah restart.</li>
+ * </ul>
+ *
+ * Semua method thread-safe. Satu direktori sebaiknya hanya dipakai oleh satu instance.
+ */
+public class DiskResultCache {
+
+    private static final int MAGIC = 0x434f4831; // "COH1"
+    private static final String ENTRY_SUFFIX = ".bin";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int HEADER_BYTES = 4 + 4 + 8; // magic + panjang + CRC32
+    private static final int HASH_BUFFER_BYTES = 8192;
+
+    private final File directory;
+    private final long maxBytes;
+
+    // Urutan akses: entri pertama adalah yang paling lama tidak dipakai
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+    private boolean loaded = false;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+    private long corruptionCount = 0;
+
+    /**
+     * @param directory Direktori khusus cache ini (dibuat jika belum ada).
+     * @param maxBytes  Batas ukuran total seluruh entri di disk.
+     */
+    public DiskResultCache(File directory, long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes harus positif: " + maxBytes);
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Menghitung SHA-256 dari aliran secara bertahap tanpa memuat seluruh isinya ke memori.
+     * Aliran dibaca sampai habis tetapi tidak ditutup.
+     *
+     * @return Hash dalam heksadesimal huruf kecil (64 karakter).
+     */
+    public static String sha256Hex(InputStream in) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 wajib tersedia di setiap implementasi Java/Android
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[HASH_BUFFER_BYTES];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        byte[] hash = digest.digest();
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = Character.forDigit((hash[i] >> 4) & 0xF, 16);
+            hex[i * 2 + 1] = Character.forDigit(hash[i] & 0xF, 16);
+        }
+        return new String(hex);
+    }
+
+    /**
+     * @return Payload untuk kunci ini, atau null jika tidak ada atau file rusak.
+     */
+    public synchronized byte[] get(String key) {
+        checkKey(key);
+        ensureLoaded();
+        // get() (bukan containsKey) agar urutan akses LinkedHashMap ikut diperbarui
+        if (index.get(key) == null) {
+            missCount++;
+            return null;
+        }
+
+        File file = entryFile(key);
+        byte[] payload;
+        try {
+            payload = readEntry(file);
+        } catch (IOException e) {
+            payload = null;
+        }
+        if (payload == null) {
+            corruptionCount++;
+            missCount++;
+            removeEntry(key);
+            return null;
+        }
+
+        // Perbarui urutan LRU, termasuk untuk sesi berikutnya
+        file.setLastModified(System.currentTimeMillis());
+        hitCount++;
+        return payload;
+    }
+
+    /**
+     * Menyimpan payload untuk kunci ini, menggantikan entri lama, lalu membuang entri LRU
+     * sampai ukuran total kembali di bawah batas.
+     */
+    public synchronized void put(String key, byte[] payload) throws IOException {
+        checkKey(key);
+        ensureLoaded();
+        long size = HEADER_BYTES + payload.length;
+        if (size > maxBytes) {
+            throw new IOException("Entri " + size + " byte melebihi batas cache " + maxBytes);
+        }
+
+        // Direktori cache bisa dihapus sistem saat penyimpanan hampir penuh
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Gagal membuat direktori cache " + directory);
+        }
+        File temp = new File(directory, key + TEMP_SUFFIX);
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(temp))) {
+            CRC32 crc = new CRC32();
+            crc.update(payload, 0, payload.length);
+            out.writeInt(MAGIC);
+            out.writeInt(payload.length);
+            out.write(payload);
+            out.writeLong(crc.getValue());
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+
+        File file = entryFile(key);
+        if (file.exists() && !file.delete()) {
+            temp.delete();
+            throw new IOException("Gagal mengganti entri " + file);
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Gagal menyimpan entri " + file);
+        }
+
+        Long previous = index.put(key, size);
+        totalBytes += size - (previous != null ? previous : 0);
+        trimToSize();
+    }
+
+    public synchronized void remove(String key) {
+        checkKey(key);
+        ensureLoaded();
+        removeEntry(key);
+    }
+
+    public synchronized void clear() {
+        ensureLoaded();
+        for (String key : new ArrayList<>(index.keySet())) {
+            removeEntry(key);
+        }
+    }
+
+    public synchronized int size() {
+        ensureLoaded();
+        return index.size();
+    }
+
+    /**
+     * @return Ukuran total entri di disk dalam byte.
+     */
+    public synchronized long getTotalBytes() {
+        ensureLoaded();
+        return totalBytes;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return Jumlah entri rusak yang ditemukan dan dihapus.
+     */
+    public synchronized long getCorruptionCount() {
+        return corruptionCount;
+    }
+
+    /**
+     * Membangun indeks dari isi direktori sekali saja, diurutkan dari file yang paling lama
+     * tidak dipakai. Sisa file sementara dari proses yang terhenti dihapus.
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            return;
+        }
+
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        List<File> entries = new ArrayList<>();
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(TEMP_SUFFIX)) {
+                file.delete();
+            } else if (name.endsWith(ENTRY_SUFFIX) && isValidKey(keyOf(file))) {
+                entries.add(file);
+            }
+        }
+        File[] sorted = entries.toArray(new File[0]);
+        Arrays.sort(sorted, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : sorted) {
+            long size = file.length();
+            index.put(keyOf(file), size);
+            totalBytes += size;
+        }
+        trimToSize();
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            entryFile(eldest.getKey()).delete();
+            evictionCount++;
+        }
+    }
+
+    private void removeEntry(String key) {
+        Long size = index.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        entryFile(key).delete();
+    }
+
+    /**
+     * @return Payload, atau null jika header, panjang, atau checksum tidak cocok.
+     */
+    private static byte[] readEntry(File file) throws IOException {
+        long fileLength = file.length();
+        if (fileLength < HEADER_BYTES) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            int length = in.readInt();
+            if (length < 0 || HEADER_BYTES + (long) length != fileLength) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload, 0, payload.length);
+            if (in.readLong() != crc.getValue()) {
+                return null;
+            }
+            return payload;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private File entryFile(String key) {
+        return new File(directory, key + ENTRY_SUFFIX);
+    }
+
+    private static String keyOf(File file) {
+        String name = file.getName();
+        return name.substring(0, name.length() - ENTRY_SUFFIX.length());
+    }
+
+    // Kunci dipakai sebagai nama file, jadi hanya heksadesimal huruf kecil yang diterima
+    private static boolean isValidKey(String key) {
+        if (key.isEmpty() || key.length() > 128) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void checkKey(String key) {
+        if (!isValidKey(key)) {
+            throw new IllegalArgumentException("Kunci harus heksadesimal huruf kecil: " + key);
+        }
+    }
+}
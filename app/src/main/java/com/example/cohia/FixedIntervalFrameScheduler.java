@@ -0,0 +1,43 @@
+package com.example.cohia;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Penjadwal dengan jeda tetap antar analisis, tanpa memperhatikan kondisi jaringan.
+ */
+public class FixedIntervalFrameScheduler implements FrameScheduler {
+
+    private final MonotonicClock clock;
+    private final long intervalNanos;
+    private long lastStartNanos;
+    private boolean started = false;
+
+    public FixedIntervalFrameScheduler(long intervalMillis, MonotonicClock clock) {
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized long tryAcquire() {
+        long now = clock.nanoTime();
+        if (started && now - lastStartNanos < intervalNanos) {
+            return NOT_NOW;
+        }
+        started = true;
+        lastStartNanos = now;
+        return now;
+    }
+
+    @Override
+    public void onSuccess(long startNanos) {
+    }
+
+    @Override
+    public void onFailure(long startNanos) {
+    }
+
+    @Override
+    public double getRateHz() {
+        return 1e9 / intervalNanos;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.cohia;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Gerbang kualitas frame yang berjalan langsung pada plane Y (luma), sebelum Bitmap dibuat.
+ *
+ * Dua pemeriksaan dilakukan pada grid sampel (setiap {@link Config#sampleStep} piksel):
+ * <ul>
+ *     <li>Ketajaman: varians Laplacian 4-tetangga. Frame yang kabur karena gerakan atau fokus
+ *     memiliki tepi lemah sehingga variansnya rendah.</li>
+ *     <li>Eksposur: histogram luma; frame ditolak jika rata-ratanya terlalu gelap/terang atau
+ *     sebagian besar sampel terpotong di ujung histogram.</li>
+ * </ul>
+ *
+ * Tidak ada alokasi per frame. Instance tidak thread-safe; panggil dari thread analisis saja.
+ */
+public class FrameQualityGate {
+
+    public enum Verdict {
+        OK,
+        BLURRY,
+        UNDEREXPOSED,
+        OVEREXPOSED
+    }
+
+    /**
+     * Ambang penolakan. Nilai default dipilih agar hanya frame yang jelas rusak yang ditolak;
+     * pemandangan datar (misalnya lantai polos) memang memiliki ketajaman rendah.
+     */
+    public static class Config {
+        /** Jarak antar titik sampel dalam piksel. */
+        public int sampleStep = 4;
+        /** Varians Laplacian minimum (satuan luma^2). */
+        public double minSharpness = 40;
+        /** Luma di bawah nilai ini dihitung sebagai hitam terpotong. */
+        public int darkLevel = 16;
+        /** Luma di atas nilai ini dihitung sebagai putih terpotong. */
+        public int brightLevel = 240;
+        /** Porsi sampel terpotong maksimum di salah satu ujung. */
+        public double maxClippedFraction = 0.5;
+        /** Batas rata-rata luma yang masih dianggap eksposur wajar. */
+        public int minMeanLuma = 35;
+        public int maxMeanLuma = 220;
+    }
+
+    private static final int HISTOGRAM_BINS = 256;
+
+    private final Config config;
+    private final int[] histogram = new int[HISTOGRAM_BINS];
+
+    private double lastSharpness = 0;
+    private double lastMeanLuma = 0;
+    private final long[] verdictCounts = new long[Verdict.values().length];
+
+    public FrameQualityGate() {
+        this(new Config());
+    }
+
+    public FrameQualityGate(Config config) {
+        if (config.sampleStep < 1) {
+            throw new IllegalArgumentException("sampleStep harus >= 1: " + config.sampleStep);
+        }
+        this.config = config;
+    }
+
+    /**
+     * Menilai satu frame. Posisi buffer tidak diubah.
+     */
+    public Verdict evaluate(ByteBuffer yPlane, int rowStride, int pixelStride, int width, int height) {
+        Arrays.fill(histogram, 0);
+        int base = yPlane.position();
+        int step = config.sampleStep;
+
+        long lumaSum = 0;
+        long lapSum = 0;
+        long lapSumSq = 0;
+        int samples = 0;
+        int lapSamples = 0;
+
+        // Kolom awal digeser satu piksel per baris sampel (pola diagonal) agar tepi vertikal
+        // yang sejajar dengan grid tidak selalu terlewat. Tepi frame dilewati untuk Laplacian
+        // karena butuh tetangga di keempat arah.
+        int phase = step / 2;
+        for (int y = step / 2; y < height; y += step, phase = (phase + 1) % step) {
+            int row = base + y * rowStride;
+            boolean innerRow = y > 0 && y < height - 1;
+            for (int x = phase; x < width; x += step) {
+                int index = row + x * pixelStride;
+                int center = yPlane.get(index) & 0xFF;
+                histogram[center]++;
+                lumaSum += center;
+                samples++;
+
+                if (innerRow && x > 0 && x < width - 1) {
+                    int laplacian = (yPlane.get(index - pixelStride) & 0xFF)
+                            + (yPlane.get(index + pixelStride) & 0xFF)
+                            + (yPlane.get(index - rowStride) & 0xFF)
+                            + (yPlane.get(index + rowStride) & 0xFF)
+                            - 4 * center;
+                    lapSum += laplacian;
+                    lapSumSq += (long) laplacian * laplacian;
+                    lapSamples++;
+                }
+            }
+        }
+
+        Verdict verdict = classify(samples, lumaSum, lapSamples, lapSum, lapSumSq);
+        verdictCounts[verdict.ordinal()]++;
+        return verdict;
+    }
+
+    private Verdict classify(int samples, long lumaSum, int lapSamples, long lapSum, long lapSumSq) {
+        if (samples == 0) {
+            lastMeanLuma = 0;
+            lastSharpness = 0;
+            return Verdict.UNDEREXPOSED;
+        }
+
+        lastMeanLuma = (double) lumaSum / samples;
+        if (lapSamples > 0) {
+            double mean = (double) lapSum / lapSamples;
+            lastSharpness = (double) lapSumSq / lapSamples - mean * mean;
+        } else {
+            lastSharpness = 0;
+        }
+
+        int dark = 0;
+        for (int i = 0; i < config.darkLevel && i < HISTOGRAM_BINS; i++) {
+            dark += histogram[i];
+        }
+        int bright = 0;
+        for (int i = Math.max(0, config.brightLevel + 1); i < HISTOGRAM_BINS; i++) {
+            bright += histogram[i];
+        }
+
+        // Eksposur diperiksa lebih dulu: frame gelap/terang juga tampak kabur karena kontrasnya hilang
+        if (lastMeanLuma < config.minMeanLuma || dark > samples * config.maxClippedFraction) {
+            return Verdict.UNDEREXPOSED;
+        }
+        if (lastMeanLuma > config.maxMeanLuma || bright > samples * config.maxClippedFraction) {
+            return Verdict.OVEREXPOSED;
+        }
+        if (lastSharpness < config.minSharpness) {
+            return Verdict.BLURRY;
+        }
+        return Verdict.OK;
+    }
+
+    /**
+     * @return Varians Laplacian frame terakhir.
+     */
+    public double getLastSharpness() {
+        return lastSharpness;
+    }
+
+    /**
+     * @return Rata-rata luma frame terakhir (0-255).
+     */
+    public double getLastMeanLuma() {
+        return lastMeanLuma;
+    }
+
+    public long getCount(Verdict verdict) {
+        return verdictCounts[verdict.ordinal()];
+    }
+
+    public long getEvaluatedCount() {
+        long total = 0;
+        for (long count : verdictCounts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * @return Rasio frame yang ditolak terhadap seluruh frame yang dinilai.
+     */
+    public double getRejectRatio() {
+        long evaluated = getEvaluatedCount();
+        return evaluated == 0 ? 0 : (double) (evaluated - getCount(Verdict.OK)) / evaluated;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.cohia;
+
+/**
+ * Menentukan kapan frame live berikutnya boleh dianalisis dan dikirim ke detektor.
+ *
+ * Implementasi harus thread-safe: {@link #tryAcquire()} dipanggil dari thread kamera,
+ * sedangkan umpan balik hasil datang dari thread jaringan.
+ */
+public interface FrameScheduler {
+
+    /** Nilai kembalian {@link #tryAcquire()} jika frame saat ini harus dilewati. */
+    long NOT_NOW = Long.MIN_VALUE;
+
+    /**
+     * @return Waktu mulai analisis (nanodetik monoton) jika frame boleh dianalisis,
+     * atau {@link #NOT_NOW}.
+     */
+    long tryAcquire();
+
+    /**
+     * Melaporkan bahwa analisis yang dimulai pada {@code startNanos} selesai dengan sukses.
+     */
+    void onSuccess(long startNanos);
+
+    /**
+     * Melaporkan bahwa analisis yang dimulai pada {@code startNanos} gagal.
+     */
+    void onFailure(long startNanos);
+
+    /**
+     * @return Laju analisis saat ini dalam frame per detik.
+     */
+    double getRateHz();
+}
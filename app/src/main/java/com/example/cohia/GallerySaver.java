@@ -0,0 +1,153 @@
+package com.example.cohia;
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Build;
+import android.os.ParcelFileDescriptor;
+import android.provider.MediaStore;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.exifinterface.media.ExifInterface;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Menyimpan gambar ke galeri (MediaStore) di luar jalur deteksi dan di luar UI thread: byte JPEG
+ * hasil capture apa adanya, atau bitmap hasil deteksi yang di-encode ke JPEG/WebP.
+ */
+public final class GallerySaver {
+
+    private static final String RELATIVE_PATH = "Pictures/SmartWaste";
+
+    private GallerySaver() {}
+
+    /**
+     * Format penyimpanan untuk {@link #saveBitmap}.
+     */
+    public enum Format {
+        /** Kompatibel dengan semua galeri. */
+        JPEG("image/jpeg", ".jpg"),
+        /** Sekitar 25-35% lebih kecil dari JPEG pada kualitas visual yang sama. */
+        WEBP("image/webp", ".webp");
+
+        public final String mimeType;
+        public final String extension;
+
+        Format(String mimeType, String extension) {
+            this.mimeType = mimeType;
+            this.extension = extension;
+        }
+
+        @SuppressWarnings("deprecation")
+        Bitmap.CompressFormat compressFormat() {
+            if (this == JPEG) {
+                return Bitmap.CompressFormat.JPEG;
+            }
+            return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                    ? Bitmap.CompressFormat.WEBP_LOSSY : Bitmap.CompressFormat.WEBP;
+        }
+    }
+
+    /**
+     * Perkiraan rasio ukuran terkompresi terhadap byte piksel ARGB, hanya untuk progres.
+     */
+    private static final int COMPRESSED_SIZE_DIVISOR = 12;
+
+    private interface ContentWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Menulis byte JPEG ke MediaStore. Pada Android 10+ entri ditandai pending selama penulisan
+     * sehingga galeri tidak pernah menampilkan file setengah jadi; entri dihapus jika gagal.
+     *
+     * @param rotationDegrees Rotasi searah jarum jam yang dicatat sebagai tag orientasi EXIF,
+     *                        agar byte sensor tidak perlu di-decode dan diputar ulang.
+     * @return URI gambar yang tersimpan.
+     */
+    @WorkerThread
+    @NonNull
+    public static Uri saveJpeg(@NonNull ContentResolver resolver, @NonNull byte[] jpegBytes,
+                               @NonNull String displayName, int rotationDegrees) throws IOException {
+        return insert(resolver, displayName, Format.JPEG.mimeType, out -> out.write(jpegBytes), rotationDegrees);
+    }
+
+    /**
+     * Meng-encode bitmap langsung ke entri MediaStore, tanpa buffer perantara seukuran file.
+     *
+     * @param baseName Nama file tanpa ekstensi; ekstensi diambil dari {@code format}.
+     * @param listener Menerima progres 0..100 dari thread pemanggil; 100 hanya setelah entri
+     *                 selesai dipublikasikan.
+     * @return URI gambar yang tersimpan.
+     */
+    @WorkerThread
+    @NonNull
+    public static Uri saveBitmap(@NonNull ContentResolver resolver, @NonNull Bitmap bitmap,
+                                 @NonNull Format format, int quality, @NonNull String baseName,
+                                 @Nullable ProgressOutputStream.Listener listener) throws IOException {
+        long expectedBytes = Math.max(1, bitmap.getByteCount() / COMPRESSED_SIZE_DIVISOR);
+        Uri uri = insert(resolver, baseName + format.extension, format.mimeType, out -> {
+            ProgressOutputStream progress = new ProgressOutputStream(out, expectedBytes, listener);
+            if (!bitmap.compress(format.compressFormat(), quality, progress)) {
+                throw new IOException("Encoder menolak bitmap");
+            }
+            progress.flush();
+        }, 0);
+        if (listener != null) {
+            listener.onProgress(100);
+        }
+        return uri;
+    }
+
+    private static Uri insert(ContentResolver resolver, String displayName, String mimeType,
+                              ContentWriter writer, int rotationDegrees) throws IOException {
+        ContentValues values = new ContentValues();
+        values.put(MediaStore.MediaColumns.DISPLAY_NAME, displayName);
+        values.put(MediaStore.MediaColumns.MIME_TYPE, mimeType);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            values.put(MediaStore.Images.Media.RELATIVE_PATH, RELATIVE_PATH);
+            values.put(MediaStore.MediaColumns.IS_PENDING, 1);
+        }
+
+        Uri uri = resolver.insert(MediaStore.Images.Media.EXTERNAL_CONTENT_URI, values);
+        if (uri == null) {
+            throw new IOException("MediaStore menolak entri baru");
+        }
+
+        try {
+            try (OutputStream out = resolver.openOutputStream(uri)) {
+                if (out == null) {
+                    throw new IOException("Tidak bisa menulis ke " + uri);
+                }
+                writer.writeTo(out);
+            }
+
+            if (rotationDegrees % 360 != 0) {
+                try (ParcelFileDescriptor pfd = resolver.openFileDescriptor(uri, "rw")) {
+                    if (pfd == null) {
+                        throw new IOException("Tidak bisa membuka " + uri);
+                    }
+                    ExifInterface exif = new ExifInterface(pfd.getFileDescriptor());
+                    exif.setAttribute(ExifInterface.TAG_ORIENTATION,
+                            String.valueOf(SampledBitmapDecoder.orientationForRotation(rotationDegrees)));
+                    exif.saveAttributes();
+                }
+            }
+
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                ContentValues published = new ContentValues();
+                published.put(MediaStore.MediaColumns.IS_PENDING, 0);
+                resolver.update(uri, published, null, null);
+            }
+            return uri;
+        } catch (IOException | RuntimeException e) {
+            resolver.delete(uri, null, null);
+            throw e;
+        }
+    }
+}
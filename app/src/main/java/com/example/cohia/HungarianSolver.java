@@ -0,0 +1,100 @@
+package com.example.cohia;
+
+/**
+ * Penyelesaian masalah penugasan (assignment) berbiaya minimum dengan algoritma Hungarian
+ * O(n^3) memakai potensial baris/kolom. Semua array kerja dialokasikan sekali di konstruktor.
+ *
+ * Instance tidak thread-safe.
+ */
+final class HungarianSolver {
+
+    private final int capacity;
+    private final double[] u;
+    private final double[] v;
+    private final double[] minv;
+    private final int[] p;
+    private final int[] way;
+    private final boolean[] used;
+
+    /**
+     * @param capacity Ukuran matriks persegi terbesar yang akan diselesaikan.
+     */
+    HungarianSolver(int capacity) {
+        this.capacity = capacity;
+        u = new double[capacity + 1];
+        v = new double[capacity + 1];
+        minv = new double[capacity + 1];
+        p = new int[capacity + 1];
+        way = new int[capacity + 1];
+        used = new boolean[capacity + 1];
+    }
+
+    /**
+     * @param cost       Matriks biaya persegi {@code size x size}, row-major.
+     * @param size       Jumlah baris dan kolom.
+     * @param assignment Keluaran: kolom untuk setiap baris, minimal berukuran {@code size}.
+     * @return Total biaya penugasan.
+     */
+    double solve(float[] cost, int size, int[] assignment) {
+        if (size > capacity) {
+            throw new IllegalArgumentException("Matriks " + size + " melebihi kapasitas " + capacity);
+        }
+        for (int i = 0; i <= size; i++) {
+            u[i] = 0;
+            v[i] = 0;
+            p[i] = 0;
+            way[i] = 0;
+        }
+
+        // Indeks 1-based; kolom 0 adalah kolom bantu
+        for (int i = 1; i <= size; i++) {
+            p[0] = i;
+            int j0 = 0;
+            for (int j = 0; j <= size; j++) {
+                minv[j] = Double.POSITIVE_INFINITY;
+                used[j] = false;
+            }
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                int row = (i0 - 1) * size;
+                for (int j = 1; j <= size; j++) {
+                    if (!used[j]) {
+                        double current = cost[row + j - 1] - u[i0] - v[j];
+                        if (current < minv[j]) {
+                            minv[j] = current;
+                            way[j] = j0;
+                        }
+                        if (minv[j] < delta) {
+                            delta = minv[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= size; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        double total = 0;
+        for (int j = 1; j <= size; j++) {
+            assignment[p[j] - 1] = j - 1;
+            total += cost[(p[j] - 1) * size + j - 1];
+        }
+        return total;
+    }
+}
@@ -4,14 +4,14 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.graphics.ImageFormat;
 import android.graphics.Matrix; // Import ini
-import android.graphics.Rect;
-import android.graphics.YuvImage;
 import android.media.Image;
 import android.util.Log;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import java.io.ByteArrayOutputStream;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+
 import java.nio.ByteBuffer;
 
 /**
@@ -47,7 +47,7 @@ public class ImageUtil {
 
             // Method 2: Untuk format YUV_420_888
             if (image.getFormat() == ImageFormat.YUV_420_888) {
-                return yuv420ToBitmap(image);
+                return yuv420ToBitmap(image, new YuvToRgbConverter(), null, null);
             }
 
             Log.w(TAG, "Unsupported image format: " + image.getFormat());
@@ -60,39 +60,80 @@ public class ImageUtil {
     }
 
     /**
-     * Konversi YUV_420_888 ke Bitmap
+     * Mengonversi Image YUV_420_888 ke Bitmap memakai konverter dan Bitmap milik pemanggil.
+     * Cocok untuk loop analisis: konverter memakai ulang buffernya, dan jika {@code reuse}
+     * berukuran sama serta mutable, pikselnya ditimpa tanpa membuat Bitmap baru.
+     *
+     * @param image Objek Image yang akan dikonversi.
+     * @param converter Konverter yang dipakai ulang antar frame.
+     * @param reuse Bitmap ARGB_8888 mutable untuk ditimpa, atau null.
+     * @return Bitmap hasil konversi (bisa {@code reuse} itu sendiri), atau null jika gagal.
      */
-    private static Bitmap yuv420ToBitmap(Image image) {
-        try {
-            Image.Plane[] planes = image.getPlanes();
-            ByteBuffer yBuffer = planes[0].getBuffer();
-            ByteBuffer uBuffer = planes[1].getBuffer();
-            ByteBuffer vBuffer = planes[2].getBuffer();
-
-            int ySize = yBuffer.remaining();
-            int uSize = uBuffer.remaining();
-            int vSize = vBuffer.remaining();
-
-            byte[] nv21 = new byte[ySize + uSize + vSize];
-
-            // U dan V adalah swapped
-            yBuffer.get(nv21, 0, ySize);
-            vBuffer.get(nv21, ySize, vSize);
-            uBuffer.get(nv21, ySize + vSize, uSize);
-
-            YuvImage yuvImage = new YuvImage(nv21, ImageFormat.NV21, image.getWidth(), image.getHeight(), null);
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            yuvImage.compressToJpeg(new Rect(0, 0, yuvImage.getWidth(), yuvImage.getHeight()), 100, out);
-            byte[] imageBytes = out.toByteArray();
+    @Nullable
+    public static Bitmap imageToBitmap(@Nullable Image image, @NonNull YuvToRgbConverter converter,
+                                       @Nullable Bitmap reuse) {
+        return imageToBitmap(image, converter, reuse, null);
+    }
 
-            return BitmapFactory.decodeByteArray(imageBytes, 0, imageBytes.length);
+    /**
+     * Sama dengan {@link #imageToBitmap(Image, YuvToRgbConverter, Bitmap)}, tetapi jika
+     * {@code reuse} tidak cocok (misalnya resolusi analisis berubah), Bitmap itu dikembalikan
+     * ke pool dan penggantinya diambil dari pool alih-alih dialokasikan baru.
+     *
+     * @param pool Pool Bitmap, atau null untuk selalu mengalokasikan.
+     */
+    @Nullable
+    public static Bitmap imageToBitmap(@Nullable Image image, @NonNull YuvToRgbConverter converter,
+                                       @Nullable Bitmap reuse, @Nullable BitmapPool pool) {
+        if (image == null) {
+            Log.w(TAG, "Image is null");
+            return null;
+        }
+        if (image.getFormat() != ImageFormat.YUV_420_888) {
+            return imageToBitmap(image);
+        }
 
+        try {
+            return yuv420ToBitmap(image, converter, reuse, pool);
         } catch (Exception e) {
-            Log.e(TAG, "Error in yuv420ToBitmap", e);
+            Log.e(TAG, "Error converting Image to Bitmap", e);
             return null;
         }
     }
 
+    /**
+     * Konversi YUV_420_888 ke Bitmap secara langsung (tanpa NV21 -> JPEG -> decode),
+     * dengan memperhitungkan rowStride dan pixelStride setiap plane.
+     */
+    private static Bitmap yuv420ToBitmap(Image image, YuvToRgbConverter converter, @Nullable Bitmap reuse,
+                                         @Nullable BitmapPool pool) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Image.Plane[] planes = image.getPlanes();
+
+        int[] argb = converter.convert(
+                planes[0].getBuffer(), planes[0].getRowStride(), planes[0].getPixelStride(),
+                planes[1].getBuffer(), planes[2].getBuffer(),
+                planes[1].getRowStride(), planes[1].getPixelStride(),
+                width, height);
+
+        Bitmap bitmap = reuse;
+        if (bitmap == null || !bitmap.isMutable() || bitmap.getWidth() != width
+                || bitmap.getHeight() != height || bitmap.getConfig() != Bitmap.Config.ARGB_8888) {
+            if (pool == null) {
+                bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            } else {
+                if (reuse != null) {
+                    pool.put(reuse);
+                }
+                // Isi lama tidak perlu dihapus karena setPixels menimpa seluruh piksel
+                bitmap = pool.getDirty(width, height, Bitmap.Config.ARGB_8888);
+            }
+        }
+        bitmap.setPixels(argb, 0, width, 0, 0, width, height);
+        return bitmap;
+    }
+
     /**
      * Metode untuk merotasi Bitmap.
      * @param source Bitmap yang akan dirotasi.
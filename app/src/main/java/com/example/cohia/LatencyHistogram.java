@@ -0,0 +1,173 @@
+package com.example.cohia;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram latensi dengan bucket tetap, aman dipakai banyak thread tanpa lock.
+ *
+ * Bucket bersifat logaritmik: setiap pangkat dua dibagi {@value #SUB_BUCKETS} bucket, sehingga
+ * persentil yang dilaporkan paling jauh sekitar 25% di atas nilai sebenarnya, dari
+ * {@code 1 us} sampai sekitar satu menit. Nilai di luar rentang masuk bucket pertama/terakhir.
+ * {@link #record(long)} hanya beberapa operasi bit dan satu increment atomik, jadi cukup murah
+ * untuk selalu aktif di jalur deteksi.
+ *
+ * Pembacaan ({@link #snapshot()}) tidak menghentikan penulis; potret yang diambil saat sampel
+ * baru masuk bisa selisih beberapa hitungan, yang tidak berarti untuk persentil.
+ */
+public final class LatencyHistogram {
+
+    // 2^10 ns ~ 1 us sampai 2^36 ns ~ 69 detik
+    private static final int MIN_EXPONENT = 10;
+    private static final int MAX_EXPONENT = 36;
+    private static final int SUB_BUCKET_BITS = 2;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Bucket 0 untuk nilai di bawah 2^MIN_EXPONENT, bucket terakhir untuk nilai di atas rentang
+    static final int BUCKET_COUNT = (MAX_EXPONENT - MIN_EXPONENT) * SUB_BUCKETS + 2;
+
+    /**
+     * Potret histogram dalam milidetik; aman dibaca dari thread mana pun.
+     */
+    public static final class Snapshot {
+        public final long count;
+        public final double meanMillis;
+        public final double p50Millis;
+        public final double p95Millis;
+        public final double p99Millis;
+        public final double maxMillis;
+
+        Snapshot(long count, double meanMillis, double p50Millis, double p95Millis,
+                 double p99Millis, double maxMillis) {
+            this.count = count;
+            this.meanMillis = meanMillis;
+            this.p50Millis = p50Millis;
+            this.p95Millis = p95Millis;
+            this.p99Millis = p99Millis;
+            this.maxMillis = maxMillis;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "n=%d, rata-rata %.1f ms, p50 %.1f, p95 %.1f, p99 %.1f, maks %.1f",
+                    count, meanMillis, p50Millis, p95Millis, p99Millis, maxMillis);
+        }
+    }
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Mencatat satu sampel. Nilai negatif (jam tidak monoton atau pemanggil keliru) dicatat
+     * sebagai nol.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.incrementAndGet();
+        sumNanos.addAndGet(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @param quantile Antara 0 dan 1, misalnya 0.95.
+     * @return Batas atas bucket yang memuat persentil tersebut, dibatasi nilai maksimum yang
+     * pernah dicatat; 0 jika histogram kosong.
+     */
+    public long percentileNanos(double quantile) {
+        long[] counts = new long[BUCKET_COUNT];
+        return percentileOf(counts, copyCounts(counts), quantile, maxNanos.get());
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = copyCounts(counts);
+        long max = maxNanos.get();
+        double mean = total == 0 ? 0 : (double) sumNanos.get() / count.get();
+        return new Snapshot(total, mean / 1e6,
+                percentileOf(counts, total, 0.50, max) / 1e6,
+                percentileOf(counts, total, 0.95, max) / 1e6,
+                percentileOf(counts, total, 0.99, max) / 1e6,
+                max / 1e6);
+    }
+
+    /**
+     * Mengosongkan histogram. Sampel yang dicatat bersamaan bisa ikut terhapus sebagian.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        sumNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    /**
+     * @return Jumlah sampel di semua bucket yang disalin.
+     */
+    private long copyCounts(long[] out) {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            out[i] = buckets.get(i);
+            total += out[i];
+        }
+        return total;
+    }
+
+    private static long percentileOf(long[] counts, long total, double quantile, long max) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < (1L << MIN_EXPONENT)) {
+            return 0;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - MIN_EXPONENT) * SUB_BUCKETS + sub + 1;
+    }
+
+    /**
+     * @return Nilai terbesar (eksklusif) yang masuk bucket {@code index}.
+     */
+    static long upperBoundOf(int index) {
+        if (index == 0) {
+            return 1L << MIN_EXPONENT;
+        }
+        if (index == BUCKET_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+        int exponent = (index - 1) / SUB_BUCKETS + MIN_EXPONENT;
+        int sub = (index - 1) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BUCKET_BITS);
+    }
+}
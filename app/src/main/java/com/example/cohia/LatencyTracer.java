@@ -0,0 +1,179 @@
+package com.example.cohia;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Mencatat latensi setiap tahap jalur deteksi ke {@link LatencyHistogram} per tahap, dari
+ * gerbang frame sampai hasil digambar, termasuk rincian jaringan dari
+ * {@link com.example.cohia.api.TracingEventListener}.
+ *
+ * Pola pemakaian: {@code long t = tracer.start(); ...; tracer.record(Stage.X, t);}. Pencatatan
+ * tidak mengalokasikan dan tidak memakai lock, sehingga tracer bawaan selalu aktif; hanya
+ * overlay dan dump yang dibatasi ke build debug.
+ */
+public final class LatencyTracer {
+
+    public enum Stage {
+        /** Gerbang kualitas/scene/cache dari plane Y. */
+        GATE("gate"),
+        /** YUV ke Bitmap. */
+        YUV_CONVERT("yuv"),
+        /** Decode foto capture atau gambar galeri. */
+        DECODE("decode"),
+        /** Skala dan letterbox ke ukuran input model. */
+        PREPROCESS("preprocess"),
+        /** Kompresi JPEG ke buffer pool. */
+        JPEG_ENCODE("jpeg"),
+        DNS("dns"),
+        /** TCP plus TLS untuk koneksi baru; koneksi yang dipakai ulang tidak tercatat. */
+        CONNECT("connect"),
+        TLS("tls"),
+        /** Penulisan body request, termasuk encode base64 yang dialirkan ke socket. */
+        REQUEST_BODY("upload"),
+        /** Dari request terkirim sampai header respons tiba: waktu server plus satu RTT. */
+        TTFB("ttfb"),
+        /** Seluruh panggilan HTTP, dari enqueue sampai body respons selesai dibaca. */
+        HTTP_CALL("http"),
+        /** Pembacaan body respons sambil di-parse ke batch. */
+        PARSE("parse"),
+        /** Ambang confidence, NMS, dan top-K. */
+        POSTPROCESS("postprocess"),
+        /** Pembaruan overlay dan teks live di UI thread. */
+        RENDER("render"),
+        /** Satu onDraw overlay live. */
+        OVERLAY_DRAW("overlay-draw"),
+        /** Menggambar bounding box ke bitmap saat hasil disimpan. */
+        DRAW_BOXES("draw-boxes"),
+        /** Frame live dari diterima penjadwal sampai hasilnya dirender. */
+        LIVE_TOTAL("live-total"),
+        /** Capture/galeri dari foto atau gambar diterima sampai hasilnya diserahkan ke layar hasil. */
+        CAPTURE_TOTAL("capture-total");
+
+        public final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final LatencyTracer sharedInstance = new LatencyTracer(MonotonicClock.SYSTEM);
+
+    private final MonotonicClock clock;
+    private final LatencyHistogram[] histograms;
+
+    public LatencyTracer(@NonNull MonotonicClock clock) {
+        this.clock = clock;
+        Stage[] stages = Stage.values();
+        histograms = new LatencyHistogram[stages.length];
+        for (int i = 0; i < stages.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * @return Tracer bersama untuk seluruh proses, memakai {@link MonotonicClock#SYSTEM}.
+     */
+    public static LatencyTracer getInstance() {
+        return sharedInstance;
+    }
+
+    /**
+     * @return Waktu sekarang dari jam tracer, untuk diteruskan ke {@link #record(Stage, long)}.
+     */
+    public long start() {
+        return clock.nanoTime();
+    }
+
+    /**
+     * Mencatat durasi dari {@code startNanos} (hasil {@link #start()} atau jam yang sama,
+     * misalnya {@link DetectionSession#startNanos}) sampai sekarang.
+     */
+    public void record(@NonNull Stage stage, long startNanos) {
+        histograms[stage.ordinal()].record(clock.nanoTime() - startNanos);
+    }
+
+    /**
+     * Mencatat durasi yang sudah diukur sendiri oleh pemanggil.
+     */
+    public void recordDuration(@NonNull Stage stage, long nanos) {
+        histograms[stage.ordinal()].record(nanos);
+    }
+
+    public LatencyHistogram.Snapshot snapshot(@NonNull Stage stage) {
+        return histograms[stage.ordinal()].snapshot();
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * @return Baris judul lalu satu baris per tahap yang punya sampel (p50/p95/p99 dalam ms),
+     * untuk overlay debug; string kosong jika belum ada sampel sama sekali.
+     */
+    @NonNull
+    public String formatSummary() {
+        StringBuilder text = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram.Snapshot s = snapshot(stage);
+            if (s.count == 0) {
+                continue;
+            }
+            if (text.length() == 0) {
+                text.append(String.format(Locale.US, "%-13s %6s %6s %6s", "ms", "p50", "p95", "p99"));
+            }
+            text.append('\n');
+            text.append(String.format(Locale.US, "%-13s %6.1f %6.1f %6.1f  n=%d",
+                    stage.label, s.p50Millis, s.p95Millis, s.p99Millis, s.count));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Menulis semua tahap sebagai JSON:
+     * {@code {"stages":[{"stage":"jpeg","count":..,"mean_ms":..,"p50_ms":..,"p95_ms":..,"p99_ms":..,"max_ms":..}]}}.
+     * Tahap tanpa sampel tetap ditulis dengan count 0 agar skema dump stabil.
+     */
+    public void writeJson(@NonNull Writer out) throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        json.setIndent("  ");
+        json.beginObject();
+        json.name("stages").beginArray();
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram.Snapshot s = snapshot(stage);
+            json.beginObject();
+            json.name("stage").value(stage.label);
+            json.name("count").value(s.count);
+            json.name("mean_ms").value(s.meanMillis);
+            json.name("p50_ms").value(s.p50Millis);
+            json.name("p95_ms").value(s.p95Millis);
+            json.name("p99_ms").value(s.p99Millis);
+            json.name("max_ms").value(s.maxMillis);
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+        json.flush();
+    }
+
+    /**
+     * Menulis {@link #writeJson(Writer)} ke {@code file}, menimpa isi sebelumnya.
+     */
+    public void dumpTo(@NonNull File file) throws IOException {
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writeJson(out);
+        }
+    }
+}
@@ -2,15 +2,13 @@ package com.example.cohia;
 
 import android.Manifest;
 import android.annotation.SuppressLint;
-import android.content.ContentValues;
 import android.content.Intent;
+import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
+import android.graphics.Rect;
 import android.net.Uri;
-import android.os.Build;
 import android.os.Bundle;
-import android.provider.MediaStore;
 import android.util.Log;
 import android.util.Size;
 import android.view.View;
@@ -23,6 +21,8 @@ import androidx.activity.OnBackPressedCallback;
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts; // Pastikan ini diimpor dengan benar
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.camera.core.CameraSelector;
 import androidx.camera.core.ImageAnalysis;
@@ -30,31 +30,56 @@ import androidx.camera.core.ImageCapture;
 import androidx.camera.core.ImageCaptureException;
 import androidx.camera.core.ImageProxy;
 import androidx.camera.core.Preview;
+import androidx.camera.core.UseCaseGroup;
+import androidx.camera.core.ViewPort;
 import androidx.camera.lifecycle.ProcessCameraProvider;
 import androidx.camera.view.PreviewView;
 import androidx.constraintlayout.widget.ConstraintLayout;
 import androidx.core.content.ContextCompat;
 
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.example.cohia.api.ClassRegistry;
+import com.example.cohia.api.InferenceHttpClient;
+import com.example.cohia.api.LiveRequestTracker;
+import com.example.cohia.api.PredictionBatch;
+import com.example.cohia.api.PredictionCodec;
 import com.example.cohia.api.RoboflowAPI;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.stream.Collectors;
 
-public class MainActivity extends AppCompatActivity implements RoboflowAPI.ApiCallback {
+public class MainActivity extends AppCompatActivity {
 
     private static final String TAG = "SmarwasteApp";
+    private static final int MAX_LIVE_REQUESTS_IN_FLIGHT = 2;
+    private static final int SCENE_GATE_LOG_INTERVAL = 50;
+    private static final long DISK_CACHE_BYTES = 2L * 1024 * 1024;
+    // Buffer JPEG upload: cukup untuk request live yang sedang berjalan plus satu frame baru
+    private static final long JPEG_POOL_BYTES = 1024 * 1024;
+    // Sisi terpanjang hasil decode galeri/kamera: cukup tajam untuk tampilan hasil, dan
+    // preprocessor tetap memperkecilnya ke ukuran input model.
+    private static final int DECODE_LONG_EDGE = 2 * ModelInputPreprocessor.DEFAULT_INPUT_SIZE;
+    private static final long DEBUG_STATS_INTERVAL_MS = 1000;
+    private static final String LATENCY_DUMP_FILE = "latency-trace.json";
 
     // UI Elements
     private PreviewView previewView;
+    private DetectionOverlayView liveOverlay;
     private ImageView ivResult;
     private TextView tvLiveResult;
     private Button btnCapture, btnUpload;
@@ -62,20 +87,214 @@ public class MainActivity extends AppCompatActivity implements RoboflowAPI.ApiCa
     private ConstraintLayout cameraControls;
     private ConstraintLayout progressOverlay;
     private TextView tvProgressStatus;
+    // Overlay latensi per tahap; hanya tampil di build debuggable
+    private TextView tvDebugStats;
+    private boolean debugOverlayEnabled;
 
-    // CameraX
+    // CameraX. cameraExecutor hanya menerima frame (tahap acquire) dan callback capture;
+    // pekerjaan berat berjalan di tahap pipeline masing-masing
     private ImageCapture imageCapture;
     private ImageAnalysis imageAnalysis;
     private ExecutorService cameraExecutor;
+    // Penulisan galeri dipisah agar I/O penyimpanan tidak menunda analisis
+    private ExecutorService ioExecutor;
 
     // Roboflow API
     private RoboflowAPI roboflowAPI;
+    private final LiveRequestTracker liveRequests = new LiveRequestTracker(MAX_LIVE_REQUESTS_IN_FLIGHT);
 
-    // State variables
-    private long lastAnalysisTime = 0;
-    private Bitmap originalBitmapForDetection;
-    private boolean isLiveDetection = true;
-    private boolean isCaptureMode = false;
+    // Pipeline live: acquire (cameraExecutor) -> gate -> convert -> encode -> upload ->
+    // parse (thread callback OkHttp, dibatasi liveRequests) -> render (UI thread). Setiap tahap
+    // punya antrean sendiri berkapasitas 1 yang membuang frame tertua.
+    private PipelineStage<LiveFrame, LiveFrame> liveGate;
+    private PipelineStage<LiveFrame, LiveFrame> liveConvert;
+    private PipelineStage<LiveFrame, LiveFrame> liveEncode;
+    private PipelineStage<LiveFrame, Void> liveUpload;
+    private PipelineStage<LiveResult, Void> liveRender;
+
+    // Pipeline capture/galeri: decode -> encode + upload. Tidak pernah membuang pekerjaan dan
+    // berjalan di thread terpisah, sehingga foto besar tidak menahan analisis live.
+    private PipelineStage<CaptureJob, DecodedImage> captureDecode;
+    private PipelineStage<DecodedImage, Void> captureEncode;
+    // Session capture/galeri terakhir; dibatalkan saat Activity dihancurkan
+    @Nullable
+    private volatile DetectionSession pendingCapture;
+
+    // Konversi frame analisis (hanya diakses dari tahap liveConvert)
+    private final YuvToRgbConverter yuvConverter = new YuvToRgbConverter();
+
+    // Menginterpolasi kotak live di antara hasil server; timestamp dari MonotonicClock.SYSTEM
+    private final ObjectTracker liveTracker = new ObjectTracker();
+
+    // Praproses ke ukuran input model sebelum upload; satu per jalur karena tidak thread-safe
+    private final ModelInputPreprocessor livePreprocessor = new ModelInputPreprocessor();
+    private final ModelInputPreprocessor capturePreprocessor = new ModelInputPreprocessor();
+
+    // Pool Bitmap milik Glide (dibatasi dan di-trim oleh Glide) dan pool buffer JPEG,
+    // agar konversi, encode, dan render tidak mengalokasikan ulang setiap frame
+    private BitmapPool bitmapPool;
+    private final ByteArrayPool jpegBufferPool = new ByteArrayPool(JPEG_POOL_BYTES);
+
+    // Penjadwal analisis live (menyesuaikan laju dengan RTT dan error jaringan)
+    private final FrameScheduler frameScheduler = new AdaptiveFrameScheduler(MonotonicClock.SYSTEM);
+
+    // Histogram latensi per tahap, selalu aktif; jamnya sama dengan DetectionSession.startNanos
+    private final LatencyTracer tracer = LatencyTracer.getInstance();
+    private final Runnable debugStatsUpdater = new Runnable() {
+        @Override
+        public void run() {
+            tvDebugStats.setText(tracer.formatSummary());
+            tvDebugStats.postDelayed(this, DEBUG_STATS_INTERVAL_MS);
+        }
+    };
+
+    // Menolak frame kabur atau eksposur buruk (hanya dari tahap liveGate)
+    private final FrameQualityGate qualityGate = new FrameQualityGate();
+
+    // Melewati frame yang pemandangannya tidak berubah (hanya hasChanged dari tahap liveGate)
+    private final SceneChangeGate sceneGate = new SceneChangeGate();
+
+    // Upload live ditahan karena circuit breaker RoboflowAPI terbuka (hanya dari tahap liveGate)
+    private boolean liveUploadsPaused;
+
+    // Cache hasil untuk frame/gambar berulang. Prediksi disimpan dalam koordinat ternormalisasi
+    // (0-1) agar bisa dipakai ulang untuk gambar yang sama dengan resolusi berbeda.
+    private final PerceptualHashCache<PredictionBatch> resultCache =
+            new PerceptualHashCache<>(MonotonicClock.SYSTEM);
+    private final int[] hashGrid = new int[PerceptualHash.GRID_WIDTH * PerceptualHash.GRID_HEIGHT];
+
+    // Cache persisten untuk gambar galeri/foto, dikunci SHA-256 dari file gambar
+    private DiskResultCache diskCache;
+
+    // Hasil diserahkan ke UI thread oleh DetectionSession.callback
+    private Executor mainExecutor;
+
+    // Ujung jalur live: hasil masuk ke tahap render bersama session-nya (geometri frame asal)
+    private final DetectionSession.Handler liveHandler = new DetectionSession.Handler() {
+        @Override
+        public void onResult(@NonNull DetectionSession session, @NonNull PredictionBatch predictions) {
+            liveRender.submit(new LiveResult(session, predictions));
+        }
+
+        @Override
+        public void onError(@NonNull DetectionSession session, @NonNull String error) {
+            runOnUiThread(() -> {
+                Toast.makeText(MainActivity.this, "Error: " + error, Toast.LENGTH_LONG).show();
+                Log.e(TAG, "API Error (" + session + "): " + error);
+            });
+        }
+    };
+
+    // Ujung jalur capture/galeri, dipanggil di UI thread. Setiap session membawa bitmapnya
+    // sendiri, jadi hasil live yang tiba bersamaan tidak bisa tertukar dengan hasil capture.
+    private final DetectionSession.Handler captureHandler = new DetectionSession.Handler() {
+        @Override
+        public void onResult(@NonNull DetectionSession session, @NonNull PredictionBatch predictions) {
+            Bitmap source = session.takeSource();
+            if (isDestroyed()) {
+                if (source != null) {
+                    bitmapPool.put(source);
+                }
+                return;
+            }
+            hideProgress();
+            if (source != null) {
+                tracer.record(LatencyTracer.Stage.CAPTURE_TOTAL, session.startNanos);
+                // Bounding box digambar oleh overlay ResultActivity, tanpa salinan bitmap kedua.
+                // Store mengambil alih bitmap; ResultActivity yang mengembalikannya ke pool.
+                String resultId = ResultStore.getInstance(MainActivity.this).put(source, predictions);
+                openResultActivity(resultId, predictions.size());
+            }
+        }
+
+        @Override
+        public void onError(@NonNull DetectionSession session, @NonNull String error) {
+            Bitmap source = session.takeSource();
+            if (source != null) {
+                bitmapPool.put(source);
+            }
+            if (isDestroyed()) {
+                return;
+            }
+            hideProgress();
+            Toast.makeText(MainActivity.this, "Error: " + error, Toast.LENGTH_LONG).show();
+            Log.e(TAG, "API Error (" + session + "): " + error);
+        }
+    };
+
+    /**
+     * Frame live yang sedang melewati pipeline. ImageProxy ditutup begitu bitmap dibuat,
+     * sehingga KEEP_ONLY_LATEST milik CameraX ikut menahan frame selama gate dan konversi.
+     */
+    private static final class LiveFrame {
+        final long startNanos;
+        @Nullable
+        ImageProxy image;
+        // Dibuat di tahap gate setelah geometri frame diketahui
+        @Nullable
+        DetectionSession session;
+        long hash;
+        @Nullable
+        Bitmap bitmap;
+        @Nullable
+        PooledByteArrayOutputStream jpeg;
+
+        LiveFrame(ImageProxy image, long startNanos) {
+            this.image = image;
+            this.startNanos = startNanos;
+        }
+    }
+
+    private static final class LiveResult {
+        final DetectionSession session;
+        final PredictionBatch predictions;
+
+        LiveResult(DetectionSession session, PredictionBatch predictions) {
+            this.session = session;
+            this.predictions = predictions;
+        }
+    }
+
+    /**
+     * Gambar capture atau galeri yang menunggu di-decode; tepat salah satu sumber terisi.
+     */
+    private static final class CaptureJob {
+        final DetectionSession.Mode mode;
+        final long startNanos;
+        @Nullable
+        final byte[] jpegBytes;
+        final int rotationDegrees;
+        @Nullable
+        final Uri uri;
+        final String failureMessage;
+
+        CaptureJob(DetectionSession.Mode mode, @Nullable byte[] jpegBytes, int rotationDegrees,
+                   @Nullable Uri uri, String failureMessage) {
+            this.mode = mode;
+            this.startNanos = MonotonicClock.SYSTEM.nanoTime();
+            this.jpegBytes = jpegBytes;
+            this.rotationDegrees = rotationDegrees;
+            this.uri = uri;
+            this.failureMessage = failureMessage;
+        }
+    }
+
+    /**
+     * Capture yang sudah di-decode. Bitmap dimiliki session; {@code bitmap} hanya untuk
+     * praproses selama session belum selesai.
+     */
+    private static final class DecodedImage {
+        final DetectionSession session;
+        final Bitmap bitmap;
+        @Nullable
+        final String contentKey;
+
+        DecodedImage(DetectionSession session, Bitmap bitmap, @Nullable String contentKey) {
+            this.session = session;
+            this.bitmap = bitmap;
+            this.contentKey = contentKey;
+        }
+    }
 
     // Activity Result Launchers
     private ActivityResultLauncher<String> requestPermissionLauncher;
@@ -88,6 +307,8 @@ public class MainActivity extends AppCompatActivity implements RoboflowAPI.ApiCa
 
         // Initialize UI
         previewView = findViewById(R.id.preview_view);
+        liveOverlay = findViewById(R.id.live_overlay);
+        liveOverlay.setTracker(liveTracker, ClassRegistry.getInstance(), MonotonicClock.SYSTEM);
         ivResult = findViewById(R.id.iv_result);
         tvLiveResult = findViewById(R.id.tv_live_result);
         btnCapture = findViewById(R.id.btn_capture);
@@ -96,13 +317,21 @@ public class MainActivity extends AppCompatActivity implements RoboflowAPI.ApiCa
         cameraControls = findViewById(R.id.camera_controls);
         progressOverlay = findViewById(R.id.progress_overlay);
         tvProgressStatus = findViewById(R.id.tv_progress_status);
+        tvDebugStats = findViewById(R.id.tv_debug_stats);
 
         // Initialize Roboflow API
         roboflowAPI = new RoboflowAPI();
+        InferenceHttpClient.watchNetworkChanges(this);
+        diskCache = new DiskResultCache(new File(getCacheDir(), "detections-v1"), DISK_CACHE_BYTES);
+        bitmapPool = Glide.get(this).getBitmapPool();
+        mainExecutor = ContextCompat.getMainExecutor(this);
         cameraExecutor = Executors.newSingleThreadExecutor();
+        ioExecutor = Executors.newSingleThreadExecutor();
+        setupPipeline();
 
         setupLaunchers();
         setupClickListeners();
+        setupDebugOverlay();
 
         OnBackPressedCallback callback = new OnBackPressedCallback(true) {
             @Override
@@ -132,23 +361,7 @@ public class MainActivity extends AppCompatActivity implements RoboflowAPI.ApiCa
         // PERBAIKI NAMA PAKET DI SINI: ActivityResultContracts
         pickImageLauncher = registerForActivityResult(new ActivityResultContracts.GetContent(), uri -> { // KOREKSI: ActivityResultContracts
             if (uri != null) {
-                try (InputStream inputStream = getContentResolver().openInputStream(uri)) {
-                    Bitmap selectedBitmap = BitmapFactory.decodeStream(inputStream);
-                    if (selectedBitmap != null) {
-                        // Untuk gambar dari galeri, rotasi mungkin diperlukan
-                        // Anda mungkin perlu mendapatkan orientasi EXIF dari URI untuk rotasi yang akurat
-                        // Untuk sementara, coba rotasi 90 jika masih miring, atau hapus jika tidak
-                        // int rotation = getImageRotationFromUri(uri); // Ini memerlukan fungsi pembantu
-                        // selectedBitmap = ImageUtil.rotateBitmap(selectedBitmap, rotation);
-                        processBitmapForDetection(selectedBitmap);
-                    } else {
-                        hideProgress();
-                        Toast.makeText(this, "Gagal memuat gambar dari galeri", Toast.LENGTH_SHORT).show();
-                    }
-                } catch (IOException e) {
-                    Log.e(TAG, "Gagal membuka gambar dari URI", e);
-                    hideProgress();
-                }
+                decodeAndDetect(uri, "Gagal memuat gambar dari galeri");
             } else {
                 hideProgress();
             }
@@ -161,6 +374,73 @@ public class MainActivity extends AppCompatActivity implements RoboflowAPI.ApiCa
         btnCloseResult.setOnClickListener(v -> hideResultView());
     }
 
+    /**
+     * Overlay p50/p95/p99 per tahap untuk build debuggable. Tekan lama untuk menulis dump JSON
+     * ke direktori file aplikasi.
+     */
+    private void setupDebugOverlay() {
+        debugOverlayEnabled = (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        if (!debugOverlayEnabled) {
+            return;
+        }
+        tvDebugStats.setVisibility(View.VISIBLE);
+        tvDebugStats.setOnLongClickListener(v -> {
+            dumpLatencyTrace();
+            return true;
+        });
+    }
+
+    private void dumpLatencyTrace() {
+        File file = new File(getFilesDir(), LATENCY_DUMP_FILE);
+        ioExecutor.execute(() -> {
+            try {
+                tracer.dumpTo(file);
+                for (PipelineStage.Metrics metrics : getPipelineMetrics()) {
+                    Log.d(TAG, "Pipeline " + metrics);
+                }
+                Log.d(TAG, "Trace latensi ditulis ke " + file);
+                runOnUiThread(() -> Toast.makeText(this, "Trace latensi: " + file, Toast.LENGTH_SHORT).show());
+            } catch (IOException e) {
+                Log.w(TAG, "Gagal menulis trace latensi", e);
+            }
+        });
+    }
+
+    /**
+     * Membangun tahap-tahap pipeline. Setiap tahap punya thread sendiri kecuali render, yang
+     * berjalan di UI thread. Frame live yang terbuang dilepas lewat {@link #releaseLiveFrame}.
+     */
+    private void setupPipeline() {
+        PipelineStage.DropPolicy dropOldest = PipelineStage.DropPolicy.DROP_OLDEST;
+        liveGate = PipelineStage.withOwnThread("live-gate", 1, dropOldest, this::gateFrame, this::releaseLiveFrame);
+        liveConvert = PipelineStage.withOwnThread("live-convert", 1, dropOldest, this::convertFrame, this::releaseLiveFrame);
+        liveEncode = PipelineStage.withOwnThread("live-encode", 1, dropOldest, this::encodeFrame, this::releaseLiveFrame);
+        liveUpload = PipelineStage.withOwnThread("live-upload", 1, dropOldest, this::uploadFrame, this::releaseLiveFrame);
+        liveGate.connect(liveConvert).connect(liveEncode).connect(liveUpload);
+        liveRender = new PipelineStage<>("live-render", 1, dropOldest, mainExecutor,
+                this::renderLive, null, MonotonicClock.SYSTEM);
+
+        // Satu capture berjalan plus satu menunggu; tombol disembunyikan selama proses,
+        // jadi pengirim praktis tidak pernah menunggu
+        PipelineStage.DropPolicy neverDrop = PipelineStage.DropPolicy.NEVER_DROP;
+        captureDecode = PipelineStage.withOwnThread("capture-decode", 2, neverDrop, this::decodeCapture, null);
+        captureEncode = PipelineStage.withOwnThread("capture-encode", 2, neverDrop, this::detectCapture,
+                image -> releaseSource(image.session));
+        captureDecode.connect(captureEncode);
+    }
+
+    /**
+     * @return Potret metrik semua tahap pipeline, dari hulu ke hilir.
+     */
+    public List<PipelineStage.Metrics> getPipelineMetrics() {
+        List<PipelineStage.Metrics> metrics = new ArrayList<>();
+        for (PipelineStage<?, ?> stage : Arrays.asList(liveGate, liveConvert, liveEncode, liveUpload,
+                liveRender, captureDecode, captureEncode)) {
+            metrics.add(stage.getMetrics());
+        }
+        return metrics;
+    }
+
     private void requestCameraPermission() {
         if (ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) == PackageManager.PERMISSION_GRANTED) {
             startCamera();
@@ -189,7 +469,20 @@ public class MainActivity extends AppCompatActivity implements RoboflowAPI.ApiCa
 
                 CameraSelector cameraSelector = CameraSelector.DEFAULT_BACK_CAMERA;
                 cameraProvider.unbindAll();
-                cameraProvider.bindToLifecycle(this, cameraSelector, preview, imageCapture, imageAnalysis);
+                // ViewPort menyamakan area yang terlihat di pratinjau dengan crop rect frame
+                // analisis, sehingga overlay bisa memetakan koordinat dengan tepat
+                ViewPort viewPort = previewView.getViewPort();
+                if (viewPort != null) {
+                    UseCaseGroup useCases = new UseCaseGroup.Builder()
+                            .setViewPort(viewPort)
+                            .addUseCase(preview)
+                            .addUseCase(imageCapture)
+                            .addUseCase(imageAnalysis)
+                            .build();
+                    cameraProvider.bindToLifecycle(this, cameraSelector, useCases);
+                } else {
+                    cameraProvider.bindToLifecycle(this, cameraSelector, preview, imageCapture, imageAnalysis);
+                }
 
                 Log.d(TAG, "Camera started successfully");
             } catch (Exception e) {
@@ -199,28 +492,207 @@ public class MainActivity extends AppCompatActivity implements RoboflowAPI.ApiCa
         }, ContextCompat.getMainExecutor(this));
     }
 
-    @SuppressLint("UnsafeOptInUsageError")
+    /**
+     * Tahap acquire: hanya menanyakan penjadwal lalu menyerahkan frame ke tahap gate.
+     */
     private void analyzeFrame(ImageProxy imageProxy) {
-        if (System.currentTimeMillis() - lastAnalysisTime < 1500) {
+        long startNanos = frameScheduler.tryAcquire();
+        if (startNanos == FrameScheduler.NOT_NOW) {
             imageProxy.close();
             return;
         }
+        liveGate.submit(new LiveFrame(imageProxy, startNanos));
+    }
 
+    /**
+     * Tahap gate: kualitas, perubahan scene, dan cache hasil, semuanya dari plane Y tanpa
+     * membuat Bitmap. Frame yang berhenti di sini langsung dilepas.
+     */
+    @Nullable
+    private LiveFrame gateFrame(LiveFrame frame) {
+        long gateStart = tracer.start();
+        boolean forwarded = false;
         try {
-            Bitmap bitmap = ImageUtil.imageToBitmap(imageProxy.getImage());
-            if (bitmap != null) {
-                isLiveDetection = true;
-                String base64Image = BitmapUtils.toBase64(bitmap);
-                roboflowAPI.detectGarbage(base64Image, this);
+            // Selama endpoint gangguan, frame tidak perlu dikonversi dan di-encode sama sekali
+            if (!roboflowAPI.getCircuitBreaker().isAcceptingRequests()) {
+                if (!liveUploadsPaused) {
+                    liveUploadsPaused = true;
+                    runOnUiThread(() -> tvLiveResult.setText("Layanan deteksi gangguan, mencoba lagi..."));
+                }
+                return null;
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Error in analyzeFrame", e);
+            liveUploadsPaused = false;
+
+            ImageProxy imageProxy = frame.image;
+            // Kedua gerbang membaca plane Y langsung, sebelum Bitmap dibuat. Frame kabur atau
+            // eksposur buruk ditolak dulu agar tidak menjadi referensi gerbang scene.
+            ImageProxy.PlaneProxy yPlane = imageProxy.getPlanes()[0];
+            FrameQualityGate.Verdict verdict = qualityGate.evaluate(yPlane.getBuffer(), yPlane.getRowStride(),
+                    yPlane.getPixelStride(), imageProxy.getWidth(), imageProxy.getHeight());
+            if (verdict != FrameQualityGate.Verdict.OK) {
+                // Jalur per frame: string hanya diformat jika VERBOSE aktif
+                if (Log.isLoggable(TAG, Log.VERBOSE)) {
+                    Log.v(TAG, String.format(Locale.US, "Frame ditolak: %s (ketajaman %.1f, luma %.1f)",
+                            verdict, qualityGate.getLastSharpness(), qualityGate.getLastMeanLuma()));
+                }
+                return null;
+            }
+
+            // Jika pemandangan sama dengan frame terakhir yang dikirim, hasil terakhir tetap ditampilkan
+            boolean changed = sceneGate.hasChanged(yPlane.getBuffer(), yPlane.getRowStride(),
+                    yPlane.getPixelStride(), imageProxy.getWidth(), imageProxy.getHeight());
+            if (sceneGate.getEvaluatedCount() % SCENE_GATE_LOG_INTERVAL == 0) {
+                Log.d(TAG, String.format(Locale.US, "Scene gate: %d/%d frame dilewati (%.1f%%), quality gate: %.1f%% ditolak, cache: %d hit / %d miss",
+                        sceneGate.getSkippedCount(), sceneGate.getEvaluatedCount(),
+                        sceneGate.getSkipRatio() * 100, qualityGate.getRejectRatio() * 100,
+                        resultCache.getHitCount(), resultCache.getMissCount()));
+                for (PipelineStage.Metrics metrics : getPipelineMetrics()) {
+                    Log.d(TAG, "Pipeline " + metrics);
+                }
+            }
+            if (!changed) {
+                return null;
+            }
+
+            int frameWidth = imageProxy.getWidth();
+            int frameHeight = imageProxy.getHeight();
+            frame.hash = PerceptualHash.fromLuma(yPlane.getBuffer(), yPlane.getRowStride(),
+                    yPlane.getPixelStride(), frameWidth, frameHeight, hashGrid);
+            DetectionSession session = DetectionSession.live(frame.startNanos, frameWidth, frameHeight,
+                    new Rect(imageProxy.getCropRect()), imageProxy.getImageInfo().getRotationDegrees());
+            frame.session = session;
+            PredictionBatch cached = resultCache.get(frame.hash);
+            if (cached != null) {
+                // Hasil cache tetap lewat tracker agar respons jaringan yang lebih lama tidak menimpanya
+                liveRequests.newTicket(trackOnSuccess(liveTracker, session.startNanos, liveCallback(session)))
+                        .onSuccess(cached.scaled(frameWidth, frameHeight));
+                return null;
+            }
+            forwarded = true;
+            return frame;
         } finally {
-            lastAnalysisTime = System.currentTimeMillis();
-            imageProxy.close();
+            tracer.record(LatencyTracer.Stage.GATE, gateStart);
+            if (!forwarded) {
+                releaseLiveFrame(frame);
+            }
         }
     }
 
+    /**
+     * Tahap convert: YUV ke Bitmap dari pool, lalu ImageProxy ditutup agar CameraX bisa
+     * mengirim frame berikutnya.
+     */
+    @SuppressLint("UnsafeOptInUsageError")
+    @Nullable
+    private LiveFrame convertFrame(LiveFrame frame) {
+        long convertStart = tracer.start();
+        try {
+            frame.bitmap = ImageUtil.imageToBitmap(frame.image.getImage(), yuvConverter, null, bitmapPool);
+        } finally {
+            frame.image.close();
+            frame.image = null;
+        }
+        tracer.record(LatencyTracer.Stage.YUV_CONVERT, convertStart);
+        return frame.bitmap != null ? frame : null;
+    }
+
+    /**
+     * Tahap encode: praproses ke ukuran input model lalu JPEG ke buffer dari pool.
+     */
+    private LiveFrame encodeFrame(LiveFrame frame) {
+        Bitmap bitmap = frame.bitmap;
+        try {
+            long preprocessStart = tracer.start();
+            ModelInputPreprocessor.PreparedInput input = livePreprocessor.prepare(bitmap, bitmapPool);
+            long encodeStart = tracer.start();
+            tracer.recordDuration(LatencyTracer.Stage.PREPROCESS, encodeStart - preprocessStart);
+            frame.jpeg = BitmapUtils.toJpeg(input.bitmap, jpegBufferPool);
+            tracer.record(LatencyTracer.Stage.JPEG_ENCODE, encodeStart);
+            frame.session.setTransform(input.transform);
+            input.release(bitmap, bitmapPool);
+        } finally {
+            bitmapPool.put(bitmap);
+            frame.bitmap = null;
+        }
+        return frame;
+    }
+
+    /**
+     * Tahap upload: mengirim request secara asinkron. Buffer JPEG menjadi milik RoboflowAPI;
+     * parse terjadi di thread callback OkHttp dan hasilnya masuk ke tahap render.
+     */
+    @Nullable
+    private Void uploadFrame(LiveFrame frame) {
+        PooledByteArrayOutputStream jpeg = frame.jpeg;
+        frame.jpeg = null;
+        DetectionSession session = frame.session;
+        RoboflowAPI.ApiCallback trackAndShow = trackOnSuccess(liveTracker, session.startNanos, liveCallback(session));
+        RoboflowAPI.ApiCallback cacheAndShow = cacheOnSuccess(frame.hash, session.sourceWidth, session.sourceHeight, trackAndShow);
+        LiveRequestTracker.Ticket ticket = liveRequests.newTicket(mapToSource(session, cacheAndShow));
+        RoboflowAPI.ApiCallback callback = invalidateOnError(sceneGate, ticket);
+        liveRequests.attach(ticket, roboflowAPI.detectGarbage(jpeg, RoboflowAPI.Lane.LIVE,
+                reportTo(frameScheduler, frame.startNanos, callback)));
+        return null;
+    }
+
+    /**
+     * Hasil live diteruskan langsung di thread callback ke tahap render, yang membuang hasil
+     * lama jika UI thread tertinggal.
+     */
+    private RoboflowAPI.ApiCallback liveCallback(DetectionSession session) {
+        return session.callback(Runnable::run, liveHandler);
+    }
+
+    /**
+     * Melepas sumber daya frame live yang dibuang atau disaring di tahap mana pun.
+     */
+    private void releaseLiveFrame(LiveFrame frame) {
+        if (frame.image != null) {
+            frame.image.close();
+            frame.image = null;
+        }
+        if (frame.bitmap != null) {
+            bitmapPool.put(frame.bitmap);
+            frame.bitmap = null;
+        }
+        if (frame.jpeg != null) {
+            frame.jpeg.release();
+            frame.jpeg = null;
+        }
+    }
+
+    /**
+     * Tahap render (UI thread). Hanya hasil terbaru yang digambar jika beberapa tiba dalam
+     * satu frame tampilan.
+     */
+    @Nullable
+    private Void renderLive(LiveResult result) {
+        long renderStart = tracer.start();
+        DetectionSession session = result.session;
+        PredictionBatch predictions = result.predictions;
+        Rect crop = session.cropRect;
+        if (crop != null) {
+            liveOverlay.setSourceGeometry(crop.left, crop.top, crop.right, crop.bottom,
+                    session.rotationDegrees, false);
+        }
+        // Kotak digambar dari liveTracker, yang sudah diperbarui oleh trackOnSuccess
+        liveOverlay.invalidate();
+        if (predictions.isEmpty()) {
+            tvLiveResult.setText("Tidak ada sampah terdeteksi");
+        } else {
+            StringBuilder detectedClasses = new StringBuilder();
+            for (int i = 0; i < predictions.size(); i++) {
+                if (i > 0) detectedClasses.append(", ");
+                detectedClasses.append(String.format("%s (%.1f%%)",
+                        predictions.getClassName(i), predictions.getConfidence(i) * 100));
+            }
+            tvLiveResult.setText(String.format("Terdeteksi: %s", detectedClasses));
+        }
+        tracer.record(LatencyTracer.Stage.RENDER, renderStart);
+        tracer.record(LatencyTracer.Stage.LIVE_TOTAL, session.startNanos);
+        return null;
+    }
+
     private void capturePhoto() {
         if (imageCapture == null) {
             Toast.makeText(this, "Kamera belum siap", Toast.LENGTH_SHORT).show();
@@ -229,152 +701,360 @@ public class MainActivity extends AppCompatActivity implements RoboflowAPI.ApiCa
 
         Log.d(TAG, "Starting photo capture...");
         showProgress("Mengambil foto...");
-        isCaptureMode = true;
 
         String name = "SmartWaste_" + new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss-SSS", Locale.US)
                 .format(new Date());
 
-        ContentValues contentValues = new ContentValues();
-        contentValues.put(MediaStore.MediaColumns.DISPLAY_NAME, name);
-        contentValues.put(MediaStore.MediaColumns.MIME_TYPE, "image/jpeg");
-
-        if (Build.VERSION.SDK_INT > Build.VERSION_CODES.P) {
-            contentValues.put(MediaStore.Images.Media.RELATIVE_PATH, "Pictures/SmartWaste");
-        }
-
-        ImageCapture.OutputFileOptions outputOptions = new ImageCapture.OutputFileOptions
-                .Builder(getContentResolver(), MediaStore.Images.Media.EXTERNAL_CONTENT_URI, contentValues)
-                .build();
-
-        imageCapture.takePicture(outputOptions, ContextCompat.getMainExecutor(this),
-                new ImageCapture.OnImageSavedCallback() {
-                    @Override
-                    public void onImageSaved(@NonNull ImageCapture.OutputFileResults output) {
-                        Uri savedUri = output.getSavedUri();
-                        Log.d(TAG, "Photo saved successfully: " + savedUri);
-
-                        Bitmap finalBitmap = null;
-
-                        try (InputStream inputStream = getContentResolver().openInputStream(savedUri)) {
-                            Bitmap loadedBitmap = BitmapFactory.decodeStream(inputStream);
-                            if (loadedBitmap != null) {
-                                finalBitmap = ImageUtil.rotateBitmap(loadedBitmap, 90);
-                                Toast.makeText(MainActivity.this, "Foto berhasil diambil", Toast.LENGTH_SHORT).show();
-                            } else {
-                                Toast.makeText(MainActivity.this, "Gagal memuat foto", Toast.LENGTH_SHORT).show();
-                            }
-                        } catch (IOException e) {
-                            Log.e(TAG, "Error loading saved photo", e);
-                            Toast.makeText(MainActivity.this, "Gagal memuat foto: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                        } finally {
-                            final Bitmap bitmapToProcess = finalBitmap;
-                            runOnUiThread(() -> {
-                                if (bitmapToProcess != null) {
-                                    showProgress("Menganalisis foto...");
-                                    processBitmapForDetection(bitmapToProcess);
-                                } else {
-                                    hideProgress();
-                                    isCaptureMode = false;
-                                }
-                            });
-                        }
-                    }
-
-                    @Override
-                    public void onError(@NonNull ImageCaptureException exception) {
-                        Log.e(TAG, "Photo capture failed", exception);
-                        runOnUiThread(() -> {
-                            hideProgress();
-                            isCaptureMode = false;
-                            Toast.makeText(MainActivity.this, "Gagal mengambil foto: " + exception.getMessage(), Toast.LENGTH_LONG).show();
-                        });
-                    }
+        // Capture di memori: deteksi langsung dari byte JPEG lewat pipeline capture, sedangkan
+        // penyimpanan ke galeri berjalan paralel di ioExecutor sehingga tidak menambah waktu
+        // sampai hasil tampil.
+        imageCapture.takePicture(cameraExecutor, new ImageCapture.OnImageCapturedCallback() {
+            @Override
+            public void onCaptureSuccess(@NonNull ImageProxy image) {
+                byte[] jpegBytes;
+                int rotationDegrees;
+                try {
+                    ByteBuffer buffer = image.getPlanes()[0].getBuffer();
+                    jpegBytes = new byte[buffer.remaining()];
+                    buffer.get(jpegBytes);
+                    rotationDegrees = image.getImageInfo().getRotationDegrees();
+                } finally {
+                    image.close();
+                }
+                Log.d(TAG, "Photo captured: " + jpegBytes.length + " bytes, rotation " + rotationDegrees);
+
+                ioExecutor.execute(() -> saveToGallery(jpegBytes, name, rotationDegrees));
+                submitCapture(new CaptureJob(DetectionSession.Mode.CAPTURE, jpegBytes, rotationDegrees,
+                        null, "Gagal memuat foto"));
+            }
+
+            @Override
+            public void onError(@NonNull ImageCaptureException exception) {
+                Log.e(TAG, "Photo capture failed", exception);
+                runOnUiThread(() -> {
+                    hideProgress();
+                    Toast.makeText(MainActivity.this, "Gagal mengambil foto: " + exception.getMessage(), Toast.LENGTH_LONG).show();
                 });
+            }
+        });
+    }
+
+    @WorkerThread
+    private void saveToGallery(byte[] jpegBytes, String name, int rotationDegrees) {
+        try {
+            Uri savedUri = GallerySaver.saveJpeg(getContentResolver(), jpegBytes, name, rotationDegrees);
+            Log.d(TAG, "Photo saved successfully: " + savedUri);
+            runOnUiThread(() -> Toast.makeText(this, "Foto tersimpan di galeri", Toast.LENGTH_SHORT).show());
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, "Gagal menyimpan foto ke galeri", e);
+            runOnUiThread(() -> Toast.makeText(this, "Gagal menyimpan foto: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+        }
     }
 
     private void uploadImage() {
         showProgress("Membuka galeri...");
-        isCaptureMode = false;
         pickImageLauncher.launch("image/*");
     }
 
-    private void processBitmapForDetection(Bitmap bitmap) {
+    /**
+     * Decode gambar di background dengan subsampling dan orientasi EXIF, lalu memulai deteksi.
+     * Ukuran decode dibatasi {@link #DECODE_LONG_EDGE} sehingga foto beresolusi sangat tinggi
+     * tidak pernah di-decode penuh.
+     */
+    private void decodeAndDetect(Uri uri, String failureMessage) {
+        showProgress("Memuat gambar...");
+        submitCapture(new CaptureJob(DetectionSession.Mode.GALLERY, null, 0, uri, failureMessage));
+    }
+
+    /**
+     * Memasukkan job ke pipeline capture tanpa memblok pemanggil (UI thread atau executor
+     * kamera). Jika antrean masih penuh oleh gambar sebelumnya, job ditolak dan pengguna
+     * diminta mencoba lagi.
+     */
+    private void submitCapture(CaptureJob job) {
+        if (!captureDecode.offer(job)) {
+            Log.w(TAG, "Antrean capture penuh, " + job.mode + " ditolak");
+            runOnUiThread(() -> {
+                hideProgress();
+                Toast.makeText(this, "Masih memproses gambar sebelumnya, coba lagi", Toast.LENGTH_SHORT).show();
+            });
+        }
+    }
+
+    /**
+     * Tahap decode capture: decode subsampled plus kunci cache disk dari byte asli.
+     */
+    @Nullable
+    private DecodedImage decodeCapture(CaptureJob job) {
+        long decodeStart = tracer.start();
+        Bitmap bitmap = null;
+        String contentKey = null;
+        if (job.uri != null) {
+            try {
+                bitmap = SampledBitmapDecoder.decode(getContentResolver(), job.uri, DECODE_LONG_EDGE);
+            } catch (IOException | SecurityException e) {
+                Log.e(TAG, "Gagal membuka gambar dari URI", e);
+            }
+            contentKey = bitmap != null ? contentKeyOf(job.uri) : null;
+        } else {
+            bitmap = SampledBitmapDecoder.decode(job.jpegBytes, DECODE_LONG_EDGE, job.rotationDegrees);
+            contentKey = bitmap != null ? contentKeyOf(job.jpegBytes) : null;
+        }
+        tracer.record(LatencyTracer.Stage.DECODE, decodeStart);
+
         if (bitmap == null) {
-            hideProgress();
+            runOnUiThread(() -> {
+                hideProgress();
+                Toast.makeText(this, job.failureMessage, Toast.LENGTH_SHORT).show();
+            });
+            return null;
+        }
+        DetectionSession session = DetectionSession.capture(job.mode, job.startNanos, bitmap);
+        pendingCapture = session;
+        runOnUiThread(() -> showProgress("Menganalisis gambar..."));
+        return new DecodedImage(session, bitmap, contentKey);
+    }
+
+    private void releaseSource(DetectionSession session) {
+        Bitmap source = session.takeSource();
+        if (source != null) {
+            bitmapPool.put(source);
+        }
+    }
+
+    /**
+     * Tahap deteksi capture: cache disk, cache hash, lalu praproses, encode dan upload.
+     * Exception menyelesaikan session dengan error, sehingga overlay progres selalu ditutup.
+     */
+    @Nullable
+    private Void detectCapture(DecodedImage image) {
+        RoboflowAPI.ApiCallback done = image.session.callback(mainExecutor, captureHandler);
+        try {
+            runCaptureDetection(image, done);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Gagal memproses " + image.session, e);
+            done.onError("Gagal memproses gambar: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private void runCaptureDetection(DecodedImage image, RoboflowAPI.ApiCallback done) {
+        Bitmap bitmap = image.bitmap;
+        String contentKey = image.contentKey;
+        PredictionBatch stored = contentKey != null ? loadFromDisk(contentKey) : null;
+        if (stored != null) {
+            Log.d(TAG, "Hasil deteksi diambil dari cache disk");
+            stored.scale(bitmap.getWidth(), bitmap.getHeight());
+            done.onSuccess(stored);
             return;
         }
 
-        showProgress("Menganalisis gambar...");
-        this.originalBitmapForDetection = bitmap;
-        this.isLiveDetection = false;
+        long preprocessStart = tracer.start();
+        ModelInputPreprocessor.PreparedInput input = capturePreprocessor.prepare(bitmap, bitmapPool);
+        tracer.record(LatencyTracer.Stage.PREPROCESS, preprocessStart);
+        image.session.setTransform(input.transform);
+        long imageHash = BitmapUtils.perceptualHash(input.bitmap);
+        PredictionBatch cached = resultCache.get(imageHash);
+        if (cached != null) {
+            input.release(bitmap, bitmapPool);
+            Log.d(TAG, "Hasil deteksi diambil dari cache");
+            done.onSuccess(cached.scaled(bitmap.getWidth(), bitmap.getHeight()));
+            return;
+        }
 
-        cameraExecutor.execute(() -> {
-            String base64Image = BitmapUtils.toBase64(originalBitmapForDetection);
-            roboflowAPI.detectGarbage(base64Image, this);
-        });
+        long encodeStart = tracer.start();
+        PooledByteArrayOutputStream jpeg = BitmapUtils.toJpeg(input.bitmap, jpegBufferPool);
+        tracer.record(LatencyTracer.Stage.JPEG_ENCODE, encodeStart);
+        input.release(bitmap, bitmapPool);
+        RoboflowAPI.ApiCallback persistAndShow = persistOnSuccess(contentKey, bitmap.getWidth(), bitmap.getHeight(), done);
+        RoboflowAPI.ApiCallback cacheAndShow = cacheOnSuccess(imageHash, bitmap.getWidth(), bitmap.getHeight(), persistAndShow);
+        roboflowAPI.detectGarbage(jpeg, RoboflowAPI.Lane.CAPTURE, mapToSource(image.session, cacheAndShow));
     }
 
-    @Override
-    public void onSuccess(List<RoboflowAPI.Prediction> predictions) {
-        runOnUiThread(() -> {
-            hideProgress();
+    /**
+     * Membungkus callback agar round-trip time dan error setiap request live dilaporkan ke
+     * penjadwal frame sebelum hasilnya diteruskan.
+     */
+    private static RoboflowAPI.ApiCallback reportTo(FrameScheduler scheduler, long startNanos,
+                                                    RoboflowAPI.ApiCallback delegate) {
+        return new RoboflowAPI.BatchCallback() {
+            @Override
+            public void onSuccess(PredictionBatch predictions) {
+                scheduler.onSuccess(startNanos);
+                delegate.onSuccess(predictions);
+            }
 
-            if (isLiveDetection) {
-                if (predictions.isEmpty()) {
-                    tvLiveResult.setText("Tidak ada sampah terdeteksi");
-                } else {
-                    String detectedClasses = predictions.stream()
-                            .map(p -> String.format("%s (%.1f%%)", p.className, p.confidence * 100))
-                            .collect(Collectors.joining(", "));
-                    tvLiveResult.setText(String.format("Terdeteksi: %s", detectedClasses));
-                }
-            } else {
-                if (originalBitmapForDetection != null) {
-                    Bitmap resultBitmap = BitmapUtils.drawBoundingBoxes(originalBitmapForDetection, predictions);
+            @Override
+            public void onError(String error) {
+                scheduler.onFailure(startNanos);
+                delegate.onError(error);
+            }
+        };
+    }
 
-                    AppDataHolder.getInstance().setResultBitmap(resultBitmap);
-                    AppDataHolder.getInstance().setPredictions(predictions);
+    /**
+     * Membungkus callback agar hasil live dimasukkan ke pelacak dengan waktu frame asalnya,
+     * bukan waktu respons tiba, sebelum diteruskan. Prediksi harus dalam koordinat frame analisis.
+     */
+    private static RoboflowAPI.ApiCallback trackOnSuccess(ObjectTracker tracker, long frameNanos,
+                                                          RoboflowAPI.ApiCallback delegate) {
+        return new RoboflowAPI.BatchCallback() {
+            @Override
+            public void onSuccess(PredictionBatch predictions) {
+                tracker.update(frameNanos, predictions);
+                delegate.onSuccess(predictions);
+            }
 
-                    openResultActivity();
+            @Override
+            public void onError(String error) {
+                delegate.onError(error);
+            }
+        };
+    }
+
+    /**
+     * Membungkus callback agar frame referensi gerbang scene dibuang saat request gagal,
+     * sehingga frame berikutnya tetap dikirim walaupun pemandangan tidak berubah.
+     */
+    private static RoboflowAPI.ApiCallback invalidateOnError(SceneChangeGate gate,
+                                                             RoboflowAPI.ApiCallback delegate) {
+        return new RoboflowAPI.BatchCallback() {
+            @Override
+            public void onSuccess(PredictionBatch predictions) {
+                delegate.onSuccess(predictions);
+            }
+
+            @Override
+            public void onError(String error) {
+                gate.invalidate();
+                delegate.onError(error);
+            }
+        };
+    }
+
+    /**
+     * Membungkus callback agar bounding box dipetakan kembali dari koordinat input model
+     * ke koordinat bitmap asli dengan transformasi milik {@code session} sebelum diteruskan.
+     */
+    private static RoboflowAPI.ApiCallback mapToSource(DetectionSession session,
+                                                       RoboflowAPI.ApiCallback delegate) {
+        return new RoboflowAPI.BatchCallback() {
+            @Override
+            public void onSuccess(PredictionBatch predictions) {
+                session.toSource(predictions);
+                delegate.onSuccess(predictions);
+            }
+
+            @Override
+            public void onError(String error) {
+                delegate.onError(error);
+            }
+        };
+    }
+
+    /**
+     * Membungkus callback agar hasil sukses disimpan ke {@link #resultCache} dalam koordinat
+     * ternormalisasi sebelum diteruskan.
+     */
+    private RoboflowAPI.ApiCallback cacheOnSuccess(long hash, int width, int height,
+                                                   RoboflowAPI.ApiCallback delegate) {
+        return new RoboflowAPI.BatchCallback() {
+            @Override
+            public void onSuccess(PredictionBatch predictions) {
+                resultCache.put(hash, predictions.scaled(1f / width, 1f / height));
+                delegate.onSuccess(predictions);
+            }
+
+            @Override
+            public void onError(String error) {
+                delegate.onError(error);
+            }
+        };
+    }
+
+    /**
+     * Membungkus callback agar hasil sukses juga disimpan ke {@link #diskCache} dalam koordinat
+     * ternormalisasi. Jika kunci null, callback diteruskan apa adanya.
+     */
+    private RoboflowAPI.ApiCallback persistOnSuccess(@Nullable String contentKey, int width, int height,
+                                                     RoboflowAPI.ApiCallback delegate) {
+        if (contentKey == null) {
+            return delegate;
+        }
+        return new RoboflowAPI.BatchCallback() {
+            @Override
+            public void onSuccess(PredictionBatch predictions) {
+                try {
+                    diskCache.put(contentKey, PredictionCodec.encode(predictions.scaled(1f / width, 1f / height)));
+                } catch (IOException e) {
+                    Log.w(TAG, "Gagal menyimpan hasil ke cache disk", e);
                 }
+                delegate.onSuccess(predictions);
+            }
 
-                originalBitmapForDetection = null;
-                isCaptureMode = false;
+            @Override
+            public void onError(String error) {
+                delegate.onError(error);
             }
-        });
+        };
+    }
+
+    /**
+     * Menghitung kunci cache disk dari byte file gambar secara streaming.
+     * @return SHA-256 heksadesimal, atau null jika file tidak bisa dibaca.
+     */
+    @Nullable
+    private String contentKeyOf(Uri uri) {
+        try (InputStream inputStream = getContentResolver().openInputStream(uri)) {
+            return inputStream != null ? DiskResultCache.sha256Hex(inputStream) : null;
+        } catch (IOException | SecurityException e) {
+            Log.w(TAG, "Gagal menghitung hash gambar " + uri, e);
+            return null;
+        }
     }
 
-    private void openResultActivity() {
+    private static String contentKeyOf(byte[] jpegBytes) {
         try {
-            Intent intent = new Intent(this, ResultActivity.class);
+            return DiskResultCache.sha256Hex(new ByteArrayInputStream(jpegBytes));
+        } catch (IOException e) {
+            // ByteArrayInputStream tidak pernah melempar IOException
+            throw new IllegalStateException(e);
+        }
+    }
 
-            if (AppDataHolder.getInstance().getPredictions() != null) {
-                intent.putExtra(ResultActivity.EXTRA_OBJECT_COUNT, AppDataHolder.getInstance().getPredictions().size());
-            } else {
-                intent.putExtra(ResultActivity.EXTRA_OBJECT_COUNT, 0);
-            }
+    /**
+     * @return Prediksi ternormalisasi dari cache disk, atau null jika tidak ada atau rusak.
+     */
+    @Nullable
+    private PredictionBatch loadFromDisk(String contentKey) {
+        byte[] data = diskCache.get(contentKey);
+        if (data == null) {
+            return null;
+        }
+        try {
+            return PredictionCodec.decodeBatch(data, ClassRegistry.getInstance());
+        } catch (IOException e) {
+            Log.w(TAG, "Entri cache disk tidak valid, dihapus", e);
+            diskCache.remove(contentKey);
+            return null;
+        }
+    }
+
+    private void openResultActivity(String resultId, int objectCount) {
+        try {
+            Intent intent = new Intent(this, ResultActivity.class);
+            intent.putExtra(ResultActivity.EXTRA_RESULT_ID, resultId);
+            intent.putExtra(ResultActivity.EXTRA_OBJECT_COUNT, objectCount);
 
             startActivity(intent);
 
         } catch (Exception e) {
             Log.e(TAG, "Error opening ResultActivity", e);
+            ResultStore.getInstance(this).remove(resultId);
             Toast.makeText(this, "Gagal membuka hasil: " + e.getMessage(), Toast.LENGTH_SHORT).show();
         }
     }
 
-    @Override
-    public void onError(String error) {
-        runOnUiThread(() -> {
-            hideProgress();
-            Toast.makeText(this, "Error: " + error, Toast.LENGTH_LONG).show();
-            Log.e(TAG, "API Error: " + error);
-            if (!isLiveDetection) {
-                originalBitmapForDetection = null;
-                isCaptureMode = false;
-            }
-        });
-    }
-
     private void showProgress(String message) {
         Log.d(TAG, "PROGRESS: " + message);
         tvProgressStatus.setText(message);
@@ -389,15 +1069,6 @@ public class MainActivity extends AppCompatActivity implements RoboflowAPI.ApiCa
         }
     }
 
-    private void showResultView(Bitmap bitmap) {
-        progressOverlay.setVisibility(View.GONE);
-        ivResult.setImageBitmap(bitmap);
-        ivResult.setVisibility(View.VISIBLE);
-        btnCloseResult.setVisibility(View.VISIBLE);
-        cameraControls.setVisibility(View.GONE);
-        if(imageAnalysis != null) imageAnalysis.clearAnalyzer();
-    }
-
     private void hideResultView() {
         ivResult.setVisibility(View.GONE);
         btnCloseResult.setVisibility(View.GONE);
@@ -405,9 +1076,54 @@ public class MainActivity extends AppCompatActivity implements RoboflowAPI.ApiCa
         if(imageAnalysis != null) imageAnalysis.setAnalyzer(cameraExecutor, this::analyzeFrame);
     }
 
+    @Override
+    protected void onStart() {
+        super.onStart();
+        // Koneksi ke host inferensi dibuka sambil kamera menyala; setelah lama di background
+        // pool sudah kosong dan koneksi dibuka ulang di sini, bukan oleh frame pertama
+        roboflowAPI.warmUp();
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (debugOverlayEnabled) {
+            tvDebugStats.post(debugStatsUpdater);
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        tvDebugStats.removeCallbacks(debugStatsUpdater);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // BitmapPool di-trim oleh Glide sendiri
+        jpegBufferPool.trimMemory(level);
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        liveRequests.cancelAll();
+        // Hasil yang tiba setelah ini tidak diserahkan ke captureHandler. Bitmap sumber dibiarkan
+        // ke GC karena tahap capture mungkin masih membacanya.
+        DetectionSession capture = pendingCapture;
+        if (capture != null) {
+            capture.cancel();
+        }
         cameraExecutor.shutdown();
+        liveGate.shutdown();
+        liveConvert.shutdown();
+        liveEncode.shutdown();
+        liveUpload.shutdown();
+        liveRender.shutdown();
+        captureDecode.shutdown();
+        captureEncode.shutdown();
+        // Penyimpanan galeri yang sedang berjalan tetap diselesaikan
+        ioExecutor.shutdown();
     }
 }
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.example.cohia;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.Rect;
+
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+
+/**
+ * Tahap praproses sebelum upload: memperkecil gambar ke ukuran input model dan (opsional)
+ * melakukan letterbox, sambil mencatat transformasinya.
+ *
+ * Detektor hanya membutuhkan sekitar 640 px, jadi ukuran upload dan latensi tidak lagi
+ * bertambah mengikuti resolusi kamera.
+ */
+public class ModelInputPreprocessor {
+
+    public static final int DEFAULT_INPUT_SIZE = 640;
+
+    // Warna abu-abu netral untuk area letterbox (sama dengan konvensi YOLO).
+    private static final int LETTERBOX_COLOR = Color.rgb(114, 114, 114);
+
+    private final int inputSize;
+    private final boolean letterbox;
+    private final Paint scalePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    public ModelInputPreprocessor() {
+        this(DEFAULT_INPUT_SIZE, false);
+    }
+
+    /**
+     * @param inputSize Sisi terpanjang gambar yang dikirim ke model.
+     * @param letterbox Jika true, gambar ditempatkan di kanvas persegi inputSize x inputSize.
+     */
+    public ModelInputPreprocessor(int inputSize, boolean letterbox) {
+        if (inputSize <= 0) {
+            throw new IllegalArgumentException("inputSize harus positif: " + inputSize);
+        }
+        this.inputSize = inputSize;
+        this.letterbox = letterbox;
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    /**
+     * Hasil praproses: bitmap yang siap dikirim beserta transformasinya.
+     */
+    public static class PreparedInput {
+        public final Bitmap bitmap;
+        public final ModelInputTransform transform;
+
+        PreparedInput(Bitmap bitmap, ModelInputTransform transform) {
+            this.bitmap = bitmap;
+            this.transform = transform;
+        }
+
+        /**
+         * Melepas bitmap hasil praproses jika berbeda dari bitmap sumber.
+         */
+        public void recycleIfCopy(Bitmap source) {
+            if (bitmap != source) {
+                bitmap.recycle();
+            }
+        }
+
+        /**
+         * Mengembalikan bitmap hasil praproses ke pool jika berbeda dari bitmap sumber.
+         * Pasangan dari {@link #prepare(Bitmap, BitmapPool)}.
+         */
+        public void release(Bitmap source, BitmapPool pool) {
+            if (bitmap != source) {
+                pool.put(bitmap);
+            }
+        }
+    }
+
+    /**
+     * Menyiapkan bitmap untuk dikirim ke model. Jika tidak perlu diperkecil maupun
+     * di-letterbox, bitmap sumber dikembalikan apa adanya tanpa salinan.
+     */
+    public PreparedInput prepare(Bitmap source) {
+        ModelInputTransform transform = ModelInputTransform.fit(
+                source.getWidth(), source.getHeight(), inputSize, letterbox);
+        if (transform.isIdentity()) {
+            return new PreparedInput(source, transform);
+        }
+
+        if (!letterbox) {
+            Bitmap scaled = Bitmap.createScaledBitmap(source, transform.targetWidth, transform.targetHeight, true);
+            return new PreparedInput(scaled, transform);
+        }
+
+        Bitmap canvasBitmap = Bitmap.createBitmap(transform.targetWidth, transform.targetHeight, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(canvasBitmap);
+        canvas.drawColor(LETTERBOX_COLOR);
+        int left = (int) transform.offsetX;
+        int top = (int) transform.offsetY;
+        Rect dst = new Rect(left, top,
+                left + Math.round(source.getWidth() * transform.scale),
+                top + Math.round(source.getHeight() * transform.scale));
+        canvas.drawBitmap(source, null, dst, scalePaint);
+        return new PreparedInput(canvasBitmap, transform);
+    }
+
+    /**
+     * Sama dengan {@link #prepare(Bitmap)}, tetapi bitmap hasil diambil dari pool sehingga
+     * loop analisis tidak mengalokasikan bitmap baru setiap frame. Lepaskan hasilnya dengan
+     * {@link PreparedInput#release(Bitmap, BitmapPool)}.
+     */
+    public PreparedInput prepare(Bitmap source, BitmapPool pool) {
+        ModelInputTransform transform = ModelInputTransform.fit(
+                source.getWidth(), source.getHeight(), inputSize, letterbox);
+        if (transform.isIdentity()) {
+            return new PreparedInput(source, transform);
+        }
+
+        // Isi lama bitmap dari pool selalu tertimpa: oleh warna letterbox, atau oleh sumber
+        // yang mengisi seluruh kanvas (sumber transparan dibersihkan dulu).
+        Bitmap target = pool.getDirty(transform.targetWidth, transform.targetHeight, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(target);
+        if (letterbox) {
+            canvas.drawColor(LETTERBOX_COLOR);
+        } else if (source.hasAlpha()) {
+            canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+        }
+        int left = (int) transform.offsetX;
+        int top = (int) transform.offsetY;
+        Rect dst = letterbox
+                ? new Rect(left, top,
+                        left + Math.round(source.getWidth() * transform.scale),
+                        top + Math.round(source.getHeight() * transform.scale))
+                : new Rect(0, 0, transform.targetWidth, transform.targetHeight);
+        canvas.drawBitmap(source, null, dst, scalePaint);
+        return new PreparedInput(target, transform);
+    }
+}
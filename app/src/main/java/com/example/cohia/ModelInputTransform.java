@@ -0,0 +1,126 @@
+package com.example.cohia;
+
+import android.graphics.RectF;
+
+import com.example.cohia.api.PredictionBatch;
+import com.example.cohia.api.RoboflowAPI;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mencatat transformasi dari bitmap asli ke gambar input model (skala + offset letterbox),
+ * sehingga koordinat hasil deteksi bisa dipetakan kembali ke bitmap asli.
+ *
+ * Koordinat input model = koordinat asli * scale + offset.
+ */
+public class ModelInputTransform {
+
+    public final int sourceWidth;
+    public final int sourceHeight;
+    public final int targetWidth;
+    public final int targetHeight;
+    public final float scale;
+    public final float offsetX;
+    public final float offsetY;
+
+    public ModelInputTransform(int sourceWidth, int sourceHeight, int targetWidth, int targetHeight,
+                               float scale, float offsetX, float offsetY) {
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+        this.targetWidth = targetWidth;
+        this.targetHeight = targetHeight;
+        this.scale = scale;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+    }
+
+    /**
+     * Transformasi identitas untuk gambar yang dikirim apa adanya.
+     */
+    public static ModelInputTransform identity(int width, int height) {
+        return new ModelInputTransform(width, height, width, height, 1f, 0f, 0f);
+    }
+
+    /**
+     * Menghitung transformasi yang memperkecil gambar agar sisi terpanjangnya tidak melebihi
+     * {@code inputSize}. Gambar yang lebih kecil tidak diperbesar.
+     *
+     * @param letterbox Jika true, hasil berupa kanvas persegi inputSize x inputSize dengan
+     *                  gambar di tengahnya; jika false, ukuran hasil mengikuti rasio aspek.
+     */
+    public static ModelInputTransform fit(int sourceWidth, int sourceHeight, int inputSize, boolean letterbox) {
+        float scale = Math.min(1f, (float) inputSize / Math.max(sourceWidth, sourceHeight));
+        int scaledWidth = Math.max(1, Math.round(sourceWidth * scale));
+        int scaledHeight = Math.max(1, Math.round(sourceHeight * scale));
+
+        if (!letterbox) {
+            return new ModelInputTransform(sourceWidth, sourceHeight, scaledWidth, scaledHeight, scale, 0f, 0f);
+        }
+        // Offset dibulatkan ke piksel penuh agar sama persis dengan posisi gambar di kanvas.
+        int offsetX = (inputSize - scaledWidth) / 2;
+        int offsetY = (inputSize - scaledHeight) / 2;
+        return new ModelInputTransform(sourceWidth, sourceHeight, inputSize, inputSize, scale, offsetX, offsetY);
+    }
+
+    public boolean isIdentity() {
+        return scale == 1f && offsetX == 0f && offsetY == 0f
+                && targetWidth == sourceWidth && targetHeight == sourceHeight;
+    }
+
+    public float toSourceX(float modelX) {
+        return clamp((modelX - offsetX) / scale, sourceWidth);
+    }
+
+    public float toSourceY(float modelY) {
+        return clamp((modelY - offsetY) / scale, sourceHeight);
+    }
+
+    /**
+     * Memetakan kotak [left, top, right, bottom] dari koordinat input model ke koordinat
+     * bitmap asli, langsung di dalam array yang diberikan.
+     */
+    public void toSource(float[] ltrb) {
+        ltrb[0] = toSourceX(ltrb[0]);
+        ltrb[1] = toSourceY(ltrb[1]);
+        ltrb[2] = toSourceX(ltrb[2]);
+        ltrb[3] = toSourceY(ltrb[3]);
+    }
+
+    /**
+     * Memetakan semua bounding box di batch ke koordinat bitmap asli, langsung di dalam batch.
+     */
+    public void toSource(PredictionBatch batch) {
+        if (isIdentity()) {
+            return;
+        }
+        float[] boxes = batch.getBoxes();
+        for (int o = 0, n = batch.size() * 4; o < n; o += 4) {
+            boxes[o] = toSourceX(boxes[o]);
+            boxes[o + 1] = toSourceY(boxes[o + 1]);
+            boxes[o + 2] = toSourceX(boxes[o + 2]);
+            boxes[o + 3] = toSourceY(boxes[o + 3]);
+        }
+    }
+
+    /**
+     * Membuat daftar prediksi baru dengan bounding box dalam koordinat bitmap asli.
+     */
+    public List<RoboflowAPI.Prediction> toSource(List<RoboflowAPI.Prediction> predictions) {
+        if (isIdentity()) {
+            return predictions;
+        }
+        List<RoboflowAPI.Prediction> mapped = new ArrayList<>(predictions.size());
+        for (RoboflowAPI.Prediction p : predictions) {
+            RectF box = new RectF(
+                    toSourceX(p.boundingBox.left), toSourceY(p.boundingBox.top),
+                    toSourceX(p.boundingBox.right), toSourceY(p.boundingBox.bottom));
+            mapped.add(new RoboflowAPI.Prediction(p.className, p.confidence, box));
+        }
+        return mapped;
+    }
+
+    private static float clamp(float value, int max) {
+        return value < 0f ? 0f : (value > max ? max : value);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.cohia;
+
+/**
+ * Sumber waktu monoton (tidak terpengaruh perubahan jam sistem), bisa diganti di pengujian.
+ */
+public interface MonotonicClock {
+
+    MonotonicClock SYSTEM = System::nanoTime;
+
+    /**
+     * @return Waktu dalam nanodetik; hanya bermakna sebagai selisih antar pemanggilan.
+     */
+    long nanoTime();
+}
@@ -0,0 +1,400 @@
+package com.example.cohia;
+
+import com.example.cohia.api.ClassRegistry;
+import com.example.cohia.api.PredictionBatch;
+import com.example.cohia.api.RoboflowAPI;
+
+import java.util.List;
+
+/**
+ * Pelacak objek di antara hasil server, agar overlay live bisa bergerak mulus pada laju layar
+ * walaupun deteksi hanya datang setiap beberapa ratus milidetik.
+ *
+ * <ul>
+ *     <li>Asosiasi: setiap hasil baru dipasangkan dengan track yang ada memakai algoritma
+ *     Hungarian pada biaya {@code (1 - IoU) + jarak titik tengah / diagonal}. Kelas harus sama,
+ *     dan IoU minimal {@link Config#minIou} atau jarak paling jauh
+ *     {@link Config#maxCenterDistance}, agar objek cepat yang kotaknya tidak lagi beririsan
+ *     tetap terpasang.</li>
+ *     <li>Gerak: filter alpha-beta pada titik tengah (posisi + kecepatan piksel/detik) dan
+ *     penghalusan eksponensial pada ukuran kotak.</li>
+ *     <li>Di antara hasil, {@link #snapshot} mengekstrapolasi posisi dengan kecepatan track,
+ *     paling jauh {@link Config#maxExtrapolationMillis}.</li>
+ *     <li>Track yang tidak diperbarui selama {@link Config#maxAgeMillis} dihapus oleh
+ *     {@link #snapshot}, sehingga kotak tidak tertinggal di layar saat hasil berhenti datang
+ *     (scene tidak berubah, circuit breaker terbuka, atau jaringan putus).</li>
+ * </ul>
+ *
+ * Semua state disimpan dalam array primitif berkapasitas tetap, sehingga update dan snapshot
+ * tidak mengalokasikan objek. Koordinat dalam piksel gambar analisis. Semua method thread-safe.
+ */
+public class ObjectTracker {
+
+    public static final int DEFAULT_CAPACITY = 32;
+
+    // Biaya untuk pasangan yang tidak boleh dipasangkan; lebih besar dari biaya valid mana pun
+    // (terbatas, agar potensial Hungarian tetap presisi)
+    private static final float NO_MATCH = 1e6f;
+
+    /**
+     * Parameter pelacak. Nilai bawaan disetel untuk hasil setiap 0,5-2 detik pada 640x480.
+     */
+    public static class Config {
+        /** IoU minimal antara kotak prediksi track dan deteksi baru agar dipasangkan. */
+        public float minIou = 0.2f;
+        /**
+         * Jarak titik tengah maksimum (dalam kelipatan rata-rata diagonal kedua kotak) untuk
+         * pasangan yang IoU-nya di bawah {@link #minIou}.
+         */
+        public float maxCenterDistance = 1f;
+        /** Bobot koreksi posisi filter alpha-beta (0-1). */
+        public float alpha = 0.7f;
+        /** Bobot koreksi kecepatan filter alpha-beta (0-1). */
+        public float beta = 0.3f;
+        /** Bobot penghalusan lebar/tinggi kotak (0-1). */
+        public float sizeAlpha = 0.5f;
+        /** Jumlah update berturut-turut tanpa pasangan sebelum track dihapus. */
+        public int maxMisses = 1;
+        /** Batas ekstrapolasi sejak update terakhir track. */
+        public long maxExtrapolationMillis = 2000;
+        /** Umur maksimum track sejak update terakhir sebelum dihapus dari snapshot. */
+        public long maxAgeMillis = 3000;
+    }
+
+    private final Config config;
+    private final int capacity;
+    private final long maxExtrapolationNanos;
+    private final long maxAgeNanos;
+
+    // State per track; indeks 0..trackCount-1 selalu padat
+    private final int[] trackIds;
+    private final int[] classIds;
+    private final float[] confidences;
+    private final float[] centerX, centerY, width, height;
+    private final float[] velocityX, velocityY;
+    private final long[] lastUpdateNanos;
+    private final int[] misses;
+    private int trackCount = 0;
+    private int nextTrackId = 1;
+
+    // Ruang kerja asosiasi
+    private final HungarianSolver solver;
+    private final float[] cost;
+    private final int[] assignment;
+    private final boolean[] detectionMatched;
+    private final float[] predicted = new float[4];
+
+    // Ruang kerja adaptor List<Prediction>
+    private final float[] inputBoxes;
+    private final float[] inputConfidences;
+    private final int[] inputClassIds;
+
+    public ObjectTracker() {
+        this(DEFAULT_CAPACITY, new Config());
+    }
+
+    /**
+     * @param capacity Jumlah maksimum track dan deteksi per update; deteksi berlebih diabaikan.
+     */
+    public ObjectTracker(int capacity, Config config) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity harus positif: " + capacity);
+        }
+        this.capacity = capacity;
+        this.config = config;
+        this.maxExtrapolationNanos = config.maxExtrapolationMillis * 1_000_000L;
+        this.maxAgeNanos = config.maxAgeMillis * 1_000_000L;
+
+        trackIds = new int[capacity];
+        classIds = new int[capacity];
+        confidences = new float[capacity];
+        centerX = new float[capacity];
+        centerY = new float[capacity];
+        width = new float[capacity];
+        height = new float[capacity];
+        velocityX = new float[capacity];
+        velocityY = new float[capacity];
+        lastUpdateNanos = new long[capacity];
+        misses = new int[capacity];
+
+        solver = new HungarianSolver(capacity);
+        cost = new float[capacity * capacity];
+        assignment = new int[capacity];
+        detectionMatched = new boolean[capacity];
+
+        inputBoxes = new float[capacity * 4];
+        inputConfidences = new float[capacity];
+        inputClassIds = new int[capacity];
+    }
+
+    /**
+     * Memasukkan hasil deteksi untuk frame yang diambil pada {@code frameNanos}.
+     *
+     * @param boxes       left, top, right, bottom per deteksi.
+     * @param confidences Confidence per deteksi.
+     * @param classIds    ID kelas per deteksi (lihat {@link ClassRegistry}).
+     * @param count       Jumlah deteksi; hanya {@code capacity} pertama yang dipakai.
+     */
+    public synchronized void update(long frameNanos, float[] boxes, float[] confidences, int[] classIds, int count) {
+        int detections = Math.min(count, capacity);
+        int size = Math.max(trackCount, detections);
+        if (size == 0) {
+            return;
+        }
+
+        // Matriks persegi; baris/kolom tambahan berbiaya NO_MATCH sebagai pasangan kosong
+        for (int i = 0; i < size; i++) {
+            int row = i * size;
+            if (i < trackCount) {
+                predictBox(i, frameNanos, predicted);
+            }
+            for (int j = 0; j < size; j++) {
+                float c = NO_MATCH;
+                if (i < trackCount && j < detections && this.classIds[i] == classIds[j]) {
+                    float iou = iou(predicted, boxes, j * 4);
+                    float distance = normalizedCenterDistance(predicted, boxes, j * 4);
+                    if (iou >= config.minIou || distance <= config.maxCenterDistance) {
+                        c = (1f - iou) + distance;
+                    }
+                }
+                cost[row + j] = c;
+            }
+        }
+        solver.solve(cost, size, assignment);
+
+        for (int j = 0; j < detections; j++) {
+            detectionMatched[j] = false;
+        }
+        for (int i = 0; i < trackCount; i++) {
+            int j = assignment[i];
+            if (j < detections && cost[i * size + j] < NO_MATCH) {
+                correct(i, frameNanos, boxes, j * 4, confidences[j], classIds[j]);
+                detectionMatched[j] = true;
+            } else {
+                misses[i]++;
+            }
+        }
+
+        // Hapus track yang terlalu lama tidak terlihat (tukar dengan elemen terakhir)
+        for (int i = trackCount - 1; i >= 0; i--) {
+            if (misses[i] > config.maxMisses) {
+                removeTrack(i);
+            }
+        }
+
+        for (int j = 0; j < detections && trackCount < capacity; j++) {
+            if (!detectionMatched[j]) {
+                addTrack(frameNanos, boxes, j * 4, confidences[j], classIds[j]);
+            }
+        }
+    }
+
+    /**
+     * Memasukkan batch hasil {@link RoboflowAPI} tanpa salinan; bounding box harus dalam
+     * koordinat gambar analisis dan ID kelas dari registry yang sama dengan overlay.
+     */
+    public synchronized void update(long frameNanos, PredictionBatch batch) {
+        update(frameNanos, batch.getBoxes(), batch.getConfidences(), batch.getClassIds(), batch.size());
+    }
+
+    /**
+     * Adaptor untuk hasil {@link RoboflowAPI}; bounding box harus dalam koordinat gambar analisis.
+     */
+    public synchronized void update(long frameNanos, List<RoboflowAPI.Prediction> predictions,
+                                    ClassRegistry registry) {
+        int count = Math.min(predictions.size(), capacity);
+        for (int i = 0; i < count; i++) {
+            RoboflowAPI.Prediction prediction = predictions.get(i);
+            inputBoxes[i * 4] = prediction.boundingBox.left;
+            inputBoxes[i * 4 + 1] = prediction.boundingBox.top;
+            inputBoxes[i * 4 + 2] = prediction.boundingBox.right;
+            inputBoxes[i * 4 + 3] = prediction.boundingBox.bottom;
+            inputConfidences[i] = prediction.confidence;
+            inputClassIds[i] = registry.idOf(prediction.className);
+        }
+        update(frameNanos, inputBoxes, inputConfidences, inputClassIds, count);
+    }
+
+    /**
+     * Menulis posisi semua track yang diekstrapolasi ke {@code nowNanos}. Track yang lebih tua
+     * dari {@link Config#maxAgeMillis} dihapus lebih dulu.
+     *
+     * @param outBoxes       Minimal {@code capacity * 4}: left, top, right, bottom.
+     * @param outConfidences Minimal {@code capacity}.
+     * @param outClassIds    Minimal {@code capacity}.
+     * @param outTrackIds    Minimal {@code capacity}; ID stabil selama track hidup.
+     * @return Jumlah track yang ditulis.
+     */
+    public synchronized int snapshot(long nowNanos, float[] outBoxes, float[] outConfidences,
+                                     int[] outClassIds, int[] outTrackIds) {
+        for (int i = trackCount - 1; i >= 0; i--) {
+            if (nowNanos - lastUpdateNanos[i] > maxAgeNanos) {
+                removeTrack(i);
+            }
+        }
+        for (int i = 0; i < trackCount; i++) {
+            predictBox(i, nowNanos, predicted);
+            System.arraycopy(predicted, 0, outBoxes, i * 4, 4);
+            outConfidences[i] = confidences[i];
+            outClassIds[i] = classIds[i];
+            outTrackIds[i] = trackIds[i];
+        }
+        return trackCount;
+    }
+
+    /**
+     * @return true jika posisi track masih berubah pada {@code nowNanos} (ada kecepatan dan
+     * belum melewati batas ekstrapolasi), sehingga overlay perlu digambar ulang tiap frame.
+     */
+    public synchronized boolean isExtrapolating(long nowNanos) {
+        for (int i = 0; i < trackCount; i++) {
+            if ((velocityX[i] != 0f || velocityY[i] != 0f)
+                    && nowNanos - lastUpdateNanos[i] < maxExtrapolationNanos) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Waktu sampai track berikutnya kedaluwarsa, atau -1 jika tidak ada track.
+     */
+    public synchronized long nanosUntilNextExpiry(long nowNanos) {
+        long next = -1;
+        for (int i = 0; i < trackCount; i++) {
+            long remaining = Math.max(0, lastUpdateNanos[i] + maxAgeNanos - nowNanos);
+            if (next < 0 || remaining < next) {
+                next = remaining;
+            }
+        }
+        return next;
+    }
+
+    public synchronized int getTrackCount() {
+        return trackCount;
+    }
+
+    public synchronized void clear() {
+        trackCount = 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private void predictBox(int track, long nanos, float[] out) {
+        float dt = extrapolationSeconds(track, nanos);
+        float cx = centerX[track] + velocityX[track] * dt;
+        float cy = centerY[track] + velocityY[track] * dt;
+        float halfWidth = width[track] / 2f;
+        float halfHeight = height[track] / 2f;
+        out[0] = cx - halfWidth;
+        out[1] = cy - halfHeight;
+        out[2] = cx + halfWidth;
+        out[3] = cy + halfHeight;
+    }
+
+    private float extrapolationSeconds(int track, long nanos) {
+        long elapsed = nanos - lastUpdateNanos[track];
+        if (elapsed <= 0) {
+            return 0f;
+        }
+        return Math.min(elapsed, maxExtrapolationNanos) / 1e9f;
+    }
+
+    private void correct(int track, long nanos, float[] boxes, int offset, float confidence, int classId) {
+        float measuredX = (boxes[offset] + boxes[offset + 2]) / 2f;
+        float measuredY = (boxes[offset + 1] + boxes[offset + 3]) / 2f;
+        float measuredWidth = boxes[offset + 2] - boxes[offset];
+        float measuredHeight = boxes[offset + 3] - boxes[offset + 1];
+
+        // Hasil yang datang tidak berurutan waktu tidak memperbarui kecepatan
+        long elapsed = nanos - lastUpdateNanos[track];
+        if (elapsed > 0) {
+            float dt = elapsed / 1e9f;
+            float predictedX = centerX[track] + velocityX[track] * Math.min(dt, maxExtrapolationNanos / 1e9f);
+            float predictedY = centerY[track] + velocityY[track] * Math.min(dt, maxExtrapolationNanos / 1e9f);
+            float residualX = measuredX - predictedX;
+            float residualY = measuredY - predictedY;
+            centerX[track] = predictedX + config.alpha * residualX;
+            centerY[track] = predictedY + config.alpha * residualY;
+            velocityX[track] += config.beta * residualX / dt;
+            velocityY[track] += config.beta * residualY / dt;
+            lastUpdateNanos[track] = nanos;
+        } else {
+            centerX[track] += config.alpha * (measuredX - centerX[track]);
+            centerY[track] += config.alpha * (measuredY - centerY[track]);
+        }
+        width[track] += config.sizeAlpha * (measuredWidth - width[track]);
+        height[track] += config.sizeAlpha * (measuredHeight - height[track]);
+        confidences[track] = confidence;
+        classIds[track] = classId;
+        misses[track] = 0;
+    }
+
+    private void addTrack(long nanos, float[] boxes, int offset, float confidence, int classId) {
+        int track = trackCount++;
+        trackIds[track] = nextTrackId++;
+        classIds[track] = classId;
+        confidences[track] = confidence;
+        centerX[track] = (boxes[offset] + boxes[offset + 2]) / 2f;
+        centerY[track] = (boxes[offset + 1] + boxes[offset + 3]) / 2f;
+        width[track] = boxes[offset + 2] - boxes[offset];
+        height[track] = boxes[offset + 3] - boxes[offset + 1];
+        velocityX[track] = 0f;
+        velocityY[track] = 0f;
+        lastUpdateNanos[track] = nanos;
+        misses[track] = 0;
+    }
+
+    private void removeTrack(int track) {
+        int last = --trackCount;
+        if (track == last) {
+            return;
+        }
+        trackIds[track] = trackIds[last];
+        classIds[track] = classIds[last];
+        confidences[track] = confidences[last];
+        centerX[track] = centerX[last];
+        centerY[track] = centerY[last];
+        width[track] = width[last];
+        height[track] = height[last];
+        velocityX[track] = velocityX[last];
+        velocityY[track] = velocityY[last];
+        lastUpdateNanos[track] = lastUpdateNanos[last];
+        misses[track] = misses[last];
+    }
+
+    /**
+     * Jarak titik tengah {@code a[0..3]} dan {@code b[offset..offset+3]} dibagi rata-rata
+     * panjang diagonal keduanya.
+     */
+    static float normalizedCenterDistance(float[] a, float[] b, int offset) {
+        float dx = (a[0] + a[2] - b[offset] - b[offset + 2]) / 2f;
+        float dy = (a[1] + a[3] - b[offset + 1] - b[offset + 3]) / 2f;
+        float diagonalA = (float) Math.hypot(a[2] - a[0], a[3] - a[1]);
+        float diagonalB = (float) Math.hypot(b[offset + 2] - b[offset], b[offset + 3] - b[offset + 1]);
+        float scale = (diagonalA + diagonalB) / 2f;
+        if (scale <= 0f) {
+            return Float.MAX_VALUE;
+        }
+        return (float) Math.hypot(dx, dy) / scale;
+    }
+
+    /**
+     * IoU antara {@code a[0..3]} dan {@code b[offset..offset+3]} (left, top, right, bottom).
+     */
+    static float iou(float[] a, float[] b, int offset) {
+        float left = Math.max(a[0], b[offset]);
+        float top = Math.max(a[1], b[offset + 1]);
+        float right = Math.min(a[2], b[offset + 2]);
+        float bottom = Math.min(a[3], b[offset + 3]);
+        if (right <= left || bottom <= top) {
+            return 0f;
+        }
+        float intersection = (right - left) * (bottom - top);
+        float areaA = (a[2] - a[0]) * (a[3] - a[1]);
+        float areaB = (b[offset + 2] - b[offset]) * (b[offset + 3] - b[offset + 1]);
+        return intersection / (areaA + areaB - intersection);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.cohia;
+
+/**
+ * Pemetaan koordinat dari ruang gambar analisis (buffer kamera sebelum dirotasi) ke ruang
+ * View pratinjau: potong ke crop rect, rotasi searah jarum jam, cermin opsional (kamera depan),
+ * lalu skala dan pusatkan seperti {@code PreviewView.ScaleType.FILL_CENTER} atau
+ * {@code FIT_CENTER}.
+ *
+ * Transformasi disimpan sebagai matriks affine 2x3 sehingga {@link #mapBox(float[], int, float[], int)}
+ * tidak mengalokasikan objek apa pun.
+ */
+public class OverlayTransform {
+
+    // Koefisien: x' = a*x + b*y + tx, y' = c*x + d*y + ty
+    private float a = 1, b = 0, c = 0, d = 1, tx = 0, ty = 0;
+
+    /**
+     * Menghitung ulang transformasi.
+     *
+     * @param cropLeft        Tepi kiri crop rect gambar analisis ({@code ImageProxy.getCropRect()})
+     *                        dalam koordinat buffer; cropTop, cropRight, cropBottom serupa.
+     * @param rotationDegrees Rotasi searah jarum jam agar gambar tegak (0, 90, 180, 270).
+     * @param mirrored        true untuk kamera depan (pratinjau dicerminkan horizontal).
+     * @param viewWidth       Lebar View tujuan.
+     * @param viewHeight      Tinggi View tujuan.
+     * @param fill            true untuk FILL_CENTER (memotong tepi), false untuk FIT_CENTER.
+     */
+    public void set(float cropLeft, float cropTop, float cropRight, float cropBottom,
+                    int rotationDegrees, boolean mirrored, int viewWidth, int viewHeight, boolean fill) {
+        float cropWidth = cropRight - cropLeft;
+        float cropHeight = cropBottom - cropTop;
+        if (cropWidth <= 0 || cropHeight <= 0) {
+            throw new IllegalArgumentException("Crop rect kosong: " + cropWidth + "x" + cropHeight);
+        }
+
+        // Rotasi pada koordinat relatif crop: (x, y) -> (ra*x + rb*y + rtx, rc*x + rd*y + rty)
+        float ra, rb, rc, rd, rtx, rty;
+        float uprightWidth, uprightHeight;
+        switch (((rotationDegrees % 360) + 360) % 360) {
+            case 90:
+                ra = 0; rb = -1; rc = 1; rd = 0; rtx = cropHeight; rty = 0;
+                uprightWidth = cropHeight;
+                uprightHeight = cropWidth;
+                break;
+            case 180:
+                ra = -1; rb = 0; rc = 0; rd = -1; rtx = cropWidth; rty = cropHeight;
+                uprightWidth = cropWidth;
+                uprightHeight = cropHeight;
+                break;
+            case 270:
+                ra = 0; rb = 1; rc = -1; rd = 0; rtx = 0; rty = cropWidth;
+                uprightWidth = cropHeight;
+                uprightHeight = cropWidth;
+                break;
+            case 0:
+                ra = 1; rb = 0; rc = 0; rd = 1; rtx = 0; rty = 0;
+                uprightWidth = cropWidth;
+                uprightHeight = cropHeight;
+                break;
+            default:
+                throw new IllegalArgumentException("Rotasi harus kelipatan 90: " + rotationDegrees);
+        }
+        if (mirrored) {
+            ra = -ra;
+            rb = -rb;
+            rtx = uprightWidth - rtx;
+        }
+
+        float scaleX = viewWidth / uprightWidth;
+        float scaleY = viewHeight / uprightHeight;
+        float scale = fill ? Math.max(scaleX, scaleY) : Math.min(scaleX, scaleY);
+        float offsetX = (viewWidth - uprightWidth * scale) / 2f;
+        float offsetY = (viewHeight - uprightHeight * scale) / 2f;
+
+        // Gabungkan: geser crop, rotasi/cermin, lalu skala dan offset
+        a = ra * scale;
+        b = rb * scale;
+        c = rc * scale;
+        d = rd * scale;
+        tx = (rtx - ra * cropLeft - rb * cropTop) * scale + offsetX;
+        ty = (rty - rc * cropLeft - rd * cropTop) * scale + offsetY;
+    }
+
+    /**
+     * Memetakan kotak {@code [left, top, right, bottom]} di ruang gambar analisis ke ruang View;
+     * sudut hasil dinormalisasi sehingga left <= right dan top <= bottom. {@code src} dan
+     * {@code dst} boleh array dan offset yang sama.
+     */
+    public void mapBox(float[] src, int srcOffset, float[] dst, int dstOffset) {
+        float left = src[srcOffset];
+        float top = src[srcOffset + 1];
+        float right = src[srcOffset + 2];
+        float bottom = src[srcOffset + 3];
+        float x1 = a * left + b * top + tx;
+        float y1 = c * left + d * top + ty;
+        float x2 = a * right + b * bottom + tx;
+        float y2 = c * right + d * bottom + ty;
+        dst[dstOffset] = Math.min(x1, x2);
+        dst[dstOffset + 1] = Math.min(y1, y2);
+        dst[dstOffset + 2] = Math.max(x1, x2);
+        dst[dstOffset + 3] = Math.max(y1, y2);
+    }
+
+    public float mapX(float x, float y) {
+        return a * x + b * y + tx;
+    }
+
+    public float mapY(float x, float y) {
+        return c * x + d * y + ty;
+    }
+}
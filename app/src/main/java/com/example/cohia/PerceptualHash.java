@@ -0,0 +1,108 @@
+package com.example.cohia;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Hash perseptual dHash 64-bit untuk mengenali frame atau gambar yang (hampir) sama.
+ *
+ * Gambar diperkecil menjadi grid luma 9x8; setiap bit menyatakan apakah sel lebih terang dari
+ * tetangga kanannya. Hash tahan terhadap perubahan ukuran, kompresi ulang, dan noise ringan,
+ * sehingga dua gambar serupa berbeda hanya beberapa bit (jarak Hamming kecil).
+ */
+public final class PerceptualHash {
+
+    static final int GRID_WIDTH = 9;
+    static final int GRID_HEIGHT = 8;
+
+    // Titik sampel per sisi sel saat membaca plane luma
+    private static final int SAMPLES_PER_CELL = 8;
+
+    private PerceptualHash() {}
+
+    /**
+     * Menghitung dHash dari grid luma {@value #GRID_WIDTH}x{@value #GRID_HEIGHT} (baris demi baris).
+     */
+    public static long fromGrid(int[] grid) {
+        if (grid.length < GRID_WIDTH * GRID_HEIGHT) {
+            throw new IllegalArgumentException("Grid harus berisi " + GRID_WIDTH * GRID_HEIGHT + " sel");
+        }
+        long hash = 0;
+        for (int y = 0; y < GRID_HEIGHT; y++) {
+            for (int x = 0; x < GRID_WIDTH - 1; x++) {
+                hash <<= 1;
+                if (grid[y * GRID_WIDTH + x] > grid[y * GRID_WIDTH + x + 1]) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Menghitung dHash langsung dari plane luma (misalnya plane Y ImageProxy) dengan sampel
+     * jarang per sel. Posisi buffer tidak diubah.
+     *
+     * @param grid Buffer kerja minimal 72 elemen; dipakai ulang oleh pemanggil agar tanpa alokasi.
+     */
+    public static long fromLuma(ByteBuffer plane, int rowStride, int pixelStride,
+                                int width, int height, int[] grid) {
+        int base = plane.position();
+        int samplesX = GRID_WIDTH * SAMPLES_PER_CELL;
+        int samplesY = GRID_HEIGHT * SAMPLES_PER_CELL;
+        for (int cellY = 0; cellY < GRID_HEIGHT; cellY++) {
+            for (int cellX = 0; cellX < GRID_WIDTH; cellX++) {
+                int sum = 0;
+                for (int sy = 0; sy < SAMPLES_PER_CELL; sy++) {
+                    int row = ((cellY * SAMPLES_PER_CELL + sy) * 2 + 1) * height / (samplesY * 2);
+                    int rowOffset = base + row * rowStride;
+                    for (int sx = 0; sx < SAMPLES_PER_CELL; sx++) {
+                        int col = ((cellX * SAMPLES_PER_CELL + sx) * 2 + 1) * width / (samplesX * 2);
+                        sum += plane.get(rowOffset + col * pixelStride) & 0xFF;
+                    }
+                }
+                grid[cellY * GRID_WIDTH + cellX] = sum;
+            }
+        }
+        return fromGrid(grid);
+    }
+
+    /**
+     * Menghitung dHash dari piksel ARGB (misalnya hasil {@code Bitmap.getPixels}) dengan rata-rata
+     * area per sel.
+     *
+     * @param grid Buffer kerja minimal 72 elemen.
+     */
+    public static long fromArgb(int[] argb, int width, int height, int[] grid) {
+        for (int cellY = 0; cellY < GRID_HEIGHT; cellY++) {
+            int top = cellY * height / GRID_HEIGHT;
+            int bottom = Math.max(top + 1, (cellY + 1) * height / GRID_HEIGHT);
+            for (int cellX = 0; cellX < GRID_WIDTH; cellX++) {
+                int left = cellX * width / GRID_WIDTH;
+                int right = Math.max(left + 1, (cellX + 1) * width / GRID_WIDTH);
+                int sum = 0;
+                for (int y = top; y < bottom; y++) {
+                    for (int x = left; x < right; x++) {
+                        sum += luma(argb[y * width + x]);
+                    }
+                }
+                grid[cellY * GRID_WIDTH + cellX] = sum / ((bottom - top) * (right - left));
+            }
+        }
+        return fromGrid(grid);
+    }
+
+    /**
+     * @return Jumlah bit yang berbeda antara dua hash (0-64).
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    // Luma BT.601 (0.299, 0.587, 0.114) dalam fixed-point 8-bit
+    private static int luma(int argb) {
+        int r = (argb >> 16) & 0xFF;
+        int g = (argb >> 8) & 0xFF;
+        int b = argb & 0xFF;
+        return (77 * r + 150 * g + 29 * b) >> 8;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.cohia;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache LRU di memori yang dikunci dengan hash perseptual ({@link PerceptualHash}).
+ *
+ * Pencarian mencocokkan hash persis lebih dulu, lalu entri dengan jarak Hamming terkecil yang
+ * masih dalam toleransi. Entri kedaluwarsa setelah TTL dan entri yang paling lama tidak dipakai
+ * dibuang saat kapasitas penuh. Semua method thread-safe.
+ *
+ * @param <V> Nilai yang disimpan, misalnya daftar prediksi.
+ */
+public class PerceptualHashCache<V> {
+
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+    public static final int DEFAULT_MAX_DISTANCE = 4;
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    private static final class Entry<V> {
+        final long hash;
+        final V value;
+        final long expiresAtNanos;
+
+        Entry(long hash, V value, long expiresAtNanos) {
+            this.hash = hash;
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private final int maxEntries;
+    private final int maxDistance;
+    private final long ttlNanos;
+    private final MonotonicClock clock;
+
+    // Urutan akses: entri pertama adalah yang paling lama tidak dipakai
+    private final LinkedHashMap<Long, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+    private long expiredCount = 0;
+
+    public PerceptualHashCache(MonotonicClock clock) {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_DISTANCE, DEFAULT_TTL_MILLIS, clock);
+    }
+
+    /**
+     * @param maxEntries  Jumlah entri maksimum sebelum entri LRU dibuang.
+     * @param maxDistance Jarak Hamming maksimum (bit) agar dua hash dianggap gambar yang sama.
+     * @param ttlMillis   Umur entri sebelum dianggap basi.
+     */
+    public PerceptualHashCache(int maxEntries, int maxDistance, long ttlMillis, MonotonicClock clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries minimal 1: " + maxEntries);
+        }
+        if (maxDistance < 0 || maxDistance > 64) {
+            throw new IllegalArgumentException("maxDistance harus 0-64: " + maxDistance);
+        }
+        this.maxEntries = maxEntries;
+        this.maxDistance = maxDistance;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.clock = clock;
+    }
+
+    /**
+     * @return Nilai untuk hash yang cocok dalam toleransi, atau null jika tidak ada.
+     */
+    public synchronized V get(long hash) {
+        long now = clock.nanoTime();
+
+        Entry<V> exact = entries.get(hash);
+        if (exact != null) {
+            if (isExpired(exact, now)) {
+                entries.remove(hash);
+                expiredCount++;
+            } else {
+                hitCount++;
+                return exact.value;
+            }
+        }
+
+        Entry<V> best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        if (maxDistance > 0) {
+            Iterator<Entry<V>> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry<V> entry = iterator.next();
+                if (isExpired(entry, now)) {
+                    iterator.remove();
+                    expiredCount++;
+                    continue;
+                }
+                int distance = PerceptualHash.distance(hash, entry.hash);
+                if (distance <= maxDistance && distance < bestDistance) {
+                    best = entry;
+                    bestDistance = distance;
+                }
+            }
+        }
+
+        if (best == null) {
+            missCount++;
+            return null;
+        }
+        // Tandai sebagai baru dipakai
+        entries.get(best.hash);
+        hitCount++;
+        return best.value;
+    }
+
+    /**
+     * Menyimpan nilai untuk hash ini dan membuang entri LRU jika kapasitas terlampaui.
+     */
+    public synchronized void put(long hash, V value) {
+        entries.put(hash, new Entry<>(hash, value, clock.nanoTime() + ttlNanos));
+        Iterator<Map.Entry<Long, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized long getExpiredCount() {
+        return expiredCount;
+    }
+
+    /**
+     * @return Rasio hit terhadap seluruh pencarian.
+     */
+    public synchronized double getHitRatio() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    private static boolean isExpired(Entry<?> entry, long now) {
+        return now - entry.expiresAtNanos >= 0;
+    }
+}
@@ -0,0 +1,371 @@
+package com.example.cohia;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Satu tahap pipeline deteksi: antrean terbatas, executor sendiri, kebijakan drop, dan metrik
+ * kedalaman antrean serta waktu layanan.
+ *
+ * <ul>
+ *     <li>Item diproses satu per satu secara berurutan, walaupun executor-nya dipakai bersama
+ *     (misalnya main thread untuk tahap render). State milik {@link Processor} karena itu
+ *     hanya diakses dari satu thread pada satu waktu.</li>
+ *     <li>Hasil {@link Processor} yang tidak null diteruskan ke tahap berikutnya
+ *     ({@link #connect}); null berarti item berhenti di tahap ini (disaring, atau hasilnya
+ *     diserahkan ke jalur lain).</li>
+ *     <li>{@link DropPolicy#DROP_OLDEST}: antrean penuh membuang item tertua, jadi tahap lambat
+ *     tidak pernah menahan tahap sebelumnya. {@link DropPolicy#NEVER_DROP}: pengirim menunggu
+ *     sampai ada ruang, sehingga tekanan balik merambat ke hulu; pengirim yang tidak boleh
+ *     memblok (UI thread, callback kamera) memakai {@link #offer} dan menangani penolakan.</li>
+ * </ul>
+ *
+ * Item yang dibuang, atau tersisa di antrean saat {@link #shutdown()}, diserahkan ke
+ * {@link Releaser} agar sumber dayanya (ImageProxy, Bitmap dari pool) dikembalikan. Setelah
+ * {@link Processor#process} dipanggil, item menjadi tanggung jawab processor sepenuhnya,
+ * termasuk saat processor melempar exception.
+ */
+public final class PipelineStage<I, O> {
+
+    private static final String TAG = "PipelineStage";
+    // Bobot sampel baru pada rata-rata waktu layanan (EWMA)
+    private static final double SERVICE_TIME_SMOOTHING = 0.1;
+
+    public enum DropPolicy {
+        /** Untuk frame live: frame terbaru paling berguna. */
+        DROP_OLDEST,
+        /** Untuk capture: tidak boleh hilang; pengirim diblok saat antrean penuh. */
+        NEVER_DROP
+    }
+
+    public interface Processor<I, O> {
+        /**
+         * @return Item untuk tahap berikutnya, atau null jika item berhenti di sini.
+         */
+        @Nullable
+        O process(@NonNull I item) throws Exception;
+    }
+
+    public interface Sink<T> {
+        void accept(@NonNull T item);
+    }
+
+    public interface Releaser<T> {
+        void release(@NonNull T item);
+    }
+
+    /**
+     * Potret metrik satu tahap; aman dibaca dari thread mana pun.
+     */
+    public static final class Metrics {
+        public final String name;
+        public final int capacity;
+        public final int queueDepth;
+        public final int maxQueueDepth;
+        public final long accepted;
+        public final long dropped;
+        public final long processed;
+        public final long forwarded;
+        public final long failed;
+        public final double meanServiceMillis;
+        public final double lastServiceMillis;
+
+        Metrics(String name, int capacity, int queueDepth, int maxQueueDepth, long accepted,
+                long dropped, long processed, long forwarded, long failed,
+                double meanServiceMillis, double lastServiceMillis) {
+            this.name = name;
+            this.capacity = capacity;
+            this.queueDepth = queueDepth;
+            this.maxQueueDepth = maxQueueDepth;
+            this.accepted = accepted;
+            this.dropped = dropped;
+            this.processed = processed;
+            this.forwarded = forwarded;
+            this.failed = failed;
+            this.meanServiceMillis = meanServiceMillis;
+            this.lastServiceMillis = lastServiceMillis;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: antrean %d/%d (maks %d), %d masuk, %d dibuang, %d diproses, %d diteruskan, %d gagal, layanan %.1f ms",
+                    name, queueDepth, capacity, maxQueueDepth, accepted, dropped, processed,
+                    forwarded, failed, meanServiceMillis);
+        }
+    }
+
+    private final String name;
+    private final int capacity;
+    private final DropPolicy policy;
+    private final Processor<I, O> processor;
+    @Nullable
+    private final Releaser<? super I> releaser;
+    private final Executor executor;
+    @Nullable
+    private final ExecutorService ownedExecutor;
+    private final MonotonicClock clock;
+
+    private final Object lock = new Object();
+    private final ArrayDeque<I> queue;
+    private boolean scheduled = false;
+    private boolean shutdown = false;
+    @Nullable
+    private volatile Sink<? super O> downstream;
+
+    // Metrik, dijaga oleh lock
+    private int maxQueueDepth = 0;
+    private long accepted = 0;
+    private long dropped = 0;
+    private long processed = 0;
+    private long forwarded = 0;
+    private long failed = 0;
+    private double meanServiceNanos = -1;
+    private long lastServiceNanos = 0;
+
+    /**
+     * @param executor Tempat processor dijalankan. Untuk {@link DropPolicy#NEVER_DROP},
+     *                 {@link #submit} tidak boleh dipanggil dari executor ini sendiri.
+     * @param releaser Melepas item yang dibuang, atau null jika item tidak perlu dilepas.
+     */
+    public PipelineStage(@NonNull String name, int capacity, @NonNull DropPolicy policy,
+                         @NonNull Executor executor, @NonNull Processor<I, O> processor,
+                         @Nullable Releaser<? super I> releaser, @NonNull MonotonicClock clock) {
+        this(name, capacity, policy, executor, null, processor, releaser, clock);
+    }
+
+    private PipelineStage(String name, int capacity, DropPolicy policy, Executor executor,
+                          @Nullable ExecutorService ownedExecutor, Processor<I, O> processor,
+                          @Nullable Releaser<? super I> releaser, MonotonicClock clock) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Kapasitas minimal 1: " + capacity);
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.executor = executor;
+        this.ownedExecutor = ownedExecutor;
+        this.processor = processor;
+        this.releaser = releaser;
+        this.clock = clock;
+        this.queue = new ArrayDeque<>(capacity);
+    }
+
+    /**
+     * Membuat tahap dengan thread sendiri bernama {@code name}; thread dihentikan oleh
+     * {@link #shutdown()}.
+     */
+    public static <I, O> PipelineStage<I, O> withOwnThread(@NonNull String name, int capacity,
+                                                           @NonNull DropPolicy policy,
+                                                           @NonNull Processor<I, O> processor,
+                                                           @Nullable Releaser<? super I> releaser) {
+        ExecutorService thread = Executors.newSingleThreadExecutor(r -> new Thread(r, name));
+        return new PipelineStage<>(name, capacity, policy, thread, thread, processor, releaser,
+                MonotonicClock.SYSTEM);
+    }
+
+    /**
+     * Meneruskan hasil tahap ini ke {@code next}.
+     *
+     * @return {@code next}, untuk merangkai tahap berikutnya.
+     */
+    public <R> PipelineStage<O, R> connect(@NonNull PipelineStage<O, R> next) {
+        downstream = next::submit;
+        return next;
+    }
+
+    /**
+     * Meneruskan hasil tahap ini ke {@code sink}, misalnya tahap terakhir atau sink palsu di
+     * pengujian.
+     */
+    public void connect(@NonNull Sink<? super O> sink) {
+        downstream = sink;
+    }
+
+    /**
+     * Memasukkan item ke antrean. Dengan {@link DropPolicy#DROP_OLDEST} tidak pernah memblok;
+     * dengan {@link DropPolicy#NEVER_DROP} menunggu sampai ada ruang. Setelah
+     * {@link #shutdown()} item langsung dilepas.
+     */
+    public void submit(@NonNull I item) {
+        enqueue(item, true);
+    }
+
+    /**
+     * Seperti {@link #submit}, tetapi tidak pernah memblok, sehingga aman dipanggil dari UI
+     * thread. Dengan {@link DropPolicy#NEVER_DROP} antrean penuh menolak item.
+     *
+     * @return false jika antrean penuh atau tahap sudah dihentikan; item tetap milik pemanggil.
+     */
+    public boolean offer(@NonNull I item) {
+        return enqueue(item, false);
+    }
+
+    /**
+     * @param block true untuk menunggu ruang (NEVER_DROP) dan melepas item yang ditolak; false
+     *              untuk langsung menolak tanpa melepas item.
+     */
+    private boolean enqueue(I item, boolean block) {
+        I evicted = null;
+        boolean schedule = false;
+        boolean queued = false;
+        synchronized (lock) {
+            boolean interrupted = false;
+            while (block && policy == DropPolicy.NEVER_DROP && queue.size() >= capacity && !shutdown) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    break;
+                }
+            }
+            if (shutdown || interrupted) {
+                if (block) {
+                    evicted = item;
+                    dropped++;
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            } else if (!block && policy == DropPolicy.NEVER_DROP && queue.size() >= capacity) {
+                // Ditolak; pemanggil yang memutuskan nasib item
+            } else {
+                if (queue.size() >= capacity) {
+                    evicted = queue.pollFirst();
+                    dropped++;
+                }
+                queue.addLast(item);
+                accepted++;
+                queued = true;
+                maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+                if (!scheduled) {
+                    scheduled = true;
+                    schedule = true;
+                }
+            }
+        }
+        if (evicted != null) {
+            release(evicted);
+        }
+        if (schedule) {
+            schedule();
+        }
+        return queued;
+    }
+
+    /**
+     * Berhenti menerima item dan melepas isi antrean. Item yang sedang diproses diselesaikan;
+     * thread milik tahap ini dihentikan setelahnya.
+     */
+    public void shutdown() {
+        ArrayDeque<I> pending;
+        synchronized (lock) {
+            shutdown = true;
+            pending = new ArrayDeque<>(queue);
+            dropped += queue.size();
+            queue.clear();
+            lock.notifyAll();
+        }
+        for (I item : pending) {
+            release(item);
+        }
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Metrics getMetrics() {
+        synchronized (lock) {
+            return new Metrics(name, capacity, queue.size(), maxQueueDepth, accepted, dropped,
+                    processed, forwarded, failed,
+                    Math.max(0, meanServiceNanos) / 1e6, lastServiceNanos / 1e6);
+        }
+    }
+
+    private void schedule() {
+        try {
+            executor.execute(this::runOne);
+        } catch (RejectedExecutionException e) {
+            // Executor sudah dihentikan: isi antrean tidak akan pernah diproses
+            shutdown();
+        }
+    }
+
+    /**
+     * Memproses satu item lalu menjadwalkan ulang jika antrean belum kosong, agar executor
+     * bersama (main thread) tidak dimonopoli satu tahap.
+     */
+    private void runOne() {
+        I item;
+        synchronized (lock) {
+            item = queue.pollFirst();
+            if (item == null) {
+                scheduled = false;
+                return;
+            }
+            lock.notifyAll();
+        }
+
+        long start = clock.nanoTime();
+        O result = null;
+        boolean ok = true;
+        try {
+            result = processor.process(item);
+        } catch (Exception e) {
+            ok = false;
+            Log.e(TAG, "Tahap " + name + " gagal memproses item", e);
+        }
+        long elapsed = clock.nanoTime() - start;
+
+        boolean more;
+        synchronized (lock) {
+            processed++;
+            if (!ok) {
+                failed++;
+            } else if (result != null) {
+                forwarded++;
+            }
+            lastServiceNanos = elapsed;
+            meanServiceNanos = meanServiceNanos < 0
+                    ? elapsed
+                    : meanServiceNanos + SERVICE_TIME_SMOOTHING * (elapsed - meanServiceNanos);
+            more = !queue.isEmpty();
+            if (!more) {
+                scheduled = false;
+            }
+        }
+
+        if (result != null) {
+            Sink<? super O> sink = downstream;
+            if (sink != null) {
+                sink.accept(result);
+            }
+        }
+        if (more) {
+            schedule();
+        }
+    }
+
+    private void release(I item) {
+        if (releaser != null) {
+            try {
+                releaser.release(item);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Tahap " + name + " gagal melepas item", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.cohia;
+
+import java.io.OutputStream;
+
+/**
+ * Pengganti {@link java.io.ByteArrayOutputStream} yang buffernya diambil dari
+ * {@link ByteArrayPool} dan dikembalikan lewat {@link #release()}. Tidak ada
+ * {@code toByteArray()}: data dibaca langsung dari {@link #getBuffer()} sepanjang {@link #size()}.
+ *
+ * Instance tidak thread-safe, tetapi boleh diserahkan ke thread lain yang kemudian
+ * memanggil {@link #release()}.
+ */
+public final class PooledByteArrayOutputStream extends OutputStream {
+
+    private final ByteArrayPool pool;
+    private byte[] buffer;
+    private int count = 0;
+
+    /**
+     * @param expectedSize Perkiraan ukuran akhir agar buffer tidak perlu diperbesar.
+     */
+    public PooledByteArrayOutputStream(ByteArrayPool pool, int expectedSize) {
+        this.pool = pool;
+        this.buffer = pool.get(expectedSize);
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(count + 1);
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", size=" + b.length);
+        }
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    /**
+     * @return Buffer internal; hanya {@code [0, size())} yang berisi data.
+     * @throws IllegalStateException Jika buffer sudah dilepas.
+     */
+    public byte[] getBuffer() {
+        if (buffer == null) {
+            throw new IllegalStateException("Buffer sudah dikembalikan ke pool");
+        }
+        return buffer;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public void reset() {
+        count = 0;
+    }
+
+    /**
+     * Mengembalikan buffer ke pool. Aman dipanggil lebih dari sekali.
+     */
+    public void release() {
+        if (buffer != null) {
+            pool.put(buffer);
+            buffer = null;
+            count = 0;
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        byte[] current = getBuffer();
+        if (required <= current.length) {
+            return;
+        }
+        byte[] grown = pool.get(Math.max(required, current.length * 2));
+        System.arraycopy(current, 0, grown, 0, count);
+        pool.put(current);
+        buffer = grown;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.cohia;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Meneruskan byte ke aliran tujuan sambil melaporkan progres terhadap perkiraan ukuran akhir.
+ * Encoder seperti {@code Bitmap.compress} tidak tahu ukuran hasilnya, jadi progres berhenti di
+ * 99% sampai pemanggil melaporkan selesai sendiri. Listener hanya dipanggil saat persentase
+ * berubah.
+ */
+public final class ProgressOutputStream extends FilterOutputStream {
+
+    /**
+     * Menerima progres penulisan, dipanggil dari thread yang menulis.
+     */
+    public interface Listener {
+        void onProgress(int percent);
+    }
+
+    private final long expectedBytes;
+    @Nullable
+    private final Listener listener;
+    private long written = 0;
+    private int lastPercent = -1;
+
+    /**
+     * @param expectedBytes Perkiraan ukuran akhir; harus positif.
+     */
+    ProgressOutputStream(@NonNull OutputStream out, long expectedBytes, @Nullable Listener listener) {
+        super(out);
+        if (expectedBytes <= 0) {
+            throw new IllegalArgumentException("expectedBytes harus positif: " + expectedBytes);
+        }
+        this.expectedBytes = expectedBytes;
+        this.listener = listener;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        advance(1);
+    }
+
+    @Override
+    public void write(@NonNull byte[] b, int off, int len) throws IOException {
+        // FilterOutputStream bawaan menulis per byte
+        out.write(b, off, len);
+        advance(len);
+    }
+
+    long getBytesWritten() {
+        return written;
+    }
+
+    static int percentOf(long written, long expectedBytes) {
+        return (int) Math.min(99, written * 100 / expectedBytes);
+    }
+
+    private void advance(int count) {
+        written += count;
+        int percent = percentOf(written, expectedBytes);
+        if (percent != lastPercent) {
+            lastPercent = percent;
+            if (listener != null) {
+                listener.onProgress(percent);
+            }
+        }
+    }
+}
@@ -1,31 +1,36 @@
 package com.example.cohia;
 
+import android.annotation.SuppressLint;
 import android.content.ContentResolver;
-import android.content.ContentValues;
 import android.graphics.Bitmap;
 import android.net.Uri;
-import android.os.Build;
 import android.os.Bundle;
-import android.provider.MediaStore;
 import android.util.Log;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.View;
 import android.widget.Button;
 import android.widget.ImageButton;
 import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
 import com.example.cohia.api.RoboflowAPI;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 public class ResultActivity extends AppCompatActivity {
@@ -33,8 +38,16 @@ public class ResultActivity extends AppCompatActivity {
     private static final String TAG = "ResultActivity";
 
     public static final String EXTRA_OBJECT_COUNT = "extra_object_count";
+    public static final String EXTRA_RESULT_ID = "extra_result_id";
 
+    private static final float ZOOM_SCALE = 2.5f;
+    private static final long ZOOM_ANIMATION_MS = 200;
+    private static final GallerySaver.Format SAVE_FORMAT = GallerySaver.Format.JPEG;
+    private static final int SAVE_QUALITY = 90;
+
+    private View zoomContainer;
     private ImageView ivResultImage;
+    private DetectionOverlayView overlayResult;
     private TextView tvDetectionResult;
     private TextView tvConfidence;
     private TextView tvObjectCount;
@@ -45,22 +58,33 @@ public class ResultActivity extends AppCompatActivity {
     private ImageButton btnBack; // Tombol back di header
 
     private Bitmap resultBitmap;
-    private List<RoboflowAPI.Prediction> predictions;
+    private List<RoboflowAPI.Prediction> predictions = new ArrayList<>();
     private int objectCount;
 
+    private ResultStore resultStore;
+    private String resultId;
+    // Pemulihan dari disk, penyimpanan ke galeri dan pelepasan hasil berurutan di satu thread,
+    // sehingga bitmap tidak pernah dikembalikan ke pool selama masih di-encode
+    private ExecutorService worker;
+    private boolean isZoomed = false;
+    private boolean isSaving = false;
+    private CharSequence saveButtonLabel;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_result);
 
+        worker = Executors.newSingleThreadExecutor();
         initViews();
-        loadDataFromIntent();
         setupClickListeners();
-        displayResults();
+        loadDataFromIntent();
     }
 
     private void initViews() {
+        zoomContainer = findViewById(R.id.result_zoom_container);
         ivResultImage = findViewById(R.id.iv_result_image);
+        overlayResult = findViewById(R.id.overlay_result);
         tvDetectionResult = findViewById(R.id.tv_detection_result);
         tvConfidence = findViewById(R.id.tv_confidence);
         tvObjectCount = findViewById(R.id.tv_object_count);
@@ -69,21 +93,58 @@ public class ResultActivity extends AppCompatActivity {
         btnSaveImage = findViewById(R.id.btn_save_image);
         btnBackToMain = findViewById(R.id.btn_back_to_main); // UBAH INI dari R.id.btn_share
         btnBack = findViewById(R.id.btn_back);
+        saveButtonLabel = btnSaveImage.getText();
     }
 
     private void loadDataFromIntent() {
-        resultBitmap = AppDataHolder.getInstance().getResultBitmap();
-        predictions = AppDataHolder.getInstance().getPredictions();
+        objectCount = getIntent().getIntExtra(EXTRA_OBJECT_COUNT, 0);
+        resultId = getIntent().getStringExtra(EXTRA_RESULT_ID);
+        resultStore = ResultStore.getInstance(this);
 
-        if (predictions == null) {
-            predictions = new ArrayList<>();
+        ResultStore.Result cached;
+        try {
+            cached = resultId != null ? resultStore.peek(resultId) : null;
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "ID hasil tidak valid", e);
+            resultId = null;
+            cached = null;
         }
 
-        objectCount = getIntent().getIntExtra(EXTRA_OBJECT_COUNT, 0);
+        if (cached != null || resultId == null) {
+            showResult(cached);
+            return;
+        }
 
-        AppDataHolder.getInstance().clearData();
+        // Hasil sudah di-spill ke disk atau proses sempat dimatikan; pulihkan di background
+        tvObjectCount.setText(objectCount + " objek");
+        final String id = resultId;
+        worker.execute(() -> {
+            ResultStore.Result restored = resultStore.get(id);
+            runOnUiThread(() -> {
+                if (isDestroyed()) {
+                    // Hasil dilepas oleh tugas pembersihan dari onDestroy
+                    return;
+                }
+                if (restored == null) {
+                    Toast.makeText(this, "Hasil deteksi tidak tersedia lagi", Toast.LENGTH_SHORT).show();
+                    finish();
+                    return;
+                }
+                showResult(restored);
+            });
+        });
     }
 
+    private void showResult(ResultStore.Result result) {
+        if (result != null) {
+            resultBitmap = result.bitmap;
+            predictions = result.predictions.toPredictions();
+        }
+        displayResults();
+    }
+
+    // Zoom hanya lewat ketuk dua kali; tidak ada aksi klik yang perlu diumumkan aksesibilitas
+    @SuppressLint("ClickableViewAccessibility")
     private void setupClickListeners() {
         // Listener untuk tombol back di header (sudah ada)
         btnBack.setOnClickListener(v -> {
@@ -98,11 +159,67 @@ public class ResultActivity extends AppCompatActivity {
             Log.d(TAG, "Bottom back button clicked!");
             finish(); // Menutup ResultActivity dan kembali ke MainActivity
         });
+
+        GestureDetector zoomGesture = new GestureDetector(this, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                return resultBitmap != null;
+            }
+
+            @Override
+            public boolean onDoubleTap(MotionEvent e) {
+                toggleZoom(e.getX(), e.getY());
+                return true;
+            }
+        });
+        zoomContainer.setOnTouchListener((v, event) -> zoomGesture.onTouchEvent(event));
+    }
+
+    /**
+     * Menampilkan gambar seukuran View. Glide menurunkan resolusi bitmap di thread-nya sendiri
+     * sehingga UI thread hanya meng-upload tekstur kecil; bitmap penuh tidak disentuh.
+     */
+    private void showFittedImage() {
+        Glide.with(this)
+                .load(resultBitmap)
+                .fitCenter()
+                .skipMemoryCache(true)
+                .dontAnimate()
+                .into(ivResultImage);
+    }
+
+    /**
+     * Ketuk dua kali memperbesar gambar dan overlay bersama di titik ketukan. Resolusi penuh
+     * hanya ditampilkan selama diperbesar.
+     */
+    private void toggleZoom(float pivotX, float pivotY) {
+        if (resultBitmap == null) {
+            return;
+        }
+        isZoomed = !isZoomed;
+        if (isZoomed) {
+            Glide.with(this).clear(ivResultImage);
+            ivResultImage.setImageBitmap(resultBitmap);
+            zoomContainer.setPivotX(pivotX);
+            zoomContainer.setPivotY(pivotY);
+            zoomContainer.animate().scaleX(ZOOM_SCALE).scaleY(ZOOM_SCALE).setDuration(ZOOM_ANIMATION_MS);
+        } else {
+            zoomContainer.animate().scaleX(1f).scaleY(1f).setDuration(ZOOM_ANIMATION_MS)
+                    .withEndAction(() -> {
+                        if (!isZoomed && !isDestroyed()) {
+                            showFittedImage();
+                        }
+                    });
+        }
     }
 
     private void displayResults() {
         if (resultBitmap != null) {
-            ivResultImage.setImageBitmap(resultBitmap);
+            showFittedImage();
+            // Overlay mengikuti scaleType fitCenter dari ImageView
+            overlayResult.setFillCenter(false);
+            overlayResult.setSourceGeometry(resultBitmap.getWidth(), resultBitmap.getHeight(), 0, false);
+            overlayResult.setDetections(predictions);
         }
 
         tvObjectCount.setText(predictions.size() + " objek");
@@ -129,6 +246,29 @@ public class ResultActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        zoomContainer.animate().cancel();
+        // Saat rotasi hasil tetap di store agar bisa dipakai lagi lewat ID yang sama
+        if (isFinishing() && resultId != null) {
+            ivResultImage.setImageDrawable(null);
+            // Dijalankan setelah pemulihan atau penyimpanan yang masih berjalan. Bitmap hasil
+            // berasal dari SampledBitmapDecoder atau decode ResultStore dan tidak mutable, jadi
+            // pool Glide tidak bisa memakainya lagi; cukup dilepas.
+            String id = resultId;
+            Bitmap bitmap = resultBitmap;
+            worker.execute(() -> {
+                resultStore.remove(id);
+                if (bitmap != null) {
+                    bitmap.recycle();
+                }
+            });
+            resultBitmap = null;
+        }
+        worker.shutdown();
+    }
+
     private String getRecommendation(String wasteType) {
         switch (wasteType.toLowerCase()) {
             case "sampah organik":
@@ -148,38 +288,70 @@ public class ResultActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Menggambar bounding box dan meng-encode gambar di thread worker; tombol simpan
+     * menampilkan progres dan UI tetap responsif selama penyimpanan.
+     */
     private void saveImageToGallery() {
         if (resultBitmap == null) {
             Toast.makeText(this, "Tidak ada gambar untuk disimpan", Toast.LENGTH_SHORT).show();
             return;
         }
-
-        try {
-            String filename = "SmartWaste_" + new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss", Locale.US)
-                    .format(new Date()) + ".jpg";
-
-            ContentValues values = new ContentValues();
-            values.put(MediaStore.Images.Media.DISPLAY_NAME, filename);
-            values.put(MediaStore.Images.Media.MIME_TYPE, "image/jpeg");
-
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-                values.put(MediaStore.Images.Media.RELATIVE_PATH, "Pictures/SmartWaste");
+        if (isSaving) {
+            return;
+        }
+        isSaving = true;
+        btnSaveImage.setEnabled(false);
+        showSaveProgress(0);
+
+        String baseName = "SmartWaste_" + new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss", Locale.US)
+                .format(new Date());
+        Bitmap source = resultBitmap;
+        List<RoboflowAPI.Prediction> boxes = predictions;
+        ContentResolver resolver = getContentResolver();
+        BitmapPool pool = Glide.get(this).getBitmapPool();
+
+        worker.execute(() -> {
+            Uri savedUri = null;
+            Exception failure = null;
+            // Bounding box hanya dibakar ke gambar saat disimpan, ke bitmap sementara dari pool
+            LatencyTracer tracer = LatencyTracer.getInstance();
+            long drawStart = tracer.start();
+            Bitmap annotated = BitmapUtils.drawBoundingBoxes(source, boxes, pool);
+            tracer.record(LatencyTracer.Stage.DRAW_BOXES, drawStart);
+            try {
+                savedUri = GallerySaver.saveBitmap(resolver, annotated, SAVE_FORMAT, SAVE_QUALITY, baseName,
+                        percent -> runOnUiThread(() -> showSaveProgress(percent)));
+            } catch (IOException | RuntimeException e) {
+                failure = e;
+            } finally {
+                pool.put(annotated);
             }
 
-            ContentResolver resolver = getContentResolver();
-            Uri imageUri = resolver.insert(MediaStore.Images.Media.EXTERNAL_CONTENT_URI, values);
+            Uri uri = savedUri;
+            Exception error = failure;
+            runOnUiThread(() -> onSaveFinished(uri, error));
+        });
+    }
 
-            if (imageUri != null) {
-                try (OutputStream outputStream = resolver.openOutputStream(imageUri)) {
-                    if (outputStream != null) {
-                        resultBitmap.compress(Bitmap.CompressFormat.JPEG, 90, outputStream);
-                        Toast.makeText(this, "Gambar berhasil disimpan ke galeri", Toast.LENGTH_SHORT).show();
-                        Log.d(TAG, "Gambar disimpan di: " + imageUri);
-                    }
-                }
-            }
-        } catch (IOException e) {
-            Log.e(TAG, "Gagal menyimpan gambar", e);
+    private void showSaveProgress(int percent) {
+        if (isSaving) {
+            btnSaveImage.setText(String.format(Locale.US, "Menyimpan... %d%%", percent));
+        }
+    }
+
+    private void onSaveFinished(@Nullable Uri uri, @Nullable Exception error) {
+        isSaving = false;
+        if (isDestroyed()) {
+            return;
+        }
+        btnSaveImage.setEnabled(true);
+        btnSaveImage.setText(saveButtonLabel);
+        if (uri != null) {
+            Toast.makeText(this, "Gambar berhasil disimpan ke galeri", Toast.LENGTH_SHORT).show();
+            Log.d(TAG, "Gambar disimpan di: " + uri);
+        } else {
+            Log.e(TAG, "Gagal menyimpan gambar", error);
             Toast.makeText(this, "Gagal menyimpan gambar", Toast.LENGTH_SHORT).show();
         }
     }
@@ -0,0 +1,516 @@
+package com.example.cohia;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.example.cohia.api.ClassRegistry;
+import com.example.cohia.api.PredictionBatch;
+import com.example.cohia.api.PredictionCodec;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Penyimpanan hasil deteksi (gambar + prediksi) antar layar. Pengganti singleton statis:
+ * setiap hasil mendapat ID buram yang dikirim lewat Intent, sehingga beberapa hasil bisa
+ * berjalan bersamaan dan layar hasil tidak bergantung pada state statis.
+ *
+ * <ul>
+ *     <li>Hasil disimpan di memori dengan batas byte; jika terlampaui, hasil yang paling lama
+ *     tidak dipakai ditulis ("spill") ke file terkompresi di cache privat aplikasi lalu
+ *     dilepas dari memori.</li>
+ *     <li>Saat aplikasi ke background ({@link #trimMemory}) semua hasil ditulis ke disk, jadi
+ *     {@link #get} tetap bisa memulihkannya setelah proses dimatikan dan dibuat ulang.</li>
+ *     <li>Ukuran total file dibatasi; file yang paling lama tidak dipakai dihapus lebih dulu.</li>
+ * </ul>
+ *
+ * Kompresi dan I/O spill berjalan di executor milik store, tidak pernah di thread pemanggil
+ * {@link #put} atau {@link #trimMemory}. Semua method thread-safe.
+ */
+public class ResultStore {
+
+    private static final String TAG = "ResultStore";
+
+    public static final long DEFAULT_MEMORY_BYTES = 16L * 1024 * 1024;
+    public static final long DEFAULT_DISK_BYTES = 24L * 1024 * 1024;
+
+    private static final int MAGIC = 0x434f5231; // "COR1"
+    private static final String ENTRY_SUFFIX = ".res";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final Pattern ID_PATTERN = Pattern.compile("[0-9a-f\\-]{36}");
+    private static final int JPEG_QUALITY = 95;
+
+    private static ResultStore sharedInstance;
+
+    /**
+     * Cara menyimpan gambar ke file. Bisa diganti untuk pengujian di JVM.
+     */
+    public interface ImageCodec {
+        void encode(Bitmap bitmap, OutputStream out) throws IOException;
+
+        @Nullable
+        Bitmap decode(byte[] data, int offset, int length);
+
+        long sizeOf(Bitmap bitmap);
+    }
+
+    /** JPEG kualitas tinggi: cukup untuk tampilan dan simpan ulang, jauh lebih kecil dari PNG. */
+    public static final ImageCodec JPEG = new ImageCodec() {
+        @Override
+        public void encode(Bitmap bitmap, OutputStream out) throws IOException {
+            if (!bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out)) {
+                throw new IOException("Gagal mengompres gambar hasil");
+            }
+        }
+
+        @Nullable
+        @Override
+        public Bitmap decode(byte[] data, int offset, int length) {
+            return BitmapFactory.decodeByteArray(data, offset, length);
+        }
+
+        @Override
+        public long sizeOf(Bitmap bitmap) {
+            return bitmap.getAllocationByteCount();
+        }
+    };
+
+    /**
+     * Hasil deteksi yang disimpan. Bitmap dan batch tidak boleh diubah oleh pemakai.
+     */
+    public static final class Result {
+        public final Bitmap bitmap;
+        public final PredictionBatch predictions;
+
+        Result(Bitmap bitmap, PredictionBatch predictions) {
+            this.bitmap = bitmap;
+            this.predictions = predictions;
+        }
+    }
+
+    private static final class Entry {
+        final Result result;
+        final long bytes;
+        boolean persisted;
+
+        Entry(Result result, long bytes, boolean persisted) {
+            this.result = result;
+            this.bytes = bytes;
+            this.persisted = persisted;
+        }
+    }
+
+    private final File directory;
+    private final long memoryBudgetBytes;
+    private final long diskBudgetBytes;
+    private final ImageCodec codec;
+    private final Executor spillExecutor;
+
+    // Urutan akses: entri pertama adalah yang paling lama tidak dipakai
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes = 0;
+
+    private long spillCount = 0;
+    private long restoreCount = 0;
+    private long dropCount = 0;
+
+    /**
+     * @return Store bersama untuk proses ini; otomatis menerima {@code onTrimMemory} aplikasi.
+     */
+    public static synchronized ResultStore getInstance(Context context) {
+        if (sharedInstance == null) {
+            Context app = context.getApplicationContext();
+            ResultStore store = new ResultStore(new File(app.getCacheDir(), "results-v1"),
+                    DEFAULT_MEMORY_BYTES, DEFAULT_DISK_BYTES, JPEG, Executors.newSingleThreadExecutor());
+            app.registerComponentCallbacks(new ComponentCallbacks2() {
+                @Override
+                public void onTrimMemory(int level) {
+                    store.trimMemory(level);
+                }
+
+                @Override
+                public void onConfigurationChanged(@NonNull Configuration newConfig) {
+                }
+
+                @Override
+                public void onLowMemory() {
+                    store.trimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+                }
+            });
+            sharedInstance = store;
+        }
+        return sharedInstance;
+    }
+
+    /**
+     * @param directory         Direktori khusus store ini (dibuat jika belum ada).
+     * @param memoryBudgetBytes Batas byte hasil di memori.
+     * @param diskBudgetBytes   Batas ukuran total file spill.
+     * @param spillExecutor     Tempat kompresi dan penulisan file dijalankan.
+     */
+    public ResultStore(File directory, long memoryBudgetBytes, long diskBudgetBytes,
+                       ImageCodec codec, Executor spillExecutor) {
+        if (memoryBudgetBytes <= 0 || diskBudgetBytes <= 0) {
+            throw new IllegalArgumentException("Batas byte harus positif");
+        }
+        this.directory = directory;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.diskBudgetBytes = diskBudgetBytes;
+        this.codec = codec;
+        this.spillExecutor = spillExecutor;
+    }
+
+    /**
+     * Menyimpan hasil di memori. Store mengambil alih bitmap dan batch.
+     *
+     * @return ID buram untuk dikirim lewat Intent.
+     */
+    public String put(@NonNull Bitmap bitmap, @NonNull PredictionBatch predictions) {
+        String id = UUID.randomUUID().toString();
+        Entry entry = new Entry(new Result(bitmap, predictions), sizeOf(bitmap, predictions), false);
+        boolean overBudget;
+        synchronized (this) {
+            memory.put(id, entry);
+            memoryBytes += entry.bytes;
+            overBudget = memoryBytes > memoryBudgetBytes;
+        }
+        if (overBudget) {
+            spillExecutor.execute(() -> trimToSize(memoryBudgetBytes));
+        }
+        return id;
+    }
+
+    /**
+     * @return Hasil jika masih di memori, tanpa I/O; aman dari UI thread.
+     */
+    @Nullable
+    public synchronized Result peek(String id) {
+        Entry entry = memory.get(checkId(id));
+        return entry != null ? entry.result : null;
+    }
+
+    /**
+     * @return Hasil dari memori, atau dipulihkan dari file spill; null jika tidak ada lagi.
+     */
+    @WorkerThread
+    @Nullable
+    public Result get(String id) {
+        Result cached = peek(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        File file = entryFile(id);
+        Result restored;
+        try {
+            restored = readEntry(file);
+        } catch (IOException e) {
+            if (file.exists()) {
+                Log.w(TAG, "File hasil rusak, dihapus: " + file.getName(), e);
+                file.delete();
+            }
+            return null;
+        }
+        // Tandai sebagai baru dipakai untuk urutan pembuangan disk
+        file.setLastModified(System.currentTimeMillis());
+
+        Entry entry = new Entry(restored, sizeOf(restored.bitmap, restored.predictions), true);
+        boolean overBudget;
+        synchronized (this) {
+            Entry existing = memory.get(id);
+            if (existing != null) {
+                return existing.result;
+            }
+            memory.put(id, entry);
+            memoryBytes += entry.bytes;
+            restoreCount++;
+            overBudget = memoryBytes > memoryBudgetBytes;
+        }
+        if (overBudget) {
+            spillExecutor.execute(() -> trimToSize(memoryBudgetBytes));
+        }
+        return restored;
+    }
+
+    /**
+     * Menghapus hasil dari memori dan disk, misalnya saat layar hasil ditutup. Bitmap tidak
+     * di-recycle; pemilik tampilan yang memutuskan.
+     */
+    public void remove(String id) {
+        synchronized (this) {
+            Entry entry = memory.remove(checkId(id));
+            if (entry != null) {
+                memoryBytes -= entry.bytes;
+            }
+        }
+        entryFile(id).delete();
+    }
+
+    /**
+     * Mengikuti kebijakan trim Glide: saat UI tersembunyi semua hasil ditulis ke disk dan memori
+     * dipangkas ke separuh batas; di background semua hasil dilepas dari memori. Pekerjaan
+     * dijadwalkan di executor store.
+     */
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            spillExecutor.execute(() -> trimToSize(0));
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            spillExecutor.execute(() -> {
+                persistAll();
+                trimToSize(memoryBudgetBytes / 2);
+            });
+        }
+    }
+
+    /**
+     * Menulis semua hasil di memori yang belum punya file, tanpa melepasnya dari memori.
+     */
+    @WorkerThread
+    public void persistAll() {
+        List<Map.Entry<String, Entry>> pending = new ArrayList<>();
+        synchronized (this) {
+            for (Map.Entry<String, Entry> item : memory.entrySet()) {
+                if (!item.getValue().persisted) {
+                    pending.add(item);
+                }
+            }
+        }
+        for (Map.Entry<String, Entry> item : pending) {
+            String id = item.getKey();
+            Entry entry = item.getValue();
+            boolean written = write(id, entry.result);
+            synchronized (this) {
+                if (memory.get(id) == entry) {
+                    entry.persisted = written;
+                } else if (written) {
+                    // Dihapus selama penulisan
+                    entryFile(id).delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Melepas hasil yang paling lama tidak dipakai dari memori sampai total di bawah
+     * {@code maxBytes}. Hasil yang belum punya file ditulis dulu.
+     */
+    @WorkerThread
+    public void trimToSize(long maxBytes) {
+        while (true) {
+            String id;
+            Entry entry;
+            synchronized (this) {
+                if (memoryBytes <= maxBytes || memory.isEmpty()) {
+                    return;
+                }
+                Map.Entry<String, Entry> eldest = memory.entrySet().iterator().next();
+                id = eldest.getKey();
+                entry = eldest.getValue();
+            }
+            boolean saved = entry.persisted || write(id, entry.result);
+            synchronized (this) {
+                if (memory.get(id) == entry) {
+                    memory.remove(id);
+                    memoryBytes -= entry.bytes;
+                    entry.persisted = saved;
+                    if (saved) {
+                        spillCount++;
+                    } else {
+                        // Tekanan memori lebih penting; hasil yang gagal ditulis hilang
+                        dropCount++;
+                    }
+                } else if (saved && !entry.persisted) {
+                    entryFile(id).delete();
+                }
+            }
+        }
+    }
+
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public synchronized int getMemoryCount() {
+        return memory.size();
+    }
+
+    /**
+     * @return Jumlah hasil yang dilepas dari memori setelah ditulis ke disk.
+     */
+    public synchronized long getSpillCount() {
+        return spillCount;
+    }
+
+    /**
+     * @return Jumlah hasil yang dipulihkan dari disk.
+     */
+    public synchronized long getRestoreCount() {
+        return restoreCount;
+    }
+
+    /**
+     * @return Jumlah hasil yang hilang karena gagal ditulis saat harus dilepas dari memori.
+     */
+    public synchronized long getDropCount() {
+        return dropCount;
+    }
+
+    private long sizeOf(Bitmap bitmap, PredictionBatch predictions) {
+        return codec.sizeOf(bitmap) + predictions.size() * 24L;
+    }
+
+    /**
+     * Format file: magic, panjang prediksi, prediksi ({@link PredictionCodec}), gambar, CRC32
+     * dari semua byte sebelumnya. Ditulis ke file sementara lalu di-rename.
+     *
+     * @return false jika gagal; kegagalan hanya dicatat.
+     */
+    private boolean write(String id, Result result) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.w(TAG, "Direktori hasil tidak bisa dibuat: " + directory);
+            return false;
+        }
+        File temp = new File(directory, id + TEMP_SUFFIX);
+        try {
+            byte[] predictions = PredictionCodec.encode(result.predictions);
+            ByteArrayOutputStream image = new ByteArrayOutputStream(64 * 1024);
+            codec.encode(result.bitmap, image);
+
+            CRC32 crc = new CRC32();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                byte[] header = new byte[8];
+                writeInt(header, 0, MAGIC);
+                writeInt(header, 4, predictions.length);
+                out.write(header);
+                out.write(predictions);
+                image.writeTo(out);
+                crc.update(header);
+                crc.update(predictions);
+                crc.update(image.toByteArray());
+                out.writeLong(crc.getValue());
+            }
+            File file = entryFile(id);
+            if (!temp.renameTo(file)) {
+                throw new IOException("Gagal me-rename " + temp.getName());
+            }
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Gagal menulis hasil " + id, e);
+            temp.delete();
+            return false;
+        }
+        trimDisk();
+        return true;
+    }
+
+    private Result readEntry(File file) throws IOException {
+        long length = file.length();
+        if (length < 8 + 8 || length > Integer.MAX_VALUE) {
+            throw new IOException("Ukuran file hasil tidak valid: " + length);
+        }
+        byte[] data = new byte[(int) length];
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            in.readFully(data);
+        }
+        int body = data.length - 8;
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, body);
+        if (crc.getValue() != readLong(data, body) || readInt(data, 0) != MAGIC) {
+            throw new IOException("Checksum file hasil tidak cocok");
+        }
+        int predictionsLength = readInt(data, 4);
+        if (predictionsLength < 0 || 8 + predictionsLength > body) {
+            throw new IOException("Panjang prediksi tidak valid: " + predictionsLength);
+        }
+        PredictionBatch predictions = PredictionCodec.decodeBatch(
+                Arrays.copyOfRange(data, 8, 8 + predictionsLength), ClassRegistry.getInstance());
+        int imageOffset = 8 + predictionsLength;
+        Bitmap bitmap = codec.decode(data, imageOffset, body - imageOffset);
+        if (bitmap == null) {
+            throw new IOException("Gambar hasil tidak bisa di-decode");
+        }
+        return new Result(bitmap, predictions);
+    }
+
+    /**
+     * Menghapus file yang paling lama tidak dipakai sampai total di bawah batas disk.
+     */
+    private void trimDisk() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(ENTRY_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total <= diskBudgetBytes) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        Iterator<File> oldestFirst = Arrays.asList(files).iterator();
+        while (total > diskBudgetBytes && oldestFirst.hasNext()) {
+            File file = oldestFirst.next();
+            long size = file.length();
+            if (file.delete()) {
+                total -= size;
+            }
+        }
+    }
+
+    private File entryFile(String id) {
+        return new File(directory, checkId(id) + ENTRY_SUFFIX);
+    }
+
+    /**
+     * ID berasal dari Intent, jadi divalidasi sebelum dipakai sebagai nama file.
+     */
+    private static String checkId(String id) {
+        if (id == null || !ID_PATTERN.matcher(id).matches()) {
+            throw new IllegalArgumentException("ID hasil tidak valid: " + id);
+        }
+        return id;
+    }
+
+    private static void writeInt(byte[] out, int offset, int value) {
+        out[offset] = (byte) (value >>> 24);
+        out[offset + 1] = (byte) (value >>> 16);
+        out[offset + 2] = (byte) (value >>> 8);
+        out[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] in, int offset) {
+        return ((in[offset] & 0xFF) << 24) | ((in[offset + 1] & 0xFF) << 16)
+                | ((in[offset + 2] & 0xFF) << 8) | (in[offset + 3] & 0xFF);
+    }
+
+    private static long readLong(byte[] in, int offset) {
+        return ((long) readInt(in, offset) << 32) | (readInt(in, offset + 4) & 0xFFFFFFFFL);
+    }
+}
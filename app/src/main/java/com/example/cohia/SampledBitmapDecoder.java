@@ -0,0 +1,230 @@
+package com.example.cohia;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.exifinterface.media.ExifInterface;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decode gambar galeri/kamera langsung ke ukuran yang dibutuhkan, dengan orientasi EXIF.
+ *
+ * Alurnya: baca orientasi EXIF, decode bounds saja, pilih {@code inSampleSize} (pangkat dua)
+ * lalu skala densitas agar sisi terpanjang tepat {@code targetLongEdge}, dan terakhir rotasi
+ * pada bitmap yang sudah kecil. Foto 48 MP tidak pernah di-decode penuh ke memori.
+ */
+public final class SampledBitmapDecoder {
+
+    private static final String TAG = "SampledBitmapDecoder";
+
+    // Nilai tag orientasi EXIF (TIFF 6.0); sama dengan konstanta ExifInterface.ORIENTATION_*
+    static final int ORIENTATION_NORMAL = 1;
+    static final int ORIENTATION_FLIP_HORIZONTAL = 2;
+    static final int ORIENTATION_ROTATE_180 = 3;
+    static final int ORIENTATION_FLIP_VERTICAL = 4;
+    static final int ORIENTATION_TRANSPOSE = 5;
+    static final int ORIENTATION_ROTATE_90 = 6;
+    static final int ORIENTATION_TRANSVERSE = 7;
+    static final int ORIENTATION_ROTATE_270 = 8;
+
+    private SampledBitmapDecoder() {}
+
+    /**
+     * Decode gambar dari URI dengan sisi terpanjang paling besar {@code targetLongEdge}
+     * dan orientasi sudah tegak.
+     *
+     * @return Bitmap hasil decode, atau null jika data bukan gambar yang bisa di-decode.
+     * @throws IOException Jika URI tidak bisa dibuka.
+     */
+    @Nullable
+    public static Bitmap decode(@NonNull ContentResolver resolver, @NonNull Uri uri, int targetLongEdge)
+            throws IOException {
+        int orientation = readOrientation(resolver, uri);
+
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(resolver, uri)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            return null;
+        }
+
+        BitmapFactory.Options options = decodeOptions(bounds.outWidth, bounds.outHeight, targetLongEdge);
+        Bitmap decoded;
+        try (InputStream in = open(resolver, uri)) {
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (decoded == null) {
+            return null;
+        }
+        Log.d(TAG, bounds.outWidth + "x" + bounds.outHeight + " -> " + decoded.getWidth() + "x"
+                + decoded.getHeight() + " (inSampleSize " + options.inSampleSize + ", EXIF " + orientation + ")");
+        return applyOrientation(decoded, orientation);
+    }
+
+    /**
+     * Decode JPEG di memori (misalnya hasil {@code OnImageCapturedCallback}) dengan sisi
+     * terpanjang paling besar {@code targetLongEdge}, lalu memutarnya searah jarum jam.
+     *
+     * @param rotationDegrees Rotasi dari {@code ImageInfo.getRotationDegrees()}; CameraX tidak
+     *                        menjamin tag EXIF pada capture di memori.
+     * @return Bitmap hasil decode, atau null jika data tidak bisa di-decode.
+     */
+    @Nullable
+    public static Bitmap decode(@NonNull byte[] data, int targetLongEdge, int rotationDegrees) {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            return null;
+        }
+
+        BitmapFactory.Options options = decodeOptions(bounds.outWidth, bounds.outHeight, targetLongEdge);
+        Bitmap decoded = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (decoded == null) {
+            return null;
+        }
+        return transform(decoded, rotationDegrees, false);
+    }
+
+    /**
+     * Opsi decode untuk gambar {@code width}x{@code height}: subsampling pangkat dua oleh decoder,
+     * lalu skala densitas untuk sisa pengecilan sehingga hanya satu bitmap yang dialokasikan.
+     */
+    static BitmapFactory.Options decodeOptions(int width, int height, int targetLongEdge) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inSampleSize = calculateInSampleSize(width, height, targetLongEdge);
+
+        int sampledLongEdge = sampledSize(Math.max(width, height), options.inSampleSize);
+        if (sampledLongEdge > targetLongEdge) {
+            options.inScaled = true;
+            options.inDensity = sampledLongEdge;
+            options.inTargetDensity = targetLongEdge;
+        } else {
+            options.inScaled = false;
+        }
+        return options;
+    }
+
+    /**
+     * @return inSampleSize pangkat dua terbesar yang masih menyisakan sisi terpanjang
+     * minimal {@code targetLongEdge}, agar tidak ada detail yang hilang sebelum skala akhir.
+     */
+    static int calculateInSampleSize(int width, int height, int targetLongEdge) {
+        if (targetLongEdge <= 0) {
+            throw new IllegalArgumentException("targetLongEdge harus positif: " + targetLongEdge);
+        }
+        int longEdge = Math.max(width, height);
+        int sampleSize = 1;
+        while (longEdge / (sampleSize * 2) >= targetLongEdge) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Ukuran satu sisi setelah subsampling; decoder JPEG membulatkan ke atas.
+     */
+    static int sampledSize(int size, int sampleSize) {
+        return (size + sampleSize - 1) / sampleSize;
+    }
+
+    /**
+     * @return Sudut rotasi searah jarum jam (0, 90, 180, 270) untuk tag orientasi EXIF,
+     * diterapkan setelah cermin dari {@link #isMirrored(int)}.
+     */
+    static int rotationDegrees(int orientation) {
+        switch (orientation) {
+            case ORIENTATION_ROTATE_90:
+            case ORIENTATION_TRANSVERSE:
+                return 90;
+            case ORIENTATION_ROTATE_180:
+            case ORIENTATION_FLIP_VERTICAL:
+                return 180;
+            case ORIENTATION_ROTATE_270:
+            case ORIENTATION_TRANSPOSE:
+                return 270;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @return true jika orientasi EXIF menyertakan cermin horizontal (diterapkan sebelum rotasi).
+     */
+    static boolean isMirrored(int orientation) {
+        return orientation == ORIENTATION_FLIP_HORIZONTAL
+                || orientation == ORIENTATION_FLIP_VERTICAL
+                || orientation == ORIENTATION_TRANSPOSE
+                || orientation == ORIENTATION_TRANSVERSE;
+    }
+
+    /**
+     * Memutar/mencerminkan bitmap sesuai orientasi EXIF. Bitmap asli di-recycle jika diganti.
+     */
+    @NonNull
+    static Bitmap applyOrientation(@NonNull Bitmap bitmap, int orientation) {
+        return transform(bitmap, rotationDegrees(orientation), isMirrored(orientation));
+    }
+
+    /**
+     * @return Orientasi EXIF untuk rotasi searah jarum jam tanpa cermin.
+     */
+    static int orientationForRotation(int degrees) {
+        switch (((degrees % 360) + 360) % 360) {
+            case 90:
+                return ORIENTATION_ROTATE_90;
+            case 180:
+                return ORIENTATION_ROTATE_180;
+            case 270:
+                return ORIENTATION_ROTATE_270;
+            default:
+                return ORIENTATION_NORMAL;
+        }
+    }
+
+    private static Bitmap transform(Bitmap bitmap, int degrees, boolean mirrored) {
+        if (degrees % 360 == 0 && !mirrored) {
+            return bitmap;
+        }
+        Matrix matrix = new Matrix();
+        if (mirrored) {
+            matrix.postScale(-1, 1);
+        }
+        matrix.postRotate(degrees);
+        Bitmap oriented = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+        if (oriented != bitmap) {
+            bitmap.recycle();
+        }
+        return oriented;
+    }
+
+    private static int readOrientation(ContentResolver resolver, Uri uri) {
+        try (InputStream in = open(resolver, uri)) {
+            return new ExifInterface(in).getAttributeInt(ExifInterface.TAG_ORIENTATION, ORIENTATION_NORMAL);
+        } catch (IOException e) {
+            // Format tanpa EXIF (mis. PNG) dianggap sudah tegak
+            Log.d(TAG, "Orientasi EXIF tidak tersedia untuk " + uri, e);
+            return ORIENTATION_NORMAL;
+        }
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri uri) throws IOException {
+        InputStream in = resolver.openInputStream(uri);
+        if (in == null) {
+            throw new FileNotFoundException("Tidak bisa membuka " + uri);
+        }
+        return in;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.cohia;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Gerbang murah yang mendeteksi apakah pemandangan kamera berubah sejak frame terakhir yang
+ * dikirim, langsung dari plane Y (luma) tanpa konversi ke Bitmap.
+ *
+ * Frame diringkas menjadi tanda tangan {@value #GRID}x{@value #GRID} rata-rata luma dari titik
+ * sampel yang jarang. Jika selisih rata-rata terhadap frame referensi di bawah ambang, frame
+ * dilewati (tidak dikonversi maupun di-upload) dan hasil terakhir tetap ditampilkan.
+ *
+ * {@link #hasChanged} hanya boleh dipanggil dari satu thread (thread analisis);
+ * {@link #invalidate()} aman dipanggil dari thread lain.
+ */
+public class SceneChangeGate {
+
+    public static final int GRID = 16;
+    // Titik sampel per sisi sel; 4x4 = 16 sampel per sel, 4096 per frame
+    private static final int SAMPLES_PER_CELL = 4;
+
+    public static final float DEFAULT_THRESHOLD = 6f;
+    public static final int DEFAULT_MAX_CONSECUTIVE_SKIPS = 10;
+
+    private final float threshold;
+    private final int maxConsecutiveSkips;
+
+    private final int[] current = new int[GRID * GRID];
+    private final int[] reference = new int[GRID * GRID];
+    private boolean hasReference = false;
+    private volatile boolean forceNext = false;
+
+    private int consecutiveSkips = 0;
+    private float lastDifference = 0f;
+    private long evaluatedCount = 0;
+    private long skippedCount = 0;
+
+    public SceneChangeGate() {
+        this(DEFAULT_THRESHOLD, DEFAULT_MAX_CONSECUTIVE_SKIPS);
+    }
+
+    /**
+     * @param threshold           Selisih rata-rata luma (0-255) per sel yang dianggap perubahan.
+     * @param maxConsecutiveSkips Setelah sebanyak ini frame berturut-turut dilewati, frame
+     *                            berikutnya tetap dikirim agar hasil tidak basi selamanya.
+     */
+    public SceneChangeGate(float threshold, int maxConsecutiveSkips) {
+        this.threshold = threshold;
+        this.maxConsecutiveSkips = maxConsecutiveSkips;
+    }
+
+    /**
+     * Menghitung tanda tangan frame dan membandingkannya dengan frame terakhir yang lolos.
+     * Jika frame lolos, frame ini menjadi referensi baru. Posisi buffer tidak diubah.
+     *
+     * @return true jika frame perlu dianalisis, false jika boleh dilewati.
+     */
+    public boolean hasChanged(ByteBuffer yPlane, int rowStride, int pixelStride, int width, int height) {
+        evaluatedCount++;
+        computeSignature(yPlane, rowStride, pixelStride, width, height, current);
+
+        boolean changed;
+        if (!hasReference || forceNext || consecutiveSkips >= maxConsecutiveSkips) {
+            changed = true;
+            lastDifference = hasReference ? meanDifference(current, reference) : Float.MAX_VALUE;
+        } else {
+            lastDifference = meanDifference(current, reference);
+            changed = lastDifference >= threshold;
+        }
+
+        if (changed) {
+            System.arraycopy(current, 0, reference, 0, current.length);
+            hasReference = true;
+            forceNext = false;
+            consecutiveSkips = 0;
+        } else {
+            consecutiveSkips++;
+            skippedCount++;
+        }
+        return changed;
+    }
+
+    /**
+     * Memaksa frame berikutnya dianalisis, misalnya karena upload frame referensi gagal.
+     */
+    public void invalidate() {
+        forceNext = true;
+    }
+
+    /**
+     * @return Selisih rata-rata luma pada evaluasi terakhir.
+     */
+    public float getLastDifference() {
+        return lastDifference;
+    }
+
+    public long getEvaluatedCount() {
+        return evaluatedCount;
+    }
+
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * @return Rasio frame yang dilewati terhadap seluruh frame yang dievaluasi.
+     */
+    public double getSkipRatio() {
+        return evaluatedCount == 0 ? 0 : (double) skippedCount / evaluatedCount;
+    }
+
+    static void computeSignature(ByteBuffer yPlane, int rowStride, int pixelStride,
+                                 int width, int height, int[] signature) {
+        int base = yPlane.position();
+        int samples = GRID * SAMPLES_PER_CELL;
+        for (int cellY = 0; cellY < GRID; cellY++) {
+            for (int cellX = 0; cellX < GRID; cellX++) {
+                int sum = 0;
+                for (int sy = 0; sy < SAMPLES_PER_CELL; sy++) {
+                    // Titik sampel di tengah setiap sub-sel agar tersebar merata
+                    int row = ((cellY * SAMPLES_PER_CELL + sy) * 2 + 1) * height / (samples * 2);
+                    int rowOffset = base + row * rowStride;
+                    for (int sx = 0; sx < SAMPLES_PER_CELL; sx++) {
+                        int col = ((cellX * SAMPLES_PER_CELL + sx) * 2 + 1) * width / (samples * 2);
+                        sum += yPlane.get(rowOffset + col * pixelStride) & 0xFF;
+                    }
+                }
+                signature[cellY * GRID + cellX] = sum / (SAMPLES_PER_CELL * SAMPLES_PER_CELL);
+            }
+        }
+    }
+
+    private static float meanDifference(int[] a, int[] b) {
+        int total = 0;
+        for (int i = 0; i < a.length; i++) {
+            total += Math.abs(a[i] - b[i]);
+        }
+        return (float) total / a.length;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.cohia;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Konverter YUV_420_888 ke ARGB_8888 secara langsung, tanpa melewati kompresi JPEG.
+ *
+ * Menghormati rowStride dan pixelStride setiap plane sehingga buffer yang memiliki
+ * padding (umum pada banyak perangkat) tetap dikonversi dengan benar. Buffer baris
+ * internal dipakai ulang antar frame, dan hasil ditulis ke array milik pemanggil,
+ * sehingga pada kondisi stabil tidak ada alokasi per frame.
+ *
+ * Koefisien yang dipakai adalah BT.601 full-range (JFIF), sama dengan yang dihasilkan
+ * jalur lama NV21 -> JPEG -> BitmapFactory.
+ *
+ * Instance tidak thread-safe; gunakan satu instance per thread analisis.
+ */
+public class YuvToRgbConverter {
+
+    // Koefisien BT.601 full-range dalam fixed-point 10 bit.
+    private static final int SHIFT = 10;
+    private static final int ROUND = 1 << (SHIFT - 1);
+    private static final int V_TO_R = 1436;  // 1.402
+    private static final int U_TO_G = 352;   // 0.344136
+    private static final int V_TO_G = 731;   // 0.714136
+    private static final int U_TO_B = 1815;  // 1.772
+
+    private byte[] yRow = new byte[0];
+    private byte[] uRow = new byte[0];
+    private byte[] vRow = new byte[0];
+    private int[] pixels = new int[0];
+
+    /**
+     * Mengonversi plane YUV_420_888 ke buffer ARGB internal yang dipakai ulang.
+     * Array yang dikembalikan hanya valid sampai pemanggilan convert berikutnya.
+     *
+     * @return Array ARGB berukuran minimal width * height.
+     */
+    public int[] convert(ByteBuffer yPlane, int yRowStride, int yPixelStride,
+                         ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride,
+                         int width, int height) {
+        int size = width * height;
+        if (pixels.length < size) {
+            pixels = new int[size];
+        }
+        convert(yPlane, yRowStride, yPixelStride, uPlane, vPlane, uvRowStride, uvPixelStride,
+                width, height, pixels);
+        return pixels;
+    }
+
+    /**
+     * Mengonversi plane YUV_420_888 ke array ARGB milik pemanggil.
+     * Posisi setiap ByteBuffer dikembalikan seperti semula setelah konversi.
+     *
+     * @param argbOut Array tujuan, minimal berukuran width * height (row-major, tanpa padding).
+     */
+    public void convert(ByteBuffer yPlane, int yRowStride, int yPixelStride,
+                        ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride,
+                        int width, int height, int[] argbOut) {
+        if (argbOut.length < width * height) {
+            throw new IllegalArgumentException("Buffer ARGB terlalu kecil: " + argbOut.length
+                    + " < " + (width * height));
+        }
+
+        int chromaWidth = (width + 1) / 2;
+        int yRowLength = (width - 1) * yPixelStride + 1;
+        int uvRowLength = (chromaWidth - 1) * uvPixelStride + 1;
+        if (yRow.length < yRowLength) yRow = new byte[yRowLength];
+        if (uRow.length < uvRowLength) uRow = new byte[uvRowLength];
+        if (vRow.length < uvRowLength) vRow = new byte[uvRowLength];
+
+        int yStart = yPlane.position();
+        int uStart = uPlane.position();
+        int vStart = vPlane.position();
+        try {
+            for (int row = 0; row < height; row++) {
+                readRow(yPlane, yStart + row * yRowStride, yRow, yRowLength);
+                if ((row & 1) == 0) {
+                    int uvOffset = (row >> 1) * uvRowStride;
+                    readRow(uPlane, uStart + uvOffset, uRow, uvRowLength);
+                    readRow(vPlane, vStart + uvOffset, vRow, uvRowLength);
+                }
+
+                int out = row * width;
+                for (int col = 0; col < width; col++) {
+                    int uvIndex = (col >> 1) * uvPixelStride;
+                    argbOut[out + col] = toArgb(
+                            yRow[col * yPixelStride] & 0xFF,
+                            (uRow[uvIndex] & 0xFF) - 128,
+                            (vRow[uvIndex] & 0xFF) - 128);
+                }
+            }
+        } finally {
+            yPlane.position(yStart);
+            uPlane.position(uStart);
+            vPlane.position(vStart);
+        }
+    }
+
+    private static void readRow(ByteBuffer plane, int offset, byte[] dst, int length) {
+        plane.position(offset);
+        plane.get(dst, 0, Math.min(length, plane.limit() - offset));
+    }
+
+    private static int toArgb(int y, int u, int v) {
+        int r = y + ((V_TO_R * v + ROUND) >> SHIFT);
+        int g = y - ((U_TO_G * u + V_TO_G * v + ROUND) >> SHIFT);
+        int b = y + ((U_TO_B * u + ROUND) >> SHIFT);
+        return 0xFF000000 | (clamp(r) << 16) | (clamp(g) << 8) | clamp(b);
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.cohia.api;
+
+import androidx.annotation.NonNull;
+
+import com.example.cohia.MonotonicClock;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Dns;
+
+/**
+ * Resolver DNS dengan cache di memori untuk host inferensi, agar request pertama setelah
+ * koneksi di pool kedaluwarsa tidak menunggu lookup lagi.
+ *
+ * Hasil disimpan selama {@code ttlNanos}. Jika lookup ulang gagal (misalnya jaringan sempat
+ * terputus), alamat lama yang sudah kedaluwarsa tetap dipakai; koneksi ke alamat yang salah
+ * akan gagal sendiri dan OkHttp mencoba rute lain.
+ */
+public final class CachingDns implements Dns {
+
+    public static final long DEFAULT_TTL_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private static final class Entry {
+        final List<InetAddress> addresses;
+        final long resolvedAt;
+
+        Entry(List<InetAddress> addresses, long resolvedAt) {
+            this.addresses = addresses;
+            this.resolvedAt = resolvedAt;
+        }
+    }
+
+    private final Dns delegate;
+    private final long ttlNanos;
+    private final MonotonicClock clock;
+    private final ConcurrentHashMap<String, Entry> cache = new ConcurrentHashMap<>();
+
+    public CachingDns(@NonNull Dns delegate) {
+        this(delegate, DEFAULT_TTL_NANOS, MonotonicClock.SYSTEM);
+    }
+
+    public CachingDns(@NonNull Dns delegate, long ttlNanos, @NonNull MonotonicClock clock) {
+        this.delegate = delegate;
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+    }
+
+    @NonNull
+    @Override
+    public List<InetAddress> lookup(@NonNull String hostname) throws UnknownHostException {
+        long now = clock.nanoTime();
+        Entry cached = cache.get(hostname);
+        if (cached != null && now - cached.resolvedAt < ttlNanos) {
+            return cached.addresses;
+        }
+        List<InetAddress> addresses;
+        try {
+            addresses = delegate.lookup(hostname);
+        } catch (UnknownHostException e) {
+            if (cached != null) {
+                return cached.addresses;
+            }
+            throw e;
+        }
+        if (!addresses.isEmpty()) {
+            cache.put(hostname, new Entry(Collections.unmodifiableList(new ArrayList<>(addresses)), now));
+        }
+        return addresses;
+    }
+
+    /**
+     * Membuang semua hasil di cache. Dipanggil {@link InferenceHttpClient} saat jaringan
+     * default berganti.
+     */
+    public void clear() {
+        cache.clear();
+    }
+}
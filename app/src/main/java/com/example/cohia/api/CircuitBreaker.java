@@ -0,0 +1,172 @@
+package com.example.cohia.api;
+
+import com.example.cohia.MonotonicClock;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker untuk endpoint inferensi, agar request tidak terus dikirim ke layanan yang
+ * sedang gangguan.
+ *
+ * <ul>
+ *     <li>{@link State#CLOSED}: request berjalan normal. Setelah
+ *     {@link Config#failureThreshold} kegagalan berturut-turut, breaker terbuka.</li>
+ *     <li>{@link State#OPEN}: request yang dibatasi breaker langsung ditolak selama
+ *     {@link Config#openMillis}.</li>
+ *     <li>{@link State#HALF_OPEN}: satu request percobaan diizinkan. Sukses menutup breaker;
+ *     gagal membukanya lagi dengan durasi dua kali lipat, sampai {@link Config#maxOpenMillis}.</li>
+ * </ul>
+ *
+ * Yang dihitung gagal hanya error jaringan dan status yang menandakan gangguan server (lihat
+ * {@link RequestPolicy#isRetryableStatus(int)}); error klien seperti 400 tidak membuka breaker.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /** Nilai kembalian {@link #tryAcquire()} jika request harus ditolak tanpa dikirim. */
+    public static final long REJECTED = -1;
+    /**
+     * Izin biasa (breaker tertutup), bukan request percobaan. Juga dipakai pemanggil yang tidak
+     * dibatasi breaker saat melapor ke {@link #onCanceled(long)}.
+     */
+    public static final long NOT_PROBE = 0;
+
+    public static class Config {
+        /** Kegagalan berturut-turut sebelum breaker terbuka. */
+        public int failureThreshold = 5;
+        /** Lama breaker terbuka pertama kali. */
+        public long openMillis = 5000;
+        /** Batas lama terbuka setelah percobaan berulang kali gagal. */
+        public long maxOpenMillis = 60000;
+    }
+
+    private final MonotonicClock clock;
+    private final int failureThreshold;
+    private final long initialOpenNanos;
+    private final long maxOpenNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt;
+    private long openNanos;
+    private boolean probeInFlight = false;
+    // Izin request percobaan terakhir; naik setiap kali percobaan baru diberikan
+    private long probePermit = NOT_PROBE;
+
+    public CircuitBreaker(MonotonicClock clock) {
+        this(new Config(), clock);
+    }
+
+    public CircuitBreaker(Config config, MonotonicClock clock) {
+        if (config.failureThreshold < 1 || config.openMillis <= 0 || config.maxOpenMillis < config.openMillis) {
+            throw new IllegalArgumentException("Konfigurasi circuit breaker tidak valid");
+        }
+        this.clock = clock;
+        this.failureThreshold = config.failureThreshold;
+        this.initialOpenNanos = TimeUnit.MILLISECONDS.toNanos(config.openMillis);
+        this.maxOpenNanos = TimeUnit.MILLISECONDS.toNanos(config.maxOpenMillis);
+        this.openNanos = initialOpenNanos;
+    }
+
+    /**
+     * Meminta izin mengirim satu request. Saat setengah terbuka, hanya pemanggil pertama yang
+     * mendapat izin sebagai request percobaan.
+     *
+     * @return {@link #REJECTED} jika request harus ditolak tanpa dikirim, {@link #NOT_PROBE}
+     * untuk request biasa, atau izin positif milik request percobaan yang harus diteruskan ke
+     * {@link #onCanceled(long)} jika request itu dibatalkan.
+     */
+    public synchronized long tryAcquire() {
+        advance();
+        switch (state) {
+            case CLOSED:
+                return NOT_PROBE;
+            case HALF_OPEN:
+                if (!probeInFlight) {
+                    probeInFlight = true;
+                    return ++probePermit;
+                }
+                return REJECTED;
+            case OPEN:
+            default:
+                return REJECTED;
+        }
+    }
+
+    /**
+     * Sama dengan {@link #tryAcquire()} tetapi tidak memakai jatah request percobaan; untuk
+     * memutuskan apakah frame live perlu disiapkan sama sekali.
+     */
+    public synchronized boolean isAcceptingRequests() {
+        advance();
+        return state == State.CLOSED || (state == State.HALF_OPEN && !probeInFlight);
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        openNanos = initialOpenNanos;
+        probeInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        advance();
+        if (state == State.HALF_OPEN) {
+            openNanos = Math.min(openNanos * 2, maxOpenNanos);
+            open();
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * Dipanggil saat request dibatalkan tanpa hasil, agar request percobaan yang dibatalkan
+     * tidak menahan breaker setengah terbuka selamanya. Hanya pemilik izin percobaan yang
+     * membebaskannya; pembatalan request lain (misalnya capture yang tidak dibatasi breaker)
+     * tidak membuka jatah percobaan kedua.
+     *
+     * @param permit Nilai dari {@link #tryAcquire()}, atau {@link #NOT_PROBE}.
+     */
+    public synchronized void onCanceled(long permit) {
+        if (state == State.HALF_OPEN && probeInFlight && permit == probePermit) {
+            probeInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        advance();
+        return state;
+    }
+
+    /**
+     * @return Sisa waktu sampai request percobaan diizinkan, atau 0 jika breaker tidak terbuka.
+     */
+    public synchronized long getRemainingOpenMillis() {
+        advance();
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(openNanos - (clock.nanoTime() - openedAt));
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.nanoTime();
+        probeInFlight = false;
+    }
+
+    private void advance() {
+        if (state == State.OPEN && clock.nanoTime() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.cohia.api;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pemetaan nama kelas deteksi ke ID integer yang stabil selama proses berjalan, sehingga
+ * struktur data berbasis array primitif bisa menyimpan kelas tanpa String per objek.
+ *
+ * ID diberikan berurutan mulai dari 0 dan tidak pernah dipakai ulang. Semua method thread-safe.
+ */
+public final class ClassRegistry {
+
+    private static final ClassRegistry sharedInstance = new ClassRegistry();
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * @return Registry bersama yang dipakai oleh parser respons dan UI.
+     */
+    public static ClassRegistry getInstance() {
+        return sharedInstance;
+    }
+
+    /**
+     * @return ID untuk nama ini; nama baru langsung didaftarkan.
+     */
+    public synchronized int idOf(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException Jika ID belum pernah diberikan.
+     */
+    public synchronized String nameOf(int id) {
+        return names.get(id);
+    }
+
+    public synchronized int size() {
+        return names.size();
+    }
+}
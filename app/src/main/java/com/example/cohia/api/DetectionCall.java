@@ -0,0 +1,80 @@
+package com.example.cohia.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.Call;
+
+/**
+ * Handle untuk satu request deteksi yang sedang berjalan.
+ *
+ * Setiap handle diberi nomor urut yang naik secara monoton per {@link RoboflowAPI}, sehingga
+ * pemanggil bisa membedakan respons lama dari yang baru. Setelah {@link #cancel()}, callback
+ * request ini tidak akan dipanggil lagi.
+ *
+ * Satu handle bisa mewakili beberapa {@link Call} (retry dan hedged request); pembatalan
+ * berlaku untuk semuanya.
+ */
+public class DetectionCall {
+
+    private final long sequence;
+    private final List<Call> calls = new ArrayList<>(2);
+    private volatile boolean canceled;
+    private volatile boolean done;
+
+    DetectionCall(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Membatalkan request. Aman dipanggil dari thread mana pun dan berkali-kali.
+     */
+    public void cancel() {
+        List<Call> current;
+        synchronized (calls) {
+            canceled = true;
+            current = new ArrayList<>(calls);
+        }
+        for (Call call : current) {
+            call.cancel();
+        }
+    }
+
+    public boolean isCanceled() {
+        return canceled;
+    }
+
+    /**
+     * @return true jika callback request ini sudah dipanggil.
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    void attach(Call call) {
+        synchronized (calls) {
+            calls.add(call);
+        }
+        // cancel() bisa terjadi sebelum Call dibuat
+        if (canceled) {
+            call.cancel();
+        }
+    }
+
+    /**
+     * Menandai request selesai tepat sebelum callback dipanggil.
+     *
+     * @return false jika request sudah dibatalkan sehingga callback harus dilewati.
+     */
+    boolean markDone() {
+        if (canceled) {
+            return false;
+        }
+        done = true;
+        return true;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.cohia.api;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.cohia.LatencyTracer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dns;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * OkHttpClient bersama untuk semua request inferensi, sehingga live dan capture memakai pool
+ * koneksi, cache DNS, dan dispatcher yang sama.
+ *
+ * <ul>
+ *     <li>HTTP/2 diutamakan: request live dan capture yang berjalan bersamaan di-multiplex di
+ *     satu koneksi TLS alih-alih membuka koneksi baru.</li>
+ *     <li>Koneksi idle disimpan {@value #KEEP_ALIVE_MINUTES} menit dan dijaga dengan ping
+ *     HTTP/2, jadi jeda di antara frame live tidak memutus koneksi.</li>
+ *     <li>{@link #warmUp} membuka koneksi (DNS, TCP, TLS) sebelum request pertama.</li>
+ *     <li>{@link #watchNetworkChanges} mengosongkan cache DNS saat jaringan default berganti.</li>
+ * </ul>
+ */
+public final class InferenceHttpClient {
+
+    private static final String TAG = "InferenceHttpClient";
+
+    static final int MAX_IDLE_CONNECTIONS = 4;
+    static final long KEEP_ALIVE_MINUTES = 5;
+    private static final long PING_INTERVAL_SECONDS = 30;
+
+    private static volatile OkHttpClient sharedClient;
+    private static boolean watchingNetwork;
+
+    private InferenceHttpClient() {
+    }
+
+    /**
+     * @return Client bersama, dibuat saat pertama dipanggil. Latensi setiap panggilan dicatat
+     * ke {@link LatencyTracer#getInstance()}.
+     */
+    public static OkHttpClient shared() {
+        OkHttpClient client = sharedClient;
+        if (client == null) {
+            synchronized (InferenceHttpClient.class) {
+                client = sharedClient;
+                if (client == null) {
+                    client = newBuilder().build();
+                    sharedClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    /**
+     * @return Builder dengan konfigurasi client bersama, untuk client terpisah (misalnya di
+     * pengujian dengan sertifikat sendiri). Pool koneksinya baru, tidak berbagi dengan
+     * {@link #shared()}.
+     */
+    public static OkHttpClient.Builder newBuilder() {
+        return new OkHttpClient.Builder()
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .pingInterval(PING_INTERVAL_SECONDS, TimeUnit.SECONDS)
+                .dns(new CachingDns(Dns.SYSTEM))
+                // Koneksi yang sudah hangat jarang butuh lebih dari beberapa detik; timeout
+                // pendek membuat jaringan macet cepat terdeteksi dan tidak menahan antrean live
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .writeTimeout(30, TimeUnit.SECONDS)
+                .readTimeout(30, TimeUnit.SECONDS)
+                .eventListenerFactory(TracingEventListener.factory(LatencyTracer.getInstance()));
+    }
+
+    /**
+     * Mendaftarkan callback jaringan default sekali per proses (lewat application context).
+     * Saat jaringan berganti, misalnya dari Wi-Fi ke seluler, cache DNS client bersama dibuang
+     * agar alamat hasil resolver jaringan lama tidak dipakai lagi. Kembali ke jaringan yang
+     * sama setelah terputus tidak mengosongkan cache.
+     */
+    public static synchronized void watchNetworkChanges(@NonNull Context context) {
+        if (watchingNetwork) {
+            return;
+        }
+        ConnectivityManager connectivity = context.getApplicationContext().getSystemService(ConnectivityManager.class);
+        if (connectivity == null) {
+            return;
+        }
+        connectivity.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            // Hanya disentuh dari thread callback ConnectivityManager
+            private Network current;
+
+            @Override
+            public void onAvailable(@NonNull Network network) {
+                if (current != null && !current.equals(network)) {
+                    onNetworkChanged();
+                }
+                current = network;
+            }
+        });
+        watchingNetwork = true;
+    }
+
+    /**
+     * Membuang cache DNS client bersama. Tidak melakukan apa pun jika client belum dibuat.
+     */
+    static void onNetworkChanged() {
+        OkHttpClient client = sharedClient;
+        if (client != null && client.dns() instanceof CachingDns) {
+            ((CachingDns) client.dns()).clear();
+            Log.d(TAG, "Jaringan berganti, cache DNS dikosongkan");
+        }
+    }
+
+    /**
+     * Mengirim request HEAD ke origin {@code url} di background agar DNS, TCP, dan TLS sudah
+     * selesai saat request deteksi pertama dikirim. Tidak melakukan apa pun jika pool sudah
+     * punya koneksi. Kode status respons tidak penting; yang dicari koneksinya.
+     *
+     * Request ini tidak dicatat ke {@link LatencyTracer} agar tidak mencampuri histogram
+     * request deteksi.
+     */
+    public static void warmUp(@NonNull OkHttpClient client, @NonNull HttpUrl url) {
+        if (client.connectionPool().connectionCount() > 0) {
+            return;
+        }
+        HttpUrl origin = url.newBuilder().encodedPath("/").query(null).fragment(null).build();
+        Request request = new Request.Builder().url(origin).head().build();
+        client.newBuilder()
+                .eventListener(EventListener.NONE)
+                .build()
+                .newCall(request)
+                .enqueue(new Callback() {
+                    @Override
+                    public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                        Log.d(TAG, "Warm-up " + origin + " gagal: " + e.getMessage());
+                    }
+
+                    @Override
+                    public void onResponse(@NonNull Call call, @NonNull Response response) {
+                        response.close();
+                        Log.d(TAG, "Warm-up " + origin + " selesai (" + response.protocol() + ")");
+                    }
+                });
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.cohia.api;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Mengatur request deteksi live agar bandwidth dan latensi UI tetap terbatas saat koneksi buruk.
+ *
+ * <ul>
+ *     <li>Paling banyak {@code maxInFlight} request berjalan; request tertua dibatalkan
+ *     jika batas terlampaui.</li>
+ *     <li>Respons yang lebih lama dari hasil terakhir yang ditampilkan dibuang, sehingga
+ *     hasil tidak pernah tampil mundur.</li>
+ *     <li>Saat sebuah hasil ditampilkan, request yang lebih lama otomatis dibatalkan.</li>
+ * </ul>
+ *
+ * Pemakaian:
+ * <pre>
+ * LiveRequestTracker.Ticket ticket = tracker.newTicket(callback);
+ * tracker.attach(ticket, api.detectGarbage(jpegBytes, ticket));
+ * </pre>
+ */
+public class LiveRequestTracker {
+
+    private final int maxInFlight;
+    private final ArrayDeque<Ticket> inFlight = new ArrayDeque<>();
+
+    private long nextSequence = 0;
+    private long lastDeliveredSequence = -1;
+    private long droppedCount = 0;
+    private long canceledCount = 0;
+
+    public LiveRequestTracker(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight minimal 1: " + maxInFlight);
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Membuat tiket untuk request baru. Tiket dipakai sebagai callback ke
+     * {@link RoboflowAPI} dan hanya meneruskan hasil yang belum basi ke {@code delegate}.
+     */
+    public synchronized Ticket newTicket(RoboflowAPI.ApiCallback delegate) {
+        return new Ticket(nextSequence++, delegate);
+    }
+
+    /**
+     * Mendaftarkan request yang sudah dikirim untuk tiket ini. Jika jumlah request berjalan
+     * melebihi batas, request tertua dibatalkan.
+     */
+    public void attach(Ticket ticket, DetectionCall call) {
+        Ticket evicted = null;
+        synchronized (this) {
+            ticket.call = call;
+            // Callback bisa sudah dipanggil sebelum attach (mis. gagal seketika)
+            if (ticket.finished) {
+                return;
+            }
+            inFlight.addLast(ticket);
+            if (inFlight.size() > maxInFlight) {
+                evicted = inFlight.removeFirst();
+                evicted.finished = true;
+                canceledCount++;
+            }
+        }
+        if (evicted != null && evicted.call != null) {
+            evicted.call.cancel();
+        }
+    }
+
+    /**
+     * Membatalkan semua request yang masih berjalan, misalnya saat Activity ditutup.
+     */
+    public void cancelAll() {
+        Ticket[] pending;
+        synchronized (this) {
+            pending = inFlight.toArray(new Ticket[0]);
+            inFlight.clear();
+            for (Ticket ticket : pending) {
+                ticket.finished = true;
+            }
+            canceledCount += pending.length;
+        }
+        for (Ticket ticket : pending) {
+            if (ticket.call != null) {
+                ticket.call.cancel();
+            }
+        }
+    }
+
+    public synchronized int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * @return Jumlah respons yang dibuang karena lebih lama dari hasil yang sudah ditampilkan.
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * @return Jumlah request yang dibatalkan karena tergantikan request yang lebih baru.
+     */
+    public synchronized long getCanceledCount() {
+        return canceledCount;
+    }
+
+    /**
+     * @return true jika hasil tiket ini boleh diteruskan ke delegate.
+     */
+    private boolean complete(Ticket ticket, boolean success) {
+        ArrayDeque<Ticket> superseded = null;
+        synchronized (this) {
+            boolean wasFinished = ticket.finished;
+            ticket.finished = true;
+            inFlight.remove(ticket);
+            if (wasFinished || ticket.sequence < lastDeliveredSequence) {
+                droppedCount++;
+                return false;
+            }
+            if (!success) {
+                return true;
+            }
+            lastDeliveredSequence = ticket.sequence;
+
+            // Request yang lebih lama pasti akan dibuang, jadi batalkan sekarang
+            Iterator<Ticket> iterator = inFlight.iterator();
+            while (iterator.hasNext()) {
+                Ticket older = iterator.next();
+                if (older.sequence < ticket.sequence) {
+                    iterator.remove();
+                    older.finished = true;
+                    canceledCount++;
+                    if (superseded == null) superseded = new ArrayDeque<>();
+                    superseded.add(older);
+                }
+            }
+        }
+        if (superseded != null) {
+            for (Ticket older : superseded) {
+                if (older.call != null) {
+                    older.call.cancel();
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Callback per request live dengan nomor urut penerbitannya.
+     */
+    public final class Ticket implements RoboflowAPI.ApiCallback {
+        private final long sequence;
+        private final RoboflowAPI.ApiCallback delegate;
+        private DetectionCall call;
+        private boolean finished;
+
+        private Ticket(long sequence, RoboflowAPI.ApiCallback delegate) {
+            this.sequence = sequence;
+            this.delegate = delegate;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        @Override
+        public void onSuccess(List<RoboflowAPI.Prediction> predictions) {
+            if (complete(this, true)) {
+                delegate.onSuccess(predictions);
+            }
+        }
+
+        @Override
+        public void onSuccess(PredictionBatch batch) {
+            if (complete(this, true)) {
+                delegate.onSuccess(batch);
+            }
+        }
+
+        @Override
+        public void onError(String error) {
+            if (complete(this, false)) {
+                delegate.onError(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.cohia.api;
+
+import android.graphics.RectF;
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Kumpulan prediksi dalam bentuk struct-of-arrays: bounding box, confidence, dan ID kelas
+ * disimpan di array primitif, dengan nama kelas dari {@link ClassRegistry}. Satu batch berisi
+ * tiga array berapa pun jumlah prediksinya, berbeda dengan {@link RoboflowAPI.Prediction} yang
+ * membutuhkan objek Prediction dan RectF per kotak.
+ *
+ * Batch bisa diubah (lihat {@link #add}, {@link #scale}); penerima batch dari callback
+ * adalah pemiliknya dan boleh mengubahnya di tempat. Instance tidak thread-safe.
+ */
+public final class PredictionBatch implements Parcelable {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final ClassRegistry registry;
+    // left, top, right, bottom per prediksi
+    float[] boxes;
+    float[] confidences;
+    int[] classIds;
+    int size;
+
+    public PredictionBatch(@NonNull ClassRegistry registry) {
+        this(registry, DEFAULT_CAPACITY);
+    }
+
+    public PredictionBatch(@NonNull ClassRegistry registry, int capacity) {
+        this.registry = registry;
+        int initial = Math.max(1, capacity);
+        boxes = new float[initial * 4];
+        confidences = new float[initial];
+        classIds = new int[initial];
+    }
+
+    /**
+     * Membuat batch dari daftar prediksi lama; nama kelas didaftarkan ke {@code registry}.
+     */
+    public static PredictionBatch fromPredictions(@NonNull List<RoboflowAPI.Prediction> predictions,
+                                                  @NonNull ClassRegistry registry) {
+        PredictionBatch batch = new PredictionBatch(registry, predictions.size());
+        for (RoboflowAPI.Prediction p : predictions) {
+            batch.add(registry.idOf(p.className), p.confidence,
+                    p.boundingBox.left, p.boundingBox.top, p.boundingBox.right, p.boundingBox.bottom);
+        }
+        return batch;
+    }
+
+    /**
+     * Menambah satu prediksi; array diperbesar dua kali lipat jika penuh.
+     */
+    public void add(int classId, float confidence, float left, float top, float right, float bottom) {
+        if (size == confidences.length) {
+            int capacity = size * 2;
+            boxes = Arrays.copyOf(boxes, capacity * 4);
+            confidences = Arrays.copyOf(confidences, capacity);
+            classIds = Arrays.copyOf(classIds, capacity);
+        }
+        int o = size * 4;
+        boxes[o] = left;
+        boxes[o + 1] = top;
+        boxes[o + 2] = right;
+        boxes[o + 3] = bottom;
+        confidences[size] = confidence;
+        classIds[size] = classId;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public ClassRegistry getRegistry() {
+        return registry;
+    }
+
+    public float getLeft(int index) {
+        return boxes[checkIndex(index) * 4];
+    }
+
+    public float getTop(int index) {
+        return boxes[checkIndex(index) * 4 + 1];
+    }
+
+    public float getRight(int index) {
+        return boxes[checkIndex(index) * 4 + 2];
+    }
+
+    public float getBottom(int index) {
+        return boxes[checkIndex(index) * 4 + 3];
+    }
+
+    public float getConfidence(int index) {
+        return confidences[checkIndex(index)];
+    }
+
+    public int getClassId(int index) {
+        return classIds[checkIndex(index)];
+    }
+
+    /**
+     * @return Nama kelas dari registry; tidak membuat String baru.
+     */
+    public String getClassName(int index) {
+        return registry.nameOf(classIds[checkIndex(index)]);
+    }
+
+    /**
+     * Array box yang mendasari batch (left, top, right, bottom per prediksi), untuk konsumen
+     * massal seperti pelacak. Hanya {@code size() * 4} elemen pertama yang valid dan array bisa
+     * diganti saat {@link #add} memperbesar kapasitas.
+     */
+    public float[] getBoxes() {
+        return boxes;
+    }
+
+    /** Lihat {@link #getBoxes()}; hanya {@code size()} elemen pertama yang valid. */
+    public float[] getConfidences() {
+        return confidences;
+    }
+
+    /** Lihat {@link #getBoxes()}; hanya {@code size()} elemen pertama yang valid. */
+    public int[] getClassIds() {
+        return classIds;
+    }
+
+    /**
+     * @return Indeks prediksi dengan confidence tertinggi, atau -1 jika kosong.
+     */
+    public int indexOfBest() {
+        int best = -1;
+        for (int i = 0; i < size; i++) {
+            if (best < 0 || confidences[i] > confidences[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Mengalikan semua bounding box dengan skala per sumbu, langsung di dalam batch.
+     */
+    public void scale(float scaleX, float scaleY) {
+        for (int i = 0, n = size * 4; i < n; i += 4) {
+            boxes[i] *= scaleX;
+            boxes[i + 1] *= scaleY;
+            boxes[i + 2] *= scaleX;
+            boxes[i + 3] *= scaleY;
+        }
+    }
+
+    /**
+     * @return Salinan dengan kapasitas pas sebesar {@link #size()}.
+     */
+    public PredictionBatch copy() {
+        PredictionBatch copy = new PredictionBatch(registry, size);
+        System.arraycopy(boxes, 0, copy.boxes, 0, size * 4);
+        System.arraycopy(confidences, 0, copy.confidences, 0, size);
+        System.arraycopy(classIds, 0, copy.classIds, 0, size);
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * @return Salinan dengan bounding box dikalikan skala per sumbu.
+     */
+    public PredictionBatch scaled(float scaleX, float scaleY) {
+        PredictionBatch copy = copy();
+        copy.scale(scaleX, scaleY);
+        return copy;
+    }
+
+    /**
+     * Adaptor untuk kode yang masih memakai {@code List<Prediction>}. Membuat satu Prediction
+     * dan RectF per kotak, jadi hanya dipakai di batas ke kode lama.
+     */
+    public List<RoboflowAPI.Prediction> toPredictions() {
+        List<RoboflowAPI.Prediction> predictions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int o = i * 4;
+            predictions.add(new RoboflowAPI.Prediction(registry.nameOf(classIds[i]), confidences[i],
+                    new RectF(boxes[o], boxes[o + 1], boxes[o + 2], boxes[o + 3])));
+        }
+        return predictions;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Indeks " + index + ", ukuran " + size);
+        }
+        return index;
+    }
+
+    // Parcelable: seluruh batch ditulis sebagai satu blok byte dari PredictionCodec, sehingga ID
+    // kelas aman dibaca ulang di proses lain (mis. setelah proses dimatikan sistem).
+
+    public static final Creator<PredictionBatch> CREATOR = new Creator<PredictionBatch>() {
+        @Override
+        public PredictionBatch createFromParcel(Parcel in) {
+            try {
+                return PredictionCodec.decodeBatch(in.createByteArray(), ClassRegistry.getInstance());
+            } catch (IOException e) {
+                throw new IllegalStateException("Parcel PredictionBatch rusak", e);
+            }
+        }
+
+        @Override
+        public PredictionBatch[] newArray(int size) {
+            return new PredictionBatch[size];
+        }
+    };
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeByteArray(PredictionCodec.encode(this));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.cohia.api;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mem-parse respons Roboflow langsung ke {@link PredictionBatch}. Nama kelas mentah dari server
+ * dipetakan ke nama yang mudah dibaca dan ID registry sekali per nama berbeda; prediksi
+ * berikutnya dengan kelas yang sama hanya berupa lookup map tanpa alokasi.
+ *
+ * Instance thread-safe dan dimaksudkan untuk dipakai bersama oleh semua request.
+ */
+public final class PredictionBatchParser {
+
+    private final ClassRegistry registry;
+    private final Map<String, Integer> classIdsByRawName = new ConcurrentHashMap<>();
+
+    public PredictionBatchParser(ClassRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Hanya prediksi dengan lebar dan tinggi positif yang dimasukkan. Koordinat Roboflow
+     * (titik tengah + ukuran) dikonversi ke left/top/right/bottom.
+     *
+     * @throws IOException Jika JSON tidak valid atau aliran gagal dibaca.
+     */
+    public PredictionBatch parse(Reader responseReader) throws IOException {
+        PredictionBatch batch = new PredictionBatch(registry);
+        PredictionResponseParser.parse(responseReader, (className, confidence, x, y, width, height) -> {
+            if (width > 0 && height > 0) {
+                float halfWidth = width / 2;
+                float halfHeight = height / 2;
+                batch.add(classIdOf(className), confidence,
+                        x - halfWidth, y - halfHeight, x + halfWidth, y + halfHeight);
+            }
+        });
+        return batch;
+    }
+
+    /**
+     * @return ID registry untuk nama yang mudah dibaca dari kelas mentah {@code rawName}.
+     */
+    int classIdOf(String rawName) {
+        Integer id = classIdsByRawName.get(rawName);
+        if (id == null) {
+            id = registry.idOf(getReadableClassName(rawName));
+            classIdsByRawName.put(rawName, id);
+        }
+        return id;
+    }
+
+    static String getReadableClassName(String className) {
+        if ("b3".equalsIgnoreCase(className)) return "Sampah B3";
+        if ("anorganik".equalsIgnoreCase(className)) return "Sampah Anorganik";
+        if ("organik".equalsIgnoreCase(className)) return "Sampah Organik";
+        return className;
+    }
+}
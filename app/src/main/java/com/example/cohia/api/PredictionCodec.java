@@ -0,0 +1,155 @@
+package com.example.cohia.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Serialisasi biner ringkas untuk hasil prediksi, dipakai oleh cache hasil di disk dan Parcel
+ * {@link PredictionBatch}. Berbeda dengan Parcel biasa, formatnya stabil antar versi Android
+ * dan proses.
+ *
+ * Versi 2 (yang ditulis) menyimpan tabel nama kelas sekali, lalu box, confidence, dan indeks
+ * kelas sebagai blok array yang disalin massal. Versi 1 (satu record per prediksi) masih bisa
+ * dibaca agar entri cache lama tetap berlaku.
+ */
+public final class PredictionCodec {
+
+    private static final int VERSION_RECORDS = 1;
+    private static final int VERSION_BATCH = 2;
+
+    private PredictionCodec() {}
+
+    public static byte[] encode(List<RoboflowAPI.Prediction> predictions) {
+        return encode(PredictionBatch.fromPredictions(predictions, ClassRegistry.getInstance()));
+    }
+
+    public static byte[] encode(PredictionBatch batch) {
+        int count = batch.size;
+
+        // Tabel nama lokal: ID registry hanya berlaku di proses ini
+        int[] localIndex = new int[count];
+        int[] registryIds = new int[Math.min(count, batch.getRegistry().size())];
+        byte[][] names = new byte[registryIds.length][];
+        int nameCount = 0;
+        int namesBytes = 0;
+        for (int i = 0; i < count; i++) {
+            int id = batch.classIds[i];
+            int local = 0;
+            while (local < nameCount && registryIds[local] != id) {
+                local++;
+            }
+            if (local == nameCount) {
+                registryIds[nameCount] = id;
+                names[nameCount] = batch.getRegistry().nameOf(id).getBytes(StandardCharsets.UTF_8);
+                namesBytes += 4 + names[nameCount].length;
+                nameCount++;
+            }
+            localIndex[i] = local;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(1 + 4 + 4 + namesBytes + count * (4 * 4 + 4 + 4));
+        out.put((byte) VERSION_BATCH);
+        out.putInt(count);
+        out.putInt(nameCount);
+        for (int i = 0; i < nameCount; i++) {
+            out.putInt(names[i].length);
+            out.put(names[i]);
+        }
+        out.asFloatBuffer().put(batch.boxes, 0, count * 4);
+        out.position(out.position() + count * 4 * 4);
+        out.asFloatBuffer().put(batch.confidences, 0, count);
+        out.position(out.position() + count * 4);
+        out.asIntBuffer().put(localIndex, 0, count);
+        return out.array();
+    }
+
+    /**
+     * @throws IOException Jika versi tidak dikenal atau data terpotong.
+     */
+    public static List<RoboflowAPI.Prediction> decode(byte[] data) throws IOException {
+        return decodeBatch(data, ClassRegistry.getInstance()).toPredictions();
+    }
+
+    /**
+     * @param registry Registry tempat nama kelas dari data didaftarkan.
+     * @throws IOException Jika versi tidak dikenal atau data terpotong.
+     */
+    public static PredictionBatch decodeBatch(byte[] data, ClassRegistry registry) throws IOException {
+        if (data == null || data.length == 0) {
+            throw new IOException("Data prediksi kosong");
+        }
+        int version = data[0] & 0xFF;
+        switch (version) {
+            case VERSION_BATCH:
+                return decodeBatchV2(data, registry);
+            case VERSION_RECORDS:
+                return decodeRecordsV1(data, registry);
+            default:
+                throw new IOException("Versi data prediksi tidak dikenal: " + version);
+        }
+    }
+
+    private static PredictionBatch decodeBatchV2(byte[] data, ClassRegistry registry) throws IOException {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(data);
+            in.position(1);
+            int count = in.getInt();
+            int nameCount = in.getInt();
+            if (count < 0 || count > data.length || nameCount < 0 || nameCount > data.length) {
+                throw new IOException("Jumlah prediksi tidak valid: " + count + "/" + nameCount);
+            }
+            int[] ids = new int[nameCount];
+            for (int i = 0; i < nameCount; i++) {
+                int length = in.getInt();
+                if (length < 0 || length > in.remaining()) {
+                    throw new IOException("Panjang nama kelas tidak valid: " + length);
+                }
+                ids[i] = registry.idOf(new String(data, in.position(), length, StandardCharsets.UTF_8));
+                in.position(in.position() + length);
+            }
+            if (in.remaining() != count * (4 * 4 + 4 + 4)) {
+                throw new IOException("Ukuran data prediksi tidak sesuai: " + in.remaining());
+            }
+
+            PredictionBatch batch = new PredictionBatch(registry, count);
+            in.asFloatBuffer().get(batch.boxes, 0, count * 4);
+            in.position(in.position() + count * 4 * 4);
+            in.asFloatBuffer().get(batch.confidences, 0, count);
+            in.position(in.position() + count * 4);
+            in.asIntBuffer().get(batch.classIds, 0, count);
+            for (int i = 0; i < count; i++) {
+                int local = batch.classIds[i];
+                if (local < 0 || local >= nameCount) {
+                    throw new IOException("Indeks kelas tidak valid: " + local);
+                }
+                batch.classIds[i] = ids[local];
+            }
+            batch.size = count;
+            return batch;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Data prediksi terpotong", e);
+        }
+    }
+
+    private static PredictionBatch decodeRecordsV1(byte[] data, ClassRegistry registry) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            in.readUnsignedByte();
+            int count = in.readInt();
+            if (count < 0 || count > data.length) {
+                throw new IOException("Jumlah prediksi tidak valid: " + count);
+            }
+            PredictionBatch batch = new PredictionBatch(registry, count);
+            for (int i = 0; i < count; i++) {
+                int classId = registry.idOf(in.readUTF());
+                float confidence = in.readFloat();
+                batch.add(classId, confidence, in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat());
+            }
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package com.example.cohia.api;
+
+import java.util.Arrays;
+
+/**
+ * Pascaproses hasil deteksi di sisi klien, langsung pada array {@link PredictionBatch}:
+ * <ol>
+ *     <li>Prediksi dengan confidence di bawah {@link Config#minConfidence} dibuang.</li>
+ *     <li>Sisanya diurutkan menurut confidence dengan satu sort O(n log n) atas kunci long.</li>
+ *     <li>Duplikat yang tumpang tindih disupresi dengan NMS biasa atau soft-NMS
+ *     (linear/Gaussian), per kelas atau lintas kelas.</li>
+ *     <li>Hasil dibatasi per kelas ({@link Config#topKPerClass}) dan total
+ *     ({@link Config#maxDetections}).</li>
+ * </ol>
+ *
+ * Mulai {@link Config#gridThreshold} kandidat, pasangan tumpang tindih dicari lewat grid
+ * spasial (ukuran sel sekitar rata-rata ukuran kotak), sehingga setiap kotak hanya dibandingkan
+ * dengan tetangganya. Hasilnya identik dengan perbandingan semua pasangan.
+ *
+ * Ruang kerja dialokasikan sekali dan hanya diperbesar jika batch lebih besar dari sebelumnya.
+ * Semua method thread-safe.
+ */
+public final class PredictionPostProcessor {
+
+    public enum Suppression {
+        /** Tanpa supresi; hanya ambang confidence dan batas jumlah. */
+        NONE,
+        /** NMS greedy: kotak yang IoU-nya melebihi ambang dengan kotak lebih yakin dibuang. */
+        HARD,
+        /** Soft-NMS: skor dikalikan {@code 1 - IoU} jika IoU melebihi ambang. */
+        SOFT_LINEAR,
+        /** Soft-NMS: skor dikalikan {@code exp(-IoU^2 / sigma)}. */
+        SOFT_GAUSSIAN
+    }
+
+    /**
+     * Parameter pascaproses. Nilai bawaan membuang derau dan duplikat per kelas dari
+     * gabungan beberapa output workflow.
+     */
+    public static class Config {
+        /** Confidence minimum; pada soft-NMS juga batas skor setelah peluruhan. */
+        public float minConfidence = 0.25f;
+        public Suppression suppression = Suppression.HARD;
+        /** Ambang IoU untuk {@link Suppression#HARD} dan {@link Suppression#SOFT_LINEAR}. */
+        public float iouThreshold = 0.5f;
+        /** true jika hanya kotak berkelas sama yang saling menyupresi. */
+        public boolean classAware = true;
+        /** Sigma untuk {@link Suppression#SOFT_GAUSSIAN}. */
+        public float softSigma = 0.5f;
+        /** Jumlah hasil maksimum per kelas; 0 berarti tanpa batas. */
+        public int topKPerClass = 0;
+        /** Jumlah hasil maksimum; 0 berarti tanpa batas. */
+        public int maxDetections = 100;
+        /** Jumlah kandidat mulai dari mana grid spasial dipakai. */
+        public int gridThreshold = 64;
+    }
+
+    private static final int MAX_GRID_SIDE = 128;
+
+    private final Config config;
+
+    // Per indeks batch
+    private boolean[] done = new boolean[0];
+    private float[] scores = new float[0];
+    private int[] visited = new int[0];
+    private int visitStamp = 0;
+
+    // Kandidat urut confidence menurun, beserta kunci sort dan tetangga hasil query
+    private long[] sortKeys = new long[0];
+    private int[] candidates = new int[0];
+    private int candidateCount;
+    private int[] neighbors = new int[0];
+
+    // Max-heap berindeks untuk soft-NMS (skor hanya turun, jadi cukup sift-down)
+    private int[] heap = new int[0];
+    private int[] heapPosition = new int[0];
+    private int heapSize;
+
+    // Grid dalam format CSR: item sel c ada di cellItems[cellStart[c] .. cellStart[c + 1])
+    private boolean useGrid;
+    private int[] cellStart = new int[1];
+    private int[] cellFill = new int[0];
+    private int[] cellItems = new int[0];
+    private float gridMinX, gridMinY, cellWidth, cellHeight;
+    private int gridColumns, gridRows;
+
+    private int[] classCounts = new int[0];
+
+    // Hasil sebelum ditulis kembali ke batch
+    private float[] outBoxes = new float[0];
+    private float[] outConfidences = new float[0];
+    private int[] outClassIds = new int[0];
+
+    public PredictionPostProcessor() {
+        this(new Config());
+    }
+
+    public PredictionPostProcessor(Config config) {
+        this.config = config;
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * Memproses batch di tempat. Setelah kembali, batch berisi hasil yang tersisa dengan urutan
+     * confidence menurun; pada soft-NMS confidence adalah skor setelah peluruhan.
+     *
+     * @return Jumlah prediksi yang tersisa.
+     */
+    public synchronized int process(PredictionBatch batch) {
+        int n = batch.size;
+        ensureCapacity(n);
+        float[] boxes = batch.boxes;
+        float[] confidences = batch.confidences;
+        int[] classIds = batch.classIds;
+
+        // Ambang confidence, lalu urutkan: kunci = (skor terbalik, indeks), sehingga sort naik
+        // menghasilkan confidence menurun dan seri diurutkan menurut indeks asli
+        candidateCount = 0;
+        int maxClassId = 0;
+        for (int i = 0; i < n; i++) {
+            float confidence = confidences[i];
+            boolean candidate = confidence >= config.minConfidence && confidence >= 0f;
+            done[i] = !candidate;
+            if (candidate) {
+                sortKeys[candidateCount++] = sortKey(confidence, i);
+                maxClassId = Math.max(maxClassId, classIds[i]);
+            }
+        }
+        Arrays.sort(sortKeys, 0, candidateCount);
+        for (int k = 0; k < candidateCount; k++) {
+            candidates[k] = (int) sortKeys[k];
+        }
+
+        if (classCounts.length <= maxClassId) {
+            classCounts = new int[Math.max(maxClassId + 1, classCounts.length * 2)];
+        }
+        Arrays.fill(classCounts, 0, maxClassId + 1, 0);
+
+        useGrid = config.suppression != Suppression.NONE && candidateCount >= config.gridThreshold;
+        if (useGrid) {
+            buildGrid(boxes);
+        }
+
+        int limit = config.maxDetections > 0 ? config.maxDetections : Integer.MAX_VALUE;
+        int count;
+        switch (config.suppression) {
+            case HARD:
+                count = hardNms(boxes, confidences, classIds, limit);
+                break;
+            case SOFT_LINEAR:
+            case SOFT_GAUSSIAN:
+                count = softNms(boxes, confidences, classIds, limit);
+                break;
+            case NONE:
+            default:
+                count = 0;
+                for (int k = 0; k < candidateCount && count < limit; k++) {
+                    int i = candidates[k];
+                    if (acceptClass(classIds[i])) {
+                        emit(count++, boxes, i, confidences[i], classIds[i]);
+                    }
+                }
+                break;
+        }
+
+        System.arraycopy(outBoxes, 0, boxes, 0, count * 4);
+        System.arraycopy(outConfidences, 0, confidences, 0, count);
+        System.arraycopy(outClassIds, 0, classIds, 0, count);
+        batch.size = count;
+        return count;
+    }
+
+    private int hardNms(float[] boxes, float[] confidences, int[] classIds, int limit) {
+        float threshold = config.iouThreshold;
+        int count = 0;
+        for (int k = 0; k < candidateCount && count < limit; k++) {
+            int a = candidates[k];
+            if (done[a]) {
+                // Sudah disupresi oleh kotak yang lebih yakin
+                continue;
+            }
+            done[a] = true;
+            if (acceptClass(classIds[a])) {
+                emit(count++, boxes, a, confidences[a], classIds[a]);
+            }
+            int found = collectNeighbors(boxes, classIds, a, k + 1);
+            for (int m = 0; m < found; m++) {
+                int b = neighbors[m];
+                if (iou(boxes, a, b) > threshold) {
+                    done[b] = true;
+                }
+            }
+        }
+        return count;
+    }
+
+    private int softNms(float[] boxes, float[] confidences, int[] classIds, int limit) {
+        boolean gaussian = config.suppression == Suppression.SOFT_GAUSSIAN;
+        float threshold = config.iouThreshold;
+        float sigma = config.softSigma;
+
+        // Kandidat sudah terurut menurun, jadi langsung memenuhi sifat max-heap
+        heapSize = candidateCount;
+        for (int k = 0; k < candidateCount; k++) {
+            int i = candidates[k];
+            scores[i] = confidences[i];
+            heap[k] = i;
+            heapPosition[i] = k;
+        }
+
+        int count = 0;
+        while (heapSize > 0 && count < limit) {
+            int a = heap[0];
+            if (scores[a] < config.minConfidence) {
+                break;
+            }
+            heapRemoveTop();
+            done[a] = true;
+            if (acceptClass(classIds[a])) {
+                emit(count++, boxes, a, scores[a], classIds[a]);
+            }
+            int found = collectNeighbors(boxes, classIds, a, 0);
+            for (int m = 0; m < found; m++) {
+                int b = neighbors[m];
+                float overlap = iou(boxes, a, b);
+                float weight;
+                if (gaussian) {
+                    weight = (float) Math.exp(-(overlap * overlap) / sigma);
+                } else {
+                    weight = overlap > threshold ? 1f - overlap : 1f;
+                }
+                if (weight < 1f) {
+                    scores[b] *= weight;
+                    heapSiftDown(heapPosition[b]);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return true jika kelas ini masih di bawah {@link Config#topKPerClass}; hitungan dinaikkan.
+     */
+    private boolean acceptClass(int classId) {
+        if (config.topKPerClass <= 0) {
+            return true;
+        }
+        if (classCounts[classId] >= config.topKPerClass) {
+            return false;
+        }
+        classCounts[classId]++;
+        return true;
+    }
+
+    private void emit(int slot, float[] boxes, int i, float confidence, int classId) {
+        System.arraycopy(boxes, i * 4, outBoxes, slot * 4, 4);
+        outConfidences[slot] = confidence;
+        outClassIds[slot] = classId;
+    }
+
+    /**
+     * Mengisi {@link #neighbors} dengan kandidat yang belum selesai, berkelas sesuai
+     * {@link Config#classAware}, dan kotaknya mungkin beririsan dengan kotak {@code a}.
+     *
+     * @param from Tanpa grid, hanya kandidat mulai posisi urut ini yang diperiksa.
+     * @return Jumlah tetangga.
+     */
+    private int collectNeighbors(float[] boxes, int[] classIds, int a, int from) {
+        boolean classAware = config.classAware;
+        int classId = classIds[a];
+        int found = 0;
+        if (!useGrid) {
+            for (int k = from; k < candidateCount; k++) {
+                int b = candidates[k];
+                if (!done[b] && (!classAware || classIds[b] == classId)) {
+                    neighbors[found++] = b;
+                }
+            }
+            return found;
+        }
+
+        if (++visitStamp == 0) {
+            // Stamp berputar: reset agar tidak bentrok dengan nilai lama
+            Arrays.fill(visited, 0);
+            visitStamp = 1;
+        }
+        int o = a * 4;
+        int c0 = column(boxes[o]), c1 = column(boxes[o + 2]);
+        int r0 = row(boxes[o + 1]), r1 = row(boxes[o + 3]);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * gridColumns + c;
+                for (int p = cellStart[cell], end = cellStart[cell + 1]; p < end; p++) {
+                    int b = cellItems[p];
+                    if (visited[b] == visitStamp) {
+                        continue;
+                    }
+                    visited[b] = visitStamp;
+                    if (!done[b] && (!classAware || classIds[b] == classId)) {
+                        neighbors[found++] = b;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private void buildGrid(float[] boxes) {
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+        double sumSize = 0;
+        for (int k = 0; k < candidateCount; k++) {
+            int o = candidates[k] * 4;
+            minX = Math.min(minX, boxes[o]);
+            minY = Math.min(minY, boxes[o + 1]);
+            maxX = Math.max(maxX, boxes[o + 2]);
+            maxY = Math.max(maxY, boxes[o + 3]);
+            sumSize += Math.max(boxes[o + 2] - boxes[o], boxes[o + 3] - boxes[o + 1]);
+        }
+        float cellSize = (float) Math.max(sumSize / candidateCount, 1e-3);
+        gridColumns = clamp((int) Math.ceil((maxX - minX) / cellSize), 1, MAX_GRID_SIDE);
+        gridRows = clamp((int) Math.ceil((maxY - minY) / cellSize), 1, MAX_GRID_SIDE);
+        gridMinX = minX;
+        gridMinY = minY;
+        cellWidth = Math.max((maxX - minX) / gridColumns, 1e-3f);
+        cellHeight = Math.max((maxY - minY) / gridRows, 1e-3f);
+
+        int cells = gridColumns * gridRows;
+        if (cellStart.length < cells + 1) {
+            cellStart = new int[cells + 1];
+            cellFill = new int[cells];
+        }
+        Arrays.fill(cellStart, 0, cells + 1, 0);
+
+        // Hitung isi setiap sel, prefix sum, lalu isi (counting sort)
+        for (int k = 0; k < candidateCount; k++) {
+            int o = candidates[k] * 4;
+            int c0 = column(boxes[o]), c1 = column(boxes[o + 2]);
+            int r0 = row(boxes[o + 1]), r1 = row(boxes[o + 3]);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    cellStart[r * gridColumns + c + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int total = cellStart[cells];
+        if (cellItems.length < total) {
+            cellItems = new int[Math.max(total, cellItems.length * 2)];
+        }
+        System.arraycopy(cellStart, 0, cellFill, 0, cells);
+        for (int k = 0; k < candidateCount; k++) {
+            int i = candidates[k];
+            int o = i * 4;
+            int c0 = column(boxes[o]), c1 = column(boxes[o + 2]);
+            int r0 = row(boxes[o + 1]), r1 = row(boxes[o + 3]);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    cellItems[cellFill[r * gridColumns + c]++] = i;
+                }
+            }
+        }
+    }
+
+    private int column(float x) {
+        return clamp((int) ((x - gridMinX) / cellWidth), 0, gridColumns - 1);
+    }
+
+    private int row(float y) {
+        return clamp((int) ((y - gridMinY) / cellHeight), 0, gridRows - 1);
+    }
+
+    private void heapRemoveTop() {
+        heapSize--;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heapPosition[heap[0]] = 0;
+            heapSiftDown(0);
+        }
+    }
+
+    private void heapSiftDown(int position) {
+        int item = heap[position];
+        while (true) {
+            int child = position * 2 + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], item)) {
+                break;
+            }
+            heap[position] = heap[child];
+            heapPosition[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = item;
+        heapPosition[item] = position;
+    }
+
+    /** Urutan heap sama dengan urutan sort: skor lebih tinggi dulu, seri menurut indeks. */
+    private boolean before(int a, int b) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+    }
+
+    private void ensureCapacity(int n) {
+        if (done.length >= n) {
+            return;
+        }
+        int capacity = Math.max(n, done.length * 2);
+        done = new boolean[capacity];
+        scores = new float[capacity];
+        visited = new int[capacity];
+        visitStamp = 0;
+        sortKeys = new long[capacity];
+        candidates = new int[capacity];
+        neighbors = new int[capacity];
+        heap = new int[capacity];
+        heapPosition = new int[capacity];
+        outBoxes = new float[capacity * 4];
+        outConfidences = new float[capacity];
+        outClassIds = new int[capacity];
+    }
+
+    /**
+     * Bit float non-negatif berurutan sama dengan nilainya, jadi dibalik agar sort naik
+     * menghasilkan confidence menurun.
+     */
+    static long sortKey(float confidence, int index) {
+        return ((long) (Integer.MAX_VALUE - Float.floatToIntBits(confidence)) << 32) | index;
+    }
+
+    static float iou(float[] boxes, int a, int b) {
+        int oa = a * 4;
+        int ob = b * 4;
+        float left = Math.max(boxes[oa], boxes[ob]);
+        float top = Math.max(boxes[oa + 1], boxes[ob + 1]);
+        float right = Math.min(boxes[oa + 2], boxes[ob + 2]);
+        float bottom = Math.min(boxes[oa + 3], boxes[ob + 3]);
+        if (right <= left || bottom <= top) {
+            return 0f;
+        }
+        float intersection = (right - left) * (bottom - top);
+        float areaA = (boxes[oa + 2] - boxes[oa]) * (boxes[oa + 3] - boxes[oa + 1]);
+        float areaB = (boxes[ob + 2] - boxes[ob]) * (boxes[ob + 3] - boxes[ob + 1]);
+        return intersection / (areaA + areaB - intersection);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return value < min ? min : (value > max ? max : value);
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.cohia.api;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Parser streaming (Gson {@link JsonReader}) untuk respons workflow Roboflow.
+ *
+ * Hanya field {@code predictions} yang dibaca; field lain, termasuk gambar visualisasi base64
+ * yang bisa berukuran beberapa megabyte, dilewati dengan {@code skipValue()} tanpa pernah
+ * dijadikan String. Bentuk yang didukung sama dengan parser lama:
+ * <ul>
+ *     <li>{@code {"outputs": [{"predictions": {"predictions": [...]}}, ...]}}</li>
+ *     <li>{@code {"outputs": [{"predictions": [...]}, ...]}}</li>
+ *     <li>{@code {"predictions": {"predictions": [...]}}} atau {@code {"predictions": [...]}} di root,
+ *     yang hanya dipakai jika tidak ada {@code outputs} sebelumnya.</li>
+ * </ul>
+ */
+public final class PredictionResponseParser {
+
+    /**
+     * Penerima setiap prediksi mentah. Koordinat dalam format Roboflow: titik tengah (x, y)
+     * beserta lebar dan tinggi, dalam piksel gambar yang dikirim.
+     */
+    public interface Sink {
+        void onPrediction(String className, float confidence, float x, float y, float width, float height);
+    }
+
+    private PredictionResponseParser() {}
+
+    /**
+     * Mem-parse seluruh respons dan meneruskan setiap prediksi ke sink.
+     *
+     * @return Jumlah prediksi yang diteruskan.
+     * @throws IOException Jika JSON tidak valid atau aliran gagal dibaca.
+     */
+    public static int parse(Reader reader, Sink sink) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        int count = 0;
+        boolean sawOutputs = false;
+
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            if ("outputs".equals(name) && json.peek() == JsonToken.BEGIN_ARRAY) {
+                sawOutputs = true;
+                json.beginArray();
+                while (json.hasNext()) {
+                    count += parseOutput(json, sink);
+                }
+                json.endArray();
+            } else if ("predictions".equals(name) && !sawOutputs) {
+                count += parsePredictionsValue(json, sink);
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+        return count;
+    }
+
+    private static int parseOutput(JsonReader json, Sink sink) throws IOException {
+        if (json.peek() != JsonToken.BEGIN_OBJECT) {
+            json.skipValue();
+            return 0;
+        }
+        int count = 0;
+        json.beginObject();
+        while (json.hasNext()) {
+            if ("predictions".equals(json.nextName())) {
+                count += parsePredictionsValue(json, sink);
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+        return count;
+    }
+
+    /**
+     * Nilai {@code predictions} bisa berupa array langsung atau objek yang berisi
+     * array {@code predictions} (bersama metadata seperti ukuran gambar).
+     */
+    private static int parsePredictionsValue(JsonReader json, Sink sink) throws IOException {
+        JsonToken token = json.peek();
+        if (token == JsonToken.BEGIN_ARRAY) {
+            return parsePredictionArray(json, sink);
+        }
+        if (token != JsonToken.BEGIN_OBJECT) {
+            json.skipValue();
+            return 0;
+        }
+
+        int count = 0;
+        json.beginObject();
+        while (json.hasNext()) {
+            if ("predictions".equals(json.nextName()) && json.peek() == JsonToken.BEGIN_ARRAY) {
+                count += parsePredictionArray(json, sink);
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+        return count;
+    }
+
+    private static int parsePredictionArray(JsonReader json, Sink sink) throws IOException {
+        int count = 0;
+        json.beginArray();
+        while (json.hasNext()) {
+            if (json.peek() != JsonToken.BEGIN_OBJECT) {
+                json.skipValue();
+                continue;
+            }
+            parsePrediction(json, sink);
+            count++;
+        }
+        json.endArray();
+        return count;
+    }
+
+    private static void parsePrediction(JsonReader json, Sink sink) throws IOException {
+        String className = "Unknown";
+        float confidence = 0f;
+        float x = 0f;
+        float y = 0f;
+        float width = 0f;
+        float height = 0f;
+
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "class":
+                    JsonToken token = json.peek();
+                    if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+                        className = json.nextString();
+                    } else {
+                        json.skipValue();
+                    }
+                    break;
+                case "confidence":
+                    confidence = nextFloat(json);
+                    break;
+                case "x":
+                    x = nextFloat(json);
+                    break;
+                case "y":
+                    y = nextFloat(json);
+                    break;
+                case "width":
+                    width = nextFloat(json);
+                    break;
+                case "height":
+                    height = nextFloat(json);
+                    break;
+                default:
+                    json.skipValue();
+                    break;
+            }
+        }
+        json.endObject();
+
+        sink.onPrediction(className, confidence, x, y, width, height);
+    }
+
+    private static float nextFloat(JsonReader json) throws IOException {
+        JsonToken token = json.peek();
+        if (token == JsonToken.NUMBER) {
+            return (float) json.nextDouble();
+        }
+        if (token == JsonToken.STRING) {
+            // Sama seperti optDouble: string yang bukan angka dianggap 0
+            try {
+                return (float) json.nextDouble();
+            } catch (NumberFormatException e) {
+                json.skipValue();
+                return 0f;
+            }
+        }
+        json.skipValue();
+        return 0f;
+    }
+}
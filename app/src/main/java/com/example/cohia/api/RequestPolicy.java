@@ -0,0 +1,150 @@
+package com.example.cohia.api;
+
+import androidx.annotation.Nullable;
+
+import com.example.cohia.LatencyHistogram;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aturan ketahanan untuk satu jalur request deteksi: retry dengan backoff eksponensial plus
+ * jitter, hedged request, dan apakah jalur ini dibatasi {@link CircuitBreaker}.
+ *
+ * <ul>
+ *     <li>Backoff retry ke-n adalah {@code min(max, base * 2^(n-1))}, lalu diacak antara
+ *     setengah dan seluruh nilai itu (equal jitter), sehingga banyak klien yang gagal
+ *     bersamaan tidak mencoba ulang serentak.</li>
+ *     <li>Hedge: jika respons percobaan pertama belum tiba setelah p95 latensi yang teramati,
+ *     satu request duplikat dikirim dan respons tercepat yang dipakai.</li>
+ * </ul>
+ * Retry dan hedge berbagi anggaran {@link Config#maxAttempts}.
+ */
+public class RequestPolicy {
+
+    public static class Config {
+        /** Jumlah percobaan maksimum, termasuk request pertama, retry, dan hedge. */
+        public int maxAttempts = 1;
+        /** Backoff dasar sebelum retry pertama. */
+        public long baseBackoffMillis = 300;
+        /** Batas backoff, juga batas header Retry-After yang dihormati. */
+        public long maxBackoffMillis = 5000;
+        /** Mengirim request duplikat saat percobaan pertama lebih lambat dari p95. */
+        public boolean hedge = false;
+        /** Jumlah sampel latensi minimal sebelum hedge dipakai. */
+        public int hedgeMinSamples = 20;
+        /** Batas bawah dan atas jeda hedge. */
+        public long minHedgeDelayMillis = 150;
+        public long maxHedgeDelayMillis = 5000;
+        /** Request ditolak tanpa dikirim selama circuit breaker terbuka. */
+        public boolean gatedByCircuitBreaker = false;
+    }
+
+    private final Config config;
+    private final Random random;
+
+    public RequestPolicy(Config config, Random random) {
+        if (config.maxAttempts < 1 || config.baseBackoffMillis < 0
+                || config.maxBackoffMillis < config.baseBackoffMillis
+                || config.maxHedgeDelayMillis < config.minHedgeDelayMillis) {
+            throw new IllegalArgumentException("Konfigurasi request policy tidak valid");
+        }
+        this.config = config;
+        this.random = random;
+    }
+
+    /**
+     * Satu percobaan tanpa retry, hedge, atau breaker; perilaku request sebelum ada jalur.
+     * Dipakai overload {@code detectGarbage} tanpa {@link RoboflowAPI.Lane}.
+     */
+    public static RequestPolicy single() {
+        return new RequestPolicy(new Config(), new Random());
+    }
+
+    /**
+     * Jalur live: satu percobaan saja (frame berikutnya adalah retry-nya), dan berhenti
+     * mengirim selama circuit breaker terbuka.
+     */
+    public static RequestPolicy live() {
+        Config config = new Config();
+        config.gatedByCircuitBreaker = true;
+        return new RequestPolicy(config, new Random());
+    }
+
+    /**
+     * Jalur capture/galeri: pengguna sedang menunggu, jadi gangguan sesaat dicoba ulang dan
+     * ekor latensi dipotong dengan hedge. Tidak dibatasi breaker karena dipicu pengguna.
+     */
+    public static RequestPolicy capture() {
+        Config config = new Config();
+        config.maxAttempts = 3;
+        config.hedge = true;
+        return new RequestPolicy(config, new Random());
+    }
+
+    public int getMaxAttempts() {
+        return config.maxAttempts;
+    }
+
+    public boolean isGatedByCircuitBreaker() {
+        return config.gatedByCircuitBreaker;
+    }
+
+    /**
+     * @param retry Nomor retry, mulai dari 1.
+     * @return Jeda sebelum retry tersebut, dengan jitter.
+     */
+    public long backoffMillis(int retry) {
+        int shift = Math.min(Math.max(retry - 1, 0), 30);
+        long ceiling = Math.min(config.maxBackoffMillis, config.baseBackoffMillis << shift);
+        long half = ceiling / 2;
+        return half + (long) (random.nextDouble() * (ceiling - half + 1));
+    }
+
+    /**
+     * @return Jeda sebelum retry berikutnya; {@code Retry-After} dari server dihormati jika ada,
+     * dibatasi {@link Config#maxBackoffMillis}.
+     */
+    long retryDelayMillis(int retry, long retryAfterMillis) {
+        if (retryAfterMillis >= 0) {
+            return Math.min(retryAfterMillis, config.maxBackoffMillis);
+        }
+        return backoffMillis(retry);
+    }
+
+    /**
+     * @param observed Latensi percobaan yang berhasil sejauh ini.
+     * @return Jeda sebelum hedge dikirim (p95 yang dibatasi), atau -1 jika hedge tidak dipakai
+     * atau sampel belum cukup.
+     */
+    public long hedgeDelayMillis(LatencyHistogram observed) {
+        if (!config.hedge || config.maxAttempts < 2 || observed.getCount() < config.hedgeMinSamples) {
+            return -1;
+        }
+        long p95 = TimeUnit.NANOSECONDS.toMillis(observed.percentileNanos(0.95));
+        return Math.max(config.minHedgeDelayMillis, Math.min(p95, config.maxHedgeDelayMillis));
+    }
+
+    /**
+     * @return true untuk status yang menandakan gangguan sementara di sisi server.
+     */
+    public static boolean isRetryableStatus(int code) {
+        return code == 408 || code == 429 || (code >= 500 && code != 501 && code != 505);
+    }
+
+    /**
+     * @return Nilai header {@code Retry-After} (dalam detik) dalam milidetik, atau -1 jika
+     * tidak ada atau bukan angka (format tanggal tidak didukung).
+     */
+    static long retryAfterMillis(@Nullable String header) {
+        if (header == null) {
+            return -1;
+        }
+        try {
+            long seconds = Long.parseLong(header.trim());
+            return seconds >= 0 ? TimeUnit.SECONDS.toMillis(seconds) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
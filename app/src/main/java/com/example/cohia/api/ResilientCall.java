@@ -0,0 +1,278 @@
+package com.example.cohia.api;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.cohia.LatencyHistogram;
+import com.example.cohia.MonotonicClock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Menjalankan satu request deteksi sesuai {@link RequestPolicy}: beberapa {@link Call} OkHttp
+ * (retry setelah backoff, atau hedge yang berjalan bersamaan) untuk satu {@link DetectionCall}
+ * dan satu callback.
+ *
+ * <ul>
+ *     <li>Respons sukses pertama yang menang; percobaan lain dibatalkan.</li>
+ *     <li>Kegagalan sementara dicoba ulang selama anggaran percobaan masih ada dan tidak ada
+ *     percobaan lain yang masih berjalan; error klien (mis. 400) langsung dilaporkan.</li>
+ *     <li>{@code onFinished} (pelepasan buffer request) dipanggil tepat sekali, setelah tidak
+ *     ada lagi percobaan yang bisa membaca body request.</li>
+ * </ul>
+ *
+ * Semua hasil percobaan dilaporkan ke {@link CircuitBreaker}, termasuk jalur yang tidak
+ * dibatasi olehnya, sehingga capture yang berhasil ikut menutup breaker.
+ */
+final class ResilientCall {
+
+    private static final String TAG = "RoboflowAPI";
+
+    // Timer bersama untuk backoff dan hedge; daemon agar tidak menahan proses/pengujian
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "RoboflowAPI-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    interface ResponseHandler {
+        /**
+         * Mem-parse respons sukses pemenang lalu memanggil callback; harus menutup respons.
+         */
+        void handle(@NonNull Response response, @NonNull DetectionCall handle,
+                    @NonNull RoboflowAPI.ApiCallback callback);
+    }
+
+    private final OkHttpClient client;
+    private final Request request;
+    private final RequestPolicy policy;
+    private final CircuitBreaker breaker;
+    private final LatencyHistogram attemptLatency;
+    private final ResponseHandler responseHandler;
+    private final DetectionCall handle;
+    private final RoboflowAPI.ApiCallback callback;
+    @Nullable
+    private final Runnable onFinished;
+    // Ditulis sekali di start() sebelum percobaan pertama dikirim
+    private long permit = CircuitBreaker.NOT_PROBE;
+
+    // Dijaga oleh this
+    private final List<Call> inFlight = new ArrayList<>(2);
+    private int attempts = 0;
+    private boolean finished = false;
+    private boolean released = false;
+    @Nullable
+    private ScheduledFuture<?> pending;
+
+    ResilientCall(OkHttpClient client, Request request, RequestPolicy policy, CircuitBreaker breaker,
+                  LatencyHistogram attemptLatency, ResponseHandler responseHandler,
+                  DetectionCall handle, RoboflowAPI.ApiCallback callback, @Nullable Runnable onFinished) {
+        this.client = client;
+        this.request = request;
+        this.policy = policy;
+        this.breaker = breaker;
+        this.attemptLatency = attemptLatency;
+        this.responseHandler = responseHandler;
+        this.handle = handle;
+        this.callback = callback;
+        this.onFinished = onFinished;
+    }
+
+    void start() {
+        if (policy.isGatedByCircuitBreaker()) {
+            permit = breaker.tryAcquire();
+        }
+        if (permit == CircuitBreaker.REJECTED) {
+            synchronized (this) {
+                finished = true;
+            }
+            releaseIfIdle();
+            if (handle.markDone()) {
+                callback.onError("Layanan deteksi sedang gangguan, dicoba lagi dalam "
+                        + breaker.getRemainingOpenMillis() + " ms");
+            }
+            return;
+        }
+        launch(true);
+    }
+
+    /**
+     * @param first Percobaan pertama; hanya percobaan pertama yang dijadwalkan hedge-nya.
+     */
+    private void launch(boolean first) {
+        synchronized (this) {
+            pending = null;
+            if (finished) {
+                return;
+            }
+            if (!handle.isCanceled()) {
+                attempts++;
+                Call call = client.newCall(request);
+                inFlight.add(call);
+                handle.attach(call);
+                call.enqueue(new AttemptCallback(MonotonicClock.SYSTEM.nanoTime()));
+                if (first) {
+                    scheduleHedge();
+                }
+                return;
+            }
+            finished = true;
+        }
+        // Dibatalkan selama menunggu backoff
+        breaker.onCanceled(permit);
+        releaseIfIdle();
+    }
+
+    private void scheduleHedge() {
+        long delay = policy.hedgeDelayMillis(attemptLatency);
+        if (delay >= 0 && attempts < policy.getMaxAttempts()) {
+            pending = TIMER.schedule(this::launchHedge, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void launchHedge() {
+        synchronized (this) {
+            // Percobaan pertama sudah gagal dan retry mengambil alih
+            if (inFlight.isEmpty()) {
+                return;
+            }
+        }
+        Log.d(TAG, "Request #" + handle.getSequence() + " lambat, mengirim hedge");
+        launch(false);
+    }
+
+    private void onAttemptSucceeded(Call call, Response response, long elapsedNanos) {
+        attemptLatency.record(elapsedNanos);
+        breaker.onSuccess();
+        boolean won;
+        List<Call> losers;
+        synchronized (this) {
+            inFlight.remove(call);
+            won = !finished;
+            finished = true;
+            cancelPending();
+            losers = new ArrayList<>(inFlight);
+        }
+        for (Call loser : losers) {
+            loser.cancel();
+        }
+        releaseIfIdle();
+        if (won) {
+            responseHandler.handle(response, handle, callback);
+        } else {
+            response.close();
+        }
+    }
+
+    /**
+     * @param retryable        Kegagalan sementara yang boleh dicoba ulang dan dihitung oleh breaker.
+     * @param retryAfterMillis Dari header Retry-After, atau -1.
+     */
+    private void onAttemptFailed(Call call, String error, boolean retryable, long retryAfterMillis) {
+        if (retryable) {
+            breaker.onFailure();
+        }
+        boolean deliver = false;
+        boolean canceled = false;
+        synchronized (this) {
+            inFlight.remove(call);
+            if (finished || !inFlight.isEmpty()) {
+                // Sudah ada pemenang, atau hedge masih berjalan dan bisa berhasil
+            } else if (handle.isCanceled()) {
+                finished = true;
+                canceled = true;
+                cancelPending();
+            } else if (retryable && attempts < policy.getMaxAttempts()) {
+                cancelPending();
+                long delay = policy.retryDelayMillis(attempts, retryAfterMillis);
+                Log.d(TAG, "Request #" + handle.getSequence() + " gagal (" + error + "), retry "
+                        + attempts + " dalam " + delay + " ms");
+                pending = TIMER.schedule(() -> launch(false), delay, TimeUnit.MILLISECONDS);
+            } else {
+                finished = true;
+                deliver = true;
+                cancelPending();
+            }
+        }
+        if (canceled) {
+            breaker.onCanceled(permit);
+            Log.d(TAG, "Request #" + handle.getSequence() + " dibatalkan");
+        }
+        releaseIfIdle();
+        if (deliver && handle.markDone()) {
+            callback.onError(error);
+        }
+    }
+
+    private void cancelPending() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    /**
+     * Menjalankan {@code onFinished} sekali, setelah request selesai dan tidak ada percobaan
+     * yang masih berjalan.
+     */
+    private void releaseIfIdle() {
+        synchronized (this) {
+            if (!finished || !inFlight.isEmpty() || released) {
+                return;
+            }
+            released = true;
+        }
+        if (onFinished != null) {
+            onFinished.run();
+        }
+    }
+
+    private final class AttemptCallback implements Callback {
+        private final long startNanos;
+
+        AttemptCallback(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void onFailure(@NonNull Call call, @NonNull IOException e) {
+            // Pembatalan (oleh pemanggil atau karena hedge lain menang) bukan gangguan server
+            onAttemptFailed(call, "Koneksi gagal: " + e.getMessage(), !call.isCanceled(), -1);
+        }
+
+        @Override
+        public void onResponse(@NonNull Call call, @NonNull Response response) {
+            // Respons hanya datang setelah body request terkirim penuh
+            long elapsed = MonotonicClock.SYSTEM.nanoTime() - startNanos;
+            if (response.isSuccessful()) {
+                onAttemptSucceeded(call, response, elapsed);
+                return;
+            }
+            int code = response.code();
+            String errorBody;
+            try (ResponseBody body = response.body()) {
+                errorBody = body != null ? body.string() : "No response body";
+            } catch (IOException e) {
+                errorBody = "Body error tidak terbaca: " + e.getMessage();
+            }
+            onAttemptFailed(call, "HTTP Error: " + code + " | " + errorBody,
+                    RequestPolicy.isRetryableStatus(code),
+                    RequestPolicy.retryAfterMillis(response.header("Retry-After")));
+        }
+    }
+}
@@ -1,24 +1,31 @@
 package com.example.cohia.api;
 
+import android.graphics.Bitmap;
 import android.graphics.RectF;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.util.Log;
 
 import androidx.annotation.NonNull; // Pastikan import ini ada dan benar
+import androidx.annotation.Nullable;
+
+import com.example.cohia.BitmapUtils;
+import com.example.cohia.LatencyHistogram;
+import com.example.cohia.LatencyTracer;
+import com.example.cohia.MonotonicClock;
+import com.example.cohia.PooledByteArrayOutputStream;
 
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.StringReader;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
-import okhttp3.Call;
-import okhttp3.Callback;
+import okhttp3.HttpUrl;
 import okhttp3.MediaType;
+import okhttp3.MultipartBody;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
@@ -33,7 +40,44 @@ public class RoboflowAPI {
     private static final String API_URL = "https://serverless.roboflow.com/infer/workflows/cohya/detect-count-and-visualize-3";
     private static final String API_KEY = "VQCfMYZF4XPYpufU46nk";
 
+    private static final MediaType JPEG = MediaType.get("image/jpeg");
+
     private final OkHttpClient client;
+    private final String apiUrl;
+    private final String apiKey;
+    private final UploadTransport transport;
+
+    // Log seluruh body respons (bisa berisi gambar base64 berukuran MB); hanya untuk debugging.
+    private volatile boolean logFullResponse = false;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Jalur request: frame live yang dikirim terus-menerus, atau capture/galeri yang hasilnya
+     * ditunggu pengguna. Masing-masing punya {@link RequestPolicy} sendiri.
+     */
+    public enum Lane {
+        LIVE,
+        CAPTURE
+    }
+
+    private volatile RequestPolicy livePolicy = RequestPolicy.live();
+    private volatile RequestPolicy capturePolicy = RequestPolicy.capture();
+    // Overload tanpa Lane: pemanggil lama tidak ikut retry/hedge tanpa memilihnya
+    private final RequestPolicy singlePolicy = RequestPolicy.single();
+
+    private final CircuitBreaker circuitBreaker;
+
+    // Latensi percobaan yang berhasil, dasar jeda hedge
+    private final LatencyHistogram attemptLatency = new LatencyHistogram();
+
+    private final LatencyTracer tracer = LatencyTracer.getInstance();
+
+    private final PredictionBatchParser parser = new PredictionBatchParser(ClassRegistry.getInstance());
+
+    // Ambang confidence, NMS, dan top-K sebelum hasil diteruskan; null untuk hasil mentah
+    @Nullable
+    private volatile PredictionPostProcessor postProcessor = new PredictionPostProcessor();
 
     // Pastikan kelas Prediction adalah public static
     public static class Prediction implements Parcelable {
@@ -84,20 +128,115 @@ public class RoboflowAPI {
     public interface ApiCallback {
         void onSuccess(List<Prediction> predictions);
         void onError(String error);
+
+        /**
+         * Dipanggil oleh {@link RoboflowAPI} dengan hasil dalam bentuk batch. Bawaannya
+         * mengonversi ke {@code List<Prediction>} agar implementasi lama tetap bekerja;
+         * override (atau turunkan dari {@link BatchCallback}) untuk menghindari konversi itu.
+         */
+        default void onSuccess(PredictionBatch batch) {
+            onSuccess(batch.toPredictions());
+        }
+    }
+
+    /**
+     * Callback yang bekerja dengan {@link PredictionBatch}. Hasil yang masuk sebagai
+     * {@code List<Prediction>} (mis. dari kode lama) dikonversi ke batch dengan registry bersama.
+     */
+    public abstract static class BatchCallback implements ApiCallback {
+        @Override
+        public abstract void onSuccess(PredictionBatch batch);
+
+        @Override
+        public final void onSuccess(List<Prediction> predictions) {
+            onSuccess(PredictionBatch.fromPredictions(predictions, ClassRegistry.getInstance()));
+        }
     }
 
     public RoboflowAPI() {
-        client = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(60, TimeUnit.SECONDS)
-                .writeTimeout(60, TimeUnit.SECONDS)
-                .build();
+        this(API_URL, API_KEY, UploadTransport.JSON_BASE64);
+    }
+
+    /**
+     * @param apiUrl    Endpoint inferensi.
+     * @param apiKey    API key Roboflow.
+     * @param transport Cara mengirim gambar; endpoint workflow hanya menerima
+     *                  {@link UploadTransport#JSON_BASE64}.
+     */
+    public RoboflowAPI(String apiUrl, String apiKey, UploadTransport transport) {
+        this(apiUrl, apiKey, transport, InferenceHttpClient.shared());
+    }
+
+    /**
+     * @param client Client HTTP; bawaannya {@link InferenceHttpClient#shared()} agar semua
+     *               instance berbagi pool koneksi dan cache DNS.
+     */
+    public RoboflowAPI(String apiUrl, String apiKey, UploadTransport transport, OkHttpClient client) {
+        this(apiUrl, apiKey, transport, client, new CircuitBreaker(MonotonicClock.SYSTEM));
+    }
+
+    /**
+     * @param circuitBreaker Breaker yang menahan request jalur live selama endpoint gangguan.
+     */
+    public RoboflowAPI(String apiUrl, String apiKey, UploadTransport transport, OkHttpClient client,
+                       CircuitBreaker circuitBreaker) {
+        this.apiUrl = apiUrl;
+        this.apiKey = apiKey;
+        this.transport = transport;
+        this.client = client;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Membuka koneksi ke host inferensi di background, agar deteksi pertama tidak menunggu
+     * DNS, TCP, dan TLS. Aman dipanggil berulang kali.
+     */
+    public void warmUp() {
+        InferenceHttpClient.warmUp(client, HttpUrl.get(apiUrl));
+    }
+
+    /**
+     * Mengaktifkan log seluruh body respons. Nonaktif secara default karena respons workflow
+     * menyertakan gambar visualisasi dan harus dibaca penuh ke memori untuk di-log.
+     */
+    public void setLogFullResponse(boolean enabled) {
+        this.logFullResponse = enabled;
+    }
+
+    /**
+     * Mengganti pascaproses yang dijalankan pada setiap respons (ambang confidence, NMS,
+     * top-K). Bawaannya {@link PredictionPostProcessor.Config} default; null menonaktifkan
+     * pascaproses sehingga semua prediksi dari semua output workflow diteruskan apa adanya.
+     */
+    public void setPostProcessor(@Nullable PredictionPostProcessor postProcessor) {
+        this.postProcessor = postProcessor;
     }
 
-    public void detectGarbage(String base64ImageData, ApiCallback callback) {
+    /**
+     * Mengganti aturan retry, hedge, dan circuit breaker untuk satu jalur. Bawaannya
+     * {@link RequestPolicy#live()} dan {@link RequestPolicy#capture()}.
+     */
+    public void setPolicy(Lane lane, RequestPolicy policy) {
+        if (lane == Lane.LIVE) {
+            livePolicy = policy;
+        } else {
+            capturePolicy = policy;
+        }
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Mengirim gambar yang sudah dalam bentuk string base64, satu percobaan tanpa retry.
+     * Untuk gambar besar, gunakan {@link #detectGarbage(byte[], ApiCallback)} yang tidak
+     * menyalin payload ke dalam String.
+     */
+    public DetectionCall detectGarbage(String base64ImageData, ApiCallback callback) {
         try {
             JSONObject payload = new JSONObject();
-            payload.put("api_key", API_KEY);
+            payload.put("api_key", apiKey);
             JSONObject imageObject = new JSONObject();
             imageObject.put("type", "base64");
             imageObject.put("value", base64ImageData);
@@ -107,122 +246,160 @@ public class RoboflowAPI {
 
             MediaType JSON = MediaType.get("application/json; charset=utf-8");
             RequestBody body = RequestBody.create(payload.toString(), JSON);
-
-            Request request = new Request.Builder()
-                    .url(API_URL)
-                    .addHeader("Content-Type", "application/json")
-                    .post(body)
-                    .build();
-
-            client.newCall(request).enqueue(new Callback() {
-                @Override
-                public void onFailure(@NonNull Call call, @NonNull IOException e) {
-                    callback.onError("Koneksi gagal: " + e.getMessage());
-                }
-
-                @Override
-                public void onResponse(@NonNull Call call, @NonNull Response response) {
-                    try (ResponseBody responseBody = response.body()) {
-                        if (!response.isSuccessful()) {
-                            String errorBody = responseBody != null ? responseBody.string() : "No response body";
-                            callback.onError("HTTP Error: " + response.code() + " | " + errorBody);
-                            return;
-                        }
-
-                        if (responseBody == null) {
-                            callback.onError("Gagal: Response body kosong.");
-                            return;
-                        }
-
-                        String bodyString = responseBody.string();
-                        Log.d(TAG, "Full Response: " + bodyString);
-                        List<Prediction> predictions = parseResponse(bodyString);
-                        callback.onSuccess(predictions);
-
-                    } catch (IOException | JSONException e) {
-                        Log.e(TAG, "Error processing response", e);
-                        callback.onError("Gagal memproses respons: " + e.getMessage());
-                    }
-                }
-            });
+            return enqueue(new Request.Builder().url(apiUrl).post(body).build(), singlePolicy, callback, null);
         } catch (JSONException e) {
             callback.onError("Gagal membuat request: " + e.getMessage());
+            return completedCall();
         }
     }
 
-    private List<Prediction> parseResponse(String responseBody) throws JSONException {
-        List<Prediction> predictionList = new ArrayList<>();
-        JSONObject jsonResponse = new JSONObject(responseBody);
-
-        // Roboflow API response structure for workflows might vary.
-        // I'll assume the 'outputs' array and 'predictions' within them.
-        JSONArray outputs = jsonResponse.optJSONArray("outputs");
-        if (outputs == null) {
-            // Jika tidak ada "outputs" mungkin prediksi langsung di root atau struktur lain
-            // Coba cari "predictions" langsung di root jika "outputs" tidak ada
-            Object predictionsObj = jsonResponse.opt("predictions");
-            if (predictionsObj instanceof JSONObject && ((JSONObject) predictionsObj).has("predictions")) {
-                parsePredictionsArray(((JSONObject) predictionsObj).getJSONArray("predictions"), predictionList);
-            } else if (predictionsObj instanceof JSONArray) {
-                parsePredictionsArray((JSONArray) predictionsObj, predictionList);
-            }
-            return predictionList; // Kembali jika sudah diproses
-        }
+    /**
+     * Mengompres Bitmap ke JPEG lalu mengirimnya lewat body streaming.
+     * Kompresi berjalan di thread pemanggil.
+     */
+    public DetectionCall detectGarbage(Bitmap bitmap, ApiCallback callback) {
+        return detectGarbage(BitmapUtils.toJpeg(bitmap), callback);
+    }
 
+    /**
+     * Mengirim byte JPEG sesuai {@link UploadTransport} yang dipilih. Pada mode JSON, base64
+     * ditulis langsung ke koneksi oleh {@link StreamingImageRequestBody} tanpa salinan
+     * String/JSON perantara. Satu percobaan tanpa retry.
+     *
+     * @return Handle yang bisa dibatalkan; callback tidak dipanggil setelah dibatalkan.
+     */
+    public DetectionCall detectGarbage(byte[] jpegBytes, ApiCallback callback) {
+        return enqueue(newDetectionRequest(jpegBytes), singlePolicy, callback, null);
+    }
 
-        for (int i = 0; i < outputs.length(); i++) {
-            JSONObject output = outputs.getJSONObject(i);
-            Object predictionsObj = output.opt("predictions"); // Bisa berupa array langsung atau objek dengan key "predictions"
+    /**
+     * Mengirim JPEG dari buffer pool tanpa menyalinnya. Buffer diambil alih: dikembalikan ke
+     * pool setelah request selesai, gagal, atau dibatalkan, jadi pemanggil tidak boleh
+     * memakainya lagi. Satu percobaan tanpa retry; gunakan overload dengan {@link Lane} untuk
+     * aturan retry/hedge/breaker.
+     */
+    public DetectionCall detectGarbage(PooledByteArrayOutputStream jpeg, ApiCallback callback) {
+        return enqueue(jpeg, singlePolicy, callback);
+    }
 
-            JSONArray predictionsArray = null;
-            if (predictionsObj instanceof JSONObject && ((JSONObject) predictionsObj).has("predictions")) {
-                predictionsArray = ((JSONObject) predictionsObj).getJSONArray("predictions");
-            } else if (predictionsObj instanceof JSONArray) {
-                predictionsArray = (JSONArray) predictionsObj;
-            }
+    /**
+     * Seperti {@link #detectGarbage(PooledByteArrayOutputStream, ApiCallback)}, dengan aturan
+     * retry/hedge/breaker milik {@code lane}. Jika jalur live ditolak breaker, callback menerima
+     * error tanpa request dikirim.
+     */
+    public DetectionCall detectGarbage(PooledByteArrayOutputStream jpeg, Lane lane, ApiCallback callback) {
+        return enqueue(jpeg, lane == Lane.LIVE ? livePolicy : capturePolicy, callback);
+    }
 
-            if (predictionsArray != null) {
-                parsePredictionsArray(predictionsArray, predictionList);
+    private DetectionCall enqueue(PooledByteArrayOutputStream jpeg, RequestPolicy policy, ApiCallback callback) {
+        Request request;
+        try {
+            request = newDetectionRequest(jpeg.getBuffer(), jpeg.size());
+        } catch (RuntimeException e) {
+            jpeg.release();
+            throw e;
+        }
+        return enqueue(request, policy, callback, jpeg::release);
+    }
+
+    Request newDetectionRequest(byte[] jpegBytes) {
+        return newDetectionRequest(jpegBytes, jpegBytes.length);
+    }
+
+    /**
+     * @param length Jumlah byte JPEG di awal {@code jpegBytes}; sisa array diabaikan.
+     */
+    Request newDetectionRequest(byte[] jpegBytes, int length) {
+        switch (transport) {
+            case MULTIPART: {
+                RequestBody body = new MultipartBody.Builder()
+                        .setType(MultipartBody.FORM)
+                        .addFormDataPart("file", "image.jpg", RequestBody.create(jpegBytes, JPEG, 0, length))
+                        .build();
+                return new Request.Builder().url(urlWithApiKey()).post(body).build();
             }
+            case RAW_BYTES:
+                return new Request.Builder()
+                        .url(urlWithApiKey())
+                        .post(RequestBody.create(jpegBytes, JPEG, 0, length))
+                        .build();
+            case JSON_BASE64:
+            default:
+                return new Request.Builder()
+                        .url(apiUrl)
+                        .post(new StreamingImageRequestBody(apiKey, jpegBytes, 0, length))
+                        .build();
         }
-        return predictionList;
     }
 
-    // Helper method untuk memparsing JSONArray prediksi
-    private void parsePredictionsArray(JSONArray predictions, List<Prediction> predictionList) throws JSONException {
-        for (int j = 0; j < predictions.length(); j++) {
-            JSONObject p = predictions.getJSONObject(j);
+    private HttpUrl urlWithApiKey() {
+        return HttpUrl.get(apiUrl).newBuilder()
+                .addQueryParameter("api_key", apiKey)
+                .build();
+    }
 
-            String className = getReadableClassName(p.optString("class", "Unknown"));
-            float confidence = (float) p.optDouble("confidence", 0.0);
+    private DetectionCall completedCall() {
+        DetectionCall handle = new DetectionCall(sequence.incrementAndGet());
+        handle.markDone();
+        return handle;
+    }
 
-            // Koordinat dari Roboflow API biasanya 'x', 'y', 'width', 'height'
-            // dan perlu dikonversi ke 'left', 'top', 'right', 'bottom'
-            float x = (float) p.optDouble("x", 0.0);
-            float y = (float) p.optDouble("y", 0.0);
-            float width = (float) p.optDouble("width", 0.0);
-            float height = (float) p.optDouble("height", 0.0);
+    /**
+     * @param onFinished Dipanggil tepat sekali setelah tidak ada lagi percobaan yang memakai body
+     *                   request (sukses, gagal, atau dibatalkan), sebelum callback; boleh null.
+     */
+    private DetectionCall enqueue(Request request, RequestPolicy policy, ApiCallback callback,
+                                  @Nullable Runnable onFinished) {
+        DetectionCall handle = new DetectionCall(sequence.incrementAndGet());
+        new ResilientCall(client, request, policy, circuitBreaker, attemptLatency, this::deliver,
+                handle, callback, onFinished).start();
+        return handle;
+    }
 
-            // Hanya tambahkan jika data bounding box valid
-            if (width > 0 && height > 0) {
-                float left = x - (width / 2);
-                float top = y - (height / 2);
-                float right = x + (width / 2);
-                float bottom = y + (height / 2);
+    /**
+     * Mem-parse respons sukses dari percobaan yang menang lalu memanggil callback.
+     */
+    private void deliver(@NonNull Response response, @NonNull DetectionCall handle, @NonNull ApiCallback callback) {
+        try (ResponseBody responseBody = response.body()) {
+            if (!handle.markDone()) {
+                Log.d(TAG, "Request #" + handle.getSequence() + " dibatalkan");
+                return;
+            }
 
-                RectF box = new RectF(left, top, right, bottom);
-                predictionList.add(new Prediction(className, confidence, box));
+            if (responseBody == null) {
+                callback.onError("Gagal: Response body kosong.");
+                return;
             }
-        }
-    }
 
+            // Prediksi di-parse langsung ke batch; field besar seperti gambar
+            // visualisasi base64 dilewati tanpa dibaca ke memori
+            long parseStart = tracer.start();
+            PredictionBatch predictions;
+            if (logFullResponse) {
+                String bodyString = responseBody.string();
+                Log.d(TAG, "Full Response: " + bodyString);
+                predictions = parser.parse(new StringReader(bodyString));
+            } else {
+                predictions = parser.parse(responseBody.charStream());
+            }
+            // Output workflow digabung tanpa deduplikasi, jadi duplikat dan derau
+            // dibuang di sini sebelum sampai ke overlay, teks live, dan ResultActivity
+            tracer.record(LatencyTracer.Stage.PARSE, parseStart);
+            PredictionPostProcessor processor = postProcessor;
+            if (processor != null) {
+                long postStart = tracer.start();
+                processor.process(predictions);
+                tracer.record(LatencyTracer.Stage.POSTPROCESS, postStart);
+            }
+            callback.onSuccess(predictions);
 
-    private String getReadableClassName(String className) {
-        switch (className.toLowerCase()) {
-            case "b3": return "Sampah B3";
-            case "anorganik": return "Sampah Anorganik";
-            case "organik": return "Sampah Organik";
-            default: return className;
+        } catch (IOException | IllegalStateException e) {
+            // Pembatalan di tengah pembacaan body tidak perlu dilaporkan
+            if (handle.isCanceled()) {
+                return;
+            }
+            Log.e(TAG, "Error processing response", e);
+            callback.onError("Gagal memproses respons: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
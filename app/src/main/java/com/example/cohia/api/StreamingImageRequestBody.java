@@ -0,0 +1,121 @@
+package com.example.cohia.api;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * RequestBody JSON untuk workflow Roboflow yang menulis gambar sebagai base64 langsung ke
+ * sink OkHttp/Okio, sepotong demi sepotong.
+ *
+ * Tidak ada String base64, JSONObject, maupun salinan payload penuh yang dibuat, sehingga
+ * memori puncak per request tetap mendekati ukuran JPEG terkompresi. Body ini bisa ditulis
+ * ulang (misalnya saat OkHttp mencoba ulang koneksi) karena sumbernya array yang tidak berubah.
+ */
+public class StreamingImageRequestBody extends RequestBody {
+
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    // Harus kelipatan 3 supaya tidak ada padding di tengah aliran base64.
+    private static final int CHUNK_BYTES = 3 * 1024 * 8;
+
+    private static final byte[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+                    .getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] prefix;
+    private final byte[] suffix;
+    private final byte[] image;
+    private final int offset;
+    private final int length;
+
+    public StreamingImageRequestBody(String apiKey, byte[] image) {
+        this(apiKey, image, 0, image.length);
+    }
+
+    /**
+     * @param image  Byte JPEG (atau format lain yang diterima workflow).
+     * @param offset Awal data gambar di dalam array.
+     * @param length Panjang data gambar.
+     */
+    public StreamingImageRequestBody(String apiKey, byte[] image, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > image.length) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length
+                    + ", size=" + image.length);
+        }
+        this.image = image;
+        this.offset = offset;
+        this.length = length;
+        // Bentuk payload: {"api_key":"...","inputs":{"image":{"type":"base64","value":"<base64>"}}}
+        this.prefix = ("{\"api_key\":" + new Gson().toJson(apiKey)
+                + ",\"inputs\":{\"image\":{\"type\":\"base64\",\"value\":\"")
+                .getBytes(StandardCharsets.UTF_8);
+        this.suffix = "\"}}}".getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+
+    @Override
+    public long contentLength() {
+        return prefix.length + base64Length(length) + suffix.length;
+    }
+
+    @Override
+    public void writeTo(@NonNull BufferedSink sink) throws IOException {
+        sink.write(prefix);
+
+        byte[] encoded = new byte[base64Length(Math.min(length, CHUNK_BYTES))];
+        int end = offset + length;
+        for (int start = offset; start < end; start += CHUNK_BYTES) {
+            int count = encode(image, start, Math.min(CHUNK_BYTES, end - start), encoded);
+            sink.write(encoded, 0, count);
+        }
+
+        sink.write(suffix);
+    }
+
+    /**
+     * Panjang hasil base64 (dengan padding, tanpa pemisah baris) untuk n byte input.
+     */
+    static int base64Length(int n) {
+        return ((n + 2) / 3) * 4;
+    }
+
+    /**
+     * Meng-encode {@code src[start, start + count)} ke base64 standar di {@code dst}.
+     *
+     * @return Jumlah byte yang ditulis ke dst.
+     */
+    static int encode(byte[] src, int start, int count, byte[] dst) {
+        int out = 0;
+        int end = start + count;
+        int i = start;
+        for (; i + 2 < end; i += 3) {
+            int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+            dst[out++] = ALPHABET[(bits >>> 18) & 0x3F];
+            dst[out++] = ALPHABET[(bits >>> 12) & 0x3F];
+            dst[out++] = ALPHABET[(bits >>> 6) & 0x3F];
+            dst[out++] = ALPHABET[bits & 0x3F];
+        }
+
+        int remaining = end - i;
+        if (remaining > 0) {
+            int bits = (src[i] & 0xFF) << 16 | (remaining == 2 ? (src[i + 1] & 0xFF) << 8 : 0);
+            dst[out++] = ALPHABET[(bits >>> 18) & 0x3F];
+            dst[out++] = ALPHABET[(bits >>> 12) & 0x3F];
+            dst[out++] = remaining == 2 ? ALPHABET[(bits >>> 6) & 0x3F] : (byte) '=';
+            dst[out++] = '=';
+        }
+        return out;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.cohia.api;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.cohia.LatencyTracer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+
+/**
+ * EventListener OkHttp yang mencatat DNS, connect, TLS, upload body, time-to-first-byte, dan
+ * total panggilan ke {@link LatencyTracer}. Satu instance per panggilan (lihat
+ * {@link #factory}), jadi field-nya tidak dibagi antar request.
+ *
+ * Event satu panggilan datang berurutan (callStart di thread pemanggil, sisanya di thread
+ * dispatcher OkHttp), sehingga field biasa tanpa sinkronisasi sudah cukup.
+ */
+public final class TracingEventListener extends EventListener {
+
+    private final LatencyTracer tracer;
+
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long secureConnectStart;
+    private long requestBodyStart;
+    // Akhir request terakhir yang terkirim (header atau body), awal hitungan TTFB
+    private long requestSent;
+
+    private TracingEventListener(LatencyTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * @return Factory untuk {@code OkHttpClient.Builder.eventListenerFactory}.
+     */
+    public static EventListener.Factory factory(@NonNull LatencyTracer tracer) {
+        return call -> new TracingEventListener(tracer);
+    }
+
+    @Override
+    public void callStart(@NonNull Call call) {
+        callStart = tracer.start();
+    }
+
+    @Override
+    public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+        dnsStart = tracer.start();
+    }
+
+    @Override
+    public void dnsEnd(@NonNull Call call, @NonNull String domainName,
+                       @NonNull List<InetAddress> inetAddressList) {
+        tracer.record(LatencyTracer.Stage.DNS, dnsStart);
+    }
+
+    @Override
+    public void connectStart(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                             @NonNull Proxy proxy) {
+        connectStart = tracer.start();
+    }
+
+    @Override
+    public void secureConnectStart(@NonNull Call call) {
+        secureConnectStart = tracer.start();
+    }
+
+    @Override
+    public void secureConnectEnd(@NonNull Call call, @Nullable Handshake handshake) {
+        tracer.record(LatencyTracer.Stage.TLS, secureConnectStart);
+    }
+
+    @Override
+    public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                           @NonNull Proxy proxy, @Nullable Protocol protocol) {
+        tracer.record(LatencyTracer.Stage.CONNECT, connectStart);
+    }
+
+    @Override
+    public void requestHeadersEnd(@NonNull Call call, @NonNull Request request) {
+        requestSent = tracer.start();
+    }
+
+    @Override
+    public void requestBodyStart(@NonNull Call call) {
+        requestBodyStart = tracer.start();
+    }
+
+    @Override
+    public void requestBodyEnd(@NonNull Call call, long byteCount) {
+        tracer.record(LatencyTracer.Stage.REQUEST_BODY, requestBodyStart);
+        requestSent = tracer.start();
+    }
+
+    @Override
+    public void responseHeadersStart(@NonNull Call call) {
+        tracer.record(LatencyTracer.Stage.TTFB, requestSent);
+    }
+
+    @Override
+    public void callEnd(@NonNull Call call) {
+        tracer.record(LatencyTracer.Stage.HTTP_CALL, callStart);
+    }
+
+    @Override
+    public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+        // Panggilan gagal ikut dicatat agar timeout terlihat di ekor distribusi
+        tracer.record(LatencyTracer.Stage.HTTP_CALL, callStart);
+    }
+}
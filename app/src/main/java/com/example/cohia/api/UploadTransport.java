@@ -0,0 +1,24 @@
+package com.example.cohia.api;
+
+/**
+ * Cara byte gambar dikirim ke endpoint inferensi.
+ */
+public enum UploadTransport {
+    /**
+     * JSON dengan gambar base64 di {@code inputs.image.value}. Diterima oleh endpoint workflow
+     * Roboflow dan menjadi fallback default, tetapi menambah sekitar 33% byte.
+     */
+    JSON_BASE64,
+
+    /**
+     * multipart/form-data dengan byte JPEG mentah di part {@code file}, {@code api_key} di query.
+     * Untuk endpoint model (hosted API atau server inference) yang menerima upload file.
+     */
+    MULTIPART,
+
+    /**
+     * Byte JPEG mentah sebagai body ({@code image/jpeg}), {@code api_key} di query.
+     * Paling hemat; hanya untuk endpoint yang menerima body biner.
+     */
+    RAW_BYTES
+}
@@ -0,0 +1,164 @@
+package com.example.cohia;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveFrameSchedulerTest {
+
+    private static final long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(33);
+
+    /** Jam palsu yang hanya maju saat digeser secara eksplisit. */
+    private static class FakeClock implements MonotonicClock {
+        long now = 123_456_789L;
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+
+        void advanceMillis(long millis) {
+            now += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+    }
+
+    /** Detektor palsu dengan RTT dan pola kegagalan yang bisa diatur. */
+    private static class FakeDetector {
+        private final FakeClock clock;
+        private final FrameScheduler scheduler;
+        private final List<long[]> pending = new ArrayList<>();
+        long rttMillis;
+        boolean failing;
+        int sent;
+        int maxInFlight;
+
+        FakeDetector(FakeClock clock, FrameScheduler scheduler, long rttMillis) {
+            this.clock = clock;
+            this.scheduler = scheduler;
+            this.rttMillis = rttMillis;
+        }
+
+        void send(long startNanos) {
+            sent++;
+            pending.add(new long[]{startNanos, clock.now + TimeUnit.MILLISECONDS.toNanos(rttMillis)});
+            maxInFlight = Math.max(maxInFlight, pending.size());
+        }
+
+        void deliverDue() {
+            Iterator<long[]> iterator = pending.iterator();
+            while (iterator.hasNext()) {
+                long[] request = iterator.next();
+                if (request[1] <= clock.now) {
+                    iterator.remove();
+                    if (failing) {
+                        scheduler.onFailure(request[0]);
+                    } else {
+                        scheduler.onSuccess(request[0]);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Menjalankan kamera 30 fps selama durasi tertentu terhadap penjadwal. */
+    private static void runCamera(FakeClock clock, FrameScheduler scheduler, FakeDetector detector, long millis) {
+        long end = clock.now + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (clock.now < end) {
+            detector.deliverDue();
+            long start = scheduler.tryAcquire();
+            if (start != FrameScheduler.NOT_NOW) {
+                assertEquals(clock.now, start);
+                detector.send(start);
+            }
+            clock.now += FRAME_NANOS;
+        }
+    }
+
+    @Test
+    public void startsAtInitialInterval() {
+        FakeClock clock = new FakeClock();
+        AdaptiveFrameScheduler scheduler = new AdaptiveFrameScheduler(clock);
+
+        assertNotEquals(FrameScheduler.NOT_NOW, scheduler.tryAcquire());
+        clock.advanceMillis(1499);
+        assertEquals(FrameScheduler.NOT_NOW, scheduler.tryAcquire());
+        clock.advanceMillis(1);
+        assertNotEquals(FrameScheduler.NOT_NOW, scheduler.tryAcquire());
+        assertEquals(1500, scheduler.getIntervalMillis());
+    }
+
+    @Test
+    public void fastNetwork_raisesRateToUpperBound() {
+        FakeClock clock = new FakeClock();
+        AdaptiveFrameScheduler scheduler = new AdaptiveFrameScheduler(clock);
+        FakeDetector detector = new FakeDetector(clock, scheduler, 120);
+
+        runCamera(clock, scheduler, detector, 60_000);
+
+        assertEquals(1000.0 / 300, scheduler.getRateHz(), 1e-9);
+        // Hasil baru terlihat pada frame berikutnya, jadi RTT terukur dibulatkan ke atas per 33 ms
+        assertEquals(120, scheduler.getSmoothedRttMillis(), 33);
+        assertEquals(1, detector.maxInFlight);
+    }
+
+    @Test
+    public void slowNetwork_keepsRequestsFromPilingUp() {
+        FakeClock clock = new FakeClock();
+        AdaptiveFrameScheduler scheduler = new AdaptiveFrameScheduler(clock);
+        FakeDetector detector = new FakeDetector(clock, scheduler, 4000);
+
+        runCamera(clock, scheduler, detector, 120_000);
+
+        // Dengan RTT 4 s, laju berosilasi di sekitar 1 request berjalan (0.25 Hz)
+        assertTrue("rate " + scheduler.getRateHz(), scheduler.getRateHz() <= 0.4);
+        assertTrue("maxInFlight " + detector.maxInFlight, detector.maxInFlight <= 3);
+    }
+
+    @Test
+    public void errors_backOffToLowerBoundAndRecover() {
+        FakeClock clock = new FakeClock();
+        AdaptiveFrameScheduler scheduler = new AdaptiveFrameScheduler(clock);
+        FakeDetector detector = new FakeDetector(clock, scheduler, 200);
+        detector.failing = true;
+
+        runCamera(clock, scheduler, detector, 30_000);
+        assertEquals(1000.0 / 5000, scheduler.getRateHz(), 1e-9);
+        assertTrue(scheduler.getErrorRate() > 0.5);
+
+        detector.failing = false;
+        runCamera(clock, scheduler, detector, 60_000);
+        assertTrue(scheduler.getRateHz() > 1.0);
+        assertTrue(scheduler.getErrorRate() < 0.1);
+    }
+
+    @Test
+    public void adaptsWhenLinkDegrades() {
+        FakeClock clock = new FakeClock();
+        AdaptiveFrameScheduler scheduler = new AdaptiveFrameScheduler(clock);
+        FakeDetector detector = new FakeDetector(clock, scheduler, 100);
+
+        runCamera(clock, scheduler, detector, 30_000);
+        double fastRate = scheduler.getRateHz();
+        detector.rttMillis = 2500;
+        runCamera(clock, scheduler, detector, 60_000);
+
+        assertTrue(scheduler.getRateHz() < fastRate / 4);
+    }
+
+    @Test
+    public void fixedScheduler_matchesLegacyThrottle() {
+        FakeClock clock = new FakeClock();
+        FixedIntervalFrameScheduler scheduler = new FixedIntervalFrameScheduler(1500, clock);
+        FakeDetector detector = new FakeDetector(clock, scheduler, 100);
+
+        runCamera(clock, scheduler, detector, 15_000);
+
+        assertEquals(10, detector.sent);
+        assertEquals(1000.0 / 1500, scheduler.getRateHz(), 1e-9);
+    }
+}
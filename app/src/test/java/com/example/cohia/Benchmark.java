@@ -0,0 +1,74 @@
+package com.example.cohia;
+
+import org.junit.Assume;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Harness benchmark host yang hanya berjalan jika diminta:
+ * {@code ./gradlew testDebugUnitTest -Pbenchmark} (system property {@value #PROPERTY}). Pada run
+ * biasa pengujian benchmark dilewati lewat {@link Assume}, sehingga hasil uji tidak pernah
+ * bergantung pada kecepatan mesin. Angka hanya dicetak; tidak ada assert waktu.
+ */
+public final class Benchmark {
+
+    public static final String PROPERTY = "cohia.benchmark";
+
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    private Benchmark() {}
+
+    /** Melewati pengujian pemanggil kecuali benchmark diaktifkan. */
+    public static void assumeEnabled() {
+        Assume.assumeTrue("Benchmark nonaktif; jalankan dengan -Pbenchmark", Boolean.getBoolean(PROPERTY));
+    }
+
+    /**
+     * Menjalankan {@code task} sebanyak {@code warmup} kali tanpa diukur, lalu
+     * {@code iterations} kali.
+     *
+     * @return Rata-rata waktu per iterasi dalam milidetik.
+     */
+    public static double millisPerRun(int warmup, int iterations, Task task) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / iterations;
+    }
+
+    /**
+     * Seperti {@link #millisPerRun}, tetapi mengukur byte yang dialokasikan thread ini.
+     *
+     * @return Rata-rata byte per iterasi, atau -1 jika JVM tidak menyediakan penghitung alokasi.
+     */
+    public static long bytesPerRun(int warmup, int iterations, Task task) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            task.run();
+        }
+        long before = threadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        long after = threadAllocatedBytes();
+        return before < 0 || after < 0 ? -1 : (after - before) / iterations;
+    }
+
+    private static long threadAllocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    public static void report(String format, Object... args) {
+        System.out.println("[benchmark] " + String.format(Locale.US, format, args));
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.cohia;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import static org.junit.Assert.*;
+
+public class ByteArrayPoolTest {
+
+    @Test
+    public void classSize_roundsUpToPowerOfTwo() {
+        assertEquals(ByteArrayPool.MIN_ARRAY_BYTES, ByteArrayPool.classSize(0));
+        assertEquals(ByteArrayPool.MIN_ARRAY_BYTES, ByteArrayPool.classSize(4096));
+        assertEquals(8192, ByteArrayPool.classSize(4097));
+        assertEquals(131072, ByteArrayPool.classSize(100_000));
+        assertEquals(131072, ByteArrayPool.classSize(131072));
+    }
+
+    @Test
+    public void returnedArray_isReusedForSameClass() {
+        ByteArrayPool pool = new ByteArrayPool(1024 * 1024);
+        byte[] first = pool.get(70_000);
+        assertEquals(131072, first.length);
+        pool.put(first);
+        assertEquals(131072, pool.getPooledBytes());
+
+        assertSame(first, pool.get(100_000));
+        assertEquals(0, pool.getPooledBytes());
+        assertEquals(1, pool.getAllocationCount());
+        assertEquals(1, pool.getReuseCount());
+
+        // Kelas lain tidak memakai array tersebut
+        pool.put(first);
+        assertEquals(65536, pool.get(40_000).length);
+        assertEquals(2, pool.getAllocationCount());
+    }
+
+    @Test
+    public void foreignArrays_areIgnored() {
+        ByteArrayPool pool = new ByteArrayPool(64 * 1024);
+        pool.put(new byte[5000]);
+        pool.put(new byte[1024]);
+        pool.put(new byte[128 * 1024]);
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    @Test
+    public void overBudget_evictsEarliestReturned() {
+        ByteArrayPool pool = new ByteArrayPool(32 * 1024);
+        byte[] a = new byte[16 * 1024];
+        byte[] b = new byte[8 * 1024];
+        byte[] c = new byte[16 * 1024];
+        pool.put(a);
+        pool.put(b);
+        pool.put(c);
+
+        assertEquals(24 * 1024, pool.getPooledBytes());
+        assertEquals(1, pool.getEvictionCount());
+        assertSame(c, pool.get(16 * 1024));
+        assertSame(b, pool.get(8 * 1024));
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    @Test
+    public void trimMemory_followsGlidePolicy() {
+        ByteArrayPool pool = new ByteArrayPool(64 * 1024);
+        for (int i = 0; i < 4; i++) {
+            pool.put(new byte[16 * 1024]);
+        }
+        pool.trimMemory(android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+        assertEquals(64 * 1024, pool.getPooledBytes());
+        pool.trimMemory(android.content.ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+        assertEquals(32 * 1024, pool.getPooledBytes());
+        pool.trimMemory(android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+        assertEquals(0, pool.getPooledBytes());
+    }
+
+    @Test
+    public void pooledStream_growsThroughPoolAndReleasesOnce() {
+        ByteArrayPool pool = new ByteArrayPool(1024 * 1024);
+        PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(pool, 100);
+        byte[] data = new byte[10_000];
+        new Random(1).nextBytes(data);
+        out.write(data, 0, 3000);
+        out.write(data[3000]);
+        out.write(data, 3001, data.length - 3001);
+
+        assertEquals(data.length, out.size());
+        byte[] buffer = out.getBuffer();
+        assertEquals(16384, buffer.length);
+        for (int i = 0; i < data.length; i++) {
+            assertEquals(data[i], buffer[i]);
+        }
+        // Buffer 4 KB awal sudah kembali ke pool saat diperbesar
+        assertEquals(4096, pool.getPooledBytes());
+
+        out.release();
+        out.release();
+        assertEquals(4096 + 16384, pool.getPooledBytes());
+        try {
+            out.getBuffer();
+            fail("Buffer yang sudah dilepas tidak boleh dipakai");
+        } catch (IllegalStateException expected) {
+            // diharapkan
+        }
+    }
+
+    /**
+     * Loop live pada kondisi stabil: gerbang kualitas dan scene, hash perseptual, konversi YUV,
+     * lalu encode JPEG sungguhan ke buffer pool dengan dua request berjalan. Bitmap.compress
+     * tidak tersedia di JVM, jadi encoder JPEG ImageIO dipakai sebagai penggantinya; keduanya
+     * menulis bertahap ke OutputStream dengan ukuran hasil yang berubah per frame. Setelah
+     * pemanasan tidak boleh ada buffer baru dari pool.
+     */
+    @Test
+    public void steadyStateLiveLoop_reusesPooledJpegBuffers() throws IOException {
+        int width = 640;
+        int height = 480;
+        int rowStride = 704;
+        ByteBuffer[] yPlanes = {lumaFrame(width, height, rowStride, 1), lumaFrame(width, height, rowStride, 2)};
+        ByteBuffer uvPlane = ByteBuffer.allocateDirect(rowStride * height / 2);
+        for (int i = 0; i < uvPlane.capacity(); i++) {
+            uvPlane.put(i, (byte) (96 + (i % 64)));
+        }
+        ByteBuffer uPlane = uvPlane.duplicate();
+        ByteBuffer vPlane = uvPlane.duplicate();
+        vPlane.position(1);
+        vPlane = vPlane.slice();
+
+        FrameQualityGate qualityGate = new FrameQualityGate();
+        SceneChangeGate sceneGate = new SceneChangeGate();
+        YuvToRgbConverter converter = new YuvToRgbConverter();
+        int[] hashGrid = new int[PerceptualHash.GRID_WIDTH * PerceptualHash.GRID_HEIGHT];
+        ByteArrayPool pool = new ByteArrayPool(1024 * 1024);
+        PooledByteArrayOutputStream[] inFlight = new PooledByteArrayOutputStream[2];
+
+        BufferedImage frameImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] argb = ((DataBufferInt) frameImage.getRaster().getDataBuffer()).getData();
+        ImageWriter jpegWriter = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam jpegParam = jpegWriter.getDefaultWriteParam();
+        jpegParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        jpegParam.setCompressionQuality(0.9f);
+
+        int warmup = 4;
+        int frames = 20;
+        long poolAllocationsAfterWarmup = 0;
+        int uploads = 0;
+        for (int frame = 0; frame < warmup + frames; frame++) {
+            if (frame == warmup) {
+                poolAllocationsAfterWarmup = pool.getAllocationCount();
+            }
+            ByteBuffer y = yPlanes[frame & 1];
+            if (qualityGate.evaluate(y, rowStride, 1, width, height) != FrameQualityGate.Verdict.OK
+                    || !sceneGate.hasChanged(y, rowStride, 1, width, height)) {
+                continue;
+            }
+            PerceptualHash.fromLuma(y, rowStride, 1, width, height, hashGrid);
+            converter.convert(y, rowStride, 1, uPlane, vPlane, rowStride, 2, width, height, argb);
+
+            // Request terlama dilepas saat slotnya dipakai ulang; perkiraan ukuran sama
+            // dengan BitmapUtils.toJpeg untuk Bitmap ARGB_8888
+            int slot = frame & 1;
+            if (inFlight[slot] != null) {
+                inFlight[slot].release();
+            }
+            PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(pool, width * height * 4 / 12);
+            try (ImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+                jpegWriter.setOutput(stream);
+                jpegWriter.write(null, new IIOImage(frameImage, null, null), jpegParam);
+            }
+            assertEquals((byte) 0xFF, out.getBuffer()[0]);
+            assertEquals((byte) 0xD8, out.getBuffer()[1]);
+            inFlight[slot] = out;
+            uploads++;
+        }
+        jpegWriter.dispose();
+
+        assertEquals(frames + warmup, uploads);
+        assertEquals("Buffer baru setelah pemanasan", poolAllocationsAfterWarmup, pool.getAllocationCount());
+        assertTrue(pool.getReuseCount() >= frames);
+    }
+
+    private static ByteBuffer lumaFrame(int width, int height, int rowStride, int seed) {
+        ByteBuffer plane = ByteBuffer.allocateDirect(rowStride * height);
+        Random random = new Random(seed);
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                // Pola kotak bertekstur agar lolos gerbang kualitas; fase berbeda per seed
+                int block = ((row / 13) + (col / 13) + seed) & 1;
+                plane.put(row * rowStride + col, (byte) (block * 120 + 60 + random.nextInt(8)));
+            }
+        }
+        return plane;
+    }
+}
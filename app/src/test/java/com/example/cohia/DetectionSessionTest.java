@@ -0,0 +1,175 @@
+package com.example.cohia;
+
+import android.graphics.Bitmap;
+
+import com.example.cohia.api.ClassRegistry;
+import com.example.cohia.api.PredictionBatch;
+import com.example.cohia.api.RoboflowAPI;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DetectionSessionTest {
+
+    private static class RecordingHandler implements DetectionSession.Handler {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onResult(DetectionSession session, PredictionBatch predictions) {
+            events.add(session.id + ":ok:" + predictions.size());
+        }
+
+        @Override
+        public void onError(DetectionSession session, String error) {
+            events.add(session.id + ":error:" + error);
+        }
+    }
+
+    private static PredictionBatch batchOf(int size) {
+        PredictionBatch batch = new PredictionBatch(ClassRegistry.getInstance());
+        for (int i = 0; i < size; i++) {
+            batch.add(0, 0.5f, 0, 0, 1, 1);
+        }
+        return batch;
+    }
+
+    @Test
+    public void firstOutcomeWins_laterResponsesAreIgnored() {
+        DetectionSession session = DetectionSession.live(1L, 640, 480, null, 90);
+        RecordingHandler handler = new RecordingHandler();
+        RoboflowAPI.ApiCallback callback = session.callback(Runnable::run, handler);
+
+        callback.onSuccess(batchOf(2));
+        callback.onError("timeout");
+        callback.onSuccess(batchOf(3));
+
+        assertEquals(Collections.singletonList(session.id + ":ok:2"), handler.events);
+        assertTrue(session.isFinished());
+        assertFalse(session.cancel());
+    }
+
+    @Test
+    public void resultIsDeliveredOnTheGivenExecutor() {
+        ArrayDeque<Runnable> posted = new ArrayDeque<>();
+        Executor ui = posted::add;
+        DetectionSession session = DetectionSession.live(1L, 640, 480, null, 0);
+        RecordingHandler handler = new RecordingHandler();
+
+        session.callback(ui, handler).onError("404");
+        assertTrue(handler.events.isEmpty());
+        posted.poll().run();
+        assertEquals(Collections.singletonList(session.id + ":error:404"), handler.events);
+    }
+
+    @Test
+    public void canceledSession_dropsLateResult_butSourceCanStillBeReclaimed() {
+        Bitmap source = TestBitmaps.newIdentityBitmap();
+        DetectionSession session = DetectionSession.capture(DetectionSession.Mode.CAPTURE, 5L, source);
+        RecordingHandler handler = new RecordingHandler();
+        RoboflowAPI.ApiCallback callback = session.callback(Runnable::run, handler);
+
+        assertTrue(session.cancel());
+        callback.onSuccess(batchOf(1));
+        assertTrue(handler.events.isEmpty());
+        assertSame(source, session.takeSource());
+    }
+
+    @Test
+    public void sourceBitmap_hasExactlyOneOwner() {
+        Bitmap source = TestBitmaps.newIdentityBitmap();
+        DetectionSession session = DetectionSession.capture(DetectionSession.Mode.GALLERY, 5L, source);
+        assertFalse(session.isLive());
+        assertSame(source, session.takeSource());
+        assertNull(session.takeSource());
+        assertNull(DetectionSession.live(1L, 1, 1, null, 0).takeSource());
+    }
+
+    @Test
+    public void toSource_mapsThroughTheSessionTransform() {
+        DetectionSession session = DetectionSession.live(1L, 1280, 960, null, 0);
+        PredictionBatch batch = new PredictionBatch(ClassRegistry.getInstance());
+        batch.add(0, 0.5f, 10, 20, 30, 40);
+
+        // Tanpa transformasi batch tidak diubah
+        session.toSource(batch);
+        assertEquals(10f, batch.getLeft(0), 0f);
+
+        session.setTransform(ModelInputTransform.fit(1280, 960, 640, false));
+        session.toSource(batch);
+        assertEquals(20f, batch.getLeft(0), 1e-4f);
+        assertEquals(80f, batch.getBottom(0), 1e-4f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void captureFactory_rejectsLiveMode() {
+        DetectionSession.capture(DetectionSession.Mode.LIVE, 0L, TestBitmaps.newIdentityBitmap());
+    }
+
+    /**
+     * Hasil live dan capture yang tiba bersamaan dari banyak thread jaringan selalu sampai ke
+     * session asalnya, tanpa state bersama yang menentukan rutenya.
+     */
+    @Test
+    public void concurrentLiveAndCaptureResults_areNeverMisrouted() throws Exception {
+        DetectionSession capture = DetectionSession.capture(DetectionSession.Mode.CAPTURE, 0L,
+                TestBitmaps.newIdentityBitmap());
+        List<DetectionSession> lives = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            lives.add(DetectionSession.live(i, 640, 480, null, 0));
+        }
+
+        List<Long> liveDelivered = Collections.synchronizedList(new ArrayList<>());
+        List<Long> captureDelivered = Collections.synchronizedList(new ArrayList<>());
+        DetectionSession.Handler liveHandler = new RecordingHandler() {
+            @Override
+            public void onResult(DetectionSession session, PredictionBatch predictions) {
+                assertTrue(session.isLive());
+                liveDelivered.add(session.id);
+            }
+        };
+        DetectionSession.Handler captureHandler = new RecordingHandler() {
+            @Override
+            public void onResult(DetectionSession session, PredictionBatch predictions) {
+                assertNotNull(session.takeSource());
+                captureDelivered.add(session.id);
+            }
+        };
+
+        ExecutorService network = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        RoboflowAPI.ApiCallback captureCallback = capture.callback(Runnable::run, captureHandler);
+        for (int i = 0; i < lives.size(); i++) {
+            RoboflowAPI.ApiCallback liveCallback = lives.get(i).callback(Runnable::run, liveHandler);
+            boolean alsoCapture = i == lives.size() / 2;
+            network.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                liveCallback.onSuccess(batchOf(1));
+                if (alsoCapture) {
+                    captureCallback.onSuccess(batchOf(4));
+                }
+            });
+        }
+        start.countDown();
+        network.shutdown();
+        assertTrue(network.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(200, liveDelivered.size());
+        assertFalse(liveDelivered.contains(capture.id));
+        assertEquals(Collections.singletonList(capture.id), captureDelivered);
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.cohia;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DiskResultCacheTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static String key(int i) {
+        return String.format("%064x", i);
+    }
+
+    private static byte[] payload(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    public void sha256Hex_matchesKnownVector_andStreamsLargeInput() throws IOException {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                DiskResultCache.sha256Hex(new ByteArrayInputStream("abc".getBytes(StandardCharsets.US_ASCII))));
+
+        // Aliran 64 MB yang tidak pernah dimuat utuh ke memori
+        long size = 64L * 1024 * 1024;
+        InputStream large = new InputStream() {
+            long remaining = size;
+
+            @Override
+            public int read() {
+                return remaining-- > 0 ? 0x5a : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (remaining <= 0) return -1;
+                int n = (int) Math.min(len, remaining);
+                java.util.Arrays.fill(b, off, off + n, (byte) 0x5a);
+                remaining -= n;
+                return n;
+            }
+        };
+        assertEquals(64, DiskResultCache.sha256Hex(large).length());
+    }
+
+    @Test
+    public void putThenGet_roundTrips_andSurvivesRestart() throws IOException {
+        File dir = temp.newFolder("cache");
+        DiskResultCache cache = new DiskResultCache(dir, 1024 * 1024);
+        byte[] data = payload(500, 1);
+        cache.put(key(1), data);
+        assertArrayEquals(data, cache.get(key(1)));
+
+        DiskResultCache reopened = new DiskResultCache(dir, 1024 * 1024);
+        assertEquals(1, reopened.size());
+        assertArrayEquals(data, reopened.get(key(1)));
+        assertNull(reopened.get(key(2)));
+        assertEquals(1, reopened.getHitCount());
+        assertEquals(1, reopened.getMissCount());
+    }
+
+    @Test
+    public void put_replacesExistingEntry() throws IOException {
+        DiskResultCache cache = new DiskResultCache(temp.newFolder("cache"), 1024 * 1024);
+        cache.put(key(1), payload(100, 1));
+        long before = cache.getTotalBytes();
+        byte[] replacement = payload(300, 2);
+        cache.put(key(1), replacement);
+
+        assertEquals(1, cache.size());
+        assertEquals(before + 200, cache.getTotalBytes());
+        assertArrayEquals(replacement, cache.get(key(1)));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed_whenOverBudget() throws IOException {
+        // Header 16 byte per entri: 3 entri x 316 byte muat, 4 tidak
+        DiskResultCache cache = new DiskResultCache(temp.newFolder("cache"), 1000);
+        cache.put(key(1), payload(300, 1));
+        cache.put(key(2), payload(300, 2));
+        cache.put(key(3), payload(300, 3));
+        assertNotNull(cache.get(key(1)));
+        cache.put(key(4), payload(300, 4));
+
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertTrue(cache.getTotalBytes() <= 1000);
+        assertNotNull(cache.get(key(1)));
+        assertNull(cache.get(key(2)));
+        assertNotNull(cache.get(key(3)));
+        assertNotNull(cache.get(key(4)));
+    }
+
+    @Test
+    public void restart_restoresLruOrderFromModificationTimes() throws IOException {
+        File dir = temp.newFolder("cache");
+        DiskResultCache cache = new DiskResultCache(dir, 1000);
+        cache.put(key(1), payload(300, 1));
+        cache.put(key(2), payload(300, 2));
+        cache.put(key(3), payload(300, 3));
+        long now = System.currentTimeMillis();
+        new File(dir, key(1) + ".bin").setLastModified(now);
+        new File(dir, key(2) + ".bin").setLastModified(now - 20_000);
+        new File(dir, key(3) + ".bin").setLastModified(now - 10_000);
+
+        DiskResultCache reopened = new DiskResultCache(dir, 1000);
+        reopened.put(key(4), payload(300, 4));
+        assertNull(reopened.get(key(2)));
+        assertNotNull(reopened.get(key(1)));
+        assertNotNull(reopened.get(key(3)));
+    }
+
+    @Test
+    public void restart_withSmallerBudget_trimsImmediately() throws IOException {
+        File dir = temp.newFolder("cache");
+        DiskResultCache cache = new DiskResultCache(dir, 10_000);
+        for (int i = 0; i < 5; i++) {
+            cache.put(key(i), payload(300, i));
+        }
+        DiskResultCache reopened = new DiskResultCache(dir, 700);
+        assertEquals(2, reopened.size());
+        assertEquals(2, dir.listFiles().length);
+    }
+
+    @Test
+    public void oversizedEntry_isRejected() throws IOException {
+        DiskResultCache cache = new DiskResultCache(temp.newFolder("cache"), 100);
+        try {
+            cache.put(key(1), payload(200, 1));
+            fail("Entri melebihi batas harus ditolak");
+        } catch (IOException expected) {
+            assertEquals(0, cache.size());
+        }
+    }
+
+    @Test
+    public void corruptedPayload_isDetectedAndRemoved() throws IOException {
+        File dir = temp.newFolder("cache");
+        DiskResultCache cache = new DiskResultCache(dir, 1024 * 1024);
+        cache.put(key(1), payload(500, 1));
+
+        File file = new File(dir, key(1) + ".bin");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(100);
+            int b = raf.read();
+            raf.seek(100);
+            raf.write(b ^ 0xFF);
+        }
+
+        DiskResultCache reopened = new DiskResultCache(dir, 1024 * 1024);
+        assertNull(reopened.get(key(1)));
+        assertEquals(1, reopened.getCorruptionCount());
+        assertFalse(file.exists());
+        assertEquals(0, reopened.getTotalBytes());
+
+        // Entri bisa ditulis ulang setelah pemulihan
+        byte[] fresh = payload(500, 2);
+        reopened.put(key(1), fresh);
+        assertArrayEquals(fresh, reopened.get(key(1)));
+    }
+
+    @Test
+    public void truncatedAndGarbageFiles_areRecovered() throws IOException {
+        File dir = temp.newFolder("cache");
+        DiskResultCache cache = new DiskResultCache(dir, 1024 * 1024);
+        cache.put(key(1), payload(500, 1));
+        try (RandomAccessFile raf = new RandomAccessFile(new File(dir, key(1) + ".bin"), "rw")) {
+            raf.setLength(200);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(new File(dir, key(2) + ".bin"), "rw")) {
+            raf.write("bukan entri cache".getBytes(StandardCharsets.US_ASCII));
+        }
+        // Sisa penulisan yang terhenti dan file asing diabaikan
+        assertTrue(new File(dir, key(3) + ".tmp").createNewFile());
+        assertTrue(new File(dir, "README.txt").createNewFile());
+
+        DiskResultCache reopened = new DiskResultCache(dir, 1024 * 1024);
+        assertEquals(2, reopened.size());
+        assertFalse(new File(dir, key(3) + ".tmp").exists());
+        assertNull(reopened.get(key(1)));
+        assertNull(reopened.get(key(2)));
+        assertEquals(2, reopened.getCorruptionCount());
+        assertEquals(0, reopened.size());
+    }
+
+    @Test
+    public void deletedDirectory_isRecreatedOnPut() throws IOException {
+        File dir = temp.newFolder("cache");
+        DiskResultCache cache = new DiskResultCache(dir, 1024 * 1024);
+        cache.put(key(1), payload(10, 1));
+        new File(dir, key(1) + ".bin").delete();
+        dir.delete();
+
+        cache.put(key(2), payload(10, 2));
+        assertNotNull(cache.get(key(2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void pathLikeKeys_areRejected() {
+        new DiskResultCache(temp.getRoot(), 1000).get("../rahasia");
+    }
+
+    @Test
+    public void concurrentReadersAndWriters_keepCacheConsistent() throws Exception {
+        File dir = temp.newFolder("cache");
+        DiskResultCache cache = new DiskResultCache(dir, 40 * 1024);
+        int threads = 8;
+        int operations = 300;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                Random random = new Random(thread);
+                for (int i = 0; i < operations; i++) {
+                    int k = random.nextInt(64);
+                    // Payload deterministik per kunci agar isi yang terbaca bisa diverifikasi
+                    byte[] expected = payload(200 + k * 10, k);
+                    if (random.nextBoolean()) {
+                        cache.put(key(k), expected);
+                    } else {
+                        byte[] actual = cache.get(key(k));
+                        if (actual != null) {
+                            assertArrayEquals(expected, actual);
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(0, cache.getCorruptionCount());
+        assertTrue(cache.getTotalBytes() <= 40 * 1024);
+
+        // Indeks di memori harus sama dengan isi direktori
+        long onDisk = 0;
+        int entries = 0;
+        for (File file : dir.listFiles()) {
+            assertTrue(file.getName(), file.getName().endsWith(".bin"));
+            onDisk += file.length();
+            entries++;
+        }
+        assertEquals(cache.size(), entries);
+        assertEquals(cache.getTotalBytes(), onDisk);
+        assertEquals(entries, new DiskResultCache(dir, 40 * 1024).size());
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.cohia;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pengujian host untuk {@link FrameQualityGate} pada plane luma sintetis, ditambah benchmark
+ * biaya per frame yang opsional ({@link Benchmark}, hanya dengan -Pbenchmark).
+ */
+public class FrameQualityGateTest {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+
+    // Ukuran blok sengaja tidak sejajar dengan langkah sampel
+    private static final int BLOCK = 13;
+
+    /** Pemandangan tajam: blok dengan kecerahan acak di atas gradien, plus noise ringan. */
+    private static int[] sharpScene(long seed) {
+        Random random = new Random(seed);
+        int blocksX = (WIDTH + BLOCK - 1) / BLOCK;
+        int blocksY = (HEIGHT + BLOCK - 1) / BLOCK;
+        int[] blockLuma = new int[blocksX * blocksY];
+        for (int i = 0; i < blockLuma.length; i++) {
+            blockLuma[i] = random.nextInt(100) - 50;
+        }
+        int[] luma = new int[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int value = 90 + (x + y) * 60 / (WIDTH + HEIGHT) + blockLuma[(y / BLOCK) * blocksX + x / BLOCK];
+                luma[y * WIDTH + x] = value + random.nextInt(5) - 2;
+            }
+        }
+        return luma;
+    }
+
+    /** Blur kotak terpisah; radius berbeda per sumbu mensimulasikan blur gerakan atau fokus. */
+    private static int[] boxBlur(int[] luma, int radiusX, int radiusY) {
+        int[] horizontal = new int[luma.length];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int sum = 0;
+                int count = 0;
+                for (int dx = -radiusX; dx <= radiusX; dx++) {
+                    int sx = Math.max(0, Math.min(WIDTH - 1, x + dx));
+                    sum += luma[y * WIDTH + sx];
+                    count++;
+                }
+                horizontal[y * WIDTH + x] = sum / count;
+            }
+        }
+        int[] out = new int[luma.length];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int sum = 0;
+                int count = 0;
+                for (int dy = -radiusY; dy <= radiusY; dy++) {
+                    int sy = Math.max(0, Math.min(HEIGHT - 1, y + dy));
+                    sum += horizontal[sy * WIDTH + x];
+                    count++;
+                }
+                out[y * WIDTH + x] = sum / count;
+            }
+        }
+        return out;
+    }
+
+    /** Skala kecerahan (gain) untuk mensimulasikan eksposur kurang atau berlebih. */
+    private static int[] exposure(int[] luma, double gain, int offset) {
+        int[] out = new int[luma.length];
+        for (int i = 0; i < luma.length; i++) {
+            out[i] = (int) (luma[i] * gain) + offset;
+        }
+        return out;
+    }
+
+    private static ByteBuffer toPlane(int[] luma, int rowStride, int pixelStride) {
+        byte[] data = new byte[rowStride * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                data[y * rowStride + x * pixelStride] =
+                        (byte) Math.max(0, Math.min(255, luma[y * WIDTH + x]));
+            }
+        }
+        return ByteBuffer.wrap(data);
+    }
+
+    private static FrameQualityGate.Verdict evaluate(FrameQualityGate gate, int[] luma) {
+        return gate.evaluate(toPlane(luma, WIDTH, 1), WIDTH, 1, WIDTH, HEIGHT);
+    }
+
+    @Test
+    public void sharpFrame_passes() {
+        FrameQualityGate gate = new FrameQualityGate();
+        assertEquals(FrameQualityGate.Verdict.OK, evaluate(gate, sharpScene(1)));
+        assertTrue(gate.getLastSharpness() > 40);
+    }
+
+    @Test
+    public void defocusBlur_isRejected() {
+        FrameQualityGate gate = new FrameQualityGate();
+        int[] sharp = sharpScene(2);
+        evaluate(gate, sharp);
+        double sharpScore = gate.getLastSharpness();
+
+        assertEquals(FrameQualityGate.Verdict.BLURRY, evaluate(gate, boxBlur(sharp, 4, 4)));
+        assertTrue(gate.getLastSharpness() < sharpScore / 10);
+    }
+
+    @Test
+    public void motionBlur_isRejected() {
+        FrameQualityGate gate = new FrameQualityGate();
+        assertEquals(FrameQualityGate.Verdict.BLURRY, evaluate(gate, boxBlur(sharpScene(3), 12, 2)));
+    }
+
+    @Test
+    public void darkFrame_isUnderexposed() {
+        FrameQualityGate gate = new FrameQualityGate();
+        assertEquals(FrameQualityGate.Verdict.UNDEREXPOSED,
+                evaluate(gate, exposure(sharpScene(4), 0.15, 0)));
+        assertTrue(gate.getLastMeanLuma() < 35);
+    }
+
+    @Test
+    public void blownOutFrame_isOverexposed() {
+        FrameQualityGate gate = new FrameQualityGate();
+        assertEquals(FrameQualityGate.Verdict.OVEREXPOSED,
+                evaluate(gate, exposure(sharpScene(5), 1.0, 140)));
+    }
+
+    @Test
+    public void stridesAndBufferPosition_areHonoured() {
+        int[] luma = sharpScene(6);
+        FrameQualityGate packedGate = new FrameQualityGate();
+        packedGate.evaluate(toPlane(luma, WIDTH, 1), WIDTH, 1, WIDTH, HEIGHT);
+
+        FrameQualityGate stridedGate = new FrameQualityGate();
+        ByteBuffer strided = toPlane(luma, WIDTH * 2 + 32, 2);
+        strided.position(0);
+        stridedGate.evaluate(strided, WIDTH * 2 + 32, 2, WIDTH, HEIGHT);
+
+        assertEquals(packedGate.getLastSharpness(), stridedGate.getLastSharpness(), 1e-9);
+        assertEquals(packedGate.getLastMeanLuma(), stridedGate.getLastMeanLuma(), 1e-9);
+        assertEquals(0, strided.position());
+    }
+
+    @Test
+    public void counters_trackRejectRatio() {
+        FrameQualityGate gate = new FrameQualityGate();
+        int[] sharp = sharpScene(7);
+        evaluate(gate, sharp);
+        evaluate(gate, sharp);
+        evaluate(gate, boxBlur(sharp, 4, 4));
+        evaluate(gate, exposure(sharp, 0.1, 0));
+
+        assertEquals(4, gate.getEvaluatedCount());
+        assertEquals(2, gate.getCount(FrameQualityGate.Verdict.OK));
+        assertEquals(1, gate.getCount(FrameQualityGate.Verdict.BLURRY));
+        assertEquals(1, gate.getCount(FrameQualityGate.Verdict.UNDEREXPOSED));
+        assertEquals(0.5, gate.getRejectRatio(), 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSampleStep_isRejected() {
+        FrameQualityGate.Config config = new FrameQualityGate.Config();
+        config.sampleStep = 0;
+        new FrameQualityGate(config);
+    }
+
+    @Test
+    public void benchmark_perFrameCost() throws Exception {
+        Benchmark.assumeEnabled();
+        FrameQualityGate gate = new FrameQualityGate();
+        ByteBuffer plane = toPlane(sharpScene(8), WIDTH, 1);
+        ByteBuffer direct = ByteBuffer.allocateDirect(plane.capacity());
+        direct.put(plane);
+        direct.rewind();
+
+        double gateMs = Benchmark.millisPerRun(200, 1000, () -> gate.evaluate(direct, WIDTH, 1, WIDTH, HEIGHT));
+
+        Benchmark.report("Quality gate %dx%d (langkah %d): %.3f ms/frame, ketajaman %.1f",
+                WIDTH, HEIGHT, new FrameQualityGate.Config().sampleStep, gateMs, gate.getLastSharpness());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.cohia;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void emptyHistogram_reportsZeros() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.count);
+        assertEquals(0.0, snapshot.p99Millis, 0.0);
+        assertEquals(0, histogram.percentileNanos(0.5));
+    }
+
+    @Test
+    public void percentiles_areWithinOneBucketOfExactValue() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1..1000 ms, sekali masing-masing
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * MS);
+        }
+        LatencyHistogram.Snapshot s = histogram.snapshot();
+        assertEquals(1000, s.count);
+        assertEquals(500.5, s.meanMillis, 1e-6);
+        assertEquals(1000.0, s.maxMillis, 1e-6);
+        assertBetween(500, 500 * 1.25, s.p50Millis);
+        assertBetween(950, 950 * 1.25, s.p95Millis);
+        assertBetween(990, 1000, s.p99Millis);
+    }
+
+    @Test
+    public void tailLatency_isVisibleInP99_butNotP50() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 98; i++) {
+            histogram.record(20 * MS);
+        }
+        histogram.record(900 * MS);
+        histogram.record(900 * MS);
+        LatencyHistogram.Snapshot s = histogram.snapshot();
+        assertBetween(20, 25, s.p50Millis);
+        assertBetween(20, 25, s.p95Millis);
+        assertBetween(900, 900, s.p99Millis);
+    }
+
+    @Test
+    public void bucketBounds_coverEveryValueContiguously() {
+        for (long nanos : new long[]{0, 1, 1023, 1024, 1279, 1280, 1536, 2047, 2048, 5 * MS, 60_000 * MS}) {
+            int bucket = LatencyHistogram.bucketOf(nanos);
+            assertTrue(nanos + " di bucket " + bucket, nanos < LatencyHistogram.upperBoundOf(bucket));
+            if (bucket > 0) {
+                assertTrue(nanos >= LatencyHistogram.upperBoundOf(bucket - 1));
+            }
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void negativeSamples_areClampedToZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.percentileNanos(1.0));
+    }
+
+    @Test
+    public void concurrentWriters_neverLoseSamples() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 8;
+        int perThread = 50_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long value = (t + 1) * MS;
+            Thread writer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    histogram.record(value);
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        LatencyHistogram.Snapshot s = histogram.snapshot();
+        assertEquals((long) threads * perThread, s.count);
+        assertEquals(threads, s.maxMillis, 1e-9);
+        assertEquals(4.5, s.meanMillis, 1e-9);
+    }
+
+    @Test
+    public void reset_clearsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3 * MS);
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().count);
+        assertEquals(0.0, histogram.snapshot().maxMillis, 0.0);
+    }
+
+    private static void assertBetween(double low, double high, double actual) {
+        assertTrue(actual + " tidak di antara " + low + " dan " + high, actual >= low && actual <= high);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.cohia;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class LatencyTracerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final LatencyTracer tracer = new LatencyTracer(now::get);
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    public void record_measuresFromStartWithInjectedClock() {
+        long start = tracer.start();
+        advanceMillis(12);
+        tracer.record(LatencyTracer.Stage.JPEG_ENCODE, start);
+
+        LatencyHistogram.Snapshot s = tracer.snapshot(LatencyTracer.Stage.JPEG_ENCODE);
+        assertEquals(1, s.count);
+        assertEquals(12.0, s.maxMillis, 1e-9);
+        assertEquals(0, tracer.snapshot(LatencyTracer.Stage.PARSE).count);
+    }
+
+    @Test
+    public void endToEnd_usesSessionStartFromSameClock() {
+        DetectionSession session = DetectionSession.live(tracer.start(), 640, 480, null, 0);
+        advanceMillis(250);
+        tracer.record(LatencyTracer.Stage.LIVE_TOTAL, session.startNanos);
+        assertEquals(250.0, tracer.snapshot(LatencyTracer.Stage.LIVE_TOTAL).maxMillis, 1e-9);
+    }
+
+    @Test
+    public void summary_listsOnlyStagesWithSamples() {
+        assertEquals("", tracer.formatSummary());
+
+        tracer.recordDuration(LatencyTracer.Stage.GATE, TimeUnit.MILLISECONDS.toNanos(2));
+        tracer.recordDuration(LatencyTracer.Stage.TTFB, TimeUnit.MILLISECONDS.toNanos(180));
+        String[] lines = tracer.formatSummary().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("p99"));
+        assertTrue(lines[1].startsWith("gate"));
+        assertTrue(lines[2].startsWith("ttfb"));
+        assertTrue(lines[2].endsWith("n=1"));
+    }
+
+    @Test
+    public void jsonDump_hasEveryStageWithStableSchema() throws Exception {
+        tracer.recordDuration(LatencyTracer.Stage.PARSE, TimeUnit.MILLISECONDS.toNanos(4));
+        StringWriter out = new StringWriter();
+        tracer.writeJson(out);
+
+        JsonObject root = JsonParser.parseString(out.toString()).getAsJsonObject();
+        JsonArray stages = root.getAsJsonArray("stages");
+        assertEquals(LatencyTracer.Stage.values().length, stages.size());
+        for (int i = 0; i < stages.size(); i++) {
+            JsonObject stage = stages.get(i).getAsJsonObject();
+            assertEquals(LatencyTracer.Stage.values()[i].label, stage.get("stage").getAsString());
+            for (String key : new String[]{"count", "mean_ms", "p50_ms", "p95_ms", "p99_ms", "max_ms"}) {
+                assertTrue(key, stage.has(key));
+            }
+            long expected = LatencyTracer.Stage.values()[i] == LatencyTracer.Stage.PARSE ? 1 : 0;
+            assertEquals(expected, stage.get("count").getAsLong());
+        }
+    }
+
+    @Test
+    public void reset_clearsAllStages() {
+        tracer.recordDuration(LatencyTracer.Stage.RENDER, 1000);
+        tracer.reset();
+        assertEquals(0, tracer.snapshot(LatencyTracer.Stage.RENDER).count);
+    }
+}
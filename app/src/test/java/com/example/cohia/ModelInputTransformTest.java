@@ -0,0 +1,77 @@
+package com.example.cohia;
+
+import com.example.cohia.api.ClassRegistry;
+import com.example.cohia.api.PredictionBatch;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ModelInputTransformTest {
+
+    private static final float EPS = 0.01f;
+
+    @Test
+    public void fit_downscalesLongestSideToInputSize() {
+        ModelInputTransform t = ModelInputTransform.fit(4000, 3000, 640, false);
+
+        assertEquals(640, t.targetWidth);
+        assertEquals(480, t.targetHeight);
+        assertEquals(0.16f, t.scale, 1e-6);
+        assertFalse(t.isIdentity());
+    }
+
+    @Test
+    public void fit_neverUpscalesSmallImages() {
+        ModelInputTransform t = ModelInputTransform.fit(640, 480, 640, false);
+
+        assertTrue(t.isIdentity());
+        assertEquals(320f, t.toSourceX(320f), EPS);
+    }
+
+    @Test
+    public void letterbox_centersContentOnSquareCanvas() {
+        ModelInputTransform t = ModelInputTransform.fit(4000, 3000, 640, true);
+
+        assertEquals(640, t.targetWidth);
+        assertEquals(640, t.targetHeight);
+        assertEquals(0f, t.offsetX, EPS);
+        assertEquals(80f, t.offsetY, EPS);
+    }
+
+    @Test
+    public void toSource_mapsLetterboxedBoxBackToOriginalPixels() {
+        ModelInputTransform t = ModelInputTransform.fit(4000, 3000, 640, true);
+        // Kotak (1000,750)-(2000,1500) di gambar asli -> (160,200)-(320,320) di input model
+        float[] box = {160f, 200f, 320f, 320f};
+
+        t.toSource(box);
+
+        assertArrayEquals(new float[]{1000f, 750f, 2000f, 1500f}, box, 0.5f);
+    }
+
+    @Test
+    public void toSource_clampsBoxesInsidePaddingToImageBounds() {
+        ModelInputTransform t = ModelInputTransform.fit(3000, 4000, 640, true);
+        float[] box = {0f, -10f, 640f, 700f};
+
+        t.toSource(box);
+
+        assertArrayEquals(new float[]{0f, 0f, 3000f, 4000f}, box, EPS);
+    }
+
+    @Test
+    public void toSource_mapsEveryBoxOfBatchInPlace() {
+        ModelInputTransform t = ModelInputTransform.fit(4000, 3000, 640, true);
+        PredictionBatch batch = new PredictionBatch(new ClassRegistry());
+        batch.add(0, 0.9f, 160f, 200f, 320f, 320f);
+        batch.add(0, 0.8f, 0f, 80f, 640f, 560f);
+
+        t.toSource(batch);
+
+        assertArrayEquals(new float[]{1000f, 750f, 2000f, 1500f, 0f, 0f, 4000f, 3000f},
+                Arrays.copyOf(batch.getBoxes(), 8), 0.5f);
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.cohia;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pengujian host untuk {@link ObjectTracker} dengan urutan deteksi terekam
+ * (sintetis): hasil server setiap 1,5 detik, overlay ditanya pada 30 fps.
+ */
+public class ObjectTrackerTest {
+
+    private static final long FRAME_NANOS = 33_333_333L;
+    private static final long RESULT_NANOS = 1_500_000_000L;
+
+    private final float[] boxes = new float[ObjectTracker.DEFAULT_CAPACITY * 4];
+    private final float[] confidences = new float[ObjectTracker.DEFAULT_CAPACITY];
+    private final int[] classIds = new int[ObjectTracker.DEFAULT_CAPACITY];
+    private final int[] trackIds = new int[ObjectTracker.DEFAULT_CAPACITY];
+
+    private static void box(float[] out, int index, float cx, float cy, float w, float h) {
+        out[index * 4] = cx - w / 2;
+        out[index * 4 + 1] = cy - h / 2;
+        out[index * 4 + 2] = cx + w / 2;
+        out[index * 4 + 3] = cy + h / 2;
+    }
+
+    @Test
+    public void hungarian_findsGlobalMinimumWhereGreedyFails() {
+        // Greedy memilih (0,0)=1 lalu terpaksa (1,1)=10; optimum (0,1)+(1,0) = 2+2
+        float[] cost = {1, 2, 2, 10};
+        int[] assignment = new int[2];
+        double total = new HungarianSolver(4).solve(cost, 2, assignment);
+        assertEquals(4.0, total, 1e-6);
+        assertEquals(1, assignment[0]);
+        assertEquals(0, assignment[1]);
+    }
+
+    @Test
+    public void hungarian_matchesBruteForceOnRandomMatrices() {
+        Random random = new Random(7);
+        HungarianSolver solver = new HungarianSolver(6);
+        int[] assignment = new int[6];
+        for (int trial = 0; trial < 200; trial++) {
+            int n = 1 + random.nextInt(6);
+            float[] cost = new float[n * n];
+            for (int i = 0; i < cost.length; i++) {
+                cost[i] = random.nextInt(100) / 10f;
+            }
+            double total = solver.solve(cost, n, assignment);
+            assertEquals("Percobaan " + trial, bruteForce(cost, n, 0, new boolean[n]), total, 1e-4);
+            boolean[] seen = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                assertFalse(seen[assignment[i]]);
+                seen[assignment[i]] = true;
+            }
+        }
+    }
+
+    private static double bruteForce(float[] cost, int n, int row, boolean[] used) {
+        if (row == n) return 0;
+        double best = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < n; j++) {
+            if (!used[j]) {
+                used[j] = true;
+                best = Math.min(best, cost[row * n + j] + bruteForce(cost, n, row + 1, used));
+                used[j] = false;
+            }
+        }
+        return best;
+    }
+
+    @Test
+    public void iou_handlesOverlapAndDisjointBoxes() {
+        float[] a = {0, 0, 10, 10};
+        assertEquals(1f, ObjectTracker.iou(a, new float[]{0, 0, 10, 10}, 0), 1e-6f);
+        assertEquals(25f / 175f, ObjectTracker.iou(a, new float[]{5, 5, 15, 15}, 0), 1e-6f);
+        assertEquals(0f, ObjectTracker.iou(a, new float[]{10, 0, 20, 10}, 0), 1e-6f);
+    }
+
+    @Test
+    public void movingObject_keepsIdAndIsInterpolatedBetweenResults() {
+        ObjectTracker tracker = new ObjectTracker();
+        // Objek bergerak 60 px/detik ke kanan; hasil setiap 1,5 detik
+        float speed = 60f;
+        int stableId = -1;
+        double errorSum = 0;
+        int errorSamples = 0;
+        for (long t = 0; t <= 15 * 1_000_000_000L; t += FRAME_NANOS) {
+            float trueX = 100 + speed * t / 1e9f;
+            if (t % RESULT_NANOS < FRAME_NANOS) {
+                box(boxes, 0, trueX, 240, 80, 60);
+                confidences[0] = 0.9f;
+                classIds[0] = 3;
+                tracker.update(t, boxes, confidences, classIds, 1);
+            }
+            float[] out = new float[4 * ObjectTracker.DEFAULT_CAPACITY];
+            int count = tracker.snapshot(t, out, confidences, classIds, trackIds);
+            assertEquals(1, count);
+            if (stableId < 0) {
+                stableId = trackIds[0];
+            }
+            assertEquals("ID track harus stabil", stableId, trackIds[0]);
+            assertEquals(3, classIds[0]);
+            // Setelah kecepatan terkonvergensi (>6 detik), posisi interpolasi mengikuti objek
+            if (t > 6 * 1_000_000_000L) {
+                errorSum += Math.abs((out[0] + out[2]) / 2 - trueX);
+                errorSamples++;
+            }
+        }
+        double meanError = errorSum / errorSamples;
+        // Tanpa ekstrapolasi galat rata-rata akan sekitar 45 px (60 px/s x 0,75 s)
+        assertTrue("Galat rata-rata " + meanError + " px", meanError < 15);
+    }
+
+    @Test
+    public void crossingObjects_keepTheirIds() {
+        ObjectTracker tracker = new ObjectTracker();
+        int idA = -1;
+        int idB = -1;
+        // Dua objek kelas sama bergerak berlawanan dan berpapasan di tengah
+        for (int step = 0; step <= 12; step++) {
+            long t = step * RESULT_NANOS / 3;
+            float ax = 100 + step * 30;
+            float bx = 460 - step * 30;
+            box(boxes, 0, bx, 200, 60, 60);
+            box(boxes, 1, ax, 260, 60, 60);
+            confidences[0] = confidences[1] = 0.8f;
+            classIds[0] = classIds[1] = 1;
+            tracker.update(t, boxes, confidences, classIds, 2);
+
+            float[] out = new float[4 * ObjectTracker.DEFAULT_CAPACITY];
+            assertEquals(2, tracker.snapshot(t, out, confidences, classIds, trackIds));
+            for (int i = 0; i < 2; i++) {
+                float cy = (out[i * 4 + 1] + out[i * 4 + 3]) / 2;
+                if (cy > 230) {
+                    if (idA < 0) idA = trackIds[i];
+                    assertEquals("Objek A di langkah " + step, idA, trackIds[i]);
+                } else {
+                    if (idB < 0) idB = trackIds[i];
+                    assertEquals("Objek B di langkah " + step, idB, trackIds[i]);
+                }
+            }
+        }
+        assertNotEquals(idA, idB);
+    }
+
+    @Test
+    public void differentClass_startsNewTrack_andMissedTracksExpire() {
+        ObjectTracker tracker = new ObjectTracker();
+        box(boxes, 0, 100, 100, 50, 50);
+        classIds[0] = 1;
+        tracker.update(0, boxes, confidences, classIds, 1);
+        classIds[0] = 2;
+        tracker.update(RESULT_NANOS, boxes, confidences, classIds, 1);
+        // Track kelas 1 kehilangan satu update tetapi masih bertahan (maxMisses = 1)
+        assertEquals(2, tracker.getTrackCount());
+
+        tracker.update(2 * RESULT_NANOS, boxes, confidences, classIds, 0);
+        assertEquals(1, tracker.getTrackCount());
+        tracker.update(3 * RESULT_NANOS, boxes, confidences, classIds, 0);
+        assertEquals(0, tracker.getTrackCount());
+    }
+
+    @Test
+    public void extrapolation_isCappedAfterObjectDisappears() {
+        ObjectTracker.Config config = new ObjectTracker.Config();
+        config.maxExtrapolationMillis = 1000;
+        config.maxAgeMillis = 10_000;
+        ObjectTracker tracker = new ObjectTracker(8, config);
+        for (int step = 0; step < 6; step++) {
+            box(boxes, 0, 100 + step * 50, 100, 40, 40);
+            tracker.update(step * 500_000_000L, boxes, confidences, classIds, 1);
+        }
+        float[] out = new float[32];
+        tracker.snapshot(2_500_000_000L + 1_000_000_000L, out, confidences, classIds, trackIds);
+        float atCap = out[0];
+        tracker.snapshot(2_500_000_000L + 5_000_000_000L, out, confidences, classIds, trackIds);
+        assertEquals(atCap, out[0], 1e-3f);
+    }
+
+    @Test
+    public void excessDetections_areIgnoredBeyondCapacity() {
+        ObjectTracker tracker = new ObjectTracker(4, new ObjectTracker.Config());
+        float[] many = new float[10 * 4];
+        float[] manyConfidences = new float[10];
+        int[] manyClasses = new int[10];
+        for (int i = 0; i < 10; i++) {
+            box(many, i, 50 + i * 60, 100, 40, 40);
+        }
+        tracker.update(0, many, manyConfidences, manyClasses, 10);
+        assertEquals(4, tracker.getTrackCount());
+    }
+
+    @Test
+    public void fullTracker_keepsEveryIdUnderJitter() {
+        ObjectTracker tracker = new ObjectTracker();
+        Random random = new Random(11);
+        int n = ObjectTracker.DEFAULT_CAPACITY;
+        int[] firstIds = null;
+        float[] out = new float[n * 4];
+        for (int round = 0; round < 20; round++) {
+            long t = round * RESULT_NANOS;
+            for (int i = 0; i < n; i++) {
+                box(boxes, i, 20 + (i % 8) * 78 + random.nextFloat() * 4,
+                        30 + (i / 8) * 110 + random.nextFloat() * 4, 60, 60);
+                classIds[i] = i % 3;
+            }
+            tracker.update(t, boxes, confidences, classIds, n);
+            assertEquals(n, tracker.snapshot(t + FRAME_NANOS, out, confidences, classIds, trackIds));
+            int[] ids = Arrays.copyOf(trackIds, n);
+            Arrays.sort(ids);
+            if (firstIds == null) {
+                firstIds = ids;
+            }
+            assertArrayEquals("Ronde " + round, firstIds, ids);
+        }
+    }
+
+    @Test
+    public void staleTracks_expireInSnapshot_andStopAnimating() {
+        ObjectTracker.Config config = new ObjectTracker.Config();
+        config.maxExtrapolationMillis = 1000;
+        config.maxAgeMillis = 3000;
+        ObjectTracker tracker = new ObjectTracker(8, config);
+        for (int step = 0; step < 4; step++) {
+            box(boxes, 0, 100 + step * 50, 100, 40, 40);
+            tracker.update(step * 500_000_000L, boxes, confidences, classIds, 1);
+        }
+        long last = 1_500_000_000L;
+        float[] out = new float[32];
+
+        assertTrue(tracker.isExtrapolating(last + 500_000_000L));
+        // Setelah batas ekstrapolasi kotak diam, tetapi masih tampil sampai kedaluwarsa
+        assertFalse(tracker.isExtrapolating(last + 1_000_000_000L));
+        assertEquals(1, tracker.snapshot(last + 2_000_000_000L, out, confidences, classIds, trackIds));
+        assertEquals(1_000_000_000L, tracker.nanosUntilNextExpiry(last + 2_000_000_000L));
+
+        assertEquals(0, tracker.snapshot(last + 3_000_000_001L, out, confidences, classIds, trackIds));
+        assertEquals(0, tracker.getTrackCount());
+        assertEquals(-1, tracker.nanosUntilNextExpiry(last + 3_000_000_001L));
+    }
+}
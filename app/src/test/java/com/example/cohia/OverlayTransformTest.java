@@ -0,0 +1,113 @@
+package com.example.cohia;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OverlayTransformTest {
+
+    private static final float EPS = 1e-3f;
+
+    private static void assertPoint(OverlayTransform t, float x, float y, float expectedX, float expectedY) {
+        assertEquals("x dari (" + x + ", " + y + ")", expectedX, t.mapX(x, y), EPS);
+        assertEquals("y dari (" + x + ", " + y + ")", expectedY, t.mapY(x, y), EPS);
+    }
+
+    @Test
+    public void noRotation_sameAspect_scalesUniformly() {
+        OverlayTransform t = new OverlayTransform();
+        t.set(0, 0, 640, 480, 0, false, 1280, 960, true);
+        assertPoint(t, 0, 0, 0, 0);
+        assertPoint(t, 640, 480, 1280, 960);
+        assertPoint(t, 100, 50, 200, 100);
+    }
+
+    @Test
+    public void rotation90_mapsSensorCornersToPortraitView() {
+        // Buffer lanskap 640x480 diputar 90 derajat menjadi potret 480x640, view 3x lebih besar
+        OverlayTransform t = new OverlayTransform();
+        t.set(0, 0, 640, 480, 90, false, 1440, 1920, true);
+        // Sudut kiri atas sensor menjadi kanan atas layar
+        assertPoint(t, 0, 0, 1440, 0);
+        assertPoint(t, 640, 0, 1440, 1920);
+        assertPoint(t, 0, 480, 0, 0);
+        assertPoint(t, 640, 480, 0, 1920);
+    }
+
+    @Test
+    public void rotation180And270_matchClockwiseConvention() {
+        OverlayTransform t = new OverlayTransform();
+        t.set(0, 0, 640, 480, 180, false, 640, 480, true);
+        assertPoint(t, 0, 0, 640, 480);
+        assertPoint(t, 640, 0, 0, 480);
+
+        t.set(0, 0, 640, 480, 270, false, 480, 640, true);
+        assertPoint(t, 0, 0, 0, 640);
+        assertPoint(t, 640, 0, 0, 0);
+        assertPoint(t, 0, 480, 480, 640);
+    }
+
+    @Test
+    public void fillCenter_cropsOverflowingAxisSymmetrically() {
+        // Gambar 4:3 di view 16:9 (lanskap): lebar pas, tinggi terpotong
+        OverlayTransform t = new OverlayTransform();
+        t.set(0, 0, 640, 480, 0, false, 1600, 900, true);
+        float scale = 2.5f;
+        float offsetY = (900 - 480 * scale) / 2f;
+        assertPoint(t, 0, 0, 0, offsetY);
+        assertPoint(t, 640, 480, 1600, 900 - offsetY);
+        assertTrue(offsetY < 0);
+    }
+
+    @Test
+    public void fitCenter_letterboxesShortAxis() {
+        OverlayTransform t = new OverlayTransform();
+        t.set(0, 0, 1000, 500, 0, false, 800, 800, false);
+        assertPoint(t, 0, 0, 0, 200);
+        assertPoint(t, 1000, 500, 800, 600);
+    }
+
+    @Test
+    public void cropRect_isSubtractedBeforeScaling() {
+        // Crop 480x480 di tengah buffer 640x480 (ViewPort persegi)
+        OverlayTransform t = new OverlayTransform();
+        t.set(80, 0, 560, 480, 0, false, 960, 960, true);
+        assertPoint(t, 80, 0, 0, 0);
+        assertPoint(t, 560, 480, 960, 960);
+        assertPoint(t, 320, 240, 480, 480);
+    }
+
+    @Test
+    public void mirrored_flipsHorizontallyAfterRotation() {
+        OverlayTransform t = new OverlayTransform();
+        t.set(0, 0, 640, 480, 270, true, 480, 640, true);
+        // Tanpa cermin (0,0) -> (0, 640); dengan cermin x dibalik
+        assertPoint(t, 0, 0, 480, 640);
+        assertPoint(t, 640, 480, 0, 0);
+    }
+
+    @Test
+    public void mapBox_normalizesCornersAndSupportsInPlace() {
+        OverlayTransform t = new OverlayTransform();
+        t.set(0, 0, 640, 480, 90, false, 480, 640, true);
+        float[] boxes = {-1, -1, -1, -1, 100, 50, 200, 150};
+        t.mapBox(boxes, 4, boxes, 4);
+        assertArrayEquals(new float[]{-1, -1, -1, -1, 330, 100, 430, 200}, boxes, EPS);
+    }
+
+    @Test
+    public void mapBox_writesToSeparateDestination() {
+        OverlayTransform t = new OverlayTransform();
+        t.set(0, 0, 640, 480, 90, false, 480, 640, true);
+        float[] src = {100, 50, 200, 150};
+        float[] dst = new float[4];
+        t.mapBox(src, 0, dst, 0);
+        assertArrayEquals(new float[]{100, 50, 200, 150}, src, 0f);
+        assertArrayEquals(new float[]{330, 100, 430, 200}, dst, EPS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonRightAngleRotation_isRejected() {
+        new OverlayTransform().set(0, 0, 640, 480, 45, false, 100, 100, true);
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.cohia;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pengujian host untuk {@link PerceptualHash} dan {@link PerceptualHashCache}, ditambah
+ * benchmark hash dan lookup yang opsional ({@link Benchmark}, hanya dengan -Pbenchmark).
+ */
+public class PerceptualHashCacheTest {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+
+    /** Jam palsu yang hanya maju saat digeser secara eksplisit. */
+    private static class FakeClock implements MonotonicClock {
+        long now = 987_654_321L;
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+
+        void advanceMillis(long millis) {
+            now += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+    }
+
+    /** Pemandangan sintetis: blok berkecerahan acak di atas gradien, dengan noise sensor opsional. */
+    private static byte[] scene(long sceneSeed, int noise, long noiseSeed) {
+        Random layout = new Random(sceneSeed);
+        int[] blocks = new int[8 * 6];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = 30 + layout.nextInt(160);
+        }
+        Random random = new Random(noiseSeed);
+        byte[] luma = new byte[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int value = blocks[(y / 80) * 8 + x / 80] + (x + y) / 20;
+                if (noise > 0) {
+                    value += random.nextInt(2 * noise + 1) - noise;
+                }
+                luma[y * WIDTH + x] = (byte) Math.max(0, Math.min(255, value));
+            }
+        }
+        return luma;
+    }
+
+    private static long hash(byte[] luma) {
+        return PerceptualHash.fromLuma(ByteBuffer.wrap(luma), WIDTH, 1, WIDTH, HEIGHT, new int[72]);
+    }
+
+    @Test
+    public void sameScene_withNoise_hashesWithinTolerance() {
+        long clean = hash(scene(1, 0, 0));
+        long noisy = hash(scene(1, 6, 42));
+        assertTrue(PerceptualHash.distance(clean, noisy) <= PerceptualHashCache.DEFAULT_MAX_DISTANCE);
+    }
+
+    @Test
+    public void differentScenes_hashFarApart() {
+        long a = hash(scene(1, 0, 0));
+        long b = hash(scene(2, 0, 0));
+        assertTrue(PerceptualHash.distance(a, b) > 16);
+    }
+
+    @Test
+    public void argbAndLumaPaths_agreeOnSameImage() {
+        byte[] luma = scene(3, 0, 0);
+        int[] argb = new int[luma.length];
+        for (int i = 0; i < luma.length; i++) {
+            int v = luma[i] & 0xFF;
+            argb[i] = 0xFF000000 | v << 16 | v << 8 | v;
+        }
+        long fromArgb = PerceptualHash.fromArgb(argb, WIDTH, HEIGHT, new int[72]);
+        assertTrue(PerceptualHash.distance(hash(luma), fromArgb) <= 2);
+    }
+
+    @Test
+    public void hashIsIndependentOfResolution() {
+        // Gambar yang sama dalam ukuran setengah
+        byte[] full = scene(4, 0, 0);
+        int[] half = new int[(WIDTH / 2) * (HEIGHT / 2)];
+        for (int y = 0; y < HEIGHT / 2; y++) {
+            for (int x = 0; x < WIDTH / 2; x++) {
+                int v = full[(y * 2) * WIDTH + x * 2] & 0xFF;
+                half[y * (WIDTH / 2) + x] = 0xFF000000 | v << 16 | v << 8 | v;
+            }
+        }
+        long halfHash = PerceptualHash.fromArgb(half, WIDTH / 2, HEIGHT / 2, new int[72]);
+        assertTrue(PerceptualHash.distance(hash(full), halfHash) <= 2);
+    }
+
+    @Test
+    public void get_returnsExactAndNearMatches() {
+        PerceptualHashCache<String> cache = new PerceptualHashCache<>(8, 4, 60_000, new FakeClock());
+        cache.put(0b1010L, "a");
+
+        assertEquals("a", cache.get(0b1010L));
+        assertEquals("a", cache.get(0b1010L ^ 0b1111L << 20)); // 4 bit berbeda
+        assertNull(cache.get(0b1010L ^ 0b11111L << 20));       // 5 bit berbeda
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2.0 / 3, cache.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    public void get_prefersClosestEntry() {
+        PerceptualHashCache<String> cache = new PerceptualHashCache<>(8, 8, 60_000, new FakeClock());
+        cache.put(0L, "jauh");
+        cache.put(0b111L, "dekat");
+        assertEquals("dekat", cache.get(0b1111L));
+    }
+
+    @Test
+    public void entriesExpireAfterTtl() {
+        FakeClock clock = new FakeClock();
+        PerceptualHashCache<String> cache = new PerceptualHashCache<>(8, 4, 1000, clock);
+        cache.put(1L, "a");
+        cache.put(1L << 40, "b");
+
+        clock.advanceMillis(999);
+        assertEquals("a", cache.get(1L));
+        clock.advanceMillis(1);
+        assertNull(cache.get(1L));
+        assertNull(cache.get((1L << 40) | 1));
+        assertEquals(2, cache.getExpiredCount());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        PerceptualHashCache<String> cache = new PerceptualHashCache<>(2, 0, 60_000, new FakeClock());
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        cache.get(1L);
+        cache.put(3L, "c");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals("a", cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals("c", cache.get(3L));
+    }
+
+    @Test
+    public void nearHit_refreshesRecency() {
+        PerceptualHashCache<String> cache = new PerceptualHashCache<>(2, 4, 60_000, new FakeClock());
+        cache.put(0L, "a");
+        cache.put(-1L, "b");
+        assertEquals("a", cache.get(0b11L));
+        cache.put(0xF0F0F0F0L, "c");
+
+        assertEquals("a", cache.get(0L));
+        assertNull(cache.get(-1L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidDistance_isRejected() {
+        new PerceptualHashCache<String>(8, 65, 1000, new FakeClock());
+    }
+
+    @Test
+    public void benchmark_hashAndLookup() throws Exception {
+        Benchmark.assumeEnabled();
+        ByteBuffer frame = ByteBuffer.allocateDirect(WIDTH * HEIGHT);
+        frame.put(scene(5, 4, 1));
+        frame.rewind();
+        int[] grid = new int[72];
+
+        PerceptualHashCache<String> cache = new PerceptualHashCache<>(MonotonicClock.SYSTEM);
+        Random random = new Random(7);
+        for (int i = 0; i < PerceptualHashCache.DEFAULT_MAX_ENTRIES; i++) {
+            cache.put(random.nextLong(), "entri " + i);
+        }
+
+        double hashMs = Benchmark.millisPerRun(2000, 20000,
+                () -> PerceptualHash.fromLuma(frame, WIDTH, 1, WIDTH, HEIGHT, grid));
+        double lookupMs = Benchmark.millisPerRun(2000, 20000, () -> cache.get(random.nextLong()));
+
+        Benchmark.report("dHash %dx%d: %.2f us/frame, lookup miss (%d entri): %.2f us",
+                WIDTH, HEIGHT, hashMs * 1000, cache.size(), lookupMs * 1000);
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.cohia;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class PipelineStageTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    /** Executor yang baru menjalankan tugas saat {@link #runAll()} dipanggil. */
+    private static final class ManualExecutor implements Executor {
+        final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    private static <I, O> PipelineStage<I, O> stage(String name, int capacity, PipelineStage.DropPolicy policy,
+                                                    Executor executor, PipelineStage.Processor<I, O> processor,
+                                                    List<? super I> released) {
+        return new PipelineStage<>(name, capacity, policy, executor, processor, released::add, MonotonicClock.SYSTEM);
+    }
+
+    @Test
+    public void stagesChainFromFakeSourceToFakeSink_inOrder() {
+        List<Object> released = new ArrayList<>();
+        PipelineStage<Integer, Integer> gate = stage("gate", 2, PipelineStage.DropPolicy.DROP_OLDEST, DIRECT,
+                i -> i % 2 == 0 ? i : null, released);
+        PipelineStage<Integer, String> convert = stage("convert", 2, PipelineStage.DropPolicy.DROP_OLDEST, DIRECT,
+                i -> "f" + i, released);
+        PipelineStage<String, String> encode = stage("encode", 2, PipelineStage.DropPolicy.DROP_OLDEST, DIRECT,
+                s -> s + ".jpg", released);
+        List<String> sink = new ArrayList<>();
+        gate.connect(convert).connect(encode).connect(sink::add);
+
+        for (int i = 0; i < 10; i++) {
+            gate.submit(i);
+        }
+
+        assertEquals(Arrays.asList("f0.jpg", "f2.jpg", "f4.jpg", "f6.jpg", "f8.jpg"), sink);
+        assertTrue(released.isEmpty());
+        PipelineStage.Metrics gateMetrics = gate.getMetrics();
+        assertEquals(10, gateMetrics.accepted);
+        assertEquals(10, gateMetrics.processed);
+        assertEquals(5, gateMetrics.forwarded);
+        assertEquals(0, gateMetrics.dropped);
+        assertEquals(5, encode.getMetrics().processed);
+        assertEquals(0, encode.getMetrics().queueDepth);
+    }
+
+    @Test
+    public void dropOldest_keepsNewestItems_andReleasesEvicted() {
+        ManualExecutor executor = new ManualExecutor();
+        List<Integer> released = new ArrayList<>();
+        List<Integer> processed = new ArrayList<>();
+        PipelineStage<Integer, Integer> live = stage("live", 2, PipelineStage.DropPolicy.DROP_OLDEST, executor,
+                i -> {
+                    processed.add(i);
+                    return null;
+                }, released);
+
+        for (int i = 1; i <= 5; i++) {
+            live.submit(i);
+        }
+        PipelineStage.Metrics before = live.getMetrics();
+        assertEquals(2, before.queueDepth);
+        assertEquals(2, before.maxQueueDepth);
+        assertEquals(3, before.dropped);
+        assertEquals(Arrays.asList(1, 2, 3), released);
+        // Hanya satu tugas terjadwal walaupun lima item masuk
+        assertEquals(1, executor.tasks.size());
+
+        executor.runAll();
+        assertEquals(Arrays.asList(4, 5), processed);
+        assertEquals(0, live.getMetrics().queueDepth);
+    }
+
+    @Test
+    public void neverDrop_blocksProducerUntilConsumerCatchesUp() throws Exception {
+        CountDownLatch unblock = new CountDownLatch(1);
+        List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+        PipelineStage<Integer, Void> capture = PipelineStage.withOwnThread("capture", 2,
+                PipelineStage.DropPolicy.NEVER_DROP, i -> {
+                    unblock.await();
+                    processed.add(i);
+                    return null;
+                }, null);
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 6; i++) {
+                capture.submit(i);
+            }
+            submitted.countDown();
+        });
+        producer.start();
+
+        // Satu item diproses (tertahan), dua mengantre, pengirim menunggu di item keempat
+        assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(Thread.State.WAITING, producer.getState());
+        assertEquals(2, capture.getMetrics().queueDepth);
+
+        unblock.countDown();
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (processed.size() < 6 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5), processed);
+        PipelineStage.Metrics metrics = capture.getMetrics();
+        assertEquals(0, metrics.dropped);
+        assertEquals(2, metrics.maxQueueDepth);
+        capture.shutdown();
+    }
+
+    @Test
+    public void offer_rejectsWithoutBlockingWhenNeverDropQueueIsFull() {
+        ManualExecutor executor = new ManualExecutor();
+        List<Integer> released = new ArrayList<>();
+        List<Integer> processed = new ArrayList<>();
+        PipelineStage<Integer, Void> capture = stage("capture", 2, PipelineStage.DropPolicy.NEVER_DROP, executor,
+                i -> {
+                    processed.add(i);
+                    return null;
+                }, released);
+
+        assertTrue(capture.offer(1));
+        assertTrue(capture.offer(2));
+        // Antrean penuh: ditolak seketika, item tidak dilepas karena masih milik pemanggil
+        assertFalse(capture.offer(3));
+        assertTrue(released.isEmpty());
+        assertEquals(2, capture.getMetrics().accepted);
+        assertEquals(0, capture.getMetrics().dropped);
+
+        executor.runAll();
+        assertTrue(capture.offer(3));
+        executor.runAll();
+        assertEquals(Arrays.asList(1, 2, 3), processed);
+
+        capture.shutdown();
+        assertFalse(capture.offer(4));
+        assertTrue(released.isEmpty());
+    }
+
+    @Test
+    public void slowCaptureLane_doesNotStallLiveLane() throws Exception {
+        CountDownLatch captureRunning = new CountDownLatch(1);
+        CountDownLatch releaseCapture = new CountDownLatch(1);
+        PipelineStage<String, Void> capture = PipelineStage.withOwnThread("capture-encode", 1,
+                PipelineStage.DropPolicy.NEVER_DROP, s -> {
+                    captureRunning.countDown();
+                    releaseCapture.await();
+                    return null;
+                }, null);
+        CountDownLatch liveDone = new CountDownLatch(20);
+        PipelineStage<Integer, Void> live = PipelineStage.withOwnThread("live-encode", 1,
+                PipelineStage.DropPolicy.DROP_OLDEST, i -> {
+                    liveDone.countDown();
+                    return null;
+                }, null);
+
+        capture.submit("48 MP");
+        assertTrue(captureRunning.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 20; i++) {
+            live.submit(i);
+            Thread.sleep(1);
+        }
+        // Sebagian frame boleh terbuang, tetapi lane live terus berjalan
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (live.getMetrics().processed + live.getMetrics().dropped < 20 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(20, live.getMetrics().processed + live.getMetrics().dropped);
+        assertTrue(live.getMetrics().processed > 0);
+        assertEquals(0, capture.getMetrics().processed);
+
+        releaseCapture.countDown();
+        capture.shutdown();
+        live.shutdown();
+    }
+
+    @Test
+    public void failingItem_isCounted_andLaterItemsStillFlow() {
+        List<Integer> sink = new ArrayList<>();
+        PipelineStage<Integer, Integer> stage = stage("parse", 4, PipelineStage.DropPolicy.DROP_OLDEST, DIRECT,
+                i -> {
+                    if (i == 2) throw new IllegalStateException("rusak");
+                    return i;
+                }, new ArrayList<>());
+        stage.connect(sink::add);
+        for (int i = 1; i <= 3; i++) {
+            stage.submit(i);
+        }
+        assertEquals(Arrays.asList(1, 3), sink);
+        assertEquals(1, stage.getMetrics().failed);
+        assertEquals(3, stage.getMetrics().processed);
+    }
+
+    @Test
+    public void serviceTime_isMeasuredWithInjectedClock() {
+        AtomicLong now = new AtomicLong();
+        PipelineStage<Long, Void> stage = new PipelineStage<>("render", 1, PipelineStage.DropPolicy.DROP_OLDEST,
+                DIRECT, millis -> {
+                    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+                    return null;
+                }, null, now::get);
+
+        stage.submit(8L);
+        assertEquals(8.0, stage.getMetrics().meanServiceMillis, 1e-9);
+        assertEquals(8.0, stage.getMetrics().lastServiceMillis, 1e-9);
+        stage.submit(18L);
+        // EWMA dengan bobot 0.1
+        assertEquals(9.0, stage.getMetrics().meanServiceMillis, 1e-9);
+        assertEquals(18.0, stage.getMetrics().lastServiceMillis, 1e-9);
+        assertTrue(stage.getMetrics().toString().startsWith("render:"));
+    }
+
+    @Test
+    public void shutdown_releasesQueuedAndLateItems() {
+        ManualExecutor executor = new ManualExecutor();
+        List<Integer> released = new ArrayList<>();
+        List<Integer> processed = new ArrayList<>();
+        PipelineStage<Integer, Void> stage = stage("convert", 3, PipelineStage.DropPolicy.NEVER_DROP, executor,
+                i -> {
+                    processed.add(i);
+                    return null;
+                }, released);
+        stage.submit(1);
+        stage.submit(2);
+        stage.shutdown();
+        stage.submit(3);
+        executor.runAll();
+
+        assertTrue(processed.isEmpty());
+        assertEquals(Arrays.asList(1, 2, 3), released);
+        assertEquals(3, stage.getMetrics().dropped);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroCapacity_isRejected() {
+        stage("x", 0, PipelineStage.DropPolicy.DROP_OLDEST, DIRECT, i -> i, new ArrayList<>());
+    }
+}
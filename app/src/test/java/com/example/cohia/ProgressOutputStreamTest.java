@@ -0,0 +1,70 @@
+package com.example.cohia;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ProgressOutputStreamTest {
+
+    @Test
+    public void forwardsBytes_andReportsEachPercentOnce() throws IOException {
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        List<Integer> reported = new ArrayList<>();
+        ProgressOutputStream out = new ProgressOutputStream(sink, 1000, reported::add);
+
+        byte[] chunk = new byte[7];
+        for (int i = 0; i < chunk.length; i++) chunk[i] = (byte) i;
+        for (int i = 0; i < 100; i++) {
+            out.write(chunk, 0, chunk.length);
+        }
+        out.write(42);
+
+        assertEquals(701, sink.size());
+        assertEquals(701, out.getBytesWritten());
+        assertEquals(42, sink.toByteArray()[700]);
+        // Naik monoton tanpa duplikat, berakhir di 70%
+        for (int i = 1; i < reported.size(); i++) {
+            assertTrue(reported.get(i) > reported.get(i - 1));
+        }
+        assertEquals(70, (int) reported.get(reported.size() - 1));
+    }
+
+    @Test
+    public void underestimatedSize_staysBelowHundred() throws IOException {
+        List<Integer> reported = new ArrayList<>();
+        ProgressOutputStream out = new ProgressOutputStream(new ByteArrayOutputStream(), 10, reported::add);
+        out.write(new byte[50], 0, 50);
+        assertEquals(99, (int) reported.get(reported.size() - 1));
+        assertEquals(99, ProgressOutputStream.percentOf(Long.MAX_VALUE / 100, 1));
+        assertEquals(0, ProgressOutputStream.percentOf(0, 1));
+    }
+
+    @Test
+    public void bulkWrites_reachTargetStreamInOneCall() throws IOException {
+        int[] calls = new int[1];
+        OutputStream counting = new OutputStream() {
+            @Override
+            public void write(int b) {
+                fail("penulisan per byte");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                calls[0]++;
+            }
+        };
+        new ProgressOutputStream(counting, 100, null).write(new byte[4096], 0, 4096);
+        assertEquals(1, calls[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveEstimate_isRejected() {
+        new ProgressOutputStream(new ByteArrayOutputStream(), 0, null);
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.cohia;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+
+import com.example.cohia.api.ClassRegistry;
+import com.example.cohia.api.PredictionBatch;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ResultStoreTest {
+
+    private static final int IMAGE_BYTES = 1000;
+    private static final long BITMAP_BYTES = 100;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    /**
+     * Bitmap tidak bisa dibuat di JVM; codec palsu memberi setiap bitmap token yang ditulis ke
+     * file dan membuat instance baru ({@link TestBitmaps}) saat decode.
+     */
+    private static final class FakeCodec implements ResultStore.ImageCodec {
+        private final Map<Bitmap, Integer> tokens = new ConcurrentHashMap<>();
+        private final Map<Bitmap, Integer> decoded = Collections.synchronizedMap(new IdentityHashMap<>());
+        private int nextToken = 1;
+        volatile boolean failEncode;
+
+        synchronized Bitmap newBitmap() {
+            Bitmap bitmap = TestBitmaps.newIdentityBitmap();
+            tokens.put(bitmap, nextToken++);
+            return bitmap;
+        }
+
+        int tokenOf(Bitmap bitmap) {
+            Integer token = tokens.get(bitmap);
+            return token != null ? token : decoded.get(bitmap);
+        }
+
+        @Override
+        public void encode(Bitmap bitmap, OutputStream out) throws IOException {
+            if (failEncode) {
+                throw new IOException("gagal");
+            }
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(tokenOf(bitmap));
+            data.write(new byte[IMAGE_BYTES - 4]);
+            data.flush();
+        }
+
+        @Override
+        public Bitmap decode(byte[] data, int offset, int length) {
+            if (length != IMAGE_BYTES) {
+                return null;
+            }
+            Bitmap bitmap = TestBitmaps.newIdentityBitmap();
+            decoded.put(bitmap, ByteBuffer.wrap(data, offset, 4).getInt());
+            return bitmap;
+        }
+
+        @Override
+        public long sizeOf(Bitmap bitmap) {
+            return BITMAP_BYTES;
+        }
+    }
+
+    private final FakeCodec codec = new FakeCodec();
+
+    private ResultStore newStore(File dir, long memoryBytes, long diskBytes) {
+        return new ResultStore(dir, memoryBytes, diskBytes, codec, Runnable::run);
+    }
+
+    private static PredictionBatch batch(float confidence) {
+        PredictionBatch batch = new PredictionBatch(ClassRegistry.getInstance());
+        batch.add(ClassRegistry.getInstance().idOf("Sampah Organik"), confidence, 0.1f, 0.2f, 0.3f, 0.4f);
+        return batch;
+    }
+
+    private static File fileOf(File dir, String id) {
+        return new File(dir, id + ".res");
+    }
+
+    @Test
+    public void severalResultsInFlight_haveIndependentHandles() throws IOException {
+        ResultStore store = newStore(temp.newFolder(), 1024 * 1024, 1024 * 1024);
+        List<String> ids = new ArrayList<>();
+        List<Bitmap> bitmaps = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Bitmap bitmap = codec.newBitmap();
+            bitmaps.add(bitmap);
+            ids.add(store.put(bitmap, batch(0.5f + i * 0.1f)));
+        }
+        assertEquals(3, new HashSet<>(ids).size());
+        for (int i = 0; i < 3; i++) {
+            ResultStore.Result result = store.peek(ids.get(i));
+            assertSame(bitmaps.get(i), result.bitmap);
+            assertEquals(0.5f + i * 0.1f, result.predictions.getConfidence(0), 1e-6f);
+        }
+
+        store.remove(ids.get(1));
+        assertNull(store.peek(ids.get(1)));
+        assertNotNull(store.peek(ids.get(0)));
+        assertNotNull(store.peek(ids.get(2)));
+        assertEquals(2, store.getMemoryCount());
+    }
+
+    @Test
+    public void overBudget_spillsLeastRecentlyUsed_andRestoresFromDisk() throws IOException {
+        File dir = temp.newFolder();
+        // Tiga hasil muat di memori (100 byte bitmap + 24 byte per prediksi)
+        ResultStore store = newStore(dir, 3 * 124, 1024 * 1024);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(store.put(codec.newBitmap(), batch(0.1f * (i + 1))));
+        }
+        // Hasil pertama baru dipakai, jadi yang kedua paling lama tidak dipakai
+        store.peek(ids.get(0));
+        Bitmap fourth = codec.newBitmap();
+        ids.add(store.put(fourth, batch(0.9f)));
+
+        assertEquals(3, store.getMemoryCount());
+        assertEquals(1, store.getSpillCount());
+        assertNull(store.peek(ids.get(1)));
+        assertTrue(fileOf(dir, ids.get(1)).isFile());
+        assertNotNull(store.peek(ids.get(0)));
+
+        ResultStore.Result restored = store.get(ids.get(1));
+        assertNotNull(restored);
+        assertEquals(2, codec.tokenOf(restored.bitmap));
+        assertEquals(0.2f, restored.predictions.getConfidence(0), 1e-6f);
+        assertEquals("Sampah Organik", restored.predictions.getClassName(0));
+        assertEquals(0.1f, restored.predictions.getLeft(0), 1e-6f);
+        assertEquals(0.4f, restored.predictions.getBottom(0), 1e-6f);
+        assertEquals(1, store.getRestoreCount());
+        // Pemulihan melampaui batas lagi, hasil lain yang di-spill
+        assertEquals(3, store.getMemoryCount());
+        assertTrue(store.getMemoryBytes() <= 3 * 124);
+    }
+
+    @Test
+    public void uiHidden_persistsEverything_soNewProcessCanRestore() throws IOException {
+        File dir = temp.newFolder();
+        ResultStore store = newStore(dir, 1024 * 1024, 1024 * 1024);
+        String first = store.put(codec.newBitmap(), batch(0.7f));
+        String second = store.put(codec.newBitmap(), batch(0.8f));
+
+        store.trimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+        // Di bawah separuh batas, hasil tetap di memori tetapi sudah punya file
+        assertEquals(2, store.getMemoryCount());
+        assertTrue(fileOf(dir, first).isFile());
+        assertTrue(fileOf(dir, second).isFile());
+
+        // Proses dimatikan: instance baru di direktori yang sama
+        ResultStore recreated = newStore(dir, 1024 * 1024, 1024 * 1024);
+        assertNull(recreated.peek(second));
+        ResultStore.Result result = recreated.get(second);
+        assertNotNull(result);
+        assertEquals(2, codec.tokenOf(result.bitmap));
+        assertEquals(0.8f, result.predictions.getConfidence(0), 1e-6f);
+        assertSame(result, recreated.peek(second));
+    }
+
+    @Test
+    public void background_releasesAllMemory() throws IOException {
+        File dir = temp.newFolder();
+        ResultStore store = newStore(dir, 1024 * 1024, 1024 * 1024);
+        String id = store.put(codec.newBitmap(), batch(0.6f));
+
+        store.trimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+        assertEquals(1, store.getMemoryCount());
+        assertFalse(fileOf(dir, id).exists());
+
+        store.trimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+        assertEquals(0, store.getMemoryCount());
+        assertEquals(0, store.getMemoryBytes());
+        assertTrue(fileOf(dir, id).isFile());
+        assertNotNull(store.get(id));
+    }
+
+    @Test
+    public void remove_deletesSpilledFile() throws IOException {
+        File dir = temp.newFolder();
+        ResultStore store = newStore(dir, 1024 * 1024, 1024 * 1024);
+        String id = store.put(codec.newBitmap(), batch(0.6f));
+        store.trimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        assertTrue(fileOf(dir, id).isFile());
+
+        store.remove(id);
+        assertFalse(fileOf(dir, id).exists());
+        assertNull(store.get(id));
+    }
+
+    @Test
+    public void corruptFile_isRejectedAndDeleted() throws IOException {
+        File dir = temp.newFolder();
+        ResultStore store = newStore(dir, 1024 * 1024, 1024 * 1024);
+        String id = store.put(codec.newBitmap(), batch(0.6f));
+        store.trimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+
+        File file = fileOf(dir, id);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(20);
+            int b = raf.read();
+            raf.seek(20);
+            raf.write(b ^ 0xFF);
+        }
+        assertNull(store.get(id));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void failedSpill_dropsResultUnderPressure() throws IOException {
+        File dir = temp.newFolder();
+        ResultStore store = newStore(dir, 1024 * 1024, 1024 * 1024);
+        String id = store.put(codec.newBitmap(), batch(0.6f));
+        codec.failEncode = true;
+
+        store.trimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+        assertEquals(0, store.getMemoryCount());
+        assertEquals(1, store.getDropCount());
+        assertNull(store.get(id));
+        assertEquals(0, dir.listFiles().length);
+    }
+
+    @Test
+    public void diskBudget_evictsOldestFiles() throws IOException {
+        File dir = temp.newFolder();
+        // Setiap file sedikit di atas 1000 byte; batas disk memuat dua file
+        ResultStore store = newStore(dir, 1024 * 1024, 2500);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String id = store.put(codec.newBitmap(), batch(0.5f));
+            store.trimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+            assertTrue(fileOf(dir, id).setLastModified(1_000_000L * (i + 1)));
+            ids.add(id);
+        }
+        assertFalse(fileOf(dir, ids.get(0)).exists());
+        assertFalse(fileOf(dir, ids.get(1)).exists());
+        assertTrue(fileOf(dir, ids.get(2)).isFile());
+        assertTrue(fileOf(dir, ids.get(3)).isFile());
+    }
+
+    @Test
+    public void invalidId_isRejectedBeforeTouchingFiles() throws IOException {
+        ResultStore store = newStore(temp.newFolder(), 1024, 1024);
+        for (String id : new String[]{null, "../../shared_prefs/x", "", "ABCDEF"}) {
+            try {
+                store.peek(id);
+                fail("ID diterima: " + id);
+            } catch (IllegalArgumentException expected) {
+                // ok
+            }
+        }
+    }
+
+    @Test
+    public void concurrentProducersAndConsumers_neverLoseLiveResults() throws Exception {
+        File dir = temp.newFolder();
+        ExecutorService spill = Executors.newSingleThreadExecutor();
+        // Batas memori kecil memaksa spill terus-menerus selama get() berjalan
+        ResultStore store = new ResultStore(dir, 4 * 124, 64L * 1024 * 1024, codec, spill);
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        for (int t = 0; t < 4; t++) {
+            futures.add(workers.submit(() -> {
+                for (int i = 0; i < 100; i++) {
+                    Bitmap bitmap = codec.newBitmap();
+                    String id = store.put(bitmap, batch(0.5f));
+                    assertTrue(seen.add(id));
+                    ResultStore.Result result = store.get(id);
+                    assertNotNull(result);
+                    assertEquals(codec.tokenOf(bitmap), codec.tokenOf(result.bitmap));
+                    store.remove(id);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        workers.shutdown();
+        spill.shutdown();
+        assertTrue(spill.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(0, store.getMemoryCount());
+        File[] left = dir.listFiles((d, name) -> name.endsWith(".res"));
+        assertEquals(0, left == null ? 0 : left.length);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.cohia;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SampledBitmapDecoderTest {
+
+    @Test
+    public void inSampleSize_keepsLongEdgeAtOrAboveTarget() {
+        // 48 MP (8000x6000) ke 1280: 8000/4 = 2000 >= 1280, 8000/8 = 1000 < 1280
+        assertEquals(4, SampledBitmapDecoder.calculateInSampleSize(8000, 6000, 1280));
+        assertEquals(4, SampledBitmapDecoder.calculateInSampleSize(6000, 8000, 1280));
+        // 12 MP (4032x3024)
+        assertEquals(2, SampledBitmapDecoder.calculateInSampleSize(4032, 3024, 1280));
+        // Tepat dua kali target
+        assertEquals(2, SampledBitmapDecoder.calculateInSampleSize(2560, 1920, 1280));
+        // Gambar kecil tidak pernah diperbesar lewat inSampleSize
+        assertEquals(1, SampledBitmapDecoder.calculateInSampleSize(800, 600, 1280));
+        assertEquals(1, SampledBitmapDecoder.calculateInSampleSize(1280, 720, 1280));
+    }
+
+    @Test
+    public void sampledLongEdge_neverDropsBelowTarget() {
+        for (int longEdge = 1; longEdge <= 10_000; longEdge += 37) {
+            int sample = SampledBitmapDecoder.calculateInSampleSize(longEdge, 1, 640);
+            int sampled = SampledBitmapDecoder.sampledSize(longEdge, sample);
+            assertTrue(longEdge + " -> " + sampled, sampled >= Math.min(longEdge, 640));
+            assertTrue(longEdge + " -> " + sampled, sampled < 2 * 640 || sample == 1);
+        }
+    }
+
+    @Test
+    public void sampledSize_roundsUpLikeJpegDecoder() {
+        assertEquals(2016, SampledBitmapDecoder.sampledSize(4032, 2));
+        assertEquals(1001, SampledBitmapDecoder.sampledSize(4001, 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveTarget_isRejected() {
+        SampledBitmapDecoder.calculateInSampleSize(100, 100, 0);
+    }
+
+    @Test
+    public void orientationMapping_coversAllExifValues() {
+        // {orientasi, derajat, cermin}
+        int[][] expected = {
+                {0, 0, 0},   // tidak ada tag
+                {1, 0, 0},   // normal
+                {2, 0, 1},   // flip horizontal
+                {3, 180, 0}, // rotate 180
+                {4, 180, 1}, // flip vertical = cermin lalu 180
+                {5, 270, 1}, // transpose = cermin lalu 270
+                {6, 90, 0},  // rotate 90
+                {7, 90, 1},  // transverse = cermin lalu 90
+                {8, 270, 0}, // rotate 270
+        };
+        for (int[] row : expected) {
+            assertEquals("orientasi " + row[0], row[1], SampledBitmapDecoder.rotationDegrees(row[0]));
+            assertEquals("orientasi " + row[0], row[2] == 1, SampledBitmapDecoder.isMirrored(row[0]));
+        }
+    }
+
+    @Test
+    public void orientationForRotation_roundTripsThroughRotationDegrees() {
+        for (int degrees = -360; degrees <= 720; degrees += 90) {
+            int orientation = SampledBitmapDecoder.orientationForRotation(degrees);
+            assertEquals("Rotasi " + degrees, ((degrees % 360) + 360) % 360,
+                    SampledBitmapDecoder.rotationDegrees(orientation));
+            assertFalse(SampledBitmapDecoder.isMirrored(orientation));
+        }
+    }
+
+    @Test
+    public void orientationMapping_movesPixelsLikeExifSpec() {
+        int width = 4;
+        int height = 3;
+        // Posisi piksel (x, y) setelah cermin lalu rotasi, dibandingkan dengan definisi EXIF
+        int[][] probes = {{0, 0}, {3, 0}, {1, 2}, {2, 1}};
+        for (int orientation = 1; orientation <= 8; orientation++) {
+            for (int[] probe : probes) {
+                int x = probe[0];
+                int y = probe[1];
+                int[] actual = apply(orientation, x, y, width, height);
+                int[] spec = exifSpec(orientation, x, y, width, height);
+                assertArrayEquals("orientasi " + orientation, spec, actual);
+            }
+        }
+    }
+
+    /** Menerapkan cermin lalu rotasi searah jarum jam ke koordinat piksel. */
+    private static int[] apply(int orientation, int x, int y, int width, int height) {
+        if (SampledBitmapDecoder.isMirrored(orientation)) {
+            x = width - 1 - x;
+        }
+        int degrees = SampledBitmapDecoder.rotationDegrees(orientation);
+        for (int i = 0; i < degrees / 90; i++) {
+            int rotatedX = height - 1 - y;
+            y = x;
+            x = rotatedX;
+            int swap = width;
+            width = height;
+            height = swap;
+        }
+        return new int[]{x, y};
+    }
+
+    /** Tujuan piksel menurut tabel orientasi EXIF/TIFF. */
+    private static int[] exifSpec(int orientation, int x, int y, int w, int h) {
+        switch (orientation) {
+            case 2: return new int[]{w - 1 - x, y};
+            case 3: return new int[]{w - 1 - x, h - 1 - y};
+            case 4: return new int[]{x, h - 1 - y};
+            case 5: return new int[]{y, x};
+            case 6: return new int[]{h - 1 - y, x};
+            case 7: return new int[]{h - 1 - y, w - 1 - x};
+            case 8: return new int[]{y, w - 1 - x};
+            default: return new int[]{x, y};
+        }
+    }
+}
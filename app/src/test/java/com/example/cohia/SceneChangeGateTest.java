@@ -0,0 +1,121 @@
+package com.example.cohia;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SceneChangeGateTest {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+
+    /** Membuat plane Y dengan gradien, kotak terang opsional, dan noise sensor. */
+    private static ByteBuffer frame(int rowStride, int pixelStride, int boxX, int noise, long seed) {
+        Random random = new Random(seed);
+        byte[] data = new byte[rowStride * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int luma = 40 + (x + y) * 120 / (WIDTH + HEIGHT);
+                if (boxX >= 0 && x >= boxX && x < boxX + 160 && y >= 160 && y < 320) {
+                    luma = 230;
+                }
+                if (noise > 0) {
+                    luma += random.nextInt(2 * noise + 1) - noise;
+                }
+                data[y * rowStride + x * pixelStride] = (byte) Math.max(0, Math.min(255, luma));
+            }
+        }
+        return ByteBuffer.wrap(data);
+    }
+
+    private static ByteBuffer frame(int boxX, int noise, long seed) {
+        return frame(WIDTH, 1, boxX, noise, seed);
+    }
+
+    @Test
+    public void firstFrame_alwaysPasses() {
+        SceneChangeGate gate = new SceneChangeGate();
+        assertTrue(gate.hasChanged(frame(100, 0, 0), WIDTH, 1, WIDTH, HEIGHT));
+        assertEquals(0.0, gate.getSkipRatio(), 0);
+    }
+
+    @Test
+    public void staticScene_withSensorNoise_isSkipped() {
+        SceneChangeGate gate = new SceneChangeGate();
+        assertTrue(gate.hasChanged(frame(100, 4, 1), WIDTH, 1, WIDTH, HEIGHT));
+        for (int i = 0; i < 5; i++) {
+            assertFalse(gate.hasChanged(frame(100, 4, 2 + i), WIDTH, 1, WIDTH, HEIGHT));
+        }
+        assertEquals(6, gate.getEvaluatedCount());
+        assertEquals(5, gate.getSkippedCount());
+        assertEquals(5.0 / 6, gate.getSkipRatio(), 1e-9);
+    }
+
+    @Test
+    public void movedObject_passes_andBecomesReference() {
+        SceneChangeGate gate = new SceneChangeGate();
+        gate.hasChanged(frame(100, 0, 0), WIDTH, 1, WIDTH, HEIGHT);
+
+        assertTrue(gate.hasChanged(frame(400, 0, 0), WIDTH, 1, WIDTH, HEIGHT));
+        assertTrue(gate.getLastDifference() >= SceneChangeGate.DEFAULT_THRESHOLD);
+        // Frame yang lolos menjadi referensi baru
+        assertFalse(gate.hasChanged(frame(400, 0, 0), WIDTH, 1, WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void forcesRefreshAfterMaxConsecutiveSkips() {
+        SceneChangeGate gate = new SceneChangeGate(SceneChangeGate.DEFAULT_THRESHOLD, 3);
+        ByteBuffer still = frame(100, 0, 0);
+        assertTrue(gate.hasChanged(still, WIDTH, 1, WIDTH, HEIGHT));
+        assertFalse(gate.hasChanged(still, WIDTH, 1, WIDTH, HEIGHT));
+        assertFalse(gate.hasChanged(still, WIDTH, 1, WIDTH, HEIGHT));
+        assertFalse(gate.hasChanged(still, WIDTH, 1, WIDTH, HEIGHT));
+        assertTrue(gate.hasChanged(still, WIDTH, 1, WIDTH, HEIGHT));
+        assertFalse(gate.hasChanged(still, WIDTH, 1, WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void invalidate_forcesNextFrameOnce() {
+        SceneChangeGate gate = new SceneChangeGate();
+        ByteBuffer still = frame(100, 0, 0);
+        gate.hasChanged(still, WIDTH, 1, WIDTH, HEIGHT);
+        assertFalse(gate.hasChanged(still, WIDTH, 1, WIDTH, HEIGHT));
+
+        gate.invalidate();
+        assertTrue(gate.hasChanged(still, WIDTH, 1, WIDTH, HEIGHT));
+        assertFalse(gate.hasChanged(still, WIDTH, 1, WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void signature_honoursStrides_andKeepsBufferPosition() {
+        int[] packed = new int[SceneChangeGate.GRID * SceneChangeGate.GRID];
+        int[] padded = new int[packed.length];
+        SceneChangeGate.computeSignature(frame(WIDTH, 1, 100, 0, 0), WIDTH, 1, WIDTH, HEIGHT, packed);
+
+        // Baris ber-padding dan pixelStride 2 (seperti plane semi-planar)
+        ByteBuffer strided = frame(WIDTH * 2 + 64, 2, 100, 0, 0);
+        SceneChangeGate.computeSignature(strided, WIDTH * 2 + 64, 2, WIDTH, HEIGHT, padded);
+
+        assertArrayEquals(packed, padded);
+        assertEquals(0, strided.position());
+    }
+
+    @Test
+    public void signature_respectsBufferPosition() {
+        ByteBuffer plain = frame(100, 0, 0);
+        byte[] shifted = new byte[plain.capacity() + 16];
+        plain.get(shifted, 16, plain.capacity());
+        ByteBuffer offset = ByteBuffer.wrap(shifted);
+        offset.position(16);
+
+        int[] expected = new int[SceneChangeGate.GRID * SceneChangeGate.GRID];
+        int[] actual = new int[expected.length];
+        plain.rewind();
+        SceneChangeGate.computeSignature(plain, WIDTH, 1, WIDTH, HEIGHT, expected);
+        SceneChangeGate.computeSignature(offset, WIDTH, 1, WIDTH, HEIGHT, actual);
+        assertArrayEquals(expected, actual);
+    }
+}
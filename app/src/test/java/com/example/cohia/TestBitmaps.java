@@ -0,0 +1,29 @@
+package com.example.cohia;
+
+import android.graphics.Bitmap;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Bitmap untuk pengujian host yang hanya memerlukan identitas objek (kepemilikan, token
+ * codec palsu), bukan piksel.
+ *
+ * Bitmap tidak punya konstruktor publik, tetapi android.jar untuk unit test menyediakan
+ * konstruktor tanpa argumen yang package-private; dengan {@code unitTests.isReturnDefaultValues}
+ * konstruktor itu tidak melempar, sehingga cukup refleksi biasa tanpa API internal JDK.
+ * Semua method instance mengembalikan nilai default (lebar dan tinggi 0).
+ */
+public final class TestBitmaps {
+
+    private TestBitmaps() {}
+
+    public static Bitmap newIdentityBitmap() {
+        try {
+            Constructor<Bitmap> constructor = Bitmap.class.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError("Bitmap tidak bisa dibuat di JVM host", e);
+        }
+    }
+}
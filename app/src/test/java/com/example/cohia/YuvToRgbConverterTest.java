@@ -0,0 +1,246 @@
+package com.example.cohia;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.Random;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pengujian host untuk {@link YuvToRgbConverter} pada frame YUV sintetis, ditambah benchmark
+ * opsional terhadap jalur JPEG ({@link Benchmark}, hanya dengan -Pbenchmark).
+ *
+ * Jalur lama (NV21 -> JPEG kualitas 100 -> decode) tidak bisa dijalankan di host karena
+ * memakai YuvImage dan BitmapFactory, jadi pembandingnya disimulasikan dengan codec JPEG
+ * dari ImageIO yang melakukan dua pass codec yang setara.
+ */
+public class YuvToRgbConverterTest {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+
+    /** Frame YUV_420_888 sintetis beserta nilai asli per piksel (tanpa padding). */
+    private static class SyntheticFrame {
+        final int width;
+        final int height;
+        final byte[] y;
+        final byte[] u;
+        final byte[] v;
+        final ByteBuffer yPlane;
+        final ByteBuffer uPlane;
+        final ByteBuffer vPlane;
+        final int yRowStride;
+        final int uvRowStride;
+        final int uvPixelStride;
+
+        SyntheticFrame(int width, int height, int rowPadding, boolean semiPlanar, long seed) {
+            this.width = width;
+            this.height = height;
+            int chromaWidth = (width + 1) / 2;
+            int chromaHeight = (height + 1) / 2;
+            Random random = new Random(seed);
+
+            y = new byte[width * height];
+            u = new byte[chromaWidth * chromaHeight];
+            v = new byte[chromaWidth * chromaHeight];
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    // Gradien halus + noise agar mirip gambar kamera
+                    y[row * width + col] = (byte) ((col * 255 / width + row * 64 / height
+                            + random.nextInt(16)) & 0xFF);
+                }
+            }
+            for (int row = 0; row < chromaHeight; row++) {
+                for (int col = 0; col < chromaWidth; col++) {
+                    int index = row * chromaWidth + col;
+                    u[index] = (byte) (64 + col * 128 / chromaWidth + random.nextInt(4));
+                    v[index] = (byte) (64 + row * 128 / chromaHeight + random.nextInt(4));
+                }
+            }
+
+            yRowStride = width + rowPadding;
+            uvPixelStride = semiPlanar ? 2 : 1;
+            uvRowStride = chromaWidth * uvPixelStride + rowPadding;
+
+            yPlane = ByteBuffer.allocateDirect(yRowStride * (height - 1) + width);
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < yRowStride && row * yRowStride + col < yPlane.capacity(); col++) {
+                    // Padding diisi nilai acak supaya kesalahan stride langsung terlihat
+                    byte value = col < width ? y[row * width + col] : (byte) random.nextInt(256);
+                    yPlane.put(row * yRowStride + col, value);
+                }
+            }
+
+            int uvLength = uvRowStride * (chromaHeight - 1) + (chromaWidth - 1) * uvPixelStride + 1;
+            uPlane = ByteBuffer.allocateDirect(uvLength);
+            vPlane = ByteBuffer.allocateDirect(uvLength);
+            for (int i = 0; i < uvLength; i++) {
+                uPlane.put(i, (byte) random.nextInt(256));
+                vPlane.put(i, (byte) random.nextInt(256));
+            }
+            for (int row = 0; row < chromaHeight; row++) {
+                for (int col = 0; col < chromaWidth; col++) {
+                    int index = row * uvRowStride + col * uvPixelStride;
+                    uPlane.put(index, u[row * chromaWidth + col]);
+                    vPlane.put(index, v[row * chromaWidth + col]);
+                }
+            }
+        }
+
+        int[] convert(YuvToRgbConverter converter) {
+            return converter.convert(yPlane, yRowStride, 1, uPlane, vPlane, uvRowStride, uvPixelStride,
+                    width, height);
+        }
+
+        /** Konversi referensi floating point BT.601 full-range. */
+        int referenceArgb(int col, int row) {
+            int chromaIndex = (row / 2) * ((width + 1) / 2) + col / 2;
+            double yy = y[row * width + col] & 0xFF;
+            double uu = (u[chromaIndex] & 0xFF) - 128;
+            double vv = (v[chromaIndex] & 0xFF) - 128;
+            int r = clamp(Math.round(yy + 1.402 * vv));
+            int g = clamp(Math.round(yy - 0.344136 * uu - 0.714136 * vv));
+            int b = clamp(Math.round(yy + 1.772 * uu));
+            return 0xFF000000 | (r << 16) | (g << 8) | b;
+        }
+
+        /** Meniru jalur lama: pack NV21 (mengabaikan stride) lalu round trip JPEG kualitas 100. */
+        int[] legacyConvert() throws IOException {
+            byte[] nv21 = new byte[y.length + u.length + v.length];
+            System.arraycopy(y, 0, nv21, 0, y.length);
+            for (int i = 0; i < u.length; i++) {
+                nv21[y.length + 2 * i] = v[i];
+                nv21[y.length + 2 * i + 1] = u[i];
+            }
+
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            int chromaWidth = (width + 1) / 2;
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    int chroma = y.length + 2 * ((row / 2) * chromaWidth + col / 2);
+                    image.setRGB(col, row, yuvToRgb(nv21[row * width + col] & 0xFF,
+                            (nv21[chroma + 1] & 0xFF) - 128, (nv21[chroma] & 0xFF) - 128));
+                }
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+            ImageWriter writer = writers.next();
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(1.0f);
+            writer.setOutput(ImageIO.createImageOutputStream(out));
+            writer.write(null, new IIOImage(image, null, null), param);
+            writer.dispose();
+
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+            return decoded.getRGB(0, 0, width, height, null, 0, width);
+        }
+    }
+
+    private static int yuvToRgb(int y, int u, int v) {
+        int r = clamp(Math.round(y + 1.402 * v));
+        int g = clamp(Math.round(y - 0.344136 * u - 0.714136 * v));
+        int b = clamp(Math.round(y + 1.772 * u));
+        return (r << 16) | (g << 8) | b;
+    }
+
+    private static int clamp(long value) {
+        return (int) Math.max(0, Math.min(255, value));
+    }
+
+    private static void assertMatchesReference(SyntheticFrame frame, int[] argb) {
+        for (int row = 0; row < frame.height; row++) {
+            for (int col = 0; col < frame.width; col++) {
+                int expected = frame.referenceArgb(col, row);
+                int actual = argb[row * frame.width + col];
+                for (int shift = 0; shift <= 16; shift += 8) {
+                    int diff = Math.abs(((expected >> shift) & 0xFF) - ((actual >> shift) & 0xFF));
+                    assertTrue("Piksel (" + col + "," + row + ") berbeda " + diff, diff <= 1);
+                }
+                assertEquals(0xFF, actual >>> 24);
+            }
+        }
+    }
+
+    @Test
+    public void planarFrameWithoutPadding_matchesReference() {
+        SyntheticFrame frame = new SyntheticFrame(WIDTH, HEIGHT, 0, false, 1);
+        assertMatchesReference(frame, frame.convert(new YuvToRgbConverter()));
+    }
+
+    @Test
+    public void paddedSemiPlanarFrame_respectsStrides() {
+        SyntheticFrame frame = new SyntheticFrame(WIDTH, HEIGHT, 64, true, 2);
+        assertMatchesReference(frame, frame.convert(new YuvToRgbConverter()));
+    }
+
+    @Test
+    public void oddDimensions_areConverted() {
+        SyntheticFrame frame = new SyntheticFrame(317, 239, 3, true, 3);
+        assertMatchesReference(frame, frame.convert(new YuvToRgbConverter()));
+    }
+
+    @Test
+    public void convert_restoresBufferPositionsAndReusesOutput() {
+        SyntheticFrame frame = new SyntheticFrame(WIDTH, HEIGHT, 16, true, 4);
+        YuvToRgbConverter converter = new YuvToRgbConverter();
+
+        int[] first = frame.convert(converter);
+        int[] second = frame.convert(converter);
+
+        assertSame(first, second);
+        assertEquals(0, frame.yPlane.position());
+        assertEquals(0, frame.uPlane.position());
+        assertEquals(0, frame.vPlane.position());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void convert_rejectsUndersizedCallerBuffer() {
+        SyntheticFrame frame = new SyntheticFrame(64, 48, 0, false, 5);
+        new YuvToRgbConverter().convert(frame.yPlane, frame.yRowStride, 1, frame.uPlane, frame.vPlane,
+                frame.uvRowStride, frame.uvPixelStride, 64, 48, new int[64 * 47]);
+    }
+
+    @Test
+    public void directConversion_matchesJpegRoundTrip() throws IOException {
+        SyntheticFrame frame = new SyntheticFrame(WIDTH, HEIGHT, 0, true, 6);
+        YuvToRgbConverter converter = new YuvToRgbConverter();
+
+        // Bandingkan keluaran dengan jalur lama: selisih hanya berasal dari kompresi JPEG.
+        int[] direct = frame.convert(converter).clone();
+        int[] legacy = frame.legacyConvert();
+        long totalDiff = 0;
+        for (int i = 0; i < direct.length; i++) {
+            for (int shift = 0; shift <= 16; shift += 8) {
+                totalDiff += Math.abs(((direct[i] >> shift) & 0xFF) - ((legacy[i] >> shift) & 0xFF));
+            }
+        }
+        double meanDiff = totalDiff / (direct.length * 3.0);
+        assertTrue("Selisih rata-rata terhadap jalur JPEG: " + meanDiff, meanDiff < 8.0);
+    }
+
+    @Test
+    public void benchmark_directVersusJpegRoundTrip() throws Exception {
+        Benchmark.assumeEnabled();
+        SyntheticFrame frame = new SyntheticFrame(WIDTH, HEIGHT, 0, true, 6);
+        YuvToRgbConverter converter = new YuvToRgbConverter();
+
+        double directMs = Benchmark.millisPerRun(5, 20, () -> frame.convert(converter));
+        double legacyMs = Benchmark.millisPerRun(5, 20, frame::legacyConvert);
+
+        Benchmark.report("YUV %dx%d: langsung %.2f ms/frame, round trip JPEG %.2f ms/frame",
+                WIDTH, HEIGHT, directMs, legacyMs);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.cohia.api;
+
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Dns;
+
+import static org.junit.Assert.*;
+
+public class CachingDnsTest {
+
+    private static final long TTL = TimeUnit.MINUTES.toNanos(5);
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger lookups = new AtomicInteger();
+    private volatile boolean offline = false;
+
+    private final Dns upstream = hostname -> {
+        lookups.incrementAndGet();
+        if (offline) {
+            throw new UnknownHostException(hostname);
+        }
+        return Collections.singletonList(InetAddress.getByAddress(hostname, new byte[]{10, 0, 0, (byte) lookups.get()}));
+    };
+
+    private final CachingDns dns = new CachingDns(upstream, TTL, now::get);
+
+    @Test
+    public void repeatedLookups_withinTtl_hitUpstreamOnce() throws Exception {
+        List<InetAddress> first = dns.lookup("serverless.roboflow.com");
+        now.addAndGet(TTL - 1);
+        assertEquals(first, dns.lookup("serverless.roboflow.com"));
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void expiredEntry_isResolvedAgain() throws Exception {
+        List<InetAddress> first = dns.lookup("serverless.roboflow.com");
+        now.addAndGet(TTL);
+        List<InetAddress> second = dns.lookup("serverless.roboflow.com");
+        assertEquals(2, lookups.get());
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    public void failedRefresh_fallsBackToStaleAddresses() throws Exception {
+        List<InetAddress> first = dns.lookup("serverless.roboflow.com");
+        now.addAndGet(TTL * 3);
+        offline = true;
+        assertEquals(first, dns.lookup("serverless.roboflow.com"));
+    }
+
+    @Test(expected = UnknownHostException.class)
+    public void failureWithoutCachedEntry_propagates() throws Exception {
+        offline = true;
+        dns.lookup("serverless.roboflow.com");
+    }
+
+    @Test
+    public void hostsAreCachedSeparately_andClearForcesLookup() throws Exception {
+        dns.lookup("a.example");
+        dns.lookup("b.example");
+        assertEquals(2, lookups.get());
+        dns.clear();
+        dns.lookup("a.example");
+        assertEquals(3, lookups.get());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.cohia.api;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(config(), now::get);
+
+    private static CircuitBreaker.Config config() {
+        CircuitBreaker.Config config = new CircuitBreaker.Config();
+        config.failureThreshold = 3;
+        config.openMillis = 1000;
+        config.maxOpenMillis = 3000;
+        return config;
+    }
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private void failTimes(int count) {
+        for (int i = 0; i < count; i++) {
+            breaker.onFailure();
+        }
+    }
+
+    @Test
+    public void opensAfterConsecutiveFailures_andRejectsRequests() {
+        failTimes(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertNotEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        assertFalse(breaker.isAcceptingRequests());
+        assertEquals(1000, breaker.getRemainingOpenMillis());
+    }
+
+    @Test
+    public void successResetsFailureCount() {
+        failTimes(2);
+        breaker.onSuccess();
+        failTimes(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void halfOpen_allowsSingleProbe_andSuccessCloses() {
+        failTimes(3);
+        advanceMillis(1000);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.isAcceptingRequests());
+        assertNotEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        assertFalse(breaker.isAcceptingRequests());
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertNotEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    public void failedProbe_reopensWithDoubledDuration_upToMax() {
+        failTimes(3);
+        advanceMillis(1000);
+        assertNotEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2000, breaker.getRemainingOpenMillis());
+
+        advanceMillis(2000);
+        assertNotEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(3000, breaker.getRemainingOpenMillis());
+
+        advanceMillis(3000);
+        assertNotEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        breaker.onSuccess();
+        failTimes(3);
+        // Setelah pulih, durasi terbuka kembali ke nilai awal
+        assertEquals(1000, breaker.getRemainingOpenMillis());
+    }
+
+    @Test
+    public void canceledProbe_freesSlotForNextProbe() {
+        failTimes(3);
+        advanceMillis(1000);
+        long probe = breaker.tryAcquire();
+        assertTrue(probe > 0);
+        breaker.onCanceled(probe);
+        assertNotEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    public void canceledNonProbeRequest_keepsProbeSlotTaken() {
+        failTimes(3);
+        advanceMillis(1000);
+        assertTrue(breaker.tryAcquire() > 0);
+        // Capture yang tidak dibatasi breaker dibatalkan selagi percobaan masih berjalan
+        breaker.onCanceled(CircuitBreaker.NOT_PROBE);
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+        assertFalse(breaker.isAcceptingRequests());
+    }
+
+    @Test
+    public void staleProbeCancel_doesNotFreeLaterProbe() {
+        failTimes(3);
+        advanceMillis(1000);
+        long oldProbe = breaker.tryAcquire();
+        breaker.onFailure();
+        advanceMillis(2000);
+        long newProbe = breaker.tryAcquire();
+        assertTrue(newProbe > 0);
+        assertNotEquals(oldProbe, newProbe);
+
+        breaker.onCanceled(oldProbe);
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidConfig_isRejected() {
+        CircuitBreaker.Config config = new CircuitBreaker.Config();
+        config.maxOpenMillis = config.openMillis - 1;
+        new CircuitBreaker(config, now::get);
+    }
+}
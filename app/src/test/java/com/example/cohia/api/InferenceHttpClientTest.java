@@ -0,0 +1,227 @@
+package com.example.cohia.api;
+
+import com.example.cohia.LatencyTracer;
+import com.example.cohia.MonotonicClock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dns;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Menguji client inferensi terhadap MockWebServer TLS lokal dengan HTTP/2, sebagai pengganti
+ * endpoint Roboflow.
+ */
+public class InferenceHttpClientTest {
+
+    private static HandshakeCertificates serverCertificates;
+    private static HandshakeCertificates clientCertificates;
+
+    private MockWebServer server;
+    private LatencyTracer tracer;
+    // Request "/slow" baru dijawab setelah dua request "/slow" sama-sama tiba di server
+    private final CountDownLatch slowArrivals = new CountDownLatch(2);
+
+    @BeforeClass
+    public static void createCertificates() throws IOException {
+        HeldCertificate localhost = new HeldCertificate.Builder()
+                .addSubjectAlternativeName("localhost")
+                .addSubjectAlternativeName(InetAddress.getByName("localhost").getCanonicalHostName())
+                .build();
+        serverCertificates = new HandshakeCertificates.Builder()
+                .heldCertificate(localhost)
+                .build();
+        clientCertificates = new HandshakeCertificates.Builder()
+                .addTrustedCertificate(localhost.certificate())
+                .build();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.useHttps(serverCertificates.sslSocketFactory(), false);
+        server.setProtocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if ("HEAD".equals(request.getMethod())) {
+                    return new MockResponse();
+                }
+                if ("/slow".equals(request.getPath())) {
+                    slowArrivals.countDown();
+                    try {
+                        if (!slowArrivals.await(5, TimeUnit.SECONDS)) {
+                            return new MockResponse().setResponseCode(504);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return new MockResponse().setResponseCode(503);
+                    }
+                }
+                return new MockResponse().setBody("{\"predictions\":[]}");
+            }
+        });
+        server.start();
+        tracer = new LatencyTracer(MonotonicClock.SYSTEM);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private OkHttpClient newClient() {
+        return InferenceHttpClient.newBuilder()
+                .sslSocketFactory(clientCertificates.sslSocketFactory(), clientCertificates.trustManager())
+                .eventListenerFactory(TracingEventListener.factory(tracer))
+                .build();
+    }
+
+    private static Request detectionRequest(HttpUrl url) {
+        return new Request.Builder()
+                .url(url)
+                .post(RequestBody.create(new byte[16 * 1024], MediaType.get("image/jpeg")))
+                .build();
+    }
+
+    private void post(OkHttpClient client) throws IOException {
+        try (Response response = client.newCall(detectionRequest(server.url("/infer"))).execute()) {
+            assertTrue(response.isSuccessful());
+            assertEquals(Protocol.HTTP_2, response.protocol());
+            response.body().string();
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue("Kondisi tidak tercapai dalam 10 detik", System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitWarmUp(OkHttpClient client) throws InterruptedException {
+        awaitTrue(() -> server.getRequestCount() >= 1
+                && client.connectionPool().connectionCount() == 1
+                && client.dispatcher().runningCallsCount() == 0);
+    }
+
+    @Test
+    public void afterWarmUp_firstRequestSkipsHandshake() throws Exception {
+        OkHttpClient client = newClient();
+        InferenceHttpClient.warmUp(client, server.url("/infer/workflows/cohya?x=1"));
+        awaitWarmUp(client);
+
+        RecordedRequest warmUp = server.takeRequest();
+        assertEquals("HEAD", warmUp.getMethod());
+        assertEquals("/", warmUp.getPath());
+        // Warm-up tidak ikut tercatat di histogram
+        assertEquals(0, tracer.snapshot(LatencyTracer.Stage.HTTP_CALL).count);
+
+        for (int i = 0; i < 5; i++) {
+            post(client);
+        }
+        assertEquals(0, tracer.snapshot(LatencyTracer.Stage.CONNECT).count);
+        assertEquals(0, tracer.snapshot(LatencyTracer.Stage.TLS).count);
+        assertEquals(5, tracer.snapshot(LatencyTracer.Stage.HTTP_CALL).count);
+        assertEquals(1, client.connectionPool().connectionCount());
+
+        // Pembanding: client dingin membayar handshake TLS pada request pertamanya
+        OkHttpClient cold = newClient();
+        post(cold);
+        assertEquals(1, tracer.snapshot(LatencyTracer.Stage.TLS).count);
+        assertEquals(1, tracer.snapshot(LatencyTracer.Stage.CONNECT).count);
+    }
+
+    @Test
+    public void warmUp_isSkippedWhenPoolAlreadyHasConnection() throws Exception {
+        OkHttpClient client = newClient();
+        post(client);
+        InferenceHttpClient.warmUp(client, server.url("/"));
+        Thread.sleep(100);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void concurrentLiveAndCapture_areMultiplexedOnOneConnection() throws Exception {
+        OkHttpClient client = newClient();
+        post(client);
+
+        CountDownLatch done = new CountDownLatch(2);
+        List<Protocol> protocols = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> codes = Collections.synchronizedList(new ArrayList<>());
+        Callback callback = new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                done.countDown();
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                protocols.add(response.protocol());
+                codes.add(response.code());
+                response.close();
+                done.countDown();
+            }
+        };
+        client.newCall(detectionRequest(server.url("/slow"))).enqueue(callback);
+        client.newCall(detectionRequest(server.url("/slow"))).enqueue(callback);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_2), protocols);
+        // Server hanya menjawab 200 jika kedua stream tiba sebelum salah satunya dijawab,
+        // jadi keduanya berjalan bersamaan dan tidak mengantre di belakang satu sama lain
+        assertEquals(Arrays.asList(200, 200), codes);
+        assertEquals(1, client.connectionPool().connectionCount());
+        assertEquals(1, tracer.snapshot(LatencyTracer.Stage.CONNECT).count);
+    }
+
+    @Test
+    public void sharedClient_isConfiguredForReuse() {
+        OkHttpClient shared = InferenceHttpClient.shared();
+        assertSame(shared, InferenceHttpClient.shared());
+        assertEquals(Protocol.HTTP_2, shared.protocols().get(0));
+        assertTrue(shared.dns() instanceof CachingDns);
+        assertTrue(shared.pingIntervalMillis() > 0);
+    }
+
+    @Test
+    public void networkChange_clearsSharedDnsCache() throws Exception {
+        Dns dns = InferenceHttpClient.shared().dns();
+        dns.lookup("localhost");
+        List<InetAddress> cached = dns.lookup("localhost");
+        assertSame(cached, dns.lookup("localhost"));
+
+        InferenceHttpClient.onNetworkChanged();
+        assertNotSame(cached, dns.lookup("localhost"));
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.cohia.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LiveRequestTrackerTest {
+
+    private final List<String> delivered = new ArrayList<>();
+    private LiveRequestTracker tracker;
+    private long nextCallSequence;
+
+    private final RoboflowAPI.ApiCallback recorder = new RoboflowAPI.ApiCallback() {
+        @Override
+        public void onSuccess(List<RoboflowAPI.Prediction> predictions) {
+            delivered.add("ok" + predictions.size());
+        }
+
+        @Override
+        public void onError(String error) {
+            delivered.add("error:" + error);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        tracker = new LiveRequestTracker(2);
+    }
+
+    private static List<RoboflowAPI.Prediction> predictions(int count) {
+        List<RoboflowAPI.Prediction> list = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            list.add(new RoboflowAPI.Prediction("p", 1f, null));
+        }
+        return list;
+    }
+
+    private LiveRequestTracker.Ticket issue(DetectionCall[] callOut) {
+        LiveRequestTracker.Ticket ticket = tracker.newTicket(recorder);
+        DetectionCall call = new DetectionCall(++nextCallSequence);
+        tracker.attach(ticket, call);
+        callOut[0] = call;
+        return ticket;
+    }
+
+    @Test
+    public void dropsResponsesOlderThanLastDisplayed() {
+        DetectionCall[] c1 = new DetectionCall[1];
+        DetectionCall[] c2 = new DetectionCall[1];
+        LiveRequestTracker.Ticket first = issue(c1);
+        LiveRequestTracker.Ticket second = issue(c2);
+
+        second.onSuccess(predictions(2));
+        first.onSuccess(predictions(1));
+
+        assertEquals(Collections.singletonList("ok2"), delivered);
+        assertEquals(1, tracker.getDroppedCount());
+        assertEquals(0, tracker.getInFlightCount());
+    }
+
+    @Test
+    public void deliveringNewerResultCancelsOlderInFlightRequests() {
+        DetectionCall[] c1 = new DetectionCall[1];
+        DetectionCall[] c2 = new DetectionCall[1];
+        issue(c1);
+        LiveRequestTracker.Ticket second = issue(c2);
+
+        second.onSuccess(predictions(0));
+
+        assertTrue(c1[0].isCanceled());
+        assertFalse(c2[0].isCanceled());
+    }
+
+    @Test
+    public void keepsAtMostMaxInFlightByCancellingOldest() {
+        DetectionCall[] c1 = new DetectionCall[1];
+        DetectionCall[] c2 = new DetectionCall[1];
+        DetectionCall[] c3 = new DetectionCall[1];
+        LiveRequestTracker.Ticket first = issue(c1);
+        issue(c2);
+        issue(c3);
+
+        assertEquals(2, tracker.getInFlightCount());
+        assertTrue(c1[0].isCanceled());
+        assertFalse(c2[0].isCanceled());
+        assertEquals(1, tracker.getCanceledCount());
+
+        // Callback yang terlambat dari request yang sudah dibatalkan tidak diteruskan
+        first.onSuccess(predictions(1));
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    public void callbackBeforeAttachIsDeliveredAndNotTracked() {
+        LiveRequestTracker.Ticket ticket = tracker.newTicket(recorder);
+        ticket.onError("cepat");
+
+        tracker.attach(ticket, new DetectionCall(1));
+
+        assertEquals(Collections.singletonList("error:cepat"), delivered);
+        assertEquals(0, tracker.getInFlightCount());
+    }
+
+    @Test
+    public void errorsDoNotHideLaterSuccessFromOlderRequest() {
+        DetectionCall[] c1 = new DetectionCall[1];
+        DetectionCall[] c2 = new DetectionCall[1];
+        LiveRequestTracker.Ticket first = issue(c1);
+        LiveRequestTracker.Ticket second = issue(c2);
+
+        second.onError("timeout");
+        first.onSuccess(predictions(3));
+
+        assertEquals(2, delivered.size());
+        assertEquals("ok3", delivered.get(1));
+    }
+
+    @Test
+    public void cancelAllCancelsEveryPendingRequest() {
+        DetectionCall[] c1 = new DetectionCall[1];
+        DetectionCall[] c2 = new DetectionCall[1];
+        LiveRequestTracker.Ticket first = issue(c1);
+        issue(c2);
+
+        tracker.cancelAll();
+        first.onSuccess(predictions(1));
+
+        assertTrue(c1[0].isCanceled());
+        assertTrue(c2[0].isCanceled());
+        assertTrue(delivered.isEmpty());
+        assertEquals(0, tracker.getInFlightCount());
+    }
+
+    @Test
+    public void cancelledCallSkipsCallback() {
+        DetectionCall call = new DetectionCall(1);
+        call.cancel();
+
+        assertFalse(call.markDone());
+        assertFalse(call.isDone());
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.cohia.api;
+
+import android.graphics.RectF;
+
+import com.example.cohia.Benchmark;
+import com.example.cohia.ObjectTracker;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PredictionBatchTest {
+
+    private static final String[] RAW_CLASSES = {"organik", "anorganik", "b3", "kardus"};
+
+    /** Respons workflow dengan {@code count} prediksi dan gambar visualisasi kecil. */
+    private static String response(int count, long seed) {
+        Random random = new Random(seed);
+        StringBuilder json = new StringBuilder("{\"outputs\":[{\"output_image\":{\"type\":\"base64\",\"value\":\"QUJD\"},"
+                + "\"predictions\":{\"image\":{\"width\":640,\"height\":640},\"predictions\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) json.append(',');
+            json.append(String.format(Locale.US,
+                    "{\"x\":%.1f,\"y\":%.1f,\"width\":%.1f,\"height\":%.1f,\"confidence\":%.4f,\"class\":\"%s\",\"class_id\":%d,"
+                            + "\"detection_id\":\"%08x-0000-4000-8000-000000000000\"}",
+                    20 + random.nextFloat() * 600, 20 + random.nextFloat() * 600,
+                    8 + random.nextFloat() * 60, 8 + random.nextFloat() * 60,
+                    random.nextFloat(), RAW_CLASSES[i % RAW_CLASSES.length], i % RAW_CLASSES.length, i));
+        }
+        return json.append("]}}]}").toString();
+    }
+
+    @Test
+    public void parser_convertsCentreToCornersAndMapsReadableNames() throws IOException {
+        ClassRegistry registry = new ClassRegistry();
+        String json = "{\"outputs\":[{\"predictions\":[" +
+                "{\"class\":\"ORGANIK\",\"confidence\":0.9,\"x\":100,\"y\":50,\"width\":20,\"height\":10}," +
+                "{\"class\":\"b3\",\"confidence\":0.4,\"x\":10,\"y\":10,\"width\":0,\"height\":10}," +
+                "{\"class\":\"kardus\",\"confidence\":0.7,\"x\":30,\"y\":40,\"width\":10,\"height\":20}]}]}";
+
+        PredictionBatch batch = new PredictionBatchParser(registry).parse(new StringReader(json));
+
+        // Kotak dengan lebar 0 dilewati
+        assertEquals(2, batch.size());
+        assertEquals("Sampah Organik", batch.getClassName(0));
+        assertEquals("kardus", batch.getClassName(1));
+        assertEquals(90f, batch.getLeft(0), 1e-4f);
+        assertEquals(45f, batch.getTop(0), 1e-4f);
+        assertEquals(110f, batch.getRight(0), 1e-4f);
+        assertEquals(55f, batch.getBottom(0), 1e-4f);
+        assertEquals(0.9f, batch.getConfidence(0), 1e-6f);
+        assertEquals(0, batch.indexOfBest());
+    }
+
+    @Test
+    public void parser_internsClassNamesAcrossPredictions() throws IOException {
+        ClassRegistry registry = new ClassRegistry();
+        PredictionBatch batch = new PredictionBatchParser(registry).parse(new StringReader(response(200, 1)));
+
+        assertEquals(200, batch.size());
+        assertEquals(RAW_CLASSES.length, registry.size());
+        for (int i = RAW_CLASSES.length; i < batch.size(); i++) {
+            assertSame(batch.getClassName(i - RAW_CLASSES.length), batch.getClassName(i));
+        }
+    }
+
+    @Test
+    public void codec_roundTripsIntoAnotherRegistry() throws IOException {
+        ClassRegistry source = new ClassRegistry();
+        source.idOf("tidak dipakai");
+        PredictionBatch batch = new PredictionBatchParser(source).parse(new StringReader(response(50, 2)));
+
+        // Registry baru meniru proses lain: ID berbeda, nama harus tetap sama
+        ClassRegistry target = new ClassRegistry();
+        target.idOf("lain");
+        target.idOf("lain lagi");
+        PredictionBatch decoded = PredictionCodec.decodeBatch(PredictionCodec.encode(batch), target);
+
+        assertEquals(batch.size(), decoded.size());
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals(batch.getClassName(i), decoded.getClassName(i));
+            assertEquals(batch.getConfidence(i), decoded.getConfidence(i), 0f);
+            assertEquals(batch.getLeft(i), decoded.getLeft(i), 0f);
+            assertEquals(batch.getBottom(i), decoded.getBottom(i), 0f);
+        }
+        assertNotEquals(batch.getClassId(0), decoded.getClassId(0));
+    }
+
+    @Test
+    public void codec_readsLegacyRecordFormat() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(1);
+            out.writeInt(1);
+            out.writeUTF("Sampah B3");
+            out.writeFloat(0.75f);
+            out.writeFloat(0.1f);
+            out.writeFloat(0.2f);
+            out.writeFloat(0.3f);
+            out.writeFloat(0.4f);
+        }
+
+        PredictionBatch batch = PredictionCodec.decodeBatch(bytes.toByteArray(), new ClassRegistry());
+
+        assertEquals(1, batch.size());
+        assertEquals("Sampah B3", batch.getClassName(0));
+        assertEquals(0.75f, batch.getConfidence(0), 0f);
+        assertEquals(0.4f, batch.getBottom(0), 0f);
+    }
+
+    @Test
+    public void codec_roundTripsEveryBoxCoordinate() throws IOException {
+        PredictionBatch batch = batchOf(new ClassRegistry(), "a", "b", "c");
+
+        PredictionBatch decoded = PredictionCodec.decodeBatch(PredictionCodec.encode(batch), new ClassRegistry());
+
+        assertArrayEquals(Arrays.copyOf(batch.getBoxes(), batch.size() * 4),
+                Arrays.copyOf(decoded.getBoxes(), decoded.size() * 4), 0f);
+        assertEquals(3f, decoded.getLeft(2), 0f);
+        assertEquals(6f, decoded.getBottom(2), 0f);
+    }
+
+    @Test
+    public void codec_rejectsTruncatedAndUnknownData() {
+        byte[] encoded = PredictionCodec.encode(batchOf(new ClassRegistry(), "a", "b"));
+        for (byte[] data : new byte[][]{
+                Arrays.copyOf(encoded, encoded.length - 1),
+                Arrays.copyOf(encoded, 6),
+                {9, 0, 0, 0, 0},
+                {}}) {
+            try {
+                PredictionCodec.decodeBatch(data, new ClassRegistry());
+                fail("Data tidak valid diterima: " + data.length + " byte");
+            } catch (IOException expected) {
+                // ok
+            }
+        }
+    }
+
+    /**
+     * Kotak pada adaptor List melewati android.graphics.RectF, yang di JVM hanya stub tanpa
+     * nilai; koordinat kotak diverifikasi lewat codec dan scaled. Di sini hanya kelas dan
+     * confidence yang diperiksa.
+     */
+    @Test
+    public void listAdapters_roundTripClassesAndConfidences() {
+        ClassRegistry registry = new ClassRegistry();
+        PredictionBatch batch = batchOf(registry, "Sampah Organik", "Sampah B3", "Sampah Organik");
+
+        List<RoboflowAPI.Prediction> predictions = batch.toPredictions();
+        PredictionBatch back = PredictionBatch.fromPredictions(predictions, new ClassRegistry());
+
+        assertEquals(2, registry.size());
+        assertEquals(batch.size(), predictions.size());
+        assertEquals(batch.size(), back.size());
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals(batch.getClassName(i), predictions.get(i).className);
+            assertEquals(batch.getClassName(i), back.getClassName(i));
+            assertEquals(batch.getConfidence(i), back.getConfidence(i), 0f);
+        }
+    }
+
+    @Test
+    public void scaledCopy_leavesOriginalUntouched() {
+        PredictionBatch batch = batchOf(new ClassRegistry(), "a");
+        PredictionBatch scaled = batch.scaled(2f, 10f);
+
+        assertEquals(2f, scaled.getLeft(0), 0f);
+        assertEquals(40f, scaled.getBottom(0), 0f);
+        assertEquals(1f, batch.getLeft(0), 0f);
+        assertEquals(4f, batch.getBottom(0), 0f);
+    }
+
+    @Test
+    public void legacyCallback_receivesBatchAsList() {
+        final List<List<RoboflowAPI.Prediction>> received = new ArrayList<>();
+        RoboflowAPI.ApiCallback legacy = new RoboflowAPI.ApiCallback() {
+            @Override
+            public void onSuccess(List<RoboflowAPI.Prediction> predictions) {
+                received.add(predictions);
+            }
+
+            @Override
+            public void onError(String error) {
+                fail(error);
+            }
+        };
+
+        legacy.onSuccess(batchOf(new ClassRegistry(), "x", "y"));
+
+        assertEquals(1, received.size());
+        assertEquals("y", received.get(0).get(1).className);
+    }
+
+    /**
+     * Klaim struct-of-arrays yang bisa diperiksa tanpa mengukur heap: batch tidak menyimpan
+     * objek per prediksi (Prediction, RectF, String), hanya array primitif dan registry.
+     */
+    @Test
+    public void batch_holdsNoPerPredictionObjects() throws IOException {
+        for (Field field : PredictionBatch.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            Class<?> type = field.getType();
+            boolean primitive = type.isPrimitive() || (type.isArray() && type.getComponentType().isPrimitive());
+            assertTrue(field.getName() + ": " + type.getSimpleName(), primitive || type == ClassRegistry.class);
+        }
+
+        // Jumlah array tetap tiga berapa pun jumlah prediksi; kapasitas hanya tumbuh dua kali lipat
+        PredictionBatch batch = new PredictionBatchParser(new ClassRegistry()).parse(new StringReader(response(5000, 4)));
+        assertEquals(5000, batch.size());
+        assertTrue(batch.getBoxes().length <= 2 * 5000 * 4);
+    }
+
+    /**
+     * Mengukur alokasi heap dari respons ke pelacak overlay untuk respons besar: jalur lama
+     * (List Prediction + RectF + lowercase per kotak) dibanding jalur batch. Hanya dengan
+     * -Pbenchmark ({@link Benchmark}).
+     */
+    @Test
+    public void benchmark_parseToRenderAllocations() throws Exception {
+        Benchmark.assumeEnabled();
+        int predictions = 500;
+        String json = response(predictions, 3);
+        ClassRegistry registry = new ClassRegistry();
+        PredictionBatchParser parser = new PredictionBatchParser(registry);
+        ObjectTracker tracker = new ObjectTracker();
+        PredictionResponseParser.Sink discard = (className, confidence, x, y, width, height) -> { };
+
+        // Alokasi tokenizer JSON sama untuk kedua jalur, jadi diukur terpisah dan dikurangkan
+        long tokenizer = Benchmark.bytesPerRun(50, 200, () -> PredictionResponseParser.parse(new StringReader(json), discard));
+        long legacy = Benchmark.bytesPerRun(50, 200, () -> tracker.update(0, parseLegacy(json), registry));
+        long batch = Benchmark.bytesPerRun(50, 200, () -> tracker.update(0, parser.parse(new StringReader(json))));
+
+        if (tokenizer < 0) {
+            Benchmark.report("Alokasi per thread tidak didukung JVM ini");
+            return;
+        }
+        double legacyPer = (legacy - tokenizer) / (double) predictions;
+        double batchPer = (batch - tokenizer) / (double) predictions;
+        Benchmark.report("Alokasi per prediksi (%d prediksi): tokenizer JSON %.0f B, + List %.0f B, + batch %.0f B",
+                predictions, tokenizer / (double) predictions, legacyPer, batchPer);
+    }
+
+    /** Salinan jalur parse lama di RoboflowAPI sebelum PredictionBatch. */
+    private static List<RoboflowAPI.Prediction> parseLegacy(String json) throws IOException {
+        List<RoboflowAPI.Prediction> list = new ArrayList<>();
+        PredictionResponseParser.parse(new StringReader(json), (className, confidence, x, y, width, height) -> {
+            if (width > 0 && height > 0) {
+                RectF box = new RectF(x - (width / 2), y - (height / 2), x + (width / 2), y + (height / 2));
+                String readable;
+                switch (className.toLowerCase()) {
+                    case "b3": readable = "Sampah B3"; break;
+                    case "anorganik": readable = "Sampah Anorganik"; break;
+                    case "organik": readable = "Sampah Organik"; break;
+                    default: readable = className;
+                }
+                list.add(new RoboflowAPI.Prediction(readable, confidence, box));
+            }
+        });
+        return list;
+    }
+
+    /** Batch dengan kotak {@code (i+1, i+2, i+3, i+4)} untuk prediksi ke-i. */
+    private static PredictionBatch batchOf(ClassRegistry registry, String... classNames) {
+        PredictionBatch batch = new PredictionBatch(registry, classNames.length);
+        for (int i = 0; i < classNames.length; i++) {
+            batch.add(registry.idOf(classNames[i]), 0.5f + i * 0.1f, i + 1, i + 2, i + 3, i + 4);
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.cohia.api;
+
+import com.example.cohia.Benchmark;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PredictionPostProcessorTest {
+
+    private static PredictionPostProcessor.Config config(PredictionPostProcessor.Suppression suppression) {
+        PredictionPostProcessor.Config config = new PredictionPostProcessor.Config();
+        config.suppression = suppression;
+        config.maxDetections = 0;
+        return config;
+    }
+
+    /**
+     * Batch sintetis menyerupai output detektor: setiap objek menghasilkan beberapa kotak
+     * bergeser sedikit dengan confidence berbeda, ditambah derau acak.
+     */
+    private static PredictionBatch syntheticBatch(int count, long seed) {
+        Random random = new Random(seed);
+        PredictionBatch batch = new PredictionBatch(new ClassRegistry(), count);
+        float extent = (float) Math.sqrt(count) * 40;
+        while (batch.size() < count) {
+            float cx = random.nextFloat() * extent;
+            float cy = random.nextFloat() * extent;
+            float w = 15 + random.nextFloat() * 50;
+            float h = 15 + random.nextFloat() * 50;
+            int classId = random.nextInt(3);
+            int duplicates = 1 + random.nextInt(6);
+            for (int d = 0; d < duplicates && batch.size() < count; d++) {
+                float jx = (random.nextFloat() - 0.5f) * w * 0.3f;
+                float jy = (random.nextFloat() - 0.5f) * h * 0.3f;
+                batch.add(random.nextInt(8) == 0 ? (classId + 1) % 3 : classId, random.nextFloat(),
+                        cx + jx - w / 2, cy + jy - h / 2, cx + jx + w / 2, cy + jy + h / 2);
+            }
+        }
+        return batch;
+    }
+
+    private static List<String> rows(PredictionBatch batch) {
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            rows.add(String.format(Locale.US, "%d %.6f %.3f %.3f %.3f %.3f", batch.getClassId(i),
+                    batch.getConfidence(i), batch.getLeft(i), batch.getTop(i), batch.getRight(i), batch.getBottom(i)));
+        }
+        return rows;
+    }
+
+    /** Implementasi acuan O(n^2) langsung dari definisi greedy NMS / soft-NMS. */
+    private static PredictionBatch reference(PredictionBatch input, PredictionPostProcessor.Config config) {
+        int n = input.size();
+        float[] scores = Arrays.copyOf(input.getConfidences(), n);
+        boolean[] removed = new boolean[n];
+        int[] perClass = new int[16];
+        int limit = config.maxDetections > 0 ? config.maxDetections : Integer.MAX_VALUE;
+        PredictionBatch out = new PredictionBatch(input.getRegistry());
+        boolean soft = config.suppression == PredictionPostProcessor.Suppression.SOFT_LINEAR
+                || config.suppression == PredictionPostProcessor.Suppression.SOFT_GAUSSIAN;
+        while (out.size() < limit) {
+            int best = -1;
+            for (int i = 0; i < n; i++) {
+                if (!removed[i] && scores[i] >= config.minConfidence
+                        && (best < 0 || scores[i] > scores[best])) {
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            removed[best] = true;
+            int classId = input.getClassId(best);
+            if (config.topKPerClass <= 0 || perClass[classId] < config.topKPerClass) {
+                perClass[classId]++;
+                out.add(classId, scores[best], input.getLeft(best), input.getTop(best),
+                        input.getRight(best), input.getBottom(best));
+            }
+            if (config.suppression == PredictionPostProcessor.Suppression.NONE) {
+                continue;
+            }
+            for (int j = 0; j < n; j++) {
+                if (removed[j] || (config.classAware && input.getClassId(j) != classId)) {
+                    continue;
+                }
+                float overlap = PredictionPostProcessor.iou(input.getBoxes(), best, j);
+                if (!soft) {
+                    if (overlap > config.iouThreshold) {
+                        removed[j] = true;
+                    }
+                } else if (config.suppression == PredictionPostProcessor.Suppression.SOFT_GAUSSIAN) {
+                    float weight = (float) Math.exp(-(overlap * overlap) / config.softSigma);
+                    if (weight < 1f) scores[j] *= weight;
+                } else if (overlap > config.iouThreshold) {
+                    scores[j] *= 1f - overlap;
+                }
+            }
+        }
+        return out;
+    }
+
+    @Test
+    public void thresholdAndSort_keepConfidentPredictionsInDescendingOrder() {
+        PredictionBatch batch = new PredictionBatch(new ClassRegistry());
+        batch.add(0, 0.3f, 0, 0, 10, 10);
+        batch.add(1, 0.1f, 20, 0, 30, 10);
+        batch.add(2, 0.9f, 40, 0, 50, 10);
+        batch.add(0, Float.NaN, 60, 0, 70, 10);
+
+        int count = new PredictionPostProcessor(config(PredictionPostProcessor.Suppression.NONE)).process(batch);
+
+        assertEquals(2, count);
+        assertEquals(0.9f, batch.getConfidence(0), 0f);
+        assertEquals(2, batch.getClassId(0));
+        assertEquals(0.3f, batch.getConfidence(1), 0f);
+        assertEquals(0f, batch.getLeft(1), 0f);
+    }
+
+    @Test
+    public void hardNms_suppressesSameClassOnlyUnlessAgnostic() {
+        PredictionBatch batch = new PredictionBatch(new ClassRegistry());
+        batch.add(0, 0.9f, 0, 0, 100, 100);
+        batch.add(0, 0.8f, 5, 5, 105, 105);   // duplikat kelas sama
+        batch.add(1, 0.7f, 2, 2, 102, 102);   // kelas lain di tempat sama
+        batch.add(0, 0.6f, 300, 300, 400, 400);
+        PredictionPostProcessor.Config config = config(PredictionPostProcessor.Suppression.HARD);
+
+        PredictionBatch aware = batch.copy();
+        new PredictionPostProcessor(config).process(aware);
+        assertEquals(Arrays.asList(0.9f, 0.7f, 0.6f), confidences(aware));
+
+        config.classAware = false;
+        PredictionBatch agnostic = batch.copy();
+        new PredictionPostProcessor(config).process(agnostic);
+        assertEquals(Arrays.asList(0.9f, 0.6f), confidences(agnostic));
+    }
+
+    @Test
+    public void softNms_decaysOverlappingScoresInsteadOfRemoving() {
+        PredictionBatch batch = new PredictionBatch(new ClassRegistry());
+        batch.add(0, 0.9f, 0, 0, 100, 100);
+        batch.add(0, 0.8f, 10, 0, 110, 100);  // IoU = 90/110
+        PredictionPostProcessor.Config config = config(PredictionPostProcessor.Suppression.SOFT_LINEAR);
+        config.minConfidence = 0.1f;
+
+        new PredictionPostProcessor(config).process(batch);
+
+        assertEquals(2, batch.size());
+        assertEquals(0.8f * (1f - 90f / 110f), batch.getConfidence(1), 1e-6f);
+    }
+
+    @Test
+    public void topKPerClassAndMaxDetections_limitResults() {
+        PredictionBatch batch = new PredictionBatch(new ClassRegistry());
+        for (int i = 0; i < 10; i++) {
+            batch.add(i % 2, 0.5f + i * 0.01f, i * 20, 0, i * 20 + 10, 10);
+        }
+        PredictionPostProcessor.Config config = config(PredictionPostProcessor.Suppression.HARD);
+        config.topKPerClass = 2;
+
+        PredictionBatch perClass = batch.copy();
+        new PredictionPostProcessor(config).process(perClass);
+        assertEquals(Arrays.asList(0.59f, 0.58f, 0.57f, 0.56f), confidences(perClass));
+
+        config.topKPerClass = 0;
+        config.maxDetections = 3;
+        new PredictionPostProcessor(config).process(batch);
+        assertEquals(Arrays.asList(0.59f, 0.58f, 0.57f), confidences(batch));
+    }
+
+    @Test
+    public void gridAndPairwise_matchReferenceForAllModes() {
+        for (PredictionPostProcessor.Suppression suppression : PredictionPostProcessor.Suppression.values()) {
+            for (boolean classAware : new boolean[]{true, false}) {
+                for (int n : new int[]{1, 50, 300, 1500}) {
+                    PredictionBatch input = syntheticBatch(n, n * 31L + suppression.ordinal());
+                    PredictionPostProcessor.Config config = config(suppression);
+                    config.classAware = classAware;
+                    config.minConfidence = 0.05f;
+                    config.topKPerClass = n > 1000 ? 100 : 0;
+                    List<String> expected = rows(reference(input, config));
+                    String label = suppression + " classAware=" + classAware + " n=" + n;
+
+                    config.gridThreshold = Integer.MAX_VALUE;
+                    PredictionBatch pairwise = input.copy();
+                    new PredictionPostProcessor(config).process(pairwise);
+                    assertEquals(label + " (pasangan)", expected, rows(pairwise));
+
+                    config.gridThreshold = 0;
+                    PredictionBatch grid = input.copy();
+                    new PredictionPostProcessor(config).process(grid);
+                    assertEquals(label + " (grid)", expected, rows(grid));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void processor_reusesWorkspaceAcrossBatchSizes() {
+        PredictionPostProcessor processor = new PredictionPostProcessor(config(PredictionPostProcessor.Suppression.HARD));
+        processor.getConfig().gridThreshold = 0;
+        for (int n : new int[]{2000, 10, 500, 0, 3000}) {
+            PredictionBatch input = syntheticBatch(n, n);
+            PredictionBatch expected = reference(input, processor.getConfig());
+            processor.process(input);
+            assertEquals("n=" + n, rows(expected), rows(input));
+        }
+    }
+
+    private static List<Float> confidences(PredictionBatch batch) {
+        List<Float> list = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            list.add(batch.getConfidence(i));
+        }
+        return list;
+    }
+
+    /**
+     * Benchmark gaya JMH pada 1k-10k kotak sintetis: fork tidak tersedia, jadi setiap skenario
+     * mendapat iterasi pemanasan lalu iterasi terukur pada input yang sama, dilaporkan sebagai
+     * rata-rata +- simpangan baku. Hanya dengan -Pbenchmark ({@link Benchmark}).
+     */
+    @Test
+    public void benchmark_syntheticBoxes1kTo10k() {
+        Benchmark.assumeEnabled();
+        Benchmark.report("%-26s %6s  %-14s %10s  %s", "Skenario", "n", "mode", "us/op", "(+- sd)");
+        for (int n : new int[]{1000, 2000, 5000, 10000}) {
+            PredictionBatch input = syntheticBatch(n, 42 + n);
+            runScenario("HARD grid", input, PredictionPostProcessor.Suppression.HARD, 0);
+            runScenario("HARD pasangan", input, PredictionPostProcessor.Suppression.HARD, Integer.MAX_VALUE);
+            runScenario("SOFT_GAUSSIAN grid", input, PredictionPostProcessor.Suppression.SOFT_GAUSSIAN, 0);
+        }
+    }
+
+    private static void runScenario(String name, PredictionBatch input,
+                                    PredictionPostProcessor.Suppression suppression, int gridThreshold) {
+        PredictionPostProcessor.Config config = config(suppression);
+        config.gridThreshold = gridThreshold;
+        config.minConfidence = 0.05f;
+        PredictionPostProcessor processor = new PredictionPostProcessor(config);
+        PredictionBatch work = new PredictionBatch(input.getRegistry(), input.size());
+
+        int warmup = 5;
+        int iterations = 10;
+        double[] micros = new double[iterations];
+        for (int i = 0; i < warmup + iterations; i++) {
+            // Salinan input tidak ikut diukur; process mengubah batch di tempat
+            work.size = 0;
+            for (int j = 0; j < input.size(); j++) {
+                work.add(input.getClassId(j), input.getConfidence(j), input.getLeft(j), input.getTop(j),
+                        input.getRight(j), input.getBottom(j));
+            }
+            long start = System.nanoTime();
+            processor.process(work);
+            if (i >= warmup) {
+                micros[i - warmup] = (System.nanoTime() - start) / 1e3;
+            }
+        }
+        double mean = 0;
+        for (double value : micros) mean += value;
+        mean /= iterations;
+        double variance = 0;
+        for (double value : micros) variance += (value - mean) * (value - mean);
+        Benchmark.report("%-26s %6d  %-14s %10.1f  (+- %.1f)", name, input.size(), suppression, mean,
+                Math.sqrt(variance / iterations));
+    }
+}
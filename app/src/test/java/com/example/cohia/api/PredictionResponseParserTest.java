@@ -0,0 +1,180 @@
+package com.example.cohia.api;
+
+import com.example.cohia.Benchmark;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class PredictionResponseParserTest {
+
+    /** Sink yang mengumpulkan prediksi sebagai string agar mudah dibandingkan. */
+    private static class CollectingSink implements PredictionResponseParser.Sink {
+        final List<String> items = new ArrayList<>();
+
+        @Override
+        public void onPrediction(String className, float confidence, float x, float y, float width, float height) {
+            items.add(String.format(Locale.US, "%s %.3f %.1f %.1f %.1f %.1f", className, confidence, x, y, width, height));
+        }
+    }
+
+    private static List<String> parse(String json) throws IOException {
+        CollectingSink sink = new CollectingSink();
+        int count = PredictionResponseParser.parse(new StringReader(json), sink);
+        assertEquals(sink.items.size(), count);
+        return sink.items;
+    }
+
+    @Test
+    public void parsesNestedWorkflowOutputs() throws IOException {
+        String json = "{\"outputs\":[{\"count_objects\":1,\"output_image\":{\"type\":\"base64\",\"value\":\"QUJD\"},"
+                + "\"predictions\":{\"image\":{\"width\":640,\"height\":480},\"predictions\":["
+                + "{\"x\":100,\"y\":50,\"width\":20,\"height\":10,\"confidence\":0.9,\"class\":\"organik\",\"class_id\":2}]}}]}";
+
+        assertEquals(Collections.singletonList("organik 0.900 100.0 50.0 20.0 10.0"), parse(json));
+    }
+
+    @Test
+    public void parsesBareArrayOutputsAndConcatenatesEntries() throws IOException {
+        String json = "{\"outputs\":["
+                + "{\"predictions\":[{\"class\":\"b3\",\"confidence\":0.5,\"x\":1,\"y\":2,\"width\":3,\"height\":4}]},"
+                + "{\"predictions\":[{\"class\":\"anorganik\",\"confidence\":0.6,\"x\":5,\"y\":6,\"width\":7,\"height\":8}]}]}";
+
+        List<String> items = parse(json);
+
+        assertEquals(2, items.size());
+        assertEquals("b3 0.500 1.0 2.0 3.0 4.0", items.get(0));
+        assertEquals("anorganik 0.600 5.0 6.0 7.0 8.0", items.get(1));
+    }
+
+    @Test
+    public void parsesRootPredictionsWhenOutputsMissing() throws IOException {
+        assertEquals(1, parse("{\"predictions\":[{\"class\":\"a\",\"x\":1,\"y\":1,\"width\":1,\"height\":1}]}").size());
+        assertEquals(1, parse("{\"predictions\":{\"predictions\":[{\"class\":\"a\"}]}}").size());
+    }
+
+    @Test
+    public void appliesOptDoubleStyleDefaults() throws IOException {
+        String json = "{\"predictions\":[{\"confidence\":null,\"x\":\"12.5\",\"y\":\"abc\",\"width\":true,\"points\":[{\"x\":9}]}]}";
+
+        assertEquals(Collections.singletonList("Unknown 0.000 12.5 0.0 0.0 0.0"), parse(json));
+    }
+
+    @Test
+    public void ignoresUnexpectedShapes() throws IOException {
+        assertTrue(parse("{\"outputs\":[1,\"x\",{\"predictions\":\"none\"}],\"other\":{}}").isEmpty());
+        assertTrue(parse("{}").isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedBody_throwsIOException() throws IOException {
+        parse("{\"outputs\":[{\"predictions\":[{\"x\":1");
+    }
+
+    // --- Respons besar: kesetaraan dengan parse tree, dan benchmark opsional (-Pbenchmark) ---
+
+    /**
+     * Membuat respons mirip detect-count-and-visualize: gambar visualisasi base64 beberapa MB
+     * plus sejumlah prediksi.
+     */
+    private static String recordedStyleResponse(int imageBytes, int predictions) {
+        Random random = new Random(7);
+        char[] base64 = new char[(imageBytes + 2) / 3 * 4];
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < base64.length; i++) {
+            base64[i] = alphabet.charAt(random.nextInt(64));
+        }
+
+        StringBuilder json = new StringBuilder(base64.length + predictions * 200 + 256);
+        json.append("{\"outputs\":[{\"count_objects\":").append(predictions)
+                .append(",\"output_image\":{\"type\":\"base64\",\"value\":\"").append(base64)
+                .append("\",\"video_metadata\":{\"video_identifier\":\"image\",\"frame_number\":0}},")
+                .append("\"predictions\":{\"image\":{\"width\":4000,\"height\":3000},\"predictions\":[");
+        String[] classes = {"organik", "anorganik", "b3"};
+        for (int i = 0; i < predictions; i++) {
+            if (i > 0) json.append(',');
+            json.append(String.format(Locale.US,
+                    "{\"width\":%.1f,\"height\":%.1f,\"x\":%.1f,\"y\":%.1f,\"confidence\":%.4f,"
+                            + "\"class_id\":%d,\"class\":\"%s\",\"detection_id\":\"%s\",\"parent_id\":\"image\"}",
+                    20 + random.nextFloat() * 300, 20 + random.nextFloat() * 300,
+                    random.nextFloat() * 4000, random.nextFloat() * 3000, random.nextFloat(),
+                    i % 3, classes[i % 3], UUID.randomUUID()));
+        }
+        json.append("]}}]}");
+        return json.toString();
+    }
+
+    /** Satu prediksi sebagai tuple (kelas, confidence, x, y, lebar, tinggi) untuk perbandingan persis. */
+    private static List<Object> tuple(String className, float confidence, float x, float y, float width, float height) {
+        return Arrays.<Object>asList(className, confidence, x, y, width, height);
+    }
+
+    /**
+     * Pembanding: membangun tree JSON penuh seperti parser org.json lama (optDouble lalu cast
+     * ke float).
+     */
+    private static List<List<Object>> parseWithTree(String json) {
+        JsonObject root = JsonParser.parseString(json).getAsJsonObject();
+        List<List<Object>> tuples = new ArrayList<>();
+        for (JsonElement output : root.getAsJsonArray("outputs")) {
+            JsonArray predictions = output.getAsJsonObject().getAsJsonObject("predictions").getAsJsonArray("predictions");
+            for (JsonElement p : predictions) {
+                JsonObject o = p.getAsJsonObject();
+                tuples.add(tuple(o.get("class").getAsString(),
+                        (float) o.get("confidence").getAsDouble(),
+                        (float) o.get("x").getAsDouble(), (float) o.get("y").getAsDouble(),
+                        (float) o.get("width").getAsDouble(), (float) o.get("height").getAsDouble()));
+            }
+        }
+        return tuples;
+    }
+
+    private static List<List<Object>> parseStreaming(String json) throws IOException {
+        List<List<Object>> tuples = new ArrayList<>();
+        int count = PredictionResponseParser.parse(new StringReader(json),
+                (c, conf, x, y, w, h) -> tuples.add(tuple(c, conf, x, y, w, h)));
+        assertEquals(tuples.size(), count);
+        return tuples;
+    }
+
+    @Test
+    public void streaming_matchesTreeOnMultiMegabyteResponse() throws IOException {
+        String json = recordedStyleResponse(3 * 1024 * 1024, 300);
+
+        List<List<Object>> streamed = parseStreaming(json);
+
+        assertEquals(300, streamed.size());
+        assertEquals(parseWithTree(json), streamed);
+    }
+
+    @Test
+    public void benchmark_streamingVersusTreeOnMultiMegabyteResponse() throws Exception {
+        Benchmark.assumeEnabled();
+        String json = recordedStyleResponse(3 * 1024 * 1024, 300);
+        PredictionResponseParser.Sink discard = (c, conf, x, y, w, h) -> { };
+
+        double streamingMs = Benchmark.millisPerRun(3, 10,
+                () -> PredictionResponseParser.parse(new StringReader(json), discard));
+        double treeMs = Benchmark.millisPerRun(3, 10, () -> JsonParser.parseString(json));
+        long streamingBytes = Benchmark.bytesPerRun(3, 10,
+                () -> PredictionResponseParser.parse(new StringReader(json), discard));
+        long treeBytes = Benchmark.bytesPerRun(3, 10, () -> JsonParser.parseString(json));
+
+        Benchmark.report("Respons %.1f MB, 300 prediksi: streaming %.2f ms / %d KB, tree %.2f ms / %d KB",
+                json.length() / 1048576.0, streamingMs, streamingBytes / 1024, treeMs, treeBytes / 1024);
+    }
+}
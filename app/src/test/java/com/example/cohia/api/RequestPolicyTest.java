@@ -0,0 +1,123 @@
+package com.example.cohia.api;
+
+import com.example.cohia.LatencyHistogram;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RequestPolicyTest {
+
+    private static RequestPolicy.Config retryConfig() {
+        RequestPolicy.Config config = new RequestPolicy.Config();
+        config.maxAttempts = 4;
+        config.baseBackoffMillis = 100;
+        config.maxBackoffMillis = 1000;
+        return config;
+    }
+
+    private static LatencyHistogram histogramOf(int samples, long millis) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < samples; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+        return histogram;
+    }
+
+    @Test
+    public void backoff_growsExponentially_withinJitterBounds() {
+        RequestPolicy policy = new RequestPolicy(retryConfig(), new Random(42));
+        for (int i = 0; i < 200; i++) {
+            long first = policy.backoffMillis(1);
+            long second = policy.backoffMillis(2);
+            long third = policy.backoffMillis(3);
+            assertTrue(first >= 50 && first <= 100);
+            assertTrue(second >= 100 && second <= 200);
+            assertTrue(third >= 200 && third <= 400);
+        }
+    }
+
+    @Test
+    public void backoff_isCappedAtMax() {
+        RequestPolicy policy = new RequestPolicy(retryConfig(), new Random(42));
+        for (int retry = 5; retry < 70; retry++) {
+            long delay = policy.backoffMillis(retry);
+            assertTrue(delay >= 500 && delay <= 1000);
+        }
+    }
+
+    @Test
+    public void backoff_isJittered_andDeterministicForSeed() {
+        RequestPolicy a = new RequestPolicy(retryConfig(), new Random(7));
+        RequestPolicy b = new RequestPolicy(retryConfig(), new Random(7));
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < 100; i++) {
+            long delay = a.backoffMillis(3);
+            assertEquals(delay, b.backoffMillis(3));
+            min = Math.min(min, delay);
+            max = Math.max(max, delay);
+        }
+        // Klien yang gagal bersamaan tidak mencoba ulang pada saat yang sama
+        assertTrue(max - min > 50);
+    }
+
+    @Test
+    public void retryAfter_overridesBackoff_butIsCapped() {
+        RequestPolicy policy = new RequestPolicy(retryConfig(), new Random(42));
+        assertEquals(0, policy.retryDelayMillis(1, 0));
+        assertEquals(1000, policy.retryDelayMillis(1, 30_000));
+        assertEquals(2000, RequestPolicy.retryAfterMillis(" 2 "));
+        assertEquals(-1, RequestPolicy.retryAfterMillis(null));
+        assertEquals(-1, RequestPolicy.retryAfterMillis("Wed, 21 Oct 2015 07:28:00 GMT"));
+        assertEquals(-1, RequestPolicy.retryAfterMillis("-3"));
+    }
+
+    @Test
+    public void retryableStatus_coversTransientServerErrorsOnly() {
+        assertTrue(RequestPolicy.isRetryableStatus(408));
+        assertTrue(RequestPolicy.isRetryableStatus(429));
+        assertTrue(RequestPolicy.isRetryableStatus(500));
+        assertTrue(RequestPolicy.isRetryableStatus(502));
+        assertTrue(RequestPolicy.isRetryableStatus(503));
+        assertTrue(RequestPolicy.isRetryableStatus(504));
+        assertFalse(RequestPolicy.isRetryableStatus(400));
+        assertFalse(RequestPolicy.isRetryableStatus(401));
+        assertFalse(RequestPolicy.isRetryableStatus(404));
+        assertFalse(RequestPolicy.isRetryableStatus(501));
+        assertFalse(RequestPolicy.isRetryableStatus(505));
+    }
+
+    @Test
+    public void hedgeDelay_needsSamples_andIsClampedP95() {
+        RequestPolicy policy = RequestPolicy.capture();
+        assertEquals(-1, policy.hedgeDelayMillis(histogramOf(19, 400)));
+
+        long delay = policy.hedgeDelayMillis(histogramOf(20, 400));
+        // p95 dibulatkan ke atas oleh bucket histogram (presisi relatif ~19%)
+        assertTrue("Jeda hedge " + delay, delay >= 400 && delay <= 480);
+
+        assertEquals(150, policy.hedgeDelayMillis(histogramOf(50, 5)));
+        assertEquals(5000, policy.hedgeDelayMillis(histogramOf(50, 20_000)));
+    }
+
+    @Test
+    public void livePolicy_neverHedgesOrRetries() {
+        RequestPolicy policy = RequestPolicy.live();
+        assertEquals(1, policy.getMaxAttempts());
+        assertTrue(policy.isGatedByCircuitBreaker());
+        assertEquals(-1, policy.hedgeDelayMillis(histogramOf(100, 400)));
+        assertFalse(RequestPolicy.capture().isGatedByCircuitBreaker());
+    }
+
+    @Test
+    public void singlePolicy_sendsOnceWithoutBreaker() {
+        RequestPolicy policy = RequestPolicy.single();
+        assertEquals(1, policy.getMaxAttempts());
+        assertFalse(policy.isGatedByCircuitBreaker());
+        assertEquals(-1, policy.hedgeDelayMillis(histogramOf(100, 400)));
+    }
+}
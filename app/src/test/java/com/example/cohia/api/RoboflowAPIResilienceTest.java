@@ -0,0 +1,280 @@
+package com.example.cohia.api;
+
+import com.example.cohia.ByteArrayPool;
+import com.example.cohia.PooledByteArrayOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Menguji retry, hedge, dan circuit breaker {@link RoboflowAPI} terhadap MockWebServer yang
+ * mengembalikan urutan respons yang sudah ditentukan. Setiap request memakai {@link RoboflowAPI.Lane}
+ * eksplisit, kecuali pengujian overload tanpa jalur.
+ */
+public class RoboflowAPIResilienceTest {
+
+    private static final String SUCCESS_BODY = "{\"outputs\":[{\"predictions\":["
+            + "{\"class\":\"b3\",\"confidence\":0.9,\"x\":10,\"y\":10,\"width\":4,\"height\":4}]}]}";
+
+    private MockWebServer server;
+    private final AtomicLong now = new AtomicLong();
+    private CircuitBreaker breaker;
+    private RoboflowAPI api;
+    private final ByteArrayPool pool = new ByteArrayPool(1024 * 1024);
+    // Melepas respons yang ditahan dispatcher, agar server bisa dihentikan
+    private CountDownLatch releaseFirst;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        CircuitBreaker.Config breakerConfig = new CircuitBreaker.Config();
+        breakerConfig.failureThreshold = 2;
+        breakerConfig.openMillis = 1000;
+        breaker = new CircuitBreaker(breakerConfig, now::get);
+        api = new RoboflowAPI(server.url("/infer").toString(), "kunci-uji", UploadTransport.RAW_BYTES,
+                new OkHttpClient(), breaker);
+        api.setPostProcessor(null);
+        api.setPolicy(RoboflowAPI.Lane.CAPTURE, new RequestPolicy(retryConfig(), new Random(42)));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (releaseFirst != null) {
+            releaseFirst.countDown();
+        }
+        server.shutdown();
+    }
+
+    private static RequestPolicy.Config retryConfig() {
+        RequestPolicy.Config config = new RequestPolicy.Config();
+        config.maxAttempts = 3;
+        config.baseBackoffMillis = 10;
+        config.maxBackoffMillis = 40;
+        return config;
+    }
+
+    private static class Result extends RoboflowAPI.BatchCallback {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile PredictionBatch batch;
+        volatile String error;
+
+        @Override
+        public void onSuccess(PredictionBatch batch) {
+            this.batch = batch;
+            done.countDown();
+        }
+
+        @Override
+        public void onError(String error) {
+            this.error = error;
+            done.countDown();
+        }
+
+        Result await() throws InterruptedException {
+            assertTrue("Callback tidak dipanggil", done.await(10, TimeUnit.SECONDS));
+            return this;
+        }
+    }
+
+    private PooledByteArrayOutputStream jpeg() {
+        PooledByteArrayOutputStream out = new PooledByteArrayOutputStream(pool, 1024);
+        out.write(new byte[1024], 0, 1024);
+        return out;
+    }
+
+    private Result send(RoboflowAPI.Lane lane) throws InterruptedException {
+        Result result = new Result();
+        api.detectGarbage(jpeg(), lane, result);
+        return result.await();
+    }
+
+    private static MockResponse status(int code) {
+        return new MockResponse().setResponseCode(code).setBody("gangguan " + code);
+    }
+
+    private void awaitBufferReleased() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (pool.getPooledBytes() == 0) {
+            assertTrue("Buffer tidak dikembalikan ke pool", System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void transientErrors_areRetried_untilSuccess() throws Exception {
+        server.enqueue(status(503));
+        server.enqueue(status(502));
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+
+        Result result = send(RoboflowAPI.Lane.CAPTURE);
+
+        assertNull(result.error);
+        assertEquals(1, result.batch.size());
+        assertEquals(3, server.getRequestCount());
+        awaitBufferReleased();
+    }
+
+    @Test
+    public void exhaustedRetries_reportLastError() throws Exception {
+        server.enqueue(status(503));
+        server.enqueue(status(503));
+        server.enqueue(status(500));
+
+        Result result = send(RoboflowAPI.Lane.CAPTURE);
+
+        assertNull(result.batch);
+        assertTrue(result.error, result.error.startsWith("HTTP Error: 500"));
+        assertEquals(3, server.getRequestCount());
+        awaitBufferReleased();
+    }
+
+    @Test
+    public void retryAfterHeader_isHonored() throws Exception {
+        server.enqueue(status(429).setHeader("Retry-After", "0"));
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+
+        assertNull(send(RoboflowAPI.Lane.CAPTURE).error);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void clientError_isNotRetried_andDoesNotOpenBreaker() throws Exception {
+        server.enqueue(status(400));
+        server.enqueue(status(400));
+
+        assertTrue(send(RoboflowAPI.Lane.CAPTURE).error.startsWith("HTTP Error: 400"));
+        assertTrue(send(RoboflowAPI.Lane.CAPTURE).error.startsWith("HTTP Error: 400"));
+        assertEquals(2, server.getRequestCount());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void openBreaker_rejectsLiveWithoutSending_thenProbeCloses() throws Exception {
+        server.enqueue(status(503));
+        server.enqueue(status(503));
+        assertNotNull(send(RoboflowAPI.Lane.LIVE).error);
+        assertNotNull(send(RoboflowAPI.Lane.LIVE).error);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Result rejected = send(RoboflowAPI.Lane.LIVE);
+        assertTrue(rejected.error, rejected.error.startsWith("Layanan deteksi sedang gangguan"));
+        assertEquals(2, server.getRequestCount());
+        awaitBufferReleased();
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+        assertNull(send(RoboflowAPI.Lane.LIVE).error);
+        assertEquals(3, server.getRequestCount());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void openBreaker_stillSendsCapture() throws Exception {
+        breaker.onFailure();
+        breaker.onFailure();
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+
+        assertNull(send(RoboflowAPI.Lane.CAPTURE).error);
+        assertEquals(1, server.getRequestCount());
+        // Capture yang berhasil membuktikan endpoint sudah pulih
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void slowFirstAttempt_isHedged_andFasterResponseWins() throws Exception {
+        RequestPolicy.Config config = retryConfig();
+        config.maxAttempts = 2;
+        config.hedge = true;
+        config.hedgeMinSamples = 0;
+        config.minHedgeDelayMillis = 100;
+        api.setPolicy(RoboflowAPI.Lane.CAPTURE, new RequestPolicy(config, new Random(42)));
+        // Percobaan pertama ditahan server sampai pengujian selesai memeriksa hasil, jadi hanya
+        // hedge yang bisa menjawab; kelas pada body menunjukkan respons mana yang menang.
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        this.releaseFirst = releaseFirst;
+        AtomicInteger arrivals = new AtomicInteger();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                if (arrivals.incrementAndGet() == 1) {
+                    releaseFirst.await(10, TimeUnit.SECONDS);
+                    return new MockResponse().setBody(SUCCESS_BODY.replace("b3", "organik"));
+                }
+                return new MockResponse().setBody(SUCCESS_BODY);
+            }
+        });
+
+        Result result = send(RoboflowAPI.Lane.CAPTURE);
+
+        assertNull(result.error);
+        assertEquals(2, arrivals.get());
+        assertEquals(1, releaseFirst.getCount());
+        assertEquals("Sampah B3", result.batch.getClassName(0));
+        releaseFirst.countDown();
+        // Percobaan lambat dibatalkan, baru setelah itu buffer dikembalikan
+        awaitBufferReleased();
+    }
+
+    @Test
+    public void laneLessOverload_isSentOnce_withoutRetry() throws Exception {
+        server.enqueue(status(503));
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+
+        Result result = new Result();
+        api.detectGarbage(jpeg(), result);
+
+        assertTrue(result.await().error, result.error.startsWith("HTTP Error: 503"));
+        assertEquals(1, server.getRequestCount());
+        awaitBufferReleased();
+    }
+
+    @Test
+    public void canceledRequest_isNotRetried_andSkipsCallback() throws Exception {
+        server.enqueue(status(503).setHeadersDelay(200, TimeUnit.MILLISECONDS));
+        Result result = new Result();
+        DetectionCall call = api.detectGarbage(jpeg(), RoboflowAPI.Lane.CAPTURE, result);
+        server.takeRequest(5, TimeUnit.SECONDS);
+        call.cancel();
+
+        assertFalse(result.done.await(500, TimeUnit.MILLISECONDS));
+        assertEquals(1, server.getRequestCount());
+        awaitBufferReleased();
+    }
+
+    @Test
+    public void canceledCapture_doesNotFreeProbeOfLiveRequest() throws Exception {
+        breaker.onFailure();
+        breaker.onFailure();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        // Request percobaan live sedang berjalan
+        assertTrue(breaker.tryAcquire() > 0);
+
+        server.enqueue(status(503).setHeadersDelay(200, TimeUnit.MILLISECONDS));
+        DetectionCall call = api.detectGarbage(jpeg(), RoboflowAPI.Lane.CAPTURE, new Result());
+        server.takeRequest(5, TimeUnit.SECONDS);
+        call.cancel();
+        awaitBufferReleased();
+
+        assertFalse(breaker.isAcceptingRequests());
+        Result rejected = send(RoboflowAPI.Lane.LIVE);
+        assertTrue(rejected.error, rejected.error.startsWith("Layanan deteksi sedang gangguan"));
+        assertEquals(1, server.getRequestCount());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.cohia.api;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Random;
+
+import okio.Buffer;
+
+import static org.junit.Assert.*;
+
+public class StreamingImageRequestBodyTest {
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static JsonObject writeAndParse(StreamingImageRequestBody body) throws IOException {
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        assertEquals(body.contentLength(), buffer.size());
+        return JsonParser.parseString(buffer.readUtf8()).getAsJsonObject();
+    }
+
+    @Test
+    public void writesWorkflowEnvelopeWithBase64Image() throws IOException {
+        byte[] image = randomBytes(1000);
+
+        JsonObject payload = writeAndParse(new StreamingImageRequestBody("kunci-api", image));
+
+        assertEquals("kunci-api", payload.get("api_key").getAsString());
+        JsonObject imageObject = payload.getAsJsonObject("inputs").getAsJsonObject("image");
+        assertEquals("base64", imageObject.get("type").getAsString());
+        assertArrayEquals(image, Base64.getDecoder().decode(imageObject.get("value").getAsString()));
+    }
+
+    @Test
+    public void encodesEveryLengthAroundPaddingAndChunkBoundaries() throws IOException {
+        int chunk = 3 * 1024 * 8;
+        int[] sizes = {0, 1, 2, 3, 4, 5, chunk - 1, chunk, chunk + 1, chunk + 2, 3 * chunk + 7};
+        for (int size : sizes) {
+            byte[] image = randomBytes(size);
+            JsonObject payload = writeAndParse(new StreamingImageRequestBody("k", image));
+            String value = payload.getAsJsonObject("inputs").getAsJsonObject("image").get("value").getAsString();
+
+            assertEquals("Ukuran " + size, Base64.getEncoder().encodeToString(image), value);
+        }
+    }
+
+    @Test
+    public void encodesOnlyTheRequestedSlice() throws IOException {
+        byte[] image = randomBytes(100);
+
+        JsonObject payload = writeAndParse(new StreamingImageRequestBody("k", image, 10, 50));
+        String value = payload.getAsJsonObject("inputs").getAsJsonObject("image").get("value").getAsString();
+
+        byte[] expected = new byte[50];
+        System.arraycopy(image, 10, expected, 0, 50);
+        assertArrayEquals(expected, Base64.getDecoder().decode(value));
+    }
+
+    @Test
+    public void escapesApiKeyAsJsonString() throws IOException {
+        JsonObject payload = writeAndParse(new StreamingImageRequestBody("a\"b\\c", new byte[3]));
+
+        assertEquals("a\"b\\c", payload.get("api_key").getAsString());
+    }
+
+    @Test
+    public void canBeWrittenMoreThanOnce() throws IOException {
+        StreamingImageRequestBody body = new StreamingImageRequestBody("k", randomBytes(5000));
+        Buffer first = new Buffer();
+        Buffer second = new Buffer();
+
+        body.writeTo(first);
+        body.writeTo(second);
+
+        assertEquals(first.readUtf8(), second.readUtf8());
+    }
+}
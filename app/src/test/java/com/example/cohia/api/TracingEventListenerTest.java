@@ -0,0 +1,92 @@
+package com.example.cohia.api;
+
+import com.example.cohia.LatencyTracer;
+import com.example.cohia.MonotonicClock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.*;
+
+public class TracingEventListenerTest {
+
+    private MockWebServer server;
+    private LatencyTracer tracer;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        tracer = new LatencyTracer(MonotonicClock.SYSTEM);
+        client = new OkHttpClient.Builder()
+                .eventListenerFactory(TracingEventListener.factory(tracer))
+                .build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private void post(byte[] body) throws IOException {
+        Request request = new Request.Builder()
+                .url(server.url("/infer"))
+                .post(RequestBody.create(body, MediaType.get("image/jpeg")))
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            assertTrue(response.isSuccessful());
+            response.body().string();
+        }
+    }
+
+    @Test
+    public void recordsUploadTtfbAndCall_andConnectOnlyForNewConnections() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"predictions\":[]}")
+                .setHeadersDelay(50, TimeUnit.MILLISECONDS));
+        server.enqueue(new MockResponse().setBody("{\"predictions\":[]}"));
+
+        post(new byte[64 * 1024]);
+        post(new byte[1024]);
+
+        assertEquals(2, tracer.snapshot(LatencyTracer.Stage.HTTP_CALL).count);
+        assertEquals(2, tracer.snapshot(LatencyTracer.Stage.REQUEST_BODY).count);
+        assertEquals(2, tracer.snapshot(LatencyTracer.Stage.TTFB).count);
+        // Panggilan kedua memakai ulang koneksi dari pool
+        assertEquals(1, tracer.snapshot(LatencyTracer.Stage.CONNECT).count);
+        // Server uji memakai HTTP biasa
+        assertEquals(0, tracer.snapshot(LatencyTracer.Stage.TLS).count);
+        // Jeda header 50 ms masuk ke TTFB, bukan ke upload
+        assertTrue(tracer.snapshot(LatencyTracer.Stage.TTFB).maxMillis >= 50);
+    }
+
+    @Test
+    public void failedCall_isStillRecorded() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        Request request = new Request.Builder().url("http://127.0.0.1:" + closedPort + "/infer").build();
+        try (Response ignored = client.newCall(request).execute()) {
+            fail("Tidak ada server di port " + closedPort);
+        } catch (IOException expected) {
+            // Koneksi ditolak
+        }
+        assertEquals(1, tracer.snapshot(LatencyTracer.Stage.HTTP_CALL).count);
+        assertEquals(0, tracer.snapshot(LatencyTracer.Stage.CONNECT).count);
+        assertEquals(0, tracer.snapshot(LatencyTracer.Stage.TTFB).count);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.cohia.api;
+
+import com.example.cohia.Benchmark;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Membandingkan isi dan jumlah byte setiap {@link UploadTransport} terhadap MockWebServer
+ * lokal sebagai pengganti endpoint inferensi. Perbandingan latensi hanya berjalan dengan
+ * -Pbenchmark ({@link Benchmark}).
+ */
+public class UploadTransportTest {
+
+    private static final String API_KEY = "kunci-uji";
+    private static final int IMAGE_SIZE = 200 * 1024;
+
+    private MockWebServer server;
+    private OkHttpClient client;
+    private byte[] jpeg;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        client = new OkHttpClient();
+        jpeg = new byte[IMAGE_SIZE];
+        new Random(42).nextBytes(jpeg);
+        // Penanda SOI JPEG agar body mirip file sungguhan
+        jpeg[0] = (byte) 0xFF;
+        jpeg[1] = (byte) 0xD8;
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private RecordedRequest send(UploadTransport transport) throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"predictions\":[]}"));
+        RoboflowAPI api = new RoboflowAPI(server.url("/infer").toString(), API_KEY, transport);
+
+        try (Response response = client.newCall(api.newDetectionRequest(jpeg)).execute()) {
+            assertTrue(response.isSuccessful());
+            response.body().string();
+        }
+        return server.takeRequest();
+    }
+
+    @Test
+    public void jsonBase64_sendsWorkflowPayload() throws Exception {
+        RecordedRequest request = send(UploadTransport.JSON_BASE64);
+
+        assertEquals("/infer", request.getPath());
+        assertTrue(request.getHeader("Content-Type").startsWith("application/json"));
+        assertTrue(request.getBody().readUtf8().startsWith("{\"api_key\":\"" + API_KEY + "\""));
+    }
+
+    @Test
+    public void multipart_sendsRawJpegPartAndKeyInQuery() throws Exception {
+        RecordedRequest request = send(UploadTransport.MULTIPART);
+
+        assertEquals(API_KEY, request.getRequestUrl().queryParameter("api_key"));
+        assertTrue(request.getHeader("Content-Type").startsWith("multipart/form-data"));
+        String body = request.getBody().readString(StandardCharsets.ISO_8859_1);
+        assertTrue(body.contains("name=\"file\"; filename=\"image.jpg\""));
+        assertTrue(body.contains("Content-Type: image/jpeg"));
+    }
+
+    @Test
+    public void rawBytes_sendsJpegBodyUnchanged() throws Exception {
+        RecordedRequest request = send(UploadTransport.RAW_BYTES);
+
+        assertEquals(API_KEY, request.getRequestUrl().queryParameter("api_key"));
+        assertEquals("image/jpeg", request.getHeader("Content-Type"));
+        assertArrayEquals(jpeg, request.getBody().readByteArray());
+    }
+
+    @Test
+    public void binaryTransports_avoidBase64Inflation() throws Exception {
+        long jsonBytes = send(UploadTransport.JSON_BASE64).getBodySize();
+        long multipartBytes = send(UploadTransport.MULTIPART).getBodySize();
+        long rawBytes = send(UploadTransport.RAW_BYTES).getBodySize();
+
+        assertEquals(IMAGE_SIZE, rawBytes);
+        assertTrue(multipartBytes < IMAGE_SIZE + 512);
+        assertTrue(jsonBytes > IMAGE_SIZE * 4 / 3);
+        assertTrue(multipartBytes < jsonBytes * 0.8);
+    }
+
+    @Test
+    public void benchmark_latencyPerTransport() throws Exception {
+        Benchmark.assumeEnabled();
+        StringBuilder summary = new StringBuilder();
+        for (UploadTransport transport : UploadTransport.values()) {
+            long bytes = send(transport).getBodySize();
+            double ms = Benchmark.millisPerRun(5, 30, () -> send(transport));
+            summary.append(String.format(Locale.US, ", %s %d B (%.2f ms)", transport, bytes, ms));
+        }
+        Benchmark.report("JPEG %d B -> %s", IMAGE_SIZE, summary.substring(2));
+    }
+}